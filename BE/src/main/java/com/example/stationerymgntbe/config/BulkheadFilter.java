@@ -0,0 +1,190 @@
+package com.example.stationerymgntbe.config;
+
+import com.example.stationerymgntbe.util.Bulkhead;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulkheads per request class so a few admins running heavy reports cannot take the Tomcat threads
+ * and Hikari connections that department users need to place orders:
+ * <ul>
+ *   <li>order-write – order creation / import / clone / draft / workflow changes</li>
+ *   <li>catalog-read – product, category and unit reads</li>
+ *   <li>admin-analytics – reports, dashboards, summaries, exports and the PDF archive</li>
+ * </ul>
+ * Each class has its own limit on concurrent requests and a short bounded queue; overflow gets 503
+ * with Retry-After. Other requests are not limited.
+ * Runs after Spring Security, so rejected-by-security requests never take a slot.
+ * <p>
+ * A queued request waits on its Tomcat thread, so the limits and queues of all classes together
+ * are kept well below {@code server.tomcat.threads.max} (72 of 200 by default); otherwise a burst
+ * of queued catalog reads could park the threads that order writes need.
+ * <p>
+ * With open-in-view off a request holds a database connection only inside its transactions, so a
+ * limit bounds connections only for classes that go to the database: order-write and
+ * admin-analytics share the primary pool (10 by default), and their defaults (6 + 2) leave two
+ * connections for logins, notifications and background jobs. Catalog reads are mostly answered from the
+ * in-memory catalog snapshot; their limit bounds Tomcat threads, not connections.
+ * The pool itself is not partitioned: these budgets are only checked with a warning at startup.
+ */
+@Slf4j
+@Component
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    public static final String ORDER_WRITE = "order-write";
+    public static final String CATALOG_READ = "catalog-read";
+    public static final String ADMIN_ANALYTICS = "admin-analytics";
+
+    private final Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+
+    public BulkheadFilter(@Value("${bulkhead.order-write.max-concurrent:6}") int orderConcurrent,
+                          @Value("${bulkhead.order-write.max-queue:10}") int orderQueue,
+                          @Value("${bulkhead.order-write.max-wait-ms:5000}") long orderWait,
+                          @Value("${bulkhead.catalog-read.max-concurrent:30}") int catalogConcurrent,
+                          @Value("${bulkhead.catalog-read.max-queue:20}") int catalogQueue,
+                          @Value("${bulkhead.catalog-read.max-wait-ms:1000}") long catalogWait,
+                          @Value("${bulkhead.admin-analytics.max-concurrent:2}") int analyticsConcurrent,
+                          @Value("${bulkhead.admin-analytics.max-queue:4}") int analyticsQueue,
+                          @Value("${bulkhead.admin-analytics.max-wait-ms:3000}") long analyticsWait,
+                          @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+                          @Value("${server.tomcat.threads.max:200}") int requestThreads) {
+        bulkheads.put(ORDER_WRITE, new Bulkhead(ORDER_WRITE, orderConcurrent, orderQueue, orderWait));
+        bulkheads.put(CATALOG_READ, new Bulkhead(CATALOG_READ, catalogConcurrent, catalogQueue, catalogWait));
+        bulkheads.put(ADMIN_ANALYTICS, new Bulkhead(ADMIN_ANALYTICS, analyticsConcurrent, analyticsQueue, analyticsWait));
+
+        // Running and queued bulkheaded requests all sit on Tomcat threads; leave most of them to everything else
+        int parked = orderConcurrent + orderQueue + catalogConcurrent + catalogQueue + analyticsConcurrent + analyticsQueue;
+        if (parked * 2 > requestThreads) {
+            log.warn("bulkheads can hold {} of the {} request threads (server.tomcat.threads.max) – lower their max-queue",
+                    parked, requestThreads);
+        }
+        // Both classes hold primary connections; together they must leave some of the pool to everyone else
+        if (orderConcurrent + analyticsConcurrent >= connectionPoolSize) {
+            log.warn("bulkhead order-write ({}) + admin-analytics ({}) can hold all {} database connections",
+                    orderConcurrent, analyticsConcurrent, connectionPoolSize);
+        }
+        // Analytics holds connections for long; it must leave most of the pool to orders
+        if (analyticsConcurrent * 2 > connectionPoolSize) {
+            log.warn("bulkhead.admin-analytics.max-concurrent={} may take more than half of the {} database connections",
+                    analyticsConcurrent, connectionPoolSize);
+        }
+    }
+
+    /** Request class of a call, or {@code null} when it is not bulkheaded */
+    static String classify(String method, String path) {
+        boolean read = "GET".equals(method) || "HEAD".equals(method);
+
+        if (path.startsWith("/api/reports") || path.startsWith("/api/dashboard") || path.startsWith("/api/summaries")
+                || path.equals("/api/orders/archive") || path.startsWith("/api/orders/statistics")
+                || path.startsWith("/api/orders/reports")
+                || (path.startsWith("/api/admin/") && (path.endsWith("/export") || path.startsWith("/api/admin/statistics")))) {
+            return ADMIN_ANALYTICS;
+        }
+        if (!read && (path.startsWith("/api/orders") || path.matches("/api/admin/orders/[^/]+/(approve|reject)"))) {
+            return ORDER_WRITE;
+        }
+        if (read && (path.startsWith("/api/products") || path.startsWith("/api/categories") || path.startsWith("/api/units"))) {
+            return CATALOG_READ;
+        }
+        return null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String cls = classify(request.getMethod(), path);
+        Bulkhead bulkhead = cls != null ? bulkheads.get(cls) : null;
+        if (bulkhead == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long admittedAt;
+        try {
+            admittedAt = bulkhead.tryEnter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admittedAt = -1;
+        }
+        if (admittedAt < 0) {
+            reject(response, cls);
+            return;
+        }
+
+        long admitted = admittedAt;
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) bulkhead.release(admitted);
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // streamed exports / archives keep their slot until the response is complete
+                request.getAsyncContext().addListener(new ReleaseOnComplete(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    /** Async re-dispatches were already admitted by the original request */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        bulkheads.forEach((name, b) -> m.put(name, b.stats()));
+        return m;
+    }
+
+    /* ────────── internals ────────── */
+
+    private static void reject(HttpServletResponse response, String cls) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"success\":false,\"message\":\"Server busy (" + cls + "), please retry\"}");
+    }
+
+    private record ReleaseOnComplete(Runnable release) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
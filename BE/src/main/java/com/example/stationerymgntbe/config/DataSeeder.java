@@ -2,18 +2,22 @@ package com.example.stationerymgntbe.config;
 
 import com.example.stationerymgntbe.entity.*;
 import com.example.stationerymgntbe.repository.*;
-import jakarta.transaction.Transactional;
+import com.example.stationerymgntbe.service.CatalogImportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.text.Normalizer;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Profile("dev")
 @Configuration
@@ -24,6 +28,13 @@ public class DataSeeder {
     private final ProductRepository productRepo;
     private final UnitRepository unitRepo;
     private final CategoryRepository categoryRepo;
+    private final CatalogImportService catalogImport;
+
+    private static final String WORKBOOK = "/VPPham.xlsx";
+
+    /** Bump when PRESET / UNITS change so the next boot re-seeds even if the workbook did not */
+    private static final int SEED_VERSION = 1;
+    private static final String SOURCE = "seed:VPPham.xlsx:v" + SEED_VERSION;
 
     /* ────────── Category definitions ────��───── */
     private static final List<Category> PRESET = List.of(
@@ -43,163 +54,93 @@ public class DataSeeder {
             new Category(null, "Dụng cụ đo & Thước", "Rulers & Measuring", "RULER", null),
             new Category(null, "Khác", "Miscellaneous", "MISC", null));
 
-    /* ────────── Keyword mapping ────────── */
-    private static final Map<String, String> KW = Map.ofEntries(
-            Map.entry("băng keo", "ADHESIVE"), Map.entry("keo ", "ADHESIVE"), Map.entry("stick-tack", "ADHESIVE"),
-            Map.entry("bao thư", "ENVELOPE"),
-            Map.entry("bìa", "FILE"), Map.entry("file", "FILE"), Map.entry("folder", "FILE"), Map.entry("mika", "FILE"),
-            Map.entry("bút bi", "PEN"), Map.entry(" pen ", "PEN"), Map.entry("bút bảng", "WHITEBOARD"),
-            Map.entry("bút chì", "PENCIL"), Map.entry("ruột chì", "PENCIL"),
-            Map.entry("dạ quang", "HIGHLIGHTER"), Map.entry("marker", "HIGHLIGHTER"), Map.entry("lông dầu", "HIGHLIGHTER"),
-            Map.entry("gôm", "CORRECTION"), Map.entry("xóa", "CORRECTION"), Map.entry("eraser", "CORRECTION"),
-            Map.entry("dao ", "CUTTING"), Map.entry("kéo ", "CUTTING"), Map.entry("đục lỗ", "CUTTING"),
-            Map.entry("kẹp ", "CLIP"), Map.entry("ghim", "CLIP"), Map.entry("kim bấm", "CLIP"),
-            Map.entry("bấm", "CLIP"), Map.entry("gỡ kim", "CLIP"),
-            Map.entry("giấy ghi chú", "STICKY_NOTE"), Map.entry("tem dán", "STICKY_NOTE"), Map.entry("decal", "STICKY_NOTE"),
-            Map.entry("sổ ", "NOTEBOOK"), Map.entry("tập ", "NOTEBOOK"), Map.entry("notebook", "NOTEBOOK"), Map.entry("workbook", "NOTEBOOK"),
-            Map.entry("70gsm", "PRINT_PAPER"), Map.entry("80gms", "PRINT_PAPER"), Map.entry("giấy in", "PRINT_PAPER"), Map.entry("tiêu đề", "PRINT_PAPER"),
-            Map.entry("thước", "RULER"));
-
-    /* ────────── Unit aliases ────────── */
-    private static final Map<String, String> UNIT_ALIAS = Map.ofEntries(
-            Map.entry("cục", "cái"),
-            Map.entry("viên/vĩ", "vĩ"), Map.entry("viên", "vĩ"),
-            Map.entry("vĩ", "vĩ"),
-            Map.entry("bịch", "bịch"));
-
-    /* ────────── Helper methods ────────── */
-    private static String nfc(String s) {
-        return Normalizer.normalize(
-                s.replace('\u00A0', ' ')
-                        .replaceAll("[\\t\\r\\n]", "")
-                        .trim().toLowerCase(),
-                Normalizer.Form.NFC);
-    }
-
-    private static String cell(Row r, int i) {
-        Cell c = r.getCell(i, Row.MissingCellPolicy.CREATE_NULL_AS_BLANK);
-        if (c.getCellType() != CellType.STRING) {
-            DataFormatter formatter = new DataFormatter();
-            return formatter.formatCellValue(c).trim();
-        }
-        return c.getStringCellValue().trim();
-    }
-
-    private String group(String vi) {
-        String k = nfc(vi);
-        return KW.entrySet().stream()
-                .filter(e -> k.contains(e.getKey()))
-                .map(Map.Entry::getValue)
-                .findFirst().orElse("MISC");
-    }
-
-    /* ────────── Main seeder (simplified) ────────── */
+    /* ────────── Unit definitions ────────── */
+    private static final Map<String, String> UNITS = Map.ofEntries(
+            Map.entry("cây", "piece"), Map.entry("cuộn", "roll"),
+            Map.entry("xấp", "pack"), Map.entry("hộp", "box"),
+            Map.entry("cái", "item"), Map.entry("bộ", "set"),
+            Map.entry("chai", "bottle"), Map.entry("bao", "bag"),
+            Map.entry("ream", "ream"), Map.entry("vĩ", "card"),
+            Map.entry("cặp", "pair"), Map.entry("ống", "tube"),
+            Map.entry("cục", "block"), Map.entry("cuốn", "book"),
+            Map.entry("bịch", "bag"));
+
+    /* ────────── Main seeder ────────── */
     @Bean
-    @Transactional
     CommandLineRunner seedData() {
         return args -> {
-            log.info("🚀 Starting data seeding...");
-
-            /* Step 1: Setup categories */
-            PRESET.forEach(c -> categoryRepo.findByCodeIgnoreCase(c.getCode())
-                    .orElseGet(() -> categoryRepo.save(c)));
-
-            /* Step 2: Setup units */
-            Map<String, String> UNITS = Map.ofEntries(
-                    Map.entry("cây", "piece"), Map.entry("cuộn", "roll"),
-                    Map.entry("xấp", "pack"), Map.entry("hộp", "box"),
-                    Map.entry("cái", "item"), Map.entry("bộ", "set"),
-                    Map.entry("chai", "bottle"), Map.entry("bao", "bag"),
-                    Map.entry("ream", "ream"), Map.entry("vĩ", "card"),
-                    Map.entry("cặp", "pair"), Map.entry("ống", "tube"),
-                    Map.entry("cục", "block"), Map.entry("cuốn", "book"),
-                    Map.entry("bịch", "bag"));
-
-            UNITS.forEach((vn, en) -> {
-                String vnN = Normalizer.normalize(vn, Normalizer.Form.NFC);
-                unitRepo.findByNameVnIgnoreCase(vnN)
-                        .or(() -> unitRepo.findByNameEnIgnoreCase(en))
-                        .orElseGet(() -> unitRepo.save(new Unit(null, vnN, en)));
-            });
-
-            /* Step 3: Process Excel data */
-            try (Workbook wb = WorkbookFactory.create(
-                    Objects.requireNonNull(getClass().getResourceAsStream("/VPPham.xlsx")))) {
-
-                Sheet sh = wb.getSheetAt(0);
-                boolean header = true;
-                AtomicInteger ins = new AtomicInteger();
-                AtomicInteger upd = new AtomicInteger();
+            Path workbook = null;
+            try {
+                workbook = Files.createTempFile("vppham-", ".xlsx");
+                try (InputStream in = Objects.requireNonNull(getClass().getResourceAsStream(WORKBOOK))) {
+                    Files.copy(in, workbook, StandardCopyOption.REPLACE_EXISTING);
+                }
 
-                log.info("📊 Processing Excel data...");
+                /* Step 0: nothing to do if this exact workbook was already applied */
+                String checksum = CatalogImportService.checksum(workbook);
+                if (catalogImport.isApplied(SOURCE, checksum) && productRepo.count() > 0) {
+                    log.info("✅ {} unchanged since the last seed ({}), skipping", WORKBOOK, checksum.substring(0, 12));
+                    return;
+                }
 
-                for (Row r : sh) {
-                    if (header) {
-                        header = false;
-                        continue;
+                log.info("🚀 Starting data seeding...");
+
+                /* Step 1: Setup categories */
+                Set<String> categoryCodes = categoryRepo.findAll().stream()
+                        .map(c -> c.getCode().toUpperCase())
+                        .collect(Collectors.toSet());
+                categoryRepo.saveAll(PRESET.stream()
+                        .filter(c -> !categoryCodes.contains(c.getCode().toUpperCase()))
+                        .toList());
+
+                /* Step 2: Setup units */
+                List<Unit> units = unitRepo.findAll();
+                Set<String> unitNamesVn = units.stream().map(u -> nfc(u.getNameVn())).collect(Collectors.toSet());
+                Set<String> unitNamesEn = units.stream().map(u -> nfc(u.getNameEn())).collect(Collectors.toSet());
+                List<Unit> missingUnits = new ArrayList<>();
+                UNITS.forEach((vn, en) -> {
+                    String vnN = Normalizer.normalize(vn, Normalizer.Form.NFC);
+                    // record both names (no short-circuit); both columns are unique, so insert only if neither is taken
+                    boolean newVn = unitNamesVn.add(nfc(vnN));
+                    boolean newEn = unitNamesEn.add(nfc(en));
+                    if (newVn && newEn) {
+                        missingUnits.add(new Unit(null, vnN, en));
                     }
+                });
+                unitRepo.saveAll(missingUnits);
 
-                    String code = cell(r, 1);
-                    if (code.isBlank()) continue;
-
-                    String nameVi = cell(r, 2);
-                    if (nameVi.isBlank()) continue;
-
-                    /* Process unit */
-                    String raw = nfc(cell(r, 4))
-                            .replaceFirst("^\\d+\\s*", "")
-                            .replaceFirst("^\\d+/\\d+\\s*", "");
-                    final String unitKey = UNIT_ALIAS.getOrDefault(raw, raw);
-
-                    Unit unit = unitRepo.findByNameVnIgnoreCase(unitKey)
-                            .orElseGet(() -> unitRepo.save(new Unit(null, unitKey, unitKey)));
-
-                    Category cat = categoryRepo.findByCodeIgnoreCase(group(nameVi)).orElseThrow();
-
-                    /* Update or insert product */
-                    productRepo.findByCode(code).ifPresentOrElse(p -> {
-                        boolean changed = false;
-                        
-                        if (!Objects.equals(p.getName(), nameVi)) {
-                            p.setName(nameVi);
-                            changed = true;
-                        }
-                        
-                        if (!p.getUnit().equals(unit)) {
-                            p.setUnit(unit);
-                            changed = true;
-                        }
-                        
-                        if (!p.getCategory().equals(cat)) {
-                            p.setCategory(cat);
-                            changed = true;
-                        }
-                        
-                        if (changed) {
-                            productRepo.save(p);
-                            upd.incrementAndGet();
-                        }
-                    }, () -> {
-                        Product newProduct = Product.builder()
-                                .code(code)
-                                .name(nameVi)  // Store Vietnamese name only
-                                .image(null)
-                                .unit(unit)
-                                .category(cat)
-                                .build();
-                        productRepo.save(newProduct);
-                        ins.incrementAndGet();
-                    });
-                }
+                /* Step 3: Stream the workbook, upsert what changed */
+                log.info("📊 Processing Excel data...");
+                CatalogImportService.Result r = catalogImport.apply(
+                        workbook, CatalogImportService.SEED_LAYOUT, SOURCE, checksum, CatalogImportService.Options.SEED);
 
                 log.info("✅ Data seeding completed:");
-                log.info("   📝 Inserted: {} products", ins.get());
-                log.info("   🔄 Updated: {} products", upd.get());
+                log.info("   📝 Inserted: {} products", r.inserted());
+                log.info("   🔄 Updated: {} products", r.updated());
+                if (r.errorCount() > 0) {
+                    log.warn("   ⚠️ Rows not applied: {} (first: {})", r.errorCount(), r.errors().get(0));
+                }
                 log.info("   💡 Translation available via /api/products/translate endpoint");
 
             } catch (Exception e) {
                 log.error("❌ Error during seeding: {}", e.getMessage(), e);
+            } finally {
+                deleteQuietly(workbook);
             }
         };
     }
-}
\ No newline at end of file
+
+    /* ────────── Helper methods ────────── */
+    private static String nfc(String s) {
+        return Normalizer.normalize(s.trim().toLowerCase(), Normalizer.Form.NFC);
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file);
+        }
+    }
+}
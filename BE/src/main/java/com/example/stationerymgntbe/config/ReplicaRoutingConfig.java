@@ -0,0 +1,79 @@
+package com.example.stationerymgntbe.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Read replica routing, active only when {@code spring.datasource.replica.url} is set.
+ * Read-only transactions (report / dashboard services, Spring Data read methods) use the replica pool,
+ * everything else the primary. Without a replica URL Boot's single datasource is used unchanged.
+ */
+@Configuration
+@ConditionalOnExpression("!'${spring.datasource.replica.url:}'.isBlank()")
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+
+    @Value("${spring.datasource.replica.sticky-ms:5000}")
+    private long stickyMillis;
+
+    /** Primary pool: the regular spring.datasource.* / spring.datasource.hikari.* settings */
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primary");
+        return ds;
+    }
+
+    /** Replica pool: spring.datasource.replica.*; credentials default to the primary's */
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                       @Value("${spring.datasource.replica.url}") String url,
+                                       @Value("${spring.datasource.replica.username:}") String username,
+                                       @Value("${spring.datasource.replica.password:}") String password) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setPoolName("replica");
+        ds.setDriverClassName(properties.determineDriverClassName());
+        ds.setJdbcUrl(url);
+        ds.setUsername(username.isBlank() ? properties.determineUsername() : username);
+        ds.setPassword(password.isBlank() ? properties.determinePassword() : password);
+        ds.setReadOnly(true);
+        return ds;
+    }
+
+    @Bean
+    ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                      @Qualifier("replicaDataSource") DataSource replica) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Route.PRIMARY, primary,
+                ReplicaRoutingDataSource.Route.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        return routing;
+    }
+
+    /** The datasource JPA sees: the physical connection is only taken on first use, when the read-only flag is set */
+    @Bean
+    @Primary
+    DataSource dataSource(ReplicaRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReplicaStickinessInterceptor(stickyMillis));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.stationerymgntbe.config;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends connections of read-only transactions to the replica pool and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy so the connection is chosen after the transaction's
+ * read-only flag is known.
+ * <p>
+ * Within a request, once a read-write transaction has taken a connection, later read-only work of the
+ * same request stays on the primary; {@link ReplicaStickinessInterceptor} extends that to the user's
+ * next requests for a short window so they read their own writes despite replication lag.
+ * <p>
+ * Rows read from the replica may lag the primary, so a session routed there only reads the shared
+ * second-level cache ({@link CacheMode#GET}) and never puts into it; otherwise a stale unit, category
+ * or department could be cached for the whole region TTL.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    /** Per-request routing state; {@code null} outside HTTP requests (schedulers, startup) */
+    static final class RequestState {
+        boolean pinnedToPrimary;
+        boolean wrote;
+    }
+
+    private static final ThreadLocal<RequestState> REQUEST = new ThreadLocal<>();
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder pinnedReads = new LongAdder();
+    private final LongAdder cacheReadOnlySessions = new LongAdder();
+
+    static RequestState beginRequest(boolean pinnedToPrimary) {
+        RequestState state = new RequestState();
+        state.pinnedToPrimary = pinnedToPrimary;
+        REQUEST.set(state);
+        return state;
+    }
+
+    static RequestState currentRequest() {
+        return REQUEST.get();
+    }
+
+    static void endRequest() {
+        REQUEST.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        RequestState state = REQUEST.get();
+        boolean readOnly = TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+
+        if (readOnly) {
+            if (state != null && (state.pinnedToPrimary || state.wrote)) {
+                pinnedReads.increment();
+                primaryConnections.increment();
+                return Route.PRIMARY;
+            }
+            replicaConnections.increment();
+            readSecondLevelCacheOnly();
+            return Route.REPLICA;
+        }
+
+        if (state != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+            state.wrote = true;      // conservative: any read-write transaction counts as a write
+        }
+        primaryConnections.increment();
+        return Route.PRIMARY;
+    }
+
+    /* the transaction's EntityManager is bound before its first statement takes the physical connection */
+    private void readSecondLevelCacheOnly() {
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder holder) {
+                holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+                cacheReadOnlySessions.increment();
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("primaryConnections", primaryConnections.sum());
+        m.put("replicaConnections", replicaConnections.sum());
+        m.put("readOnlyPinnedToPrimary", pinnedReads.sum());
+        m.put("replicaSessionsWithoutCachePuts", cacheReadOnlySessions.sum());
+        return m;
+    }
+}
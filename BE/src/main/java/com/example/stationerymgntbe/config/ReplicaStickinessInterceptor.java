@@ -0,0 +1,63 @@
+package com.example.stationerymgntbe.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-your-writes for the replica routing: a user who wrote recently reads from the primary
+ * for {@code stickyMillis}, long enough to cover replication lag.
+ */
+public class ReplicaStickinessInterceptor implements AsyncHandlerInterceptor {
+
+    private static final int PURGE_THRESHOLD = 1000;
+
+    private final long stickyMillis;
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+
+    public ReplicaStickinessInterceptor(long stickyMillis) {
+        this.stickyMillis = stickyMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String user = currentUser();
+        Long lastWrite = user != null ? lastWriteByUser.get(user) : null;
+        boolean pinned = lastWrite != null && System.currentTimeMillis() - lastWrite < stickyMillis;
+        ReplicaRoutingDataSource.beginRequest(pinned);
+        return true;
+    }
+
+    /** Async handlers finish on another thread; do not leave the state on this pooled one */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReplicaRoutingDataSource.endRequest();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        try {
+            ReplicaRoutingDataSource.RequestState state = ReplicaRoutingDataSource.currentRequest();
+            String user = currentUser();
+            if (state != null && state.wrote && user != null) {
+                long now = System.currentTimeMillis();
+                lastWriteByUser.put(user, now);
+                if (lastWriteByUser.size() > PURGE_THRESHOLD) {
+                    lastWriteByUser.values().removeIf(t -> now - t >= stickyMillis);
+                }
+            }
+        } finally {
+            ReplicaRoutingDataSource.endRequest();
+        }
+    }
+
+    private static String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.isAuthenticated() && !"anonymousUser".equals(auth.getName()) ? auth.getName() : null;
+    }
+}
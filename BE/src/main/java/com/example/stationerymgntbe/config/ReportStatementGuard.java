@@ -0,0 +1,18 @@
+package com.example.stationerymgntbe.config;
+
+import com.example.stationerymgntbe.service.ReportCancellationService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate hook run before every SQL statement: once a report request has been cancelled
+ * (deadline or client disconnect) its remaining queries fail fast instead of reaching the database.
+ * Registered via {@code hibernate.session_factory.statement_inspector}.
+ */
+public class ReportStatementGuard implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        ReportCancellationService.checkpoint();
+        return sql;
+    }
+}
@@ -18,6 +18,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import com.example.stationerymgntbe.repository.UserRepository;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import com.example.stationerymgntbe.entity.User;
 import org.springframework.web.cors.CorsConfiguration;
@@ -42,6 +43,8 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource())) 
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(requests -> requests
+                        // Async result dispatch (report queries, streamed exports): the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Public endpoints (no authentication required)
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/ws/**").permitAll()
@@ -56,6 +59,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/categories/{id}").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/products").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/products/all").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/products/suggest").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/products/{id}").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/products/category/{categoryId}").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/products/top-ordered").permitAll()
@@ -83,6 +87,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/api/orders/order-window/toggle").hasAuthority("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/orders/pending").hasAuthority("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/orders/submitted").hasAuthority("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/orders/archive").hasAuthority("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/orders/{id}/approve").hasAuthority("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/orders/{id}/reject").hasAuthority("ADMIN")
                         .requestMatchers("/api/notifications/announce").hasAuthority("ADMIN")
@@ -91,6 +96,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/users/me").hasAnyAuthority("ADMIN", "USER")
                         .requestMatchers("/api/orders/mine").authenticated()
                         .requestMatchers(HttpMethod.POST, "/api/orders").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/api/orders/{id}/clone").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/api/orders/import").authenticated()
+                        .requestMatchers("/api/orders/draft", "/api/orders/draft/finalize").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/orders/{id}").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/orders/{id}/items").authenticated()
                         .requestMatchers(HttpMethod.POST, "/api/orders/{id}/export").authenticated()
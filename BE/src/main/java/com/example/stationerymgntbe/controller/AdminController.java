@@ -1,19 +1,34 @@
 package com.example.stationerymgntbe.controller;
 
+import com.example.stationerymgntbe.config.BulkheadFilter;
+import com.example.stationerymgntbe.config.ReplicaRoutingDataSource;
 import com.example.stationerymgntbe.dto.*;
+import com.example.stationerymgntbe.enums.OrderStatus;
+import com.example.stationerymgntbe.service.CacheStatsService;
+import com.example.stationerymgntbe.service.DemandProfileService;
+import com.example.stationerymgntbe.service.ExportStreamService;
 import com.example.stationerymgntbe.service.OrderService;
+import com.example.stationerymgntbe.service.ProductNameEnService;
+import com.example.stationerymgntbe.service.ReportCancellationService;
 import com.example.stationerymgntbe.service.UserService;
+import com.example.stationerymgntbe.util.RowStreamWriter.Column;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Admin Controller for basic admin operations
@@ -28,6 +43,32 @@ public class AdminController {
 
     private final UserService userService;
     private final OrderService orderService;
+    private final DemandProfileService demandProfileService;
+    private final ExportStreamService exports;
+    private final ProductNameEnService productNameEnService;
+    private final CacheStatsService cacheStatsService;
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRouting;
+    private final BulkheadFilter bulkheadFilter;
+    private final ReportCancellationService reportCancellation;
+
+    private static final List<Column<UserSummaryDTO>> USER_COLUMNS = List.of(
+            new Column<>("id", UserSummaryDTO::getId),
+            new Column<>("username", UserSummaryDTO::getUsername),
+            new Column<>("email", UserSummaryDTO::getEmail),
+            new Column<>("active", UserSummaryDTO::isActive),
+            new Column<>("department", UserSummaryDTO::getDepartmentName),
+            new Column<>("role", UserSummaryDTO::getRoleName));
+
+    private static final List<Column<OrderSummaryDTO>> ORDER_COLUMNS = List.of(
+            new Column<>("orderId", OrderSummaryDTO::getOrderId),
+            new Column<>("orderNumber", OrderSummaryDTO::getOrderNumber),
+            new Column<>("department", OrderSummaryDTO::getDepartmentName),
+            new Column<>("createdBy", OrderSummaryDTO::getCreatedBy),
+            new Column<>("status", OrderSummaryDTO::getStatus),
+            new Column<>("itemCount", OrderSummaryDTO::getItemCount),
+            new Column<>("adminComment", OrderSummaryDTO::getAdminComment),
+            new Column<>("createdAt", OrderSummaryDTO::getCreatedAt),
+            new Column<>("updatedAt", OrderSummaryDTO::getUpdatedAt));
 
     // ============================================================================
     // USER MANAGEMENT
@@ -44,6 +85,17 @@ public class AdminController {
         }
     }
 
+    /** All users as NDJSON (default) or CSV, streamed from a database cursor */
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(required = false) String format) {
+        try {
+            return exports.fromCursor("users", ExportStreamService.Format.of(format), USER_COLUMNS,
+                    userService::streamUserSummaries);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/users/{id}")
     public ResponseEntity<UserDetailDTO> getUserById(@PathVariable Integer id) {
         try {
@@ -112,6 +164,29 @@ public class AdminController {
         }
     }
 
+    /**
+     * Admin order list as NDJSON (default) or CSV, newest first, streamed from a database cursor.
+     * {@code status} is a comma-separated list (e.g. {@code pending,submitted}); all statuses when omitted.
+     */
+    @GetMapping("/orders/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(required = false) String status,
+                                                              @RequestParam(required = false) String format) {
+        try {
+            Set<OrderStatus> statuses = EnumSet.noneOf(OrderStatus.class);
+            if (status != null) {
+                for (String s : status.split(",")) {
+                    if (!s.isBlank()) statuses.add(OrderStatus.valueOf(s.trim().toLowerCase(Locale.ROOT)));
+                }
+            }
+            if (statuses.isEmpty()) statuses = EnumSet.allOf(OrderStatus.class);
+            Set<OrderStatus> selected = statuses;
+            return exports.fromCursor("orders", ExportStreamService.Format.of(format), ORDER_COLUMNS,
+                    () -> orderService.streamOrderSummaries(selected));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // ============================================================================
     // ORDER WINDOW MANAGEMENT
     // ============================================================================
@@ -164,6 +239,63 @@ public class AdminController {
         }
     }
 
+    /** Recompute department demand profiles now instead of waiting for the nightly job */
+    @PostMapping("/demand-profiles/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildDemandProfiles() {
+        try {
+            return ResponseEntity.ok(demandProfileService.rebuild());
+        } catch (Exception e) {
+            log.error("Error rebuilding demand profiles", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /** Per-region hit / miss / put counts of the Hibernate second-level and query caches */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        try {
+            return ResponseEntity.ok(cacheStatsService.secondLevelCacheStats());
+        } catch (Exception e) {
+            log.error("Error fetching cache statistics", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /** Connections handed out per pool by the read-replica routing ({@code enabled=false} without a replica) */
+    @GetMapping("/datasource/stats")
+    public ResponseEntity<Map<String, Object>> getDataSourceStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        ReplicaRoutingDataSource routing = replicaRouting.getIfAvailable();
+        result.put("replicaEnabled", routing != null);
+        if (routing != null) result.putAll(routing.stats());
+        return ResponseEntity.ok(result);
+    }
+
+    /** Per-class bulkhead counters: active / waiting / rejected requests, queue wait and time inside */
+    @GetMapping("/bulkheads")
+    public ResponseEntity<Map<String, Object>> getBulkheadStats() {
+        return ResponseEntity.ok(bulkheadFilter.stats());
+    }
+
+    /** Report queries: completed vs cancelled (deadline, client disconnect, statement timeout) per endpoint */
+    @GetMapping("/reports/cancellations")
+    public ResponseEntity<Map<String, Object>> getReportCancellationStats() {
+        return ResponseEntity.ok(reportCancellation.stats());
+    }
+
+    /** Translate products that still have no English name now instead of waiting for the background job */
+    @PostMapping("/products/name-en/backfill")
+    public ResponseEntity<Map<String, Object>> backfillProductNameEn() {
+        try {
+            Map<String, Object> result = new LinkedHashMap<>(productNameEnService.backfill());
+            result.put("remaining", productNameEnService.pending());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            log.error("Error backfilling product English names", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     // ============================================================================
     // ORDER ACTIONS
     // ============================================================================
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.List;
 
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,7 +18,11 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.example.stationerymgntbe.dto.CategoryDTO;
+import com.example.stationerymgntbe.service.CatalogSnapshotService;
 import com.example.stationerymgntbe.service.CategoryService;
+import com.example.stationerymgntbe.service.HttpCacheService;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import lombok.RequiredArgsConstructor;
 
@@ -27,9 +32,13 @@ import lombok.RequiredArgsConstructor;
 public class CategoryController {
 
     private final CategoryService srv;
+    private final CatalogSnapshotService catalog;
+    private final HttpCacheService httpCache;
 
     @GetMapping 
-    public List<CategoryDTO> list(){ return srv.all(); }
+    public ResponseEntity<List<CategoryDTO>> list(HttpServletRequest request){
+        return httpCache.conditional("categories", request, catalog.current().categoriesEtag(), srv::all);
+    }
 
     @GetMapping("/{id}")
     public CategoryDTO getById(@PathVariable Integer id) {
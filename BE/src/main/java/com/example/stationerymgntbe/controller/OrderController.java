@@ -1,8 +1,14 @@
 package com.example.stationerymgntbe.controller;
 
 import com.example.stationerymgntbe.dto.*;
+import com.example.stationerymgntbe.entity.User;
+import com.example.stationerymgntbe.service.DemandProfileService;
+import com.example.stationerymgntbe.service.HttpCacheService;
+import com.example.stationerymgntbe.service.OrderArchiveService;
+import com.example.stationerymgntbe.service.OrderDraftService;
 import com.example.stationerymgntbe.service.OrderService;
 import com.example.stationerymgntbe.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.ByteArrayResource;
@@ -13,6 +19,7 @@ import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -24,7 +31,11 @@ import java.util.Map;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderArchiveService orderArchiveService;
     private final UserService userService;
+    private final HttpCacheService httpCache;
+    private final DemandProfileService demandProfileService;
+    private final OrderDraftService orderDraftService;
 
     // ============================================================================
     // ORDER CREATION AND MANAGEMENT
@@ -39,6 +50,74 @@ public class OrderController {
         return ResponseEntity.status(status).body(response);
     }
 
+    /** Repeat an earlier order of the department (lines copied server-side) */
+    @PostMapping("/{id}/clone")
+    public ResponseEntity<ApiResponse<OrderDetailDTO>> cloneOrder(@PathVariable Integer id) {
+        ApiResponse<OrderDetailDTO> response = orderService.cloneOrder(id);
+
+        HttpStatus status = response.isSuccess() ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    /** Create an order from an .xlsx / CSV sheet with "Mã" and "Số lượng" columns */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<OrderDetailDTO>> importOrder(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(defaultValue = "false") boolean partial) {
+
+        log.info("Importing order sheet: {} (partial={})", file.getOriginalFilename(), partial);
+        ApiResponse<OrderDetailDTO> response = orderService.importOrder(file, partial);
+
+        HttpStatus status = response.isSuccess() ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    /* ─────────── Draft order (server-side cart) ─────────── */
+
+    @GetMapping("/draft")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getDraft() {
+        ApiResponse<Map<String, Object>> response = orderDraftService.getDraft();
+
+        HttpStatus status = response.isSuccess() ? HttpStatus.OK : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    /** Body: [{"op":"add|set|remove","productId":12,"quantity":3}, ...] – applied in order, all or nothing */
+    @PatchMapping("/draft")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> patchDraft(@RequestBody List<DraftOperationDTO> ops) {
+        ApiResponse<Map<String, Object>> response = orderDraftService.patchDraft(ops);
+
+        HttpStatus status = response.isSuccess() ? HttpStatus.OK : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @DeleteMapping("/draft")
+    public ResponseEntity<ApiResponse<Void>> discardDraft() {
+        ApiResponse<Void> response = orderDraftService.discardDraft();
+
+        HttpStatus status = response.isSuccess() ? HttpStatus.OK : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @PostMapping("/draft/finalize")
+    public ResponseEntity<ApiResponse<OrderDetailDTO>> finalizeDraft() {
+        ApiResponse<OrderDetailDTO> response = orderService.finalizeDraft();
+
+        HttpStatus status = response.isSuccess() ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    /** Suggested cart for the caller's department, from the nightly demand profiles */
+    @GetMapping("/prefill")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getPrefill() {
+        User user = userService.getCurrentUserEntity();
+        if (user.getDepartment() == null) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("User is not assigned to a department"));
+        }
+        Map<String, Object> prefill = demandProfileService.prefill(user.getDepartment().getDepartmentId());
+        return ResponseEntity.ok(ApiResponse.success("Prefill suggestions retrieved", prefill));
+    }
+
     @GetMapping("/mine")
     public ResponseEntity<ApiResponse<Page<OrderSummaryDTO>>> getMyOrders(
             @PageableDefault(size = 20) Pageable pageable) {
@@ -51,12 +130,23 @@ public class OrderController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<OrderDetailDTO>> getOrderDetails(@PathVariable Integer id) {
+    public ResponseEntity<ApiResponse<OrderDetailDTO>> getOrderDetails(@PathVariable Integer id,
+                                                                       HttpServletRequest request) {
+        // Unchanged since the client's copy → 304 before loading or mapping the order
+        String etag = orderService.getOrderEtag(id);
+        if (httpCache.isNotModified("orders/{id}", request, etag)) {
+            return httpCache.notModified(etag);
+        }
+
         log.info("Retrieving order details for order: {}", id);
         ApiResponse<OrderDetailDTO> response = orderService.getOrderDetails(id);
         
         HttpStatus status = response.isSuccess() ? HttpStatus.OK : HttpStatus.NOT_FOUND;
-        return ResponseEntity.status(status).body(response);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+        if (response.isSuccess() && etag != null) {
+            builder.eTag(etag).cacheControl(HttpCacheService.REVALIDATE);
+        }
+        return builder.body(response);
     }
 
     @GetMapping("/{id}/items")
@@ -187,6 +277,30 @@ public class OrderController {
         }
     }
 
+    /**
+     * All order PDFs of a month (optionally one department) as a streamed ZIP.
+     * Signed uploads are included as-is, other orders are rendered on the fly.
+     */
+    @GetMapping("/archive")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> downloadOrderArchive(
+            @RequestParam int year,
+            @RequestParam int month,
+            @RequestParam(required = false) Integer departmentId) {
+
+        log.info("Streaming order archive for {}/{} department: {}", month, year, departmentId);
+        String fileName = departmentId != null
+            ? "orders-%d-%02d-dept-%d.zip".formatted(year, month, departmentId)
+            : "orders-%d-%02d.zip".formatted(year, month);
+
+        StreamingResponseBody body = out -> orderArchiveService.writeMonthlyArchive(year, month, departmentId, out);
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/zip"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+            .body(body);
+    }
+
     // ============================================================================
     // ORDER WINDOW MANAGEMENT
     // ============================================================================
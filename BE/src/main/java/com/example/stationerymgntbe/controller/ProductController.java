@@ -1,18 +1,28 @@
 package com.example.stationerymgntbe.controller;
 
+import com.example.stationerymgntbe.dto.ApiResponse;
 import com.example.stationerymgntbe.dto.ProductDTO;
 import com.example.stationerymgntbe.dto.ProductStatsDTO;
+import com.example.stationerymgntbe.service.CatalogSnapshotService;
+import com.example.stationerymgntbe.service.ExportStreamService;
+import com.example.stationerymgntbe.service.ProductCompanionService;
+import com.example.stationerymgntbe.service.HttpCacheService;
 import com.example.stationerymgntbe.service.ProductService;
+import com.example.stationerymgntbe.service.ProductSuggestService;
 import com.example.stationerymgntbe.service.TranslationService;
+import com.example.stationerymgntbe.util.RowStreamWriter.Column;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -25,13 +35,39 @@ public class ProductController {
 
     private final ProductService svc;
     private final TranslationService translationService;
+    private final CatalogSnapshotService catalog;
+    private final HttpCacheService httpCache;
+    private final ProductSuggestService suggestService;
+    private final ProductCompanionService companionService;
+    private final ExportStreamService exports;
+
+    private static final List<Column<ProductDTO>> PRODUCT_COLUMNS = List.of(
+            new Column<>("id", ProductDTO::getId),
+            new Column<>("code", ProductDTO::getCode),
+            new Column<>("name", ProductDTO::getName),
+            new Column<>("nameEn", ProductDTO::getNameEn),
+            new Column<>("unit", ProductDTO::getUnit),
+            new Column<>("categoryId", ProductDTO::getCategoryId),
+            new Column<>("category", ProductDTO::getCategoryName),
+            new Column<>("image", ProductDTO::getImage));
 
     /* ─────────── LIST ─────────── */
 
-    /** Simplest list for the shop UI */
+    /** Simplest list for the shop UI (304 when the catalog has not changed) */
     @GetMapping("/all")
-    public List<ProductDTO> all() {
-        return svc.listAll();
+    public ResponseEntity<List<ProductDTO>> all(HttpServletRequest request) {
+        return httpCache.conditional("products/all", request, catalog.current().productsEtag(), svc::listAll);
+    }
+
+    /** Whole catalog as NDJSON (default) or CSV, written row by row from the snapshot */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) String format) {
+        try {
+            return exports.fromList("products", ExportStreamService.Format.of(format), PRODUCT_COLUMNS,
+                    catalog.current().products());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /** Pageable list (optional category filter and search) */
@@ -42,6 +78,21 @@ public class ProductController {
         return svc.list(pg, categoryId, q);
     }
 
+    /** Typeahead for the order form – in-memory, no DB access per keystroke */
+    @GetMapping("/suggest")
+    public List<ProductDTO> suggest(@RequestParam String q,
+                                    @RequestParam(required = false) Integer categoryId,
+                                    @RequestParam(defaultValue = "" + ProductSuggestService.DEFAULT_LIMIT) int limit) {
+        return suggestService.suggest(q, categoryId, limit);
+    }
+
+    /** "Frequently ordered together" for one product or the whole cart: ?ids=12,40,7 */
+    @GetMapping("/companions")
+    public List<Map<String, Object>> companions(@RequestParam List<Integer> ids,
+                                                @RequestParam(defaultValue = "" + ProductCompanionService.DEFAULT_LIMIT) int limit) {
+        return companionService.companions(ids, limit);
+    }
+
     @GetMapping("/{id}")
     public ProductDTO byId(@PathVariable Integer id) {
         return svc.getById(id);
@@ -75,6 +126,20 @@ public class ProductController {
         return svc.uploadImage(id, file);
     }
 
+    /* ─────────── BULK IMPORT ─────────── */
+
+    /** Sync the catalog from an .xlsx / CSV sheet (Mã, Tên, ĐVT[, Danh mục]); returns the change summary */
+    @PostMapping(value = "/import",
+                 consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> importCatalog(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(defaultValue = "true") boolean deactivateMissing,
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        ApiResponse<Map<String, Object>> response = svc.importCatalog(file, deactivateMissing, dryRun);
+        return response.isSuccess() ? ResponseEntity.ok(response) : ResponseEntity.badRequest().body(response);
+    }
+
     /* ─────────── CATEGORY FILTER ─────────── */
 
     @GetMapping("/category/{categoryId}")
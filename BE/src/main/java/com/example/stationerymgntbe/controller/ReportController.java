@@ -1,18 +1,25 @@
 package com.example.stationerymgntbe.controller;
 
-import com.example.stationerymgntbe.dto.*;
+import com.example.stationerymgntbe.exception.InvalidParameterException;
+import com.example.stationerymgntbe.service.ReportCancellationService;
 import com.example.stationerymgntbe.service.ReportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Unified Report Controller - Handles all reporting functionality
  * Combines endpoints from ReportController, EnhancedReportController, and Phase2ReportController
+ * Every endpoint runs through {@link ReportCancellationService}: per-endpoint deadline, and the
+ * database query is cancelled when the deadline passes or the client goes away.
  */
 @RestController
 @RequestMapping("/api/reports")
@@ -20,6 +27,7 @@ import java.util.Map;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportCancellationService reports;
 
     /* ════════════════════════ CORE REPORT ENDPOINTS ═════════════════════════ */
 
@@ -28,8 +36,8 @@ public class ReportController {
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> summary(@RequestParam int year, @RequestParam int month) {
-        return ResponseEntity.ok(reportService.fetchMonthly(year, month).getSummary());
+    public WebAsyncTask<ResponseEntity<?>> summary(@RequestParam int year, @RequestParam int month) {
+        return reports.run("summary", () -> reportService.fetchMonthly(year, month).getSummary());
     }
 
     /**
@@ -37,8 +45,8 @@ public class ReportController {
      */
     @GetMapping("/full")
     @PreAuthorize("hasRole('ADMIN')")
-    public MonthlyReportDTO full(@RequestParam int year, @RequestParam int month) {
-        return reportService.fetchMonthly(year, month);
+    public WebAsyncTask<ResponseEntity<?>> full(@RequestParam int year, @RequestParam int month) {
+        return reports.run("full", () -> reportService.fetchMonthly(year, month));
     }
 
     /* ════════════════════════ EXPORT ENDPOINTS ═════════════════════════ */
@@ -48,16 +56,18 @@ public class ReportController {
      */
     @GetMapping("/export/excel")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> exportExcel(@RequestParam String month) throws Exception {
+    public WebAsyncTask<ResponseEntity<?>> exportExcel(@RequestParam String month) {
         String[] p = month.split("-");
         int y = Integer.parseInt(p[0]);
         int m = Integer.parseInt(p[1]);
-        byte[] body = reportService.export(y, m, "excel");
-        String fn = "report_%d_%02d.xlsx".formatted(y, m);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fn)
-                .body(body);
+        return reports.run("export", () -> {
+            byte[] body = reportService.export(y, m, "excel");
+            String fn = "report_%d_%02d.xlsx".formatted(y, m);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fn)
+                    .body(body);
+        });
     }
 
     /**
@@ -65,16 +75,18 @@ public class ReportController {
      */
     @GetMapping("/export/pdf")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> exportPdf(@RequestParam String month) throws Exception {
+    public WebAsyncTask<ResponseEntity<?>> exportPdf(@RequestParam String month) {
         String[] p = month.split("-");
         int y = Integer.parseInt(p[0]);
         int m = Integer.parseInt(p[1]);
-        byte[] body = reportService.export(y, m, "pdf");
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_PDF)
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=report_%d_%02d.pdf".formatted(y, m))
-                .body(body);
+        return reports.run("export", () -> {
+            byte[] body = reportService.export(y, m, "pdf");
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=report_%d_%02d.pdf".formatted(y, m))
+                    .body(body);
+        });
     }
 
     /* ════════════════════════ ANALYTICS ENDPOINTS ═════════════════════════ */
@@ -84,11 +96,10 @@ public class ReportController {
      */
     @GetMapping("/analytics/departments")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> getDepartmentAnalytics(
+    public WebAsyncTask<ResponseEntity<?>> getDepartmentAnalytics(
             @RequestParam int year,
             @RequestParam int month) {
-        Map<String, Object> analytics = reportService.getDepartmentAnalytics(year, month);
-        return ResponseEntity.ok(analytics);
+        return reports.run("departments", () -> reportService.getDepartmentAnalytics(year, month));
     }
 
     /**
@@ -96,12 +107,11 @@ public class ReportController {
      */
     @GetMapping("/analytics/trends")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> getProductTrends(
+    public WebAsyncTask<ResponseEntity<?>> getProductTrends(
             @RequestParam int year,
             @RequestParam int month,
             @RequestParam(defaultValue = "6") int months) {
-        Map<String, Object> trends = reportService.getProductTrends(year, month, months);
-        return ResponseEntity.ok(trends);
+        return reports.run("trends", () -> reportService.getProductTrends(year, month, months));
     }
 
     /**
@@ -109,14 +119,24 @@ public class ReportController {
      */
     @GetMapping("/analytics/comparison")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> getComparison(
+    public WebAsyncTask<ResponseEntity<?>> getComparison(
             @RequestParam int currentYear,
             @RequestParam int currentMonth,
             @RequestParam int compareYear,
             @RequestParam int compareMonth) {
-        Map<String, Object> comparison = reportService.getComparison(
-            currentYear, currentMonth, compareYear, compareMonth);
-        return ResponseEntity.ok(comparison);
+        return reports.run("comparison", () -> reportService.getComparison(
+            currentYear, currentMonth, compareYear, compareMonth));
+    }
+
+    /**
+     * Multi-period Comparison - e.g. ?periods=2025-07,2025-06,2024-07
+     */
+    @GetMapping("/analytics/comparison/periods")
+    @PreAuthorize("hasRole('ADMIN')")
+    public WebAsyncTask<ResponseEntity<?>> getPeriodComparison(
+            @RequestParam List<String> periods) {
+        List<YearMonth> months = periods.stream().map(p -> yearMonth("periods", p)).toList();
+        return reports.run("comparison", () -> reportService.getPeriodComparison(months));
     }
 
     /**
@@ -124,9 +144,8 @@ public class ReportController {
      */
     @GetMapping("/analytics/realtime")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> getRealtimeStats() {
-        Map<String, Object> stats = reportService.getRealtimeStats();
-        return ResponseEntity.ok(stats);
+    public WebAsyncTask<ResponseEntity<?>> getRealtimeStats() {
+        return reports.run("realtime", reportService::getRealtimeStats);
     }
 
     /**
@@ -134,11 +153,10 @@ public class ReportController {
      */
     @GetMapping("/analytics/categories")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> getCategoryDistribution(
+    public WebAsyncTask<ResponseEntity<?>> getCategoryDistribution(
             @RequestParam int year,
             @RequestParam int month) {
-        Map<String, Object> distribution = reportService.getCategoryDistribution(year, month);
-        return ResponseEntity.ok(distribution);
+        return reports.run("categories", () -> reportService.getCategoryDistribution(year, month));
     }
 
     /* ════════════════════════ ADVANCED FILTERING ═════════════════════════ */
@@ -148,10 +166,9 @@ public class ReportController {
      */
     @PostMapping("/analytics/filtered")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> getFilteredAnalytics(
+    public WebAsyncTask<ResponseEntity<?>> getFilteredAnalytics(
             @RequestBody Map<String, Object> filters) {
-        Map<String, Object> analytics = reportService.getFilteredAnalytics(filters);
-        return ResponseEntity.ok(analytics);
+        return reports.run("filtered", () -> reportService.getFilteredAnalytics(filters));
     }
 
     /**
@@ -159,13 +176,12 @@ public class ReportController {
      */
     @GetMapping("/analytics/daterange")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> getCustomDateRangeAnalytics(
+    public WebAsyncTask<ResponseEntity<?>> getCustomDateRangeAnalytics(
             @RequestParam String startDate,
             @RequestParam String endDate) {
         LocalDateTime start = LocalDateTime.parse(startDate);
         LocalDateTime end = LocalDateTime.parse(endDate);
-        Map<String, Object> analytics = reportService.getCustomDateRangeAnalytics(start, end);
-        return ResponseEntity.ok(analytics);
+        return reports.run("daterange", () -> reportService.getCustomDateRangeAnalytics(start, end));
     }
 
     /* ════════════════════════ SYSTEM HEALTH & PERFORMANCE ═════════════════════════ */
@@ -175,9 +191,8 @@ public class ReportController {
      */
     @GetMapping("/system/health")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> getSystemHealthMetrics() {
-        Map<String, Object> health = reportService.getSystemHealthMetrics();
-        return ResponseEntity.ok(health);
+    public WebAsyncTask<ResponseEntity<?>> getSystemHealthMetrics() {
+        return reports.run("system-health", reportService::getSystemHealthMetrics);
     }
 
     /* ════════════════════════ FILTER OPTIONS ═════════════════════════ */
@@ -187,9 +202,8 @@ public class ReportController {
      */
     @GetMapping("/filter-options")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> getFilterOptions() {
-        Map<String, Object> options = reportService.getFilterOptions();
-        return ResponseEntity.ok(options);
+    public WebAsyncTask<ResponseEntity<?>> getFilterOptions() {
+        return reports.run("filter-options", reportService::getFilterOptions);
     }
 
     /* ════════════════════════ DASHBOARD ENDPOINTS ═════════════════════════ */
@@ -199,11 +213,10 @@ public class ReportController {
      */
     @GetMapping("/dashboard")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> getDashboardData(
+    public WebAsyncTask<ResponseEntity<?>> getDashboardData(
             @RequestParam int year,
             @RequestParam int month) {
-        
-        Map<String, Object> dashboard = Map.of(
+        return reports.run("dashboard", () -> Map.of(
             "departmentAnalytics", reportService.getDepartmentAnalytics(year, month),
             "productTrends", reportService.getProductTrends(year, month, 6),
             "categoryDistribution", reportService.getCategoryDistribution(year, month),
@@ -215,9 +228,7 @@ public class ReportController {
                 "generatedAt", LocalDateTime.now(),
                 "version", "unified-v1.0"
             )
-        );
-        
-        return ResponseEntity.ok(dashboard);
+        ));
     }
 
     /**
@@ -225,13 +236,12 @@ public class ReportController {
      */
     @GetMapping("/dashboard/enhanced")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> getEnhancedDashboard(
+    public WebAsyncTask<ResponseEntity<?>> getEnhancedDashboard(
             @RequestParam int year,
             @RequestParam int month,
             @RequestParam(required = false) Integer compareYear,
             @RequestParam(required = false) Integer compareMonth) {
-        
-        Map<String, Object> dashboard = Map.of(
+        return reports.run("dashboard-enhanced", () -> Map.of(
             "current", Map.of(
                 "departmentAnalytics", reportService.getDepartmentAnalytics(year, month),
                 "categoryDistribution", reportService.getCategoryDistribution(year, month),
@@ -249,8 +259,17 @@ public class ReportController {
                 "generatedAt", LocalDateTime.now(),
                 "version", "enhanced-v1.0"
             )
-        );
-        
-        return ResponseEntity.ok(dashboard);
+        ));
+    }
+
+    /* ════════════════════════ HELPERS ═════════════════════════ */
+
+    /** "yyyy-MM" request value → YearMonth; anything else is a 400 naming the parameter */
+    private static YearMonth yearMonth(String parameter, String value) {
+        try {
+            return YearMonth.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new InvalidParameterException(parameter, "Not a month (yyyy-MM): '" + value + "'", e);
+        }
     }
-}
\ No newline at end of file
+}
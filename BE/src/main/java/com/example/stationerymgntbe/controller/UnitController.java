@@ -2,7 +2,10 @@
 package com.example.stationerymgntbe.controller;
 
 import com.example.stationerymgntbe.dto.UnitDTO;
+import com.example.stationerymgntbe.service.CatalogSnapshotService;
+import com.example.stationerymgntbe.service.HttpCacheService;
 import com.example.stationerymgntbe.service.UnitService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,11 +19,13 @@ import java.util.List;
 public class UnitController {
 
     private final UnitService unitService;
+    private final CatalogSnapshotService catalog;
+    private final HttpCacheService httpCache;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UnitDTO>> getAllUnits() {
-        return ResponseEntity.ok(unitService.getAllUnits());
+    public ResponseEntity<List<UnitDTO>> getAllUnits(HttpServletRequest request) {
+        return httpCache.conditional("units", request, catalog.current().unitsEtag(), unitService::getAllUnits);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,11 @@
+package com.example.stationerymgntbe.dto;
+
+import lombok.Data;
+
+/** One PATCH operation on the caller's draft order: add / set / remove */
+@Data
+public class DraftOperationDTO {
+    private String op;
+    private Integer productId;
+    private Integer quantity;
+}
@@ -0,0 +1,25 @@
+package com.example.stationerymgntbe.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Tiêu chí lọc cho báo cáo nâng cao – được dịch thẳng sang SQL.
+ * {@code null} = không lọc; danh sách rỗng (khác null) = không khớp dòng nào.
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ReportFilterDTO {
+    private LocalDateTime start;          // inclusive
+    private LocalDateTime end;            // exclusive
+    private List<String> departmentNames;   // with departmentIds: a department matching either list
+    private List<Integer> departmentIds;
+    private List<Integer> categoryIds;
+    private Integer minQuantity;          // HAVING SUM(quantity) >= ?
+    private Integer maxQuantity;          // HAVING SUM(quantity) <= ?
+}
@@ -0,0 +1,31 @@
+package com.example.stationerymgntbe.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/** One applied catalog workbook; the checksum lets an unchanged file be skipped */
+@Entity
+@Table(name = "catalog_imports",
+       indexes = @Index(name = "idx_catalog_import_source", columnList = "source"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogImport {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String source;               // "VPPham.xlsx" (seeder) or the uploaded file name
+
+    @Column(nullable = false, length = 64)
+    private String checksum;             // SHA-256, hex
+
+    private Integer rowsRead;
+    private Integer inserted;
+    private Integer updated;
+    private Integer deactivated;
+    private LocalDateTime appliedAt;
+}
@@ -3,11 +3,15 @@ package com.example.stationerymgntbe.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 // Category.java
 // src/main/java/.../entity/Category.java
 @Getter @Setter
 @Entity @Table(name = "categories")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference.category")
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class Category extends AbstractEntity {
 
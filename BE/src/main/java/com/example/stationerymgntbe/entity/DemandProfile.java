@@ -0,0 +1,27 @@
+package com.example.stationerymgntbe.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/** Precomputed monthly demand of one department for one product (rebuilt nightly) */
+@Entity
+@Table(name = "department_demand_profiles",
+       indexes = @Index(name = "idx_demand_profile_department", columnList = "departmentId"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DemandProfile {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Integer departmentId;
+    private Integer productId;
+    private Integer suggestedQuantity;   // rounded smoothed quantity, at least 1
+    private Double smoothedQuantity;     // exponentially weighted monthly average
+    private Integer monthsOrdered;       // months in the window with an order for this product
+    private Integer monthsWindow;
+    private LocalDateTime computedAt;
+}
@@ -2,10 +2,14 @@ package com.example.stationerymgntbe.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 @Getter
 @Setter
 @Entity
 @Table(name = "departments")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference.department")
 @NoArgsConstructor
 @AllArgsConstructor
 public class Department extends AbstractEntity {
@@ -0,0 +1,27 @@
+package com.example.stationerymgntbe.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/** A user's cart kept on the server until it is finalized into an order (one per user) */
+@Getter
+@Setter
+@Entity
+@Table(name = "order_drafts",
+       uniqueConstraints = @UniqueConstraint(name = "uk_order_draft_user", columnNames = "created_by"))
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderDraft extends AbstractEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer draftId;
+
+    @ManyToOne
+    @JoinColumn(name = "department_id", nullable = false)
+    private Department department;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "created_by", nullable = false)
+    private User createdBy;
+}
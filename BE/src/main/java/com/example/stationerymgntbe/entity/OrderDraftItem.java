@@ -0,0 +1,29 @@
+package com.example.stationerymgntbe.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "order_draft_items",
+       uniqueConstraints = @UniqueConstraint(name = "uk_order_draft_item_product", columnNames = {"draft_id", "product_id"}))
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderDraftItem extends AbstractEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer draftItemId;
+
+    @ManyToOne
+    @JoinColumn(name = "draft_id", nullable = false)
+    private OrderDraft draft;
+
+    @ManyToOne
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(nullable = false)
+    private Integer quantity;
+}
@@ -33,4 +33,8 @@ public class Product extends AbstractEntity {
     @ManyToOne
     @JoinColumn(name = "category_id")
     private Category category;
+
+    @Builder.Default
+    @Column(nullable = false, columnDefinition = "boolean default true")
+    private Boolean active = true; // false = dropped from the catalog by a bulk import, kept for order history
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.example.stationerymgntbe.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/** Persisted machine/manual translation; survives restarts and backs the in-memory LRU in TranslationService */
+@Entity
+@Table(name = "translations",
+       uniqueConstraints = @UniqueConstraint(name = "uk_translation_text",
+               columnNames = {"source_lang", "target_lang", "source_text"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Translation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_lang", nullable = false, length = 8)
+    private String sourceLang;
+
+    @Column(name = "target_lang", nullable = false, length = 8)
+    private String targetLang;
+
+    @Column(name = "source_text", nullable = false, length = 1000)
+    private String sourceText;
+
+    @Column(nullable = false, length = 2000)
+    private String translatedText;
+
+    @Column(length = 16)
+    private String provider;             // "manual" | "upstream"
+
+    private LocalDateTime createdAt;
+}
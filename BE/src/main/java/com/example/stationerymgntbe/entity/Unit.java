@@ -2,11 +2,15 @@ package com.example.stationerymgntbe.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Getter
 @Setter
 @Entity
 @Table(name = "units")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference.unit")
 @NoArgsConstructor
 @AllArgsConstructor
 public class Unit extends AbstractEntity {
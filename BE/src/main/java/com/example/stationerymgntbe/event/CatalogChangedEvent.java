@@ -0,0 +1,8 @@
+package com.example.stationerymgntbe.event;
+
+/**
+ * Published whenever products, categories or units are written.
+ * Listeners run after the surrounding transaction commits (or immediately when there is none).
+ */
+public record CatalogChangedEvent(String source) {
+}
@@ -0,0 +1,14 @@
+package com.example.stationerymgntbe.event;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Published once an order and all of its items have been written.
+ * Listeners run after the surrounding transaction commits (or immediately when there is none).
+ *
+ * @param quantities productId → quantity ordered (one entry per product)
+ */
+public record OrderCreatedEvent(Integer orderId, Integer departmentId, LocalDateTime createdAt,
+                                Map<Integer, Integer> quantities) {
+}
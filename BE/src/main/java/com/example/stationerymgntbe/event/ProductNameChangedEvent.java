@@ -0,0 +1,8 @@
+package com.example.stationerymgntbe.event;
+
+/**
+ * Published when a product is saved without an English name (new product, or renamed with the
+ * English name left as it was). The name is translated after the transaction commits.
+ */
+public record ProductNameChangedEvent(Integer productId, String name) {
+}
@@ -32,6 +32,14 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
+    // 2b) Unparseable values the services read themselves (numbers / dates in JSON filters, "yyyy-MM" params)
+    @ExceptionHandler(InvalidParameterException.class)
+    public ResponseEntity<?> handleInvalidParameter(InvalidParameterException ex) {
+        Map<String, String> errors = new HashMap<>();
+        errors.put(ex.getParameter(), ex.getMessage());
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
+
     // 3) Fallback for any other exceptions
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handleGenericException(Exception ex) {
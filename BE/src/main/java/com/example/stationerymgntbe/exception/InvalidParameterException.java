@@ -0,0 +1,24 @@
+package com.example.stationerymgntbe.exception;
+
+/**
+ * A request value that could not be parsed (number, date, month …).
+ * Answered as 400 with the same {field: message} body as Bean Validation errors.
+ */
+public class InvalidParameterException extends RuntimeException {
+
+    private final String parameter;
+
+    public InvalidParameterException(String parameter, String message) {
+        super(message);
+        this.parameter = parameter;
+    }
+
+    public InvalidParameterException(String parameter, String message, Throwable cause) {
+        super(message, cause);
+        this.parameter = parameter;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+}
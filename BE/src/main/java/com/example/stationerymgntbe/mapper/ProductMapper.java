@@ -58,6 +58,7 @@ public interface ProductMapper {
     @Mapping(target = "unit", ignore = true) // manually set in service
     @Mapping(target = "category", ignore = true)
     @Mapping(target = "productId", ignore = true)
+    @Mapping(target = "active", ignore = true)
     @Mapping(source = "name", target = "name")
     @Mapping(source = "nameEn", target = "nameEn")
     @Mapping(source = "code", target = "code")
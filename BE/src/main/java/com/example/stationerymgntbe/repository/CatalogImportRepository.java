@@ -0,0 +1,9 @@
+package com.example.stationerymgntbe.repository;
+
+import com.example.stationerymgntbe.entity.CatalogImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Optional;
+
+public interface CatalogImportRepository extends JpaRepository<CatalogImport, Long> {
+    Optional<CatalogImport> findFirstBySourceOrderByAppliedAtDesc(String source);
+}
@@ -2,8 +2,12 @@ package com.example.stationerymgntbe.repository;
 
 import java.util.List;
 import java.util.Optional;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.example.stationerymgntbe.entity.Category;
 
@@ -13,9 +17,17 @@ public interface CategoryRepository extends JpaRepository<Category,Integer> {
     boolean existsByNameEnIgnoreCase(String nameEn);
 
     /* ----- THÊM 2 API để tra ra Optional<Category> ----- */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference.lookups")})
     Optional<Category> findByCodeIgnoreCase(String code);
     boolean existsByCodeIgnoreCase(String code);   // vẫn giữ, chỗ nào cần boolean
 
+    /* reference data: served from the query cache + category region until a category is written */
+    @Override
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference.lookups")})
+    List<Category> findAll();
+
     @Query("""
    SELECT c as cat , COUNT(p) AS cnt
    FROM Category c LEFT JOIN Product p ON p.category = c
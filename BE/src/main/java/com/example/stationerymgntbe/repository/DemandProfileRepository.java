@@ -0,0 +1,9 @@
+package com.example.stationerymgntbe.repository;
+
+import com.example.stationerymgntbe.entity.DemandProfile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+
+public interface DemandProfileRepository extends JpaRepository<DemandProfile, Long> {
+    List<DemandProfile> findByDepartmentIdOrderBySuggestedQuantityDescProductIdAsc(Integer departmentId);
+}
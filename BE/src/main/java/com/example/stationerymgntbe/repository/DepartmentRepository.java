@@ -1,12 +1,22 @@
 package com.example.stationerymgntbe.repository;
 
 import com.example.stationerymgntbe.entity.Department;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface DepartmentRepository extends JpaRepository<Department,Integer> {
 
     /** tìm kiếm theo email của phòng ban */
     Optional<Department> findByEmail(String email);
+
+    /* reference data: served from the query cache + department region until a department is written */
+    @Override
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference.lookups")})
+    List<Department> findAll();
 }
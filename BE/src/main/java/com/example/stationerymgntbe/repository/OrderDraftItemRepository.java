@@ -0,0 +1,58 @@
+package com.example.stationerymgntbe.repository;
+
+import com.example.stationerymgntbe.entity.OrderDraftItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Each draft operation is a single statement keyed by (draft, product) */
+public interface OrderDraftItemRepository extends JpaRepository<OrderDraftItem, Integer> {
+
+    /** [productId, quantity] of a draft, in the order lines were first added */
+    @Query("SELECT i.product.productId, i.quantity FROM OrderDraftItem i WHERE i.draft.draftId = :draftId ORDER BY i.draftItemId")
+    List<Object[]> findLines(@Param("draftId") Integer draftId);
+
+    /** Adds to the quantity (inserts the line when missing) */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "order_draft_items"))
+    @Query(value = """
+            INSERT INTO order_draft_items (draft_id, product_id, quantity, created_at, updated_at)
+            VALUES (:draftId, :productId, :quantity, :now, :now)
+            ON CONFLICT (draft_id, product_id)
+            DO UPDATE SET quantity = order_draft_items.quantity + EXCLUDED.quantity, updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int addQuantity(@Param("draftId") Integer draftId, @Param("productId") Integer productId,
+                    @Param("quantity") Integer quantity, @Param("now") LocalDateTime now);
+
+    /** Sets the quantity (inserts the line when missing) */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "order_draft_items"))
+    @Query(value = """
+            INSERT INTO order_draft_items (draft_id, product_id, quantity, created_at, updated_at)
+            VALUES (:draftId, :productId, :quantity, :now, :now)
+            ON CONFLICT (draft_id, product_id)
+            DO UPDATE SET quantity = EXCLUDED.quantity, updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int setQuantity(@Param("draftId") Integer draftId, @Param("productId") Integer productId,
+                    @Param("quantity") Integer quantity, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM OrderDraftItem i WHERE i.draft.draftId = :draftId AND i.product.productId = :productId")
+    int removeLine(@Param("draftId") Integer draftId, @Param("productId") Integer productId);
+
+    /** Lines whose quantity dropped to zero or below after an "add" with a negative delta */
+    @Modifying
+    @Query("DELETE FROM OrderDraftItem i WHERE i.draft.draftId = :draftId AND i.quantity <= 0")
+    int removeEmptyLines(@Param("draftId") Integer draftId);
+
+    @Modifying
+    @Query("DELETE FROM OrderDraftItem i WHERE i.draft.draftId = :draftId")
+    int deleteByDraftId(@Param("draftId") Integer draftId);
+}
@@ -0,0 +1,29 @@
+package com.example.stationerymgntbe.repository;
+
+import com.example.stationerymgntbe.entity.OrderDraft;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface OrderDraftRepository extends JpaRepository<OrderDraft, Integer> {
+    @Query("SELECT d FROM OrderDraft d LEFT JOIN FETCH d.department WHERE d.createdBy.userId = :userId")
+    Optional<OrderDraft> findByUserId(@Param("userId") Integer userId);
+
+    /** Creates the user's draft unless one exists; two concurrent first PATCHes end up with the same row */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "order_drafts"))
+    @Query(value = """
+            INSERT INTO order_drafts (department_id, created_by, created_at, updated_at)
+            VALUES (:departmentId, :userId, :now, :now)
+            ON CONFLICT (created_by) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Integer userId, @Param("departmentId") Integer departmentId,
+                       @Param("now") LocalDateTime now);
+}
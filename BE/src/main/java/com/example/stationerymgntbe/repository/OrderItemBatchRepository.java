@@ -0,0 +1,14 @@
+package com.example.stationerymgntbe.repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * JDBC-batched order line inserts (mixed into {@link OrderItemRepository}).
+ * order_items uses an identity key, which turns off Hibernate's own insert batching.
+ */
+public interface OrderItemBatchRepository {
+
+    /** Inserts one line per (productId → quantity) entry, in map order; returns the lines written */
+    int insertItems(Integer orderId, Map<Integer, Integer> quantities, LocalDateTime now);
+}
@@ -0,0 +1,54 @@
+package com.example.stationerymgntbe.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Runs on the transaction's own connection, so the lines commit or roll back with the order header.
+ */
+public class OrderItemBatchRepositoryImpl implements OrderItemBatchRepository {
+
+    static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_ITEM =
+            "INSERT INTO order_items (order_id, product_id, quantity, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int insertItems(Integer orderId, Map<Integer, Integer> quantities, LocalDateTime now) {
+        if (quantities.isEmpty()) return 0;
+        Timestamp ts = Timestamp.valueOf(now);
+        int[] written = {0};
+
+        entityManager.flush();          // the order header must be in the database first
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_ITEM)) {
+                int pending = 0;
+                for (Map.Entry<Integer, Integer> e : quantities.entrySet()) {
+                    ps.setInt(1, orderId);
+                    ps.setInt(2, e.getKey());
+                    ps.setInt(3, e.getValue());
+                    ps.setTimestamp(4, ts);
+                    ps.setTimestamp(5, ts);
+                    ps.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        written[0] += ps.executeBatch().length;
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    written[0] += ps.executeBatch().length;
+                }
+            }
+        });
+        return written[0];
+    }
+}
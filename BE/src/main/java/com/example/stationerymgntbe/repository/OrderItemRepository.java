@@ -2,16 +2,21 @@ package com.example.stationerymgntbe.repository;
 
 import com.example.stationerymgntbe.dto.ProductOrderSummaryDTO;
 import com.example.stationerymgntbe.entity.OrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
-public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
+public interface OrderItemRepository extends JpaRepository<OrderItem, Integer>, OrderItemBatchRepository {
     @Query("SELECT oi FROM OrderItem oi LEFT JOIN FETCH oi.product WHERE oi.order.orderId = :orderId")
     Collection<OrderItem> findByOrderOrderId(@Param("orderId") Integer orderId);
 
@@ -25,4 +30,52 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
        "ORDER BY SUM(oi.quantity) DESC"
     )
     List<ProductOrderSummaryDTO> findTopProducts(Pageable pageable);
-}
\ No newline at end of file
+
+    /** [productId, total quantity, order lines] for every product that was ever ordered */
+    @Query("SELECT oi.product.productId, SUM(oi.quantity), COUNT(oi) FROM OrderItem oi GROUP BY oi.product.productId")
+    List<Object[]> countByProduct();
+
+    /** Same as {@link #countByProduct()} for orders created at or after {@code start} */
+    @Query("SELECT oi.product.productId, SUM(oi.quantity), COUNT(oi) FROM OrderItem oi " +
+           "WHERE oi.order.createdAt >= :start GROUP BY oi.product.productId")
+    List<Object[]> countByProductSince(@Param("start") LocalDateTime start);
+
+    /** [orderId, productId] of every order line, grouped by order */
+    @Query("SELECT oi.order.orderId, oi.product.productId FROM OrderItem oi ORDER BY oi.order.orderId")
+    List<Object[]> findOrderProductPairs();
+
+    /** Copies the lines of one order into another in a single statement; products no longer in the catalog are skipped */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "order_items"))
+    @Query(value = """
+            INSERT INTO order_items (order_id, product_id, quantity, created_at, updated_at)
+            SELECT :targetId, oi.product_id, oi.quantity, :now, :now
+            FROM order_items oi
+            JOIN products p ON p.product_id = oi.product_id
+            WHERE oi.order_id = :sourceId AND p.active
+            ORDER BY oi.order_item_id
+            """, nativeQuery = true)
+    int copyItems(@Param("sourceId") Integer sourceId,
+                  @Param("targetId") Integer targetId,
+                  @Param("now") LocalDateTime now);
+
+    /** Turns a draft into order lines in a single statement; products no longer in the catalog are skipped */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "order_items"))
+    @Query(value = """
+            INSERT INTO order_items (order_id, product_id, quantity, created_at, updated_at)
+            SELECT :orderId, di.product_id, di.quantity, :now, :now
+            FROM order_draft_items di
+            JOIN products p ON p.product_id = di.product_id
+            WHERE di.draft_id = :draftId AND di.quantity > 0 AND p.active
+            ORDER BY di.draft_item_id
+            """, nativeQuery = true)
+    int copyDraftItems(@Param("draftId") Integer draftId,
+                       @Param("orderId") Integer orderId,
+                       @Param("now") LocalDateTime now);
+
+    /** [productId, quantity] of one order, one row per product */
+    @Query("SELECT oi.product.productId, SUM(oi.quantity) FROM OrderItem oi WHERE oi.order.orderId = :orderId " +
+           "GROUP BY oi.product.productId")
+    List<Object[]> sumQuantityByProduct(@Param("orderId") Integer orderId);
+}
@@ -2,6 +2,8 @@ package com.example.stationerymgntbe.repository;
 
 import com.example.stationerymgntbe.entity.Order;
 import com.example.stationerymgntbe.enums.OrderStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
@@ -9,8 +11,9 @@ import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
-public interface OrderRepository extends JpaRepository<Order, Integer> {
+public interface OrderRepository extends JpaRepository<Order, Integer>, ReportQueryRepository {
 
     /* ========== EXISTING METHODS ========= */
     @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.department d LEFT JOIN FETCH o.createdBy LEFT JOIN FETCH o.approvedBy")
@@ -21,6 +24,11 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.department d LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product p LEFT JOIN FETCH p.unit LEFT JOIN FETCH o.createdBy LEFT JOIN FETCH o.approvedBy WHERE o.orderId = :orderId")
     Optional<Order> findByIdWithDetails(@Param("orderId") Integer orderId);
 
+    /** [updatedAt, createdBy userId, item count, newest item updatedAt] – for conditional GET, no entity loading */
+    @Query("SELECT o.updatedAt, o.createdBy.userId, COUNT(i), MAX(i.updatedAt) FROM Order o LEFT JOIN o.items i " +
+           "WHERE o.orderId = :orderId GROUP BY o.orderId, o.updatedAt, o.createdBy.userId")
+    List<Object[]> findVersionInfo(@Param("orderId") Integer orderId);
+
     List<Order> findByStatus(OrderStatus status);
 
     List<Order> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
@@ -39,20 +47,26 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     Optional<Order> findTopByDepartmentDepartmentIdOrderByCreatedAtDesc(Integer departmentId);
 
     /* ======= EXISTING REPORT METHODS ======= */
+    /** [department, product_code, product_name_vn, qty, unit, product_id, category_code, category_name_vn] –
+     *  category columns are null for products without a category */
     @Query(value = """
             SELECT d.name AS department,
                    p.code AS product_code,
                    p.name AS product_name_vn,
                    SUM(oi.quantity) AS qty,
-                   u.name_vn AS unit
+                   u.name_vn AS unit,
+                   p.product_id AS product_id,
+                   c.code AS category_code,
+                   c.name_vn AS category_name_vn
             FROM orders o
             JOIN departments d ON d.department_id = o.department_id
             JOIN order_items oi ON oi.order_id = o.order_id
             JOIN products p ON p.product_id = oi.product_id
             JOIN units u ON u.unit_id = p.unit_id
+            LEFT JOIN categories c ON c.category_id = p.category_id
             WHERE o.created_at >= :start
               AND o.created_at < :end
-            GROUP BY d.name, p.code, p.name, u.name_vn
+            GROUP BY d.name, p.product_id, p.code, p.name, u.name_vn, c.code, c.name_vn
             ORDER BY d.name, p.name
             """, nativeQuery = true)
     List<Object[]> getReportData(@Param("start") LocalDateTime start,
@@ -106,10 +120,50 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
 
     Page<Order> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
 
+    /** [departmentId, createdBy userId, item count] – enough to authorize and validate a clone */
+    @Query("SELECT o.department.departmentId, o.createdBy.userId, COUNT(i) FROM Order o LEFT JOIN o.items i " +
+           "WHERE o.orderId = :orderId GROUP BY o.department.departmentId, o.createdBy.userId")
+    List<Object[]> findCloneInfo(@Param("orderId") Integer orderId);
+
+    /** [departmentId, productId, month (first day), quantity] – input for the nightly demand profiles */
+    @Query(value = """
+            SELECT o.department_id, oi.product_id, CAST(date_trunc('month', o.created_at) AS date), SUM(oi.quantity)
+            FROM orders o
+            JOIN order_items oi ON oi.order_id = o.order_id
+            WHERE o.created_at >= :start AND o.created_at < :end AND o.status <> 'rejected'
+            GROUP BY 1, 2, 3
+            """, nativeQuery = true)
+    List<Object[]> findMonthlyDepartmentDemand(@Param("start") LocalDateTime start,
+                                               @Param("end") LocalDateTime end);
+
+    // Lightweight rows for the month-end PDF archive: id, number, signed file, department name
+    @Query("SELECT o.orderId, o.orderNumber, o.signedPdfPath, d.name FROM Order o JOIN o.department d " +
+           "WHERE o.createdAt >= :start AND o.createdAt < :end AND o.status IN :statuses " +
+           "AND (:departmentId IS NULL OR d.departmentId = :departmentId) " +
+           "ORDER BY d.name, o.orderId")
+    List<Object[]> findArchiveEntries(@Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end,
+                                      @Param("statuses") Collection<OrderStatus> statuses,
+                                      @Param("departmentId") Integer departmentId);
+
     // Find all orders ordered by creation date descending (for admin view)
     Page<Order> findAllByOrderByCreatedAtDesc(Pageable pageable);
     
     // Find all orders with details for admin view
     @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.department d LEFT JOIN FETCH o.createdBy LEFT JOIN FETCH o.approvedBy ORDER BY o.createdAt DESC")
     List<Order> findAllWithDetailsOrderByCreatedAtDesc();
-}
\ No newline at end of file
+
+    /**
+     * [orderId, orderNumber, department, createdBy username, status, adminComment, createdAt, updatedAt, item count],
+     * newest first, read through a forward-only cursor (consume inside a transaction, then close)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o.orderId, o.orderNumber, d.name, u.username, o.status, o.adminComment, o.createdAt, o.updatedAt, " +
+           "(SELECT COUNT(i) FROM OrderItem i WHERE i.order = o) " +
+           "FROM Order o JOIN o.department d JOIN o.createdBy u " +
+           "WHERE o.status IN :statuses ORDER BY o.createdAt DESC")
+    Stream<Object[]> streamSummaryRows(@Param("statuses") Collection<OrderStatus> statuses);
+}
@@ -0,0 +1,31 @@
+package com.example.stationerymgntbe.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC-batched catalog writes (mixed into {@link ProductRepository}).
+ */
+public interface ProductBatchRepository {
+
+    /** Desired state of one product, keyed by its (unique) code */
+    record ProductUpsert(String code, String name, Integer unitId, Integer categoryId) {
+    }
+
+    /**
+     * INSERT ... ON CONFLICT (code) DO UPDATE for every row, sent in batches; written rows are active.
+     * Returns the number of rows written.
+     */
+    int upsertProducts(List<ProductUpsert> rows, LocalDateTime now);
+
+    /** Marks the products inactive (they stay referenced by old orders); returns the rows changed */
+    int deactivateProducts(Collection<Integer> productIds, LocalDateTime now);
+
+    /** English name for one product, only applied while its Vietnamese name is still {@code name} */
+    record NameEnUpdate(Integer productId, String name, String nameEn) {
+    }
+
+    /** Fills name_en where it is still empty; returns the rows changed */
+    int fillNameEn(List<NameEnUpdate> rows, LocalDateTime now);
+}
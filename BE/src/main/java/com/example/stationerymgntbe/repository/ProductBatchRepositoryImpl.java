@@ -0,0 +1,144 @@
+package com.example.stationerymgntbe.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Runs on the transaction's own connection; products has an identity key, so Hibernate would
+ * send these one statement per round trip.
+ */
+public class ProductBatchRepositoryImpl implements ProductBatchRepository {
+
+    static final int BATCH_SIZE = 500;
+
+    private static final String UPSERT_PRODUCT = """
+            INSERT INTO products (code, name, unit_id, category_id, active, created_at, updated_at)
+            VALUES (?, ?, ?, ?, TRUE, ?, ?)
+            ON CONFLICT (code) DO UPDATE
+               SET name = EXCLUDED.name,
+                   name_en = CASE WHEN products.name IS DISTINCT FROM EXCLUDED.name
+                                  THEN NULL ELSE products.name_en END,      -- renamed: backfill re-translates
+                   unit_id = EXCLUDED.unit_id,
+                   category_id = EXCLUDED.category_id,
+                   active = TRUE,
+                   updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String DEACTIVATE_PRODUCT =
+            "UPDATE products SET active = FALSE, updated_at = ? WHERE product_id = ? AND active";
+
+    private static final String FILL_NAME_EN = """
+            UPDATE products SET name_en = ?, updated_at = ?
+             WHERE product_id = ? AND name = ? AND (name_en IS NULL OR name_en = '')
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int upsertProducts(List<ProductUpsert> rows, LocalDateTime now) {
+        if (rows.isEmpty()) return 0;
+        Timestamp ts = Timestamp.valueOf(now);
+        int[] written = {0};
+
+        entityManager.flush();          // units / categories created for this import go first
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(UPSERT_PRODUCT)) {
+                int pending = 0;
+                for (ProductUpsert row : rows) {
+                    ps.setString(1, row.code());
+                    ps.setString(2, row.name());
+                    ps.setInt(3, row.unitId());
+                    if (row.categoryId() != null) ps.setInt(4, row.categoryId());
+                    else ps.setNull(4, Types.INTEGER);
+                    ps.setTimestamp(5, ts);
+                    ps.setTimestamp(6, ts);
+                    ps.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        written[0] += ps.executeBatch().length;
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    written[0] += ps.executeBatch().length;
+                }
+            }
+        });
+        // Entities loaded earlier in this persistence context may now be stale
+        entityManager.clear();
+        return written[0];
+    }
+
+    @Override
+    public int deactivateProducts(Collection<Integer> productIds, LocalDateTime now) {
+        if (productIds.isEmpty()) return 0;
+        Timestamp ts = Timestamp.valueOf(now);
+        int[] changed = {0};
+
+        entityManager.flush();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(DEACTIVATE_PRODUCT)) {
+                int pending = 0;
+                for (Integer id : productIds) {
+                    ps.setTimestamp(1, ts);
+                    ps.setInt(2, id);
+                    ps.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        changed[0] += updateCount(ps.executeBatch());
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    changed[0] += updateCount(ps.executeBatch());
+                }
+            }
+        });
+        entityManager.clear();
+        return changed[0];
+    }
+
+    @Override
+    public int fillNameEn(List<NameEnUpdate> rows, LocalDateTime now) {
+        if (rows.isEmpty()) return 0;
+        Timestamp ts = Timestamp.valueOf(now);
+        int[] changed = {0};
+
+        entityManager.flush();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(FILL_NAME_EN)) {
+                int pending = 0;
+                for (NameEnUpdate row : rows) {
+                    ps.setString(1, row.nameEn());
+                    ps.setTimestamp(2, ts);
+                    ps.setInt(3, row.productId());
+                    ps.setString(4, row.name());
+                    ps.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        changed[0] += updateCount(ps.executeBatch());
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    changed[0] += updateCount(ps.executeBatch());
+                }
+            }
+        });
+        entityManager.clear();
+        return changed[0];
+    }
+
+    /** Drivers may answer SUCCESS_NO_INFO (-2) for batched statements; count those as one row */
+    private static int updateCount(int[] counts) {
+        int n = 0;
+        for (int c : counts) n += c == PreparedStatement.SUCCESS_NO_INFO ? 1 : Math.max(c, 0);
+        return n;
+    }
+}
@@ -10,7 +10,7 @@ import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Integer> {
+public interface ProductRepository extends JpaRepository<Product, Integer>, ProductBatchRepository {
 
     Optional<Product> findByCode(String code);
 
@@ -42,4 +42,17 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     // Method to fetch all products with their units and categories eagerly loaded
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.unit LEFT JOIN FETCH p.category")
     List<Product> findAllWithUnitAndCategory();
+
+    /** [productId, code, name, unitId, categoryId, active] of every product – the diff index for catalog imports */
+    @Query("SELECT p.productId, p.code, p.name, u.unitId, c.categoryId, p.active FROM Product p " +
+           "JOIN p.unit u LEFT JOIN p.category c")
+    List<Object[]> findCatalogIndex();
+
+    /** [productId, name] of products without an English name, after {@code afterId} in id order (keyset page) */
+    @Query("SELECT p.productId, p.name FROM Product p " +
+           "WHERE (p.nameEn IS NULL OR p.nameEn = '') AND p.productId > :afterId ORDER BY p.productId")
+    List<Object[]> findWithoutNameEn(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.nameEn IS NULL OR p.nameEn = ''")
+    long countWithoutNameEn();
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.example.stationerymgntbe.repository;
+
+import com.example.stationerymgntbe.dto.ReportFilterDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Report queries whose SQL depends on the filters supplied (mixed into {@link OrderRepository}).
+ */
+public interface ReportQueryRepository {
+
+    /**
+     * Same row shape as {@link OrderRepository#getReportData}:
+     * [department, product_code, product_name_vn, qty, unit, product_id, category_code, category_name_vn],
+     * only rows matching {@code filter}.
+     */
+    List<Object[]> findFilteredReportData(ReportFilterDTO filter);
+
+    /**
+     * Quantities for several [start, end) periods in one query:
+     * [period_index, department, product_code, qty], period_index = position in {@code periods}.
+     * Overlapping periods count a row for the first matching one only.
+     */
+    List<Object[]> findPeriodTotals(List<LocalDateTime[]> periods);
+
+    /** Number of (department, product) rows getReportData would return for the range */
+    long countReportRows(LocalDateTime start, LocalDateTime end);
+}
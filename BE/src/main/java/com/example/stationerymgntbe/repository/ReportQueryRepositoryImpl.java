@@ -0,0 +1,181 @@
+package com.example.stationerymgntbe.repository;
+
+import com.example.stationerymgntbe.dto.ReportFilterDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Builds the report SQL from the filters that are actually set.
+ * Every value goes through a bind parameter – nothing is concatenated into the statement.
+ */
+public class ReportQueryRepositoryImpl implements ReportQueryRepository {
+
+    private static final String REPORT_FROM = """
+            FROM orders o
+            JOIN departments d ON d.department_id = o.department_id
+            JOIN order_items oi ON oi.order_id = o.order_id
+            JOIN products p ON p.product_id = oi.product_id
+            JOIN units u ON u.unit_id = p.unit_id
+            LEFT JOIN categories c ON c.category_id = p.category_id
+            """;
+
+    private static final String REPORT_GROUP_BY = " GROUP BY d.name, p.product_id, p.code, p.name, u.name_vn, c.code, c.name_vn";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> findFilteredReportData(ReportFilterDTO filter) {
+        SqlBuilder sql = new SqlBuilder("""
+                SELECT d.name AS department,
+                       p.code AS product_code,
+                       p.name AS product_name_vn,
+                       SUM(oi.quantity) AS qty,
+                       u.name_vn AS unit,
+                       p.product_id AS product_id,
+                       c.code AS category_code,
+                       c.name_vn AS category_name_vn
+                """ + REPORT_FROM);
+
+        sql.where("o.created_at >= ?", filter.getStart());
+        sql.where("o.created_at < ?", filter.getEnd());
+        sql.whereEitherIn("d.name", filter.getDepartmentNames(), "d.department_id", filter.getDepartmentIds());
+        sql.whereIn("p.category_id", filter.getCategoryIds());
+
+        sql.append(REPORT_GROUP_BY);
+
+        sql.having("SUM(oi.quantity) >= ?", filter.getMinQuantity());
+        sql.having("SUM(oi.quantity) <= ?", filter.getMaxQuantity());
+
+        sql.append(" ORDER BY d.name, p.name");
+
+        return sql.toQuery(entityManager).getResultList();
+    }
+
+    @Override
+    public long countReportRows(LocalDateTime start, LocalDateTime end) {
+        SqlBuilder sql = new SqlBuilder("SELECT COUNT(*) FROM (SELECT 1 " + REPORT_FROM);
+        sql.where("o.created_at >= ?", start);
+        sql.where("o.created_at < ?", end);
+        sql.append(REPORT_GROUP_BY + ") t");
+
+        return ((Number) sql.toQuery(entityManager).getSingleResult()).longValue();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> findPeriodTotals(List<LocalDateTime[]> periods) {
+        if (periods.isEmpty()) return List.of();
+
+        // Cùng một lần quét: mỗi dòng được gắn chỉ số kỳ qua CASE, WHERE chỉ lấy các kỳ được hỏi
+        SqlBuilder sql = new SqlBuilder("");
+        StringJoiner bucket = new StringJoiner(" ", "CASE ", " END");
+        StringJoiner inAnyPeriod = new StringJoiner(" OR ", "(", ")");
+        for (int i = 0; i < periods.size(); i++) {
+            String range = "o.created_at >= " + sql.param(periods.get(i)[0])
+                    + " AND o.created_at < " + sql.param(periods.get(i)[1]);
+            bucket.add("WHEN " + range + " THEN " + i);
+            inAnyPeriod.add("(" + range + ")");
+        }
+
+        sql.append("SELECT " + bucket + " AS period, d.name AS department, p.code AS product_code, SUM(oi.quantity) AS qty ");
+        sql.append("""
+                FROM orders o
+                JOIN departments d ON d.department_id = o.department_id
+                JOIN order_items oi ON oi.order_id = o.order_id
+                JOIN products p ON p.product_id = oi.product_id
+                """);
+        sql.append(" WHERE " + inAnyPeriod);
+        sql.append(" GROUP BY 1, d.name, p.code");
+
+        return sql.toQuery(entityManager).getResultList();
+    }
+
+    /* ────────── tiny positional-parameter SQL builder ────────── */
+
+    private static final class SqlBuilder {
+        private final StringBuilder sql;
+        private final List<Object> params = new ArrayList<>();
+        private boolean hasWhere;
+        private boolean hasHaving;
+
+        SqlBuilder(String base) {
+            this.sql = new StringBuilder(base);
+        }
+
+        void append(String fragment) {
+            sql.append(fragment);
+        }
+
+        /** Adds {@code condition} (with a single '?') only when value is set */
+        void where(String condition, Object value) {
+            if (value == null) return;
+            sql.append(hasWhere ? " AND " : " WHERE ");
+            hasWhere = true;
+            sql.append(bind(condition, value));
+        }
+
+        /** null = no filter, empty = matches nothing */
+        void whereIn(String column, Collection<?> values) {
+            if (values == null) return;
+            sql.append(hasWhere ? " AND " : " WHERE ");
+            hasWhere = true;
+            sql.append(in(column, values));
+        }
+
+        /** Rows matching either list (union); a null list is left out, both null = no condition */
+        void whereEitherIn(String column, Collection<?> values, String otherColumn, Collection<?> otherValues) {
+            if (values == null || otherValues == null) {
+                whereIn(column, values);
+                whereIn(otherColumn, otherValues);
+                return;
+            }
+            sql.append(hasWhere ? " AND " : " WHERE ");
+            hasWhere = true;
+            sql.append("(" + in(column, values) + " OR " + in(otherColumn, otherValues) + ")");
+        }
+
+        void having(String condition, Object value) {
+            if (value == null) return;
+            sql.append(hasHaving ? " AND " : " HAVING ");
+            hasHaving = true;
+            sql.append(bind(condition, value));
+        }
+
+        private String in(String column, Collection<?> values) {
+            if (values.isEmpty()) return "1 = 0";
+            StringJoiner in = new StringJoiner(", ", column + " IN (", ")");
+            for (Object v : values) {
+                in.add(param(v));
+            }
+            return in.toString();
+        }
+
+        /** Registers a bind value and returns its placeholder, for hand-built fragments */
+        String param(Object value) {
+            params.add(value);
+            return "?" + params.size();
+        }
+
+        private String bind(String condition, Object value) {
+            params.add(value);
+            return condition.replace("?", "?" + params.size());
+        }
+
+        Query toQuery(EntityManager em) {
+            Query query = em.createNativeQuery(sql.toString());
+            for (int i = 0; i < params.size(); i++) {
+                query.setParameter(i + 1, params.get(i));
+            }
+            return query;
+        }
+    }
+}
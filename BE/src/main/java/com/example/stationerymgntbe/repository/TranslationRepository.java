@@ -0,0 +1,34 @@
+package com.example.stationerymgntbe.repository;
+
+import com.example.stationerymgntbe.entity.Translation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface TranslationRepository extends JpaRepository<Translation, Long> {
+
+    List<Translation> findBySourceLangAndTargetLangAndSourceTextIn(String sourceLang, String targetLang,
+                                                                   Collection<String> sourceTexts);
+
+    /** First writer wins; concurrent translations of the same text are not an error */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "translations"))
+    @Query(value = """
+            INSERT INTO translations (source_lang, target_lang, source_text, translated_text, provider, created_at)
+            VALUES (:sourceLang, :targetLang, :sourceText, :translatedText, :provider, :now)
+            ON CONFLICT (source_lang, target_lang, source_text) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("sourceLang") String sourceLang, @Param("targetLang") String targetLang,
+                       @Param("sourceText") String sourceText, @Param("translatedText") String translatedText,
+                       @Param("provider") String provider, @Param("now") LocalDateTime now);
+}
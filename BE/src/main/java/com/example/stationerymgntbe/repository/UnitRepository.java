@@ -3,12 +3,27 @@ package com.example.stationerymgntbe.repository;
 
 import com.example.stationerymgntbe.entity.Unit;
 
+import java.util.List;
 import java.util.Optional;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface UnitRepository extends JpaRepository<Unit, Integer> {
+
+    /* natural-key lookups go through the query cache (invalidated by any write to units) */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference.lookups")})
     Optional<Unit> findByNameVnIgnoreCase(String nameVn);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference.lookups")})
     Optional<Unit> findByNameEnIgnoreCase(String nameEn);
 
-}
\ No newline at end of file
+    @Override
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference.lookups")})
+    List<Unit> findAll();
+}
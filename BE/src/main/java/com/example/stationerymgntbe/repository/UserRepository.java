@@ -4,11 +4,15 @@ import com.example.stationerymgntbe.dto.DepartmentUserCountDTO;
 import com.example.stationerymgntbe.entity.Department;
 import com.example.stationerymgntbe.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User,Integer> {
 
@@ -25,6 +29,14 @@ public interface UserRepository extends JpaRepository<User,Integer> {
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.department ORDER BY u.username")
     List<User> findAllWithDepartmentAndRole();
 
+    /** Same rows through a forward-only cursor (consume inside a transaction, then close) */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.department ORDER BY u.username")
+    Stream<User> streamAllWithDepartmentAndRole();
+
     // Statistics queries
     long countByActiveTrue();
     
@@ -37,4 +49,8 @@ public interface UserRepository extends JpaRepository<User,Integer> {
            "GROUP BY d.departmentId, d.name " +
            "ORDER BY COUNT(u) DESC")
     List<DepartmentUserCountDTO> getDepartmentUserCounts();
+
+    /** [departmentId, userCount] – one query instead of a count per department */
+    @Query("SELECT u.department.departmentId, COUNT(u) FROM User u GROUP BY u.department.departmentId")
+    List<Object[]> countUsersPerDepartment();
 }
@@ -0,0 +1,69 @@
+package com.example.stationerymgntbe.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Thống kê cache cấp 2 của Hibernate (Unit / Category / Department và các truy vấn tra cứu),
+ * theo từng region: hit / miss / put và số phần tử trong bộ nhớ.
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheStatsService {
+
+    /** Query-cache regions (not listed by {@link Statistics#getSecondLevelCacheRegionNames()}) */
+    private static final List<String> QUERY_REGIONS = List.of("reference.lookups", "default-query-results-region");
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public Map<String, Object> secondLevelCacheStats() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", stats.isStatisticsEnabled());
+        result.put("secondLevelCache", totals(stats.getSecondLevelCacheHitCount(),
+                stats.getSecondLevelCacheMissCount(), stats.getSecondLevelCachePutCount()));
+        result.put("queryCache", totals(stats.getQueryCacheHitCount(),
+                stats.getQueryCacheMissCount(), stats.getQueryCachePutCount()));
+        result.put("updateTimestamps", totals(stats.getUpdateTimestampsCacheHitCount(),
+                stats.getUpdateTimestampsCacheMissCount(), stats.getUpdateTimestampsCachePutCount()));
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String name : new TreeSet<>(List.of(stats.getSecondLevelCacheRegionNames()))) {
+            CacheRegionStatistics region = stats.getDomainDataRegionStatistics(name);
+            if (region != null) regions.put(name, region(region));
+        }
+        for (String name : QUERY_REGIONS) {
+            CacheRegionStatistics region = stats.getQueryRegionStatistics(name);
+            if (region != null) regions.put(name, region(region));
+        }
+        result.put("regions", regions);
+        return result;
+    }
+
+    /* ────────── internals ────────── */
+
+    private static Map<String, Object> region(CacheRegionStatistics r) {
+        Map<String, Object> m = totals(r.getHitCount(), r.getMissCount(), r.getPutCount());
+        m.put("elementsInMemory", r.getElementCountInMemory());   // -1 when the provider does not report it
+        return m;
+    }
+
+    private static Map<String, Object> totals(long hits, long misses, long puts) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("hits", hits);
+        m.put("misses", misses);
+        m.put("puts", puts);
+        m.put("hitRate", hits + misses == 0 ? 0.0 : Math.round(hits * 1000.0 / (hits + misses)) / 10.0);
+        return m;
+    }
+}
@@ -0,0 +1,412 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.entity.CatalogImport;
+import com.example.stationerymgntbe.entity.Category;
+import com.example.stationerymgntbe.entity.Unit;
+import com.example.stationerymgntbe.event.CatalogChangedEvent;
+import com.example.stationerymgntbe.repository.CatalogImportRepository;
+import com.example.stationerymgntbe.repository.CategoryRepository;
+import com.example.stationerymgntbe.repository.ProductBatchRepository.ProductUpsert;
+import com.example.stationerymgntbe.repository.ProductRepository;
+import com.example.stationerymgntbe.repository.UnitRepository;
+import com.example.stationerymgntbe.util.SpreadsheetStreamReader;
+import com.example.stationerymgntbe.util.VietnameseText;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Nạp danh mục sản phẩm từ workbook: đọc theo luồng từng dòng, so với chỉ mục code → product
+ * nạp một lần từ DB, rồi ghi các dòng thêm mới / thay đổi bằng upsert theo lô trong một transaction.
+ * Mỗi lần áp dụng được ghi lại kèm checksum để lần sau bỏ qua file không đổi.
+ */
+@Slf4j
+@Service
+public class CatalogImportService {
+
+    /** 0-based column positions; {@code category} = -1 infers the category from the name */
+    public record Layout(int code, int name, int unit, int category, int firstDataRow) {
+    }
+
+    /** VPPham.xlsx: STT | Mã | Tên | … | ĐVT, one header row */
+    public static final Layout SEED_LAYOUT = new Layout(1, 2, 4, -1, 2);
+
+    /**
+     * @param deactivateMissing active products whose code is not in the file are deactivated
+     * @param dryRun            compute the full change set, then roll everything back
+     */
+    public record Options(boolean deactivateMissing, boolean dryRun) {
+        public static final Options SEED = new Options(false, false);
+    }
+
+    public record RowError(int row, String code, String message) {
+    }
+
+    /** {@code codes}: the first {@link #MAX_LISTED} codes per change kind (inserted / updated / deactivated) */
+    public record Result(int rows, int inserted, int updated, int reactivated, int unchanged, int skipped,
+                         int deactivated, int unitsCreated, List<RowError> errors, int errorCount,
+                         Map<String, List<String>> codes, boolean applied) {
+
+        public Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("applied", applied);
+            summary.put("rows", rows);
+            summary.put("inserted", inserted);
+            summary.put("updated", updated);
+            summary.put("reactivated", reactivated);
+            summary.put("unchanged", unchanged);
+            summary.put("deactivated", deactivated);
+            summary.put("skipped", skipped);
+            summary.put("unitsCreated", unitsCreated);
+            summary.put("errorCount", errorCount);
+            summary.put("errors", errors);
+            summary.put("codes", codes);
+            return summary;
+        }
+    }
+
+    public static final int MAX_ROWS = 50_000;
+    public static final int MAX_LISTED = 200;
+
+    /** The header may sit below a few title rows */
+    private static final int HEADER_SCAN_ROWS = 10;
+
+    private static final Set<String> NAME_HEADERS = Set.of(
+            "ten", "ten sp", "ten hang", "ten san pham", "ten vpp", "name", "product name");
+    private static final Set<String> UNIT_HEADERS = Set.of(
+            "dvt", "don vi", "don vi tinh", "unit");
+    private static final Set<String> CATEGORY_HEADERS = Set.of(
+            "danh muc", "nhom", "nhom hang", "ma danh muc", "category", "category code");
+
+    /* ────────── Unit aliases ────────── */
+    private static final Map<String, String> UNIT_ALIAS = Map.ofEntries(
+            Map.entry("cục", "cái"),
+            Map.entry("viên/vĩ", "vĩ"), Map.entry("viên", "vĩ"),
+            Map.entry("vĩ", "vĩ"),
+            Map.entry("bịch", "bịch"));
+
+    private final ProductRepository productRepo;
+    private final UnitRepository unitRepo;
+    private final CategoryRepository categoryRepo;
+    private final CatalogImportRepository importRepo;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate tx;
+
+    public CatalogImportService(ProductRepository productRepo,
+                                UnitRepository unitRepo,
+                                CategoryRepository categoryRepo,
+                                CatalogImportRepository importRepo,
+                                ApplicationEventPublisher events,
+                                PlatformTransactionManager transactionManager) {
+        this.productRepo = productRepo;
+        this.unitRepo = unitRepo;
+        this.categoryRepo = categoryRepo;
+        this.importRepo = importRepo;
+        this.events = events;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /* ────────── checksum gate ────────── */
+
+    /** SHA-256 of the file, hex */
+    public static String checksum(Path file) throws IOException {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), sha)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** True when the newest import of {@code source} had this checksum */
+    public boolean isApplied(String source, String checksum) {
+        return importRepo.findFirstBySourceOrderByAppliedAtDesc(source)
+                .map(i -> i.getChecksum().equals(checksum))
+                .orElse(false);
+    }
+
+    /* ────────── apply ────────── */
+
+    /**
+     * Streams {@code file}, diffs each row against the current products and writes the inserts /
+     * changes / deactivations in batches, all in one transaction together with the import record.
+     * {@code layout} null = find the columns from the header row (VPPham layout if there is none).
+     */
+    public Result apply(Path file, Layout layout, String source, String checksum, Options options) {
+        long started = System.currentTimeMillis();
+        Result result = tx.execute(status -> {
+            Diff diff = new Diff(layout);
+            try {
+                SpreadsheetStreamReader.read(file, diff::row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            diff.finishHeaderScan();
+
+            List<Integer> missing = options.deactivateMissing() ? diff.missing() : List.of();
+            if (options.deactivateMissing() && diff.seen.isEmpty()) {
+                throw new IllegalArgumentException("No product codes found in the file; refusing to deactivate the whole catalog");
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            productRepo.upsertProducts(new ArrayList<>(diff.changes.values()), now);
+            int deactivated = productRepo.deactivateProducts(missing, now);
+
+            Result r = diff.result(deactivated, !options.dryRun());
+            if (options.dryRun()) {
+                status.setRollbackOnly();
+                return r;
+            }
+            importRepo.save(CatalogImport.builder()
+                    .source(source)
+                    .checksum(checksum)
+                    .rowsRead(r.rows())
+                    .inserted(r.inserted())
+                    .updated(r.updated())
+                    .deactivated(r.deactivated())
+                    .appliedAt(now)
+                    .build());
+            if (r.inserted() + r.updated() + r.deactivated() + r.unitsCreated() > 0) {
+                events.publishEvent(new CatalogChangedEvent("catalog-import"));
+            }
+            return r;
+        });
+
+        log.info("Catalog import '{}'{}: {} rows, {} inserted, {} updated, {} deactivated, {} unchanged, {} errors in {} ms",
+                source, options.dryRun() ? " (dry run)" : "", result.rows(), result.inserted(), result.updated(),
+                result.deactivated(), result.unchanged(), result.errorCount(), System.currentTimeMillis() - started);
+        return result;
+    }
+
+    /* ────────── internals ────────── */
+
+    private record Existing(Integer id, String code, String name, Integer unitId, Integer categoryId, boolean active) {
+    }
+
+    /** Per-import state: indexes loaded once, rows arrive one at a time */
+    private final class Diff {
+        private Layout layout;
+        private final Map<String, Existing> products = new HashMap<>();
+        private final Map<String, Integer> units = new HashMap<>();        // lower-case NFC name_vn → id
+        private final Map<String, Integer> categories = new HashMap<>();   // upper-case code / lower-case name → id
+        private final Map<String, ProductUpsert> changes = new LinkedHashMap<>();
+        private final Map<String, Integer> seen = new HashMap<>();         // code key → first row listing it
+        private final List<Map.Entry<Integer, List<String>>> preamble = new ArrayList<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private final List<String> insertedCodes = new ArrayList<>();
+        private final List<String> updatedCodes = new ArrayList<>();
+        private int rows;
+        private int inserted;
+        private int updated;
+        private int reactivated;
+        private int unchanged;
+        private int skipped;
+        private int unitsCreated;
+        private int errorCount;
+
+        Diff(Layout layout) {
+            this.layout = layout;
+            for (Object[] r : productRepo.findCatalogIndex()) {
+                String code = (String) r[1];
+                products.put(CatalogSnapshot.codeKey(code), new Existing((Integer) r[0], code, (String) r[2],
+                        (Integer) r[3], (Integer) r[4], !Boolean.FALSE.equals(r[5])));
+            }
+            for (Unit u : unitRepo.findAll()) {
+                units.put(nfc(u.getNameVn()), u.getUnitId());
+            }
+            for (Category c : categoryRepo.findAll()) {
+                if (c.getNameEn() != null) categories.put(nfc(c.getNameEn()), c.getCategoryId());
+                if (c.getNameVn() != null) categories.put(nfc(c.getNameVn()), c.getCategoryId());
+                categories.put(c.getCode().toUpperCase(Locale.ROOT), c.getCategoryId());
+            }
+        }
+
+        void row(int rowNumber, List<String> cells) {
+            if (layout == null) {
+                Layout header = detectHeader(rowNumber, cells);
+                if (header != null) {
+                    layout = header;
+                    preamble.clear();               // title rows above the header
+                    return;
+                }
+                preamble.add(Map.entry(rowNumber, cells));
+                if (preamble.size() >= HEADER_SCAN_ROWS) finishHeaderScan();
+                return;
+            }
+            if (rowNumber < layout.firstDataRow()) return;
+            if (++rows > MAX_ROWS) {
+                throw new IllegalArgumentException("Catalog file has more than " + MAX_ROWS + " rows");
+            }
+
+            String code = cell(cells, layout.code());
+            if (code.isEmpty()) {
+                skipped++;
+                return;
+            }
+            String key = CatalogSnapshot.codeKey(code);
+            // even when invalid: never deactivate a listed code. The first row of a code wins – a later
+            // duplicate could match the stored product while the earlier row's change is queued
+            Integer firstRow = seen.putIfAbsent(key, rowNumber);
+            if (firstRow != null) {
+                error(rowNumber, code, "Duplicate product code (first listed on row " + firstRow + ")");
+                return;
+            }
+
+            String name = cell(cells, layout.name());
+            String unit = cell(cells, layout.unit());
+            if (name.isEmpty() || unit.isEmpty()) {
+                error(rowNumber, code, name.isEmpty() ? "Missing product name" : "Missing unit");
+                return;
+            }
+            Integer unitId = unitId(unit);
+            Integer categoryId = categoryId(layout.category() >= 0 ? cell(cells, layout.category()) : "", name);
+
+            Existing current = products.get(key);
+            if (current == null) {
+                changes.put(key, new ProductUpsert(code, name, unitId, categoryId));
+                inserted++;
+                list(insertedCodes, code);
+                return;
+            }
+            if (current.active()
+                    && Objects.equals(current.name(), name)
+                    && Objects.equals(current.unitId(), unitId)
+                    && Objects.equals(current.categoryId(), categoryId)) {
+                unchanged++;
+                return;
+            }
+            // keep the stored spelling of the code so ON CONFLICT (code) hits the existing row
+            changes.put(key, new ProductUpsert(current.code(), name, unitId, categoryId));
+            updated++;
+            if (!current.active()) reactivated++;
+            list(updatedCodes, current.code());
+        }
+
+        /** No header in the first rows: VPPham layout, replay what was held back */
+        void finishHeaderScan() {
+            if (layout != null) return;
+            layout = SEED_LAYOUT;
+            List<Map.Entry<Integer, List<String>>> held = new ArrayList<>(preamble);
+            preamble.clear();
+            held.forEach(r -> row(r.getKey(), r.getValue()));
+        }
+
+        /** Active products whose code did not appear in the file */
+        List<Integer> missing() {
+            List<Integer> ids = new ArrayList<>();
+            products.forEach((key, p) -> {
+                if (p.active() && !seen.containsKey(key)) ids.add(p.id());
+            });
+            return ids;
+        }
+
+        Result result(int deactivated, boolean applied) {
+            Set<Integer> missingIds = new HashSet<>(missing());
+            List<String> deactivatedCodes = new ArrayList<>();
+            if (deactivated > 0) {
+                products.values().stream()
+                        .filter(p -> missingIds.contains(p.id()))
+                        .map(Existing::code)
+                        .sorted()
+                        .forEach(c -> list(deactivatedCodes, c));
+            }
+            Map<String, List<String>> codes = new LinkedHashMap<>();
+            codes.put("inserted", insertedCodes);
+            codes.put("updated", updatedCodes);
+            codes.put("deactivated", deactivatedCodes);
+            return new Result(rows, inserted, updated, reactivated, unchanged, skipped, deactivated,
+                    unitsCreated, errors, errorCount, codes, applied);
+        }
+
+        private Layout detectHeader(int rowNumber, List<String> cells) {
+            int code = -1, name = -1, unit = -1, category = -1;
+            for (int i = 0; i < cells.size(); i++) {
+                String h = VietnameseText.fold(cells.get(i));
+                if (code < 0 && OrderSheetParser.CODE_HEADERS.contains(h)) code = i;
+                else if (name < 0 && NAME_HEADERS.contains(h)) name = i;
+                else if (unit < 0 && UNIT_HEADERS.contains(h)) unit = i;
+                else if (category < 0 && CATEGORY_HEADERS.contains(h)) category = i;
+            }
+            if (code < 0 && name < 0 && unit < 0) return null;
+            if (code < 0 || name < 0 || unit < 0) {
+                throw new IllegalArgumentException("Header row needs product code, name and unit columns");
+            }
+            return new Layout(code, name, unit, category, rowNumber + 1);
+        }
+
+        /** Leading pack sizes ("10 cây", "1/2 ream") are dropped, aliases folded, unknown units created */
+        private Integer unitId(String raw) {
+            String n = nfc(raw)
+                    .replaceFirst("^\\d+\\s*", "")
+                    .replaceFirst("^\\d+/\\d+\\s*", "");
+            String key = UNIT_ALIAS.getOrDefault(n, n);
+            Integer id = units.get(key);
+            if (id == null) {
+                id = unitRepo.save(new Unit(null, key, key)).getUnitId();
+                units.put(key, id);
+                unitsCreated++;
+            }
+            return id;
+        }
+
+        /** Category column by code or name; unknown or empty → inferred from the product name */
+        private Integer categoryId(String given, String productName) {
+            if (!given.isEmpty()) {
+                Integer id = categories.get(given.toUpperCase(Locale.ROOT));
+                if (id == null) id = categories.get(nfc(given));
+                if (id != null) return id;
+            }
+            return categories.get(CategoryInferenceService.inferCode(nfc(productName)));
+        }
+
+        private void error(int row, String code, String message) {
+            errorCount++;
+            if (errors.size() < MAX_LISTED) {
+                errors.add(new RowError(row, code, message));
+            }
+        }
+
+        private static void list(List<String> codes, String code) {
+            if (codes.size() < MAX_LISTED) codes.add(code);
+        }
+    }
+
+    private static String cell(List<String> cells, int index) {
+        return index >= 0 && index < cells.size() ? cells.get(index) : "";
+    }
+
+    private static String nfc(String s) {
+        return Normalizer.normalize(
+                s.replace('\u00A0', ' ')
+                        .replaceAll("[\\t\\r\\n]", "")
+                        .trim().toLowerCase(),
+                Normalizer.Form.NFC);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.dto.CategoryDTO;
+import com.example.stationerymgntbe.dto.ProductDTO;
+import com.example.stationerymgntbe.dto.UnitDTO;
+import com.example.stationerymgntbe.util.SearchIndex;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One immutable, versioned view of the whole catalog.
+ * Built off to the side and swapped in as a unit, so readers never see a half-updated catalog.
+ * The DTOs are shared between requests – treat them as read-only.
+ */
+public record CatalogSnapshot(
+        long version,
+        Instant builtAt,
+        List<ProductDTO> products,                      // ordered by id
+        Map<Integer, ProductDTO> productsById,
+        Map<String, ProductDTO> productsByCode,         // key: codeKey(code)
+        Map<Integer, List<ProductDTO>> productsByCategory,
+        List<CategoryDTO> categories,                   // with productCount
+        List<UnitDTO> units,
+        SearchIndex<ProductDTO> productSearch,          // diacritic-insensitive trigram index over name / nameEn / code
+        String productsEtag,                            // strong ETags from (id, updatedAt[, count]) of each section
+        String categoriesEtag,
+        String unitsEtag) {
+
+    public static CatalogSnapshot empty() {
+        return new CatalogSnapshot(0, Instant.EPOCH, List.of(), Map.of(), Map.of(), Map.of(), List.of(), List.of(),
+                SearchIndex.build(List.of(), List.of()), "\"p-0\"", "\"c-0\"", "\"u-0\"");
+    }
+
+    /** Product codes are matched trimmed and case-insensitively (imports, sheets typed by hand) */
+    public static String codeKey(String code) {
+        return code == null ? "" : code.trim().toUpperCase(Locale.ROOT);
+    }
+}
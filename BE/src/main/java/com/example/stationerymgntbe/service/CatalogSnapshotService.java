@@ -0,0 +1,160 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.dto.CategoryDTO;
+import com.example.stationerymgntbe.dto.ProductDTO;
+import com.example.stationerymgntbe.dto.UnitDTO;
+import com.example.stationerymgntbe.entity.Category;
+import com.example.stationerymgntbe.entity.Product;
+import com.example.stationerymgntbe.entity.Unit;
+import com.example.stationerymgntbe.event.CatalogChangedEvent;
+import com.example.stationerymgntbe.mapper.CategoryMapper;
+import com.example.stationerymgntbe.mapper.ProductMapper;
+import com.example.stationerymgntbe.repository.CategoryRepository;
+import com.example.stationerymgntbe.repository.ProductRepository;
+import com.example.stationerymgntbe.repository.UnitRepository;
+import com.example.stationerymgntbe.util.SearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Holds the in-memory catalog (products, categories with counts, units).
+ * Reads never touch the database; any catalog write publishes {@link CatalogChangedEvent}
+ * and the snapshot is rebuilt with three queries and swapped in atomically.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogSnapshotService {
+
+    /** Listener order – anything derived from the snapshot must run after it (higher value) */
+    public static final int REBUILD_ORDER = 0;
+
+    /** Product search: Vietnamese name first, then code, then English name */
+    private static final List<SearchIndex.Field<ProductDTO>> SEARCH_FIELDS = List.of(
+            new SearchIndex.Field<>(ProductDTO::getName, 1.0),
+            new SearchIndex.Field<>(ProductDTO::getCode, 1.0),
+            new SearchIndex.Field<>(ProductDTO::getNameEn, 0.9));
+
+    private final ProductRepository productRepo;
+    private final CategoryRepository categoryRepo;
+    private final UnitRepository unitRepo;
+    private final ProductMapper productMapper;
+    private final CategoryMapper categoryMapper;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+
+    /** Current snapshot; built on first use if startup has not done it yet */
+    public CatalogSnapshot current() {
+        CatalogSnapshot snap = current.get();
+        return snap != null ? snap : rebuild();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(REBUILD_ORDER)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(REBUILD_ORDER)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        log.debug("Catalog changed ({}), rebuilding snapshot", event.source());
+        rebuild();
+    }
+
+    /** Load everything, build a new snapshot, swap it in */
+    public synchronized CatalogSnapshot rebuild() {
+        long started = System.currentTimeMillis();
+
+        // Deactivated products stay in the table for order history but leave the catalog
+        List<Product> products = productRepo.findAllWithUnitAndCategory().stream()
+                .filter(p -> !Boolean.FALSE.equals(p.getActive()))
+                .toList();
+        List<Category> categories = categoryRepo.findAll();
+        List<Unit> units = unitRepo.findAll();
+
+        List<ProductDTO> productDtos = products.stream()
+                .sorted(Comparator.comparing(Product::getProductId))
+                .map(productMapper::toDto)
+                .toList();
+
+        Map<Integer, ProductDTO> byId = new HashMap<>();
+        Map<String, ProductDTO> byCode = new HashMap<>();
+        Map<Integer, List<ProductDTO>> byCategory = new HashMap<>();
+        for (ProductDTO p : productDtos) {
+            byId.put(p.getId(), p);
+            if (p.getCode() != null) {
+                byCode.putIfAbsent(CatalogSnapshot.codeKey(p.getCode()), p);
+            }
+            if (p.getCategoryId() != null) {
+                byCategory.computeIfAbsent(p.getCategoryId(), k -> new ArrayList<>()).add(p);
+            }
+        }
+        Map<Integer, List<ProductDTO>> byCategoryFrozen = new LinkedHashMap<>();
+        byCategory.forEach((k, v) -> byCategoryFrozen.put(k, List.copyOf(v)));
+
+        List<CategoryDTO> categoryDtos = categories.stream()
+                .map(c -> {
+                    CategoryDTO dto = categoryMapper.toDto(c);
+                    dto.setProductCount((long) byCategory.getOrDefault(c.getCategoryId(), List.of()).size());
+                    return dto;
+                })
+                .toList();
+
+        List<UnitDTO> unitDtos = units.stream()
+                .map(u -> new UnitDTO(u.getUnitId(), u.getNameEn(), u.getNameVn()))
+                .toList();
+
+        // Version tokens per section; product DTOs embed category / unit names, so their ETag covers all three
+        List<String> productTokens = products.stream()
+                .sorted(Comparator.comparing(Product::getProductId))
+                .map(p -> p.getProductId() + ":" + p.getUpdatedAt())
+                .toList();
+        List<String> categoryTokens = categories.stream()
+                .sorted(Comparator.comparing(Category::getCategoryId))
+                .map(c -> c.getCategoryId() + ":" + c.getUpdatedAt() + ":"
+                        + byCategory.getOrDefault(c.getCategoryId(), List.of()).size())
+                .toList();
+        List<String> unitTokens = units.stream()
+                .sorted(Comparator.comparing(Unit::getUnitId))
+                .map(u -> u.getUnitId() + ":" + u.getUpdatedAt())
+                .toList();
+
+        CatalogSnapshot previous = current.get();
+        CatalogSnapshot next = new CatalogSnapshot(
+                previous != null ? previous.version() + 1 : 1,
+                Instant.now(),
+                productDtos,
+                Collections.unmodifiableMap(byId),
+                Collections.unmodifiableMap(byCode),
+                Collections.unmodifiableMap(byCategoryFrozen),
+                categoryDtos,
+                unitDtos,
+                SearchIndex.build(productDtos, SEARCH_FIELDS),
+                HttpCacheService.etag("p", Stream.of(productTokens, categoryTokens, unitTokens).flatMap(List::stream)),
+                HttpCacheService.etag("c", categoryTokens.stream()),
+                HttpCacheService.etag("u", unitTokens.stream()));
+        current.set(next);
+
+        log.info("Catalog snapshot v{} built: {} products, {} categories, {} units in {} ms",
+                next.version(), productDtos.size(), categoryDtos.size(), unitDtos.size(),
+                System.currentTimeMillis() - started);
+        return next;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.util.KeywordAutomaton;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Đoán danh mục từ tên sản phẩm – chỉ dùng cho sản phẩm chưa gán category.
+ * Toàn bộ từ khoá được biên dịch một lần thành automaton, kết quả cache theo productId
+ * (tự tính lại khi tên sản phẩm đổi).
+ */
+@Service
+public class CategoryInferenceService {
+
+    public static final String FALLBACK_CODE = "MISC";
+
+    /** Từ khoá → category code. Khoảng trắng ở đầu/cuối là ranh giới từ (tên được bọc thêm 1 space mỗi bên). */
+    public static final Map<String, String> KEYWORDS;
+
+    static {
+        Map<String, String> kw = new LinkedHashMap<>();
+        kw.put("băng keo", "ADHESIVE"); kw.put("keo ", "ADHESIVE"); kw.put("stick-tack", "ADHESIVE");
+        kw.put("bao thư", "ENVELOPE");
+        kw.put("bìa", "FILE"); kw.put("file", "FILE"); kw.put("folder", "FILE"); kw.put("mika", "FILE");
+        kw.put("bút bi", "PEN"); kw.put(" pen ", "PEN"); kw.put("bút bảng", "WHITEBOARD");
+        kw.put("bút chì", "PENCIL"); kw.put("ruột chì", "PENCIL");
+        kw.put("dạ quang", "HIGHLIGHTER"); kw.put("marker", "HIGHLIGHTER"); kw.put("lông dầu", "HIGHLIGHTER");
+        kw.put("gôm", "CORRECTION"); kw.put("xóa", "CORRECTION"); kw.put("eraser", "CORRECTION");
+        kw.put("dao ", "CUTTING"); kw.put("kéo ", "CUTTING"); kw.put("đục lỗ", "CUTTING");
+        kw.put("kẹp ", "CLIP"); kw.put("ghim", "CLIP"); kw.put("kim bấm", "CLIP");
+        kw.put("bấm", "CLIP"); kw.put("gỡ kim", "CLIP");
+        kw.put("giấy ghi chú", "STICKY_NOTE"); kw.put("tem dán", "STICKY_NOTE"); kw.put("decal", "STICKY_NOTE");
+        kw.put("sổ ", "NOTEBOOK"); kw.put("tập ", "NOTEBOOK"); kw.put("notebook", "NOTEBOOK"); kw.put("workbook", "NOTEBOOK");
+        kw.put("70gsm", "PRINT_PAPER"); kw.put("80gms", "PRINT_PAPER"); kw.put("giấy in", "PRINT_PAPER"); kw.put("tiêu đề", "PRINT_PAPER");
+        kw.put("thước", "RULER");
+        KEYWORDS = Collections.unmodifiableMap(kw);
+    }
+
+    private static final KeywordAutomaton<String> MATCHER = KeywordAutomaton.ignoreCase(KEYWORDS);
+
+    private record Cached(String name, String code) {
+    }
+
+    private final Map<Integer, Cached> byProduct = new ConcurrentHashMap<>();
+
+    /** Category code đoán từ tên (leftmost / longest keyword), MISC nếu không khớp */
+    public static String inferCode(String productName) {
+        if (productName == null || productName.isBlank()) return FALLBACK_CODE;
+        String text = " " + Normalizer.normalize(productName.replace('\u00A0', ' ').trim(), Normalizer.Form.NFC) + " ";
+        KeywordAutomaton.Match<String> m = MATCHER.findFirst(text);
+        return m != null ? m.value() : FALLBACK_CODE;
+    }
+
+    /** Như {@link #inferCode(String)} nhưng cache theo sản phẩm */
+    public String inferCode(Integer productId, String productName) {
+        if (productId == null) return inferCode(productName);
+        Cached hit = byProduct.get(productId);
+        if (hit != null && hit.name().equals(productName)) {
+            return hit.code();
+        }
+        String code = inferCode(productName);
+        byProduct.put(productId, new Cached(productName, code));
+        return code;
+    }
+}
@@ -4,11 +4,13 @@ import java.io.IOException;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.example.stationerymgntbe.dto.CategoryDTO;
 import com.example.stationerymgntbe.entity.Category;
+import com.example.stationerymgntbe.event.CatalogChangedEvent;
 import com.example.stationerymgntbe.exception.ResourceNotFoundException;
 import com.example.stationerymgntbe.mapper.CategoryMapper;
 import com.example.stationerymgntbe.repository.CategoryRepository;
@@ -20,19 +22,16 @@ public class CategoryService {
 
     private final CategoryRepository repo;
     private final CategoryMapper     map;
+    private final CatalogSnapshotService catalog;
+    private final ApplicationEventPublisher events;
     
     @Autowired
     private CloudinaryService cloudinaryService;
 
-    /* ---------- Lấy tất cả ---------- */
+    /* ---------- Lấy tất cả (từ catalog snapshot, đã kèm productCount) ---------- */
     public List<CategoryDTO> all(){
-    return repo.findAllWithCount().stream()
-            .map(arr -> {
-                CategoryDTO dto = map.toDto((Category)arr[0]);
-                dto.setProductCount((Long)arr[1]);
-                return dto;
-            }).toList();
-}
+        return catalog.current().categories();
+    }
 
     /* ---------- Tạo mới ---------- */
     public CategoryDTO create(CategoryDTO d){
@@ -41,7 +40,9 @@ public class CategoryService {
          || repo.existsByCodeIgnoreCase(d.getCode()))
             throw new IllegalStateException("Category duplicated");
 
-        return map.toDto( repo.save( map.toEntity(d) ) );
+        CategoryDTO saved = map.toDto( repo.save( map.toEntity(d) ) );
+        events.publishEvent(new CatalogChangedEvent("category-create"));
+        return saved;
     }
 
     /* ---------- Cập nhật ---------- */
@@ -54,10 +55,15 @@ public class CategoryService {
         /* nếu muốn cho đổi code thì thêm:
            c.setCode(d.getCode());
            nhớ check trùng trước khi set */
-        return map.toDto( repo.save(c) );
+        CategoryDTO saved = map.toDto( repo.save(c) );
+        events.publishEvent(new CatalogChangedEvent("category-update"));
+        return saved;
     }
 
-    public void delete(Integer id){ repo.deleteById(id); }
+    public void delete(Integer id){
+        repo.deleteById(id);
+        events.publishEvent(new CatalogChangedEvent("category-delete"));
+    }
 
     /* ---------- Upload icon ---------- */
     public CategoryDTO uploadIcon(Integer id, MultipartFile file) throws IOException{
@@ -92,7 +98,9 @@ public class CategoryService {
             
             c.setIcon(cloudinaryUrl);
             
-            return map.toDto(repo.save(c));
+            CategoryDTO saved = map.toDto(repo.save(c));
+            events.publishEvent(new CatalogChangedEvent("category-icon"));
+            return saved;
             
         } catch (Exception e) {
             throw new IOException("Failed to upload icon to Cloudinary: " + e.getMessage(), e);
@@ -0,0 +1,177 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.dto.ProductDTO;
+import com.example.stationerymgntbe.entity.DemandProfile;
+import com.example.stationerymgntbe.repository.DemandProfileRepository;
+import com.example.stationerymgntbe.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hồ sơ nhu cầu theo phòng ban: mỗi đêm tính lượng đặt trung bình (làm mượt hàm mũ)
+ * của từng sản phẩm trong N tháng gần nhất và lưu vào department_demand_profiles.
+ * Endpoint "prefill" chỉ đọc bảng này – một truy vấn cho cả giỏ hàng gợi ý.
+ */
+@Slf4j
+@Service
+public class DemandProfileService {
+
+    private final DemandProfileRepository profileRepo;
+    private final OrderRepository orderRepo;
+    private final CatalogSnapshotService catalog;
+    private final TransactionTemplate tx;
+
+    private final int months;
+    private final double alpha;
+    private final int minMonths;
+
+    public DemandProfileService(DemandProfileRepository profileRepo,
+                                OrderRepository orderRepo,
+                                CatalogSnapshotService catalog,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${order.prefill.months:6}") int months,
+                                @Value("${order.prefill.alpha:0.5}") double alpha,
+                                @Value("${order.prefill.min-months:2}") int minMonths) {
+        this.profileRepo = profileRepo;
+        this.orderRepo = orderRepo;
+        this.catalog = catalog;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.months = Math.max(1, months);
+        this.alpha = Math.min(1, Math.max(0.01, alpha));
+        this.minMonths = Math.max(1, Math.min(minMonths, this.months));
+    }
+
+    /* ────────── nightly precompute ────────── */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (profileRepo.count() == 0) {
+            rebuild();
+        }
+    }
+
+    /** Recompute every profile from the last N complete months and replace the table in one transaction */
+    @Scheduled(cron = "${order.prefill.cron:0 30 1 * * *}")
+    public Map<String, Object> rebuild() {
+        long started = System.currentTimeMillis();
+        YearMonth first = YearMonth.now().minusMonths(months);
+        LocalDateTime start = first.atDay(1).atStartOfDay();
+        LocalDateTime end = YearMonth.now().atDay(1).atStartOfDay();
+
+        // (department, product) → quantity per month slot, oldest first
+        Map<Long, long[]> series = new HashMap<>();
+        for (Object[] row : orderRepo.findMonthlyDepartmentDemand(start, end)) {
+            int dept = ((Number) row[0]).intValue();
+            int product = ((Number) row[1]).intValue();
+            YearMonth month = YearMonth.from(toLocalDate(row[2]));
+            int slot = (int) first.until(month, ChronoUnit.MONTHS);
+            if (slot < 0 || slot >= months) continue;
+            series.computeIfAbsent(((long) dept << 32) | (product & 0xFFFFFFFFL), k -> new long[months])[slot]
+                    += ((Number) row[3]).longValue();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<DemandProfile> profiles = new ArrayList<>();
+        series.forEach((key, qty) -> {
+            int ordered = 0;
+            for (long q : qty) if (q > 0) ordered++;
+            if (ordered < minMonths) return;
+
+            double smoothed = smooth(qty);
+            profiles.add(DemandProfile.builder()
+                    .departmentId((int) (key >>> 32))
+                    .productId((int) (long) key)
+                    .smoothedQuantity(Math.round(smoothed * 100) / 100.0)
+                    .suggestedQuantity((int) Math.max(1, Math.round(smoothed)))
+                    .monthsOrdered(ordered)
+                    .monthsWindow(months)
+                    .computedAt(now)
+                    .build());
+        });
+
+        // Readers keep seeing the previous profiles until this commits
+        tx.executeWithoutResult(status -> {
+            profileRepo.deleteAllInBatch();
+            profileRepo.saveAll(profiles);
+        });
+
+        long departments = profiles.stream().map(DemandProfile::getDepartmentId).distinct().count();
+        log.info("Demand profiles rebuilt: {} rows for {} departments from {} to {} in {} ms",
+                profiles.size(), departments, first, YearMonth.from(end.minusDays(1)),
+                System.currentTimeMillis() - started);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("profiles", profiles.size());
+        summary.put("departments", departments);
+        summary.put("from", first.toString());
+        summary.put("to", YearMonth.from(end.minusDays(1)).toString());
+        summary.put("computedAt", now);
+        return summary;
+    }
+
+    /* ────────── read ────────── */
+
+    /** Suggested cart for a department: one indexed lookup, product details from the catalog snapshot */
+    public Map<String, Object> prefill(Integer departmentId) {
+        Map<Integer, ProductDTO> byId = catalog.current().productsById();
+        List<Map<String, Object>> items = new ArrayList<>();
+        LocalDateTime computedAt = null;
+
+        for (DemandProfile p : profileRepo.findByDepartmentIdOrderBySuggestedQuantityDescProductIdAsc(departmentId)) {
+            ProductDTO product = byId.get(p.getProductId());
+            if (product == null) continue;                          // discontinued since the last run
+            computedAt = p.getComputedAt();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("productId", product.getId());
+            item.put("productCode", product.getCode());
+            item.put("productName", product.getName());
+            item.put("unit", product.getUnit());
+            item.put("image", product.getImage());
+            item.put("quantity", p.getSuggestedQuantity());
+            item.put("averageQuantity", p.getSmoothedQuantity());
+            item.put("monthsOrdered", p.getMonthsOrdered());
+            items.add(item);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("departmentId", departmentId);
+        result.put("months", months);
+        result.put("computedAt", computedAt);
+        result.put("items", items);
+        return result;
+    }
+
+    /* ────────── internals ────────── */
+
+    /** Exponentially weighted average, oldest month first (recent months weigh more) */
+    private double smooth(long[] qty) {
+        double s = qty[0];
+        for (int i = 1; i < qty.length; i++) {
+            s = alpha * qty[i] + (1 - alpha) * s;
+        }
+        return s;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate d) return d;
+        if (value instanceof java.sql.Date d) return d.toLocalDate();
+        if (value instanceof LocalDateTime dt) return dt.toLocalDate();
+        return LocalDate.parse(value.toString().substring(0, 10));
+    }
+}
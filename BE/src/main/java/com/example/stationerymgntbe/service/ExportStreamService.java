@@ -0,0 +1,125 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.util.RowStreamWriter;
+import com.example.stationerymgntbe.util.RowStreamWriter.Column;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Xuất danh sách lớn dạng NDJSON / CSV theo luồng: dữ liệu đọc bằng cursor một chiều
+ * (fetch size {@link #FETCH_SIZE}) trong một transaction chỉ đọc, ghi từng dòng thẳng ra response.
+ * Persistence context được xoá sau mỗi lô nên bộ nhớ không tăng theo kích thước bảng.
+ */
+@Slf4j
+@Service
+public class ExportStreamService {
+
+    /** Rows per JDBC round trip; also how often the persistence context is cleared and output flushed */
+    public static final int FETCH_SIZE = 500;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public static Format of(String value) {
+            if (value == null || value.isBlank()) return NDJSON;
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format '" + value + "' (ndjson, csv)");
+            }
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readTx;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ExportStreamService(ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+    }
+
+    /**
+     * Streams rows from a database cursor. {@code source} must return a lazily-fetched
+     * (repository {@code Stream<…>}) result; it is opened inside the read-only transaction
+     * when the response body is written, not when this method is called.
+     */
+    public <T> ResponseEntity<StreamingResponseBody> fromCursor(String name, Format format, List<Column<T>> columns,
+                                                                Supplier<Stream<T>> source) {
+        StreamingResponseBody body = out -> readTx.executeWithoutResult(status -> {
+            try (Stream<T> rows = source.get()) {
+                write(name, format, columns, rows.iterator(), out, true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return response(name, format, body);
+    }
+
+    /** Streams rows that are already in memory (catalog snapshot) without building the whole JSON document */
+    public <T> ResponseEntity<StreamingResponseBody> fromList(String name, Format format, List<Column<T>> columns,
+                                                              List<T> rows) {
+        StreamingResponseBody body = out -> write(name, format, columns, rows.iterator(), out, false);
+        return response(name, format, body);
+    }
+
+    /* ────────── internals ────────── */
+
+    private <T> void write(String name, Format format, List<Column<T>> columns, Iterator<T> rows,
+                           OutputStream out, boolean clearContext) throws IOException {
+        long started = System.currentTimeMillis();
+        long count = 0;
+        try (RowStreamWriter<T> writer = format == Format.CSV
+                ? RowStreamWriter.csv(out, columns)
+                : RowStreamWriter.ndjson(out, objectMapper)) {
+            while (rows.hasNext()) {
+                writer.write(rows.next());
+                if (++count % FETCH_SIZE == 0) {
+                    if (clearContext) entityManager.clear();      // drop the entities of the last batch
+                    writer.flush();
+                }
+            }
+        }
+        log.debug("Export '{}' ({}): {} rows in {} ms", name, format, count, System.currentTimeMillis() - started);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> response(String name, Format format, StreamingResponseBody body) {
+        String fileName = "%s-%s.%s".formatted(name, LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE), format.extension);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.mediaType))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.stationerymgntbe.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Conditional GET support (ETag / If-None-Match → 304) and its hit-rate counters.
+ * The ETag is checked before the body supplier runs, so a 304 costs no DTO mapping
+ * and no JSON serialization.
+ */
+@Service
+public class HttpCacheService {
+
+    /** Per-endpoint counters: all GETs, GETs carrying If-None-Match, 304s served */
+    private static final class Counters {
+        final LongAdder requests = new LongAdder();
+        final LongAdder conditional = new LongAdder();
+        final LongAdder notModified = new LongAdder();
+    }
+
+    /**
+     * Browser may keep the (per-user) response but must revalidate every time.
+     * Setting it explicitly also stops Spring Security from sending its default no-store.
+     */
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    /** 304 when If-None-Match matches {@code etag}, otherwise 200 with the body from {@code body} */
+    public <T> ResponseEntity<T> conditional(String endpoint, HttpServletRequest request, String etag, Supplier<T> body) {
+        if (isNotModified(endpoint, request, etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body.get());
+    }
+
+    /** Records the request and tells whether the client copy is still current */
+    public boolean isNotModified(String endpoint, HttpServletRequest request, String etag) {
+        Counters c = counters.computeIfAbsent(endpoint, k -> new Counters());
+        c.requests.increment();
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        c.conditional.increment();
+        if (etag != null && matches(ifNoneMatch, etag)) {
+            c.notModified.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+    }
+
+    /** Hit-rate snapshot for the health endpoint */
+    public Map<String, Object> stats() {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long requests = 0, conditional = 0, notModified = 0;
+        for (Map.Entry<String, Counters> e : counters.entrySet()) {
+            long r = e.getValue().requests.sum();
+            long c = e.getValue().conditional.sum();
+            long n = e.getValue().notModified.sum();
+            endpoints.put(e.getKey(), Map.of(
+                    "requests", r,
+                    "conditionalRequests", c,
+                    "notModified", n,
+                    "hitRate", rate(n, r)));
+            requests += r;
+            conditional += c;
+            notModified += n;
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", requests);
+        result.put("conditionalRequests", conditional);
+        result.put("notModified", notModified);
+        result.put("hitRate", rate(notModified, requests));
+        result.put("endpoints", endpoints);
+        return result;
+    }
+
+    /** Strong ETag {@code "prefix-<hash>"} over the given version tokens (order matters) */
+    public static String etag(String prefix, Stream<String> versionTokens) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            versionTokens.forEach(t -> {
+                md.update(t.getBytes(StandardCharsets.UTF_8));
+                md.update((byte) ';');
+            });
+            return "\"" + prefix + "-" + HexFormat.of().formatHex(md.digest(), 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);     // weak comparison is fine for If-None-Match
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double rate(long hits, long total) {
+        return total > 0 ? Math.round(hits * 10000.0 / total) / 100.0 : 0.0;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.entity.Order;
+import com.example.stationerymgntbe.enums.OrderStatus;
+import com.example.stationerymgntbe.exception.ResourceNotFoundException;
+import com.example.stationerymgntbe.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Month-end archive of order PDFs streamed as a single ZIP.
+ * Orders without a signed upload are rendered on a small fixed pool; at most
+ * {@code maxInFlight} rendered PDFs are held in memory at any time, and every
+ * entry is written to the ZIP as soon as it is ready. Signed PDFs are copied
+ * straight from disk into the stream.
+ */
+@Slf4j
+@Service
+public class OrderArchiveService {
+
+    /** Orders that have (or had) a printable PDF */
+    private static final Set<OrderStatus> ARCHIVED_STATUSES = EnumSet.of(
+            OrderStatus.exported, OrderStatus.submitted, OrderStatus.approved, OrderStatus.rejected);
+
+    private final OrderRepository orderRepo;
+    private final ReportService reportService;
+    private final ExecutorService renderPool;
+    private final int maxInFlight;
+
+    public OrderArchiveService(OrderRepository orderRepo,
+                               ReportService reportService,
+                               @Value("${report.archive.render-threads:4}") int renderThreads) {
+        this.orderRepo = orderRepo;
+        this.reportService = reportService;
+        AtomicInteger seq = new AtomicInteger();
+        this.renderPool = Executors.newFixedThreadPool(renderThreads, r -> {
+            Thread t = new Thread(r, "pdf-render-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.maxInFlight = renderThreads * 2;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    /** One ZIP entry to produce */
+    private record ArchiveEntry(Integer orderId, String orderNumber, String signedPdfPath, String department) {
+
+        String baseName() {
+            String name = orderNumber != null ? orderNumber : "order-" + orderId;
+            return safe(department) + "/" + safe(name);
+        }
+    }
+
+    /** A rendered PDF waiting to be written */
+    private record RenderedPdf(ArchiveEntry entry, byte[] data, String error) {
+    }
+
+    /**
+     * Write every archived order of the month (optionally one department) into {@code out} as a ZIP.
+     *
+     * @return number of entries written
+     */
+    public int writeMonthlyArchive(int year, int month, Integer departmentId, OutputStream out) throws IOException {
+        LocalDateTime start = LocalDateTime.of(year, month, 1, 0, 0);
+        List<ArchiveEntry> entries = orderRepo.findArchiveEntries(start, start.plusMonths(1), ARCHIVED_STATUSES, departmentId)
+                .stream()
+                .map(r -> new ArchiveEntry((Integer) r[0], (String) r[1], (String) r[2], (String) r[3]))
+                .toList();
+
+        log.info("Building order archive {}-{} (department {}): {} orders", year, month, departmentId, entries.size());
+
+        CompletionService<RenderedPdf> completion = new ExecutorCompletionService<>(renderPool);
+        Set<Future<RenderedPdf>> outstanding = new HashSet<>();
+        Set<String> usedNames = new HashSet<>();
+        int written = 0;
+
+        try (ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8)) {
+            Iterator<ArchiveEntry> pending = entries.iterator();
+            int inFlight = 0;
+
+            while (pending.hasNext() || inFlight > 0) {
+                // Keep the render pool busy, but never hold more than maxInFlight PDFs in memory
+                while (inFlight < maxInFlight && pending.hasNext()) {
+                    ArchiveEntry entry = pending.next();
+                    Path signed = signedFile(entry);
+                    if (signed != null) {
+                        writeEntry(zip, usedNames, entry.baseName() + "-signed.pdf", signed);
+                        written++;
+                        continue;
+                    }
+                    outstanding.add(completion.submit(() -> render(entry)));
+                    inFlight++;
+                }
+
+                if (inFlight > 0) {
+                    Future<RenderedPdf> done = completion.take();
+                    outstanding.remove(done);
+                    inFlight--;
+                    RenderedPdf rendered = done.get();
+                    if (rendered.data() != null) {
+                        writeEntry(zip, usedNames, rendered.entry().baseName() + ".pdf", rendered.data());
+                    } else {
+                        writeEntry(zip, usedNames, rendered.entry().baseName() + "-ERROR.txt",
+                                rendered.error().getBytes(StandardCharsets.UTF_8));
+                    }
+                    written++;
+                }
+            }
+            zip.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Order archive interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Order archive failed", e.getCause());
+        } finally {
+            // Client went away or something failed: stop rendering what nobody will read
+            outstanding.forEach(f -> f.cancel(true));
+        }
+
+        log.info("Order archive {}-{} completed: {} entries", year, month, written);
+        return written;
+    }
+
+    private RenderedPdf render(ArchiveEntry entry) {
+        try {
+            Order order = orderRepo.findByIdWithDetails(entry.orderId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found: " + entry.orderId()));
+            return new RenderedPdf(entry, reportService.exportSingleOrder(order), null);
+        } catch (Exception e) {
+            log.warn("Failed to render PDF for order {}: {}", entry.orderId(), e.getMessage());
+            return new RenderedPdf(entry, null, "Failed to render order " + entry.orderId() + ": " + e.getMessage());
+        }
+    }
+
+    private Path signedFile(ArchiveEntry entry) {
+        if (entry.signedPdfPath() == null || entry.signedPdfPath().isBlank()) {
+            return null;
+        }
+        Path path = Paths.get(entry.signedPdfPath());
+        if (!Files.isReadable(path)) {
+            log.warn("Signed PDF for order {} is missing on disk: {}", entry.orderId(), path);
+            return null;
+        }
+        return path;
+    }
+
+    private void writeEntry(ZipOutputStream zip, Set<String> usedNames, String name, byte[] data) throws IOException {
+        zip.putNextEntry(new ZipEntry(unique(usedNames, name)));
+        zip.write(data);
+        zip.closeEntry();
+        zip.flush();
+    }
+
+    private void writeEntry(ZipOutputStream zip, Set<String> usedNames, String name, Path file) throws IOException {
+        zip.putNextEntry(new ZipEntry(unique(usedNames, name)));
+        Files.copy(file, zip);
+        zip.closeEntry();
+        zip.flush();
+    }
+
+    private static String unique(Set<String> usedNames, String name) {
+        String candidate = name;
+        int dot = name.lastIndexOf('.');
+        for (int i = 2; !usedNames.add(candidate); i++) {
+            candidate = name.substring(0, dot) + "-" + i + name.substring(dot);
+        }
+        return candidate;
+    }
+
+    private static String safe(String s) {
+        if (s == null || s.isBlank()) return "unknown";
+        return s.trim().replaceAll("[\\\\/:*?\"<>|]", "_");
+    }
+}
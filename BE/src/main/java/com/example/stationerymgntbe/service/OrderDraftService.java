@@ -0,0 +1,189 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.dto.ApiResponse;
+import com.example.stationerymgntbe.dto.DraftOperationDTO;
+import com.example.stationerymgntbe.dto.ProductDTO;
+import com.example.stationerymgntbe.entity.Department;
+import com.example.stationerymgntbe.entity.OrderDraft;
+import com.example.stationerymgntbe.entity.User;
+import com.example.stationerymgntbe.repository.OrderDraftItemRepository;
+import com.example.stationerymgntbe.repository.OrderDraftRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Đơn nháp phía server: giỏ hàng được lưu dần bằng các thao tác PATCH nhỏ (add / set / remove),
+ * mỗi thao tác là một câu lệnh upsert/delete theo (draft, product). Khi chốt đơn,
+ * {@link OrderService#finalizeDraft()} chỉ chép các dòng sang order_items bằng một câu lệnh.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderDraftService {
+
+    public static final int MAX_OPERATIONS = 200;
+
+    private final OrderDraftRepository draftRepo;
+    private final OrderDraftItemRepository draftItemRepo;
+    private final UserService userService;
+    private final CatalogSnapshotService catalog;
+
+    public ApiResponse<Map<String, Object>> getDraft() {
+        try {
+            User user = userService.getCurrentUserEntity();
+            return draftRepo.findByUserId(user.getUserId())
+                    .map(d -> ApiResponse.success("Draft retrieved successfully", view(d)))
+                    .orElseGet(() -> ApiResponse.success("No draft", emptyView()));
+        } catch (Exception e) {
+            log.error("Error retrieving draft", e);
+            return ApiResponse.error("Failed to retrieve draft: " + e.getMessage());
+        }
+    }
+
+    /** Applies the operations in order, all or nothing; creates the draft on first use */
+    @Transactional
+    public ApiResponse<Map<String, Object>> patchDraft(List<DraftOperationDTO> ops) {
+        try {
+            if (ops == null || ops.isEmpty()) {
+                throw new IllegalArgumentException("At least one operation is required");
+            }
+            if (ops.size() > MAX_OPERATIONS) {
+                throw new IllegalArgumentException("Too many operations (max " + MAX_OPERATIONS + ")");
+            }
+
+            User user = userService.getCurrentUserEntity();
+            LocalDateTime now = LocalDateTime.now();
+            OrderDraft draft = draftRepo.findByUserId(user.getUserId())
+                    .orElseGet(() -> createDraft(user, now));
+            Integer draftId = draft.getDraftId();
+            Map<Integer, ProductDTO> products = catalog.current().productsById();
+
+            boolean negativeAdd = false;
+            for (DraftOperationDTO op : ops) {
+                String kind = op.getOp() == null ? "" : op.getOp().trim().toLowerCase();
+                if (op.getProductId() == null) {
+                    throw new IllegalArgumentException("productId is required for '" + kind + "'");
+                }
+                switch (kind) {
+                    case "add" -> {
+                        int qty = op.getQuantity() == null ? 1 : op.getQuantity();
+                        if (qty == 0) continue;
+                        requireProduct(products, op.getProductId());
+                        draftItemRepo.addQuantity(draftId, op.getProductId(), qty, now);
+                        negativeAdd |= qty < 0;
+                    }
+                    case "set" -> {
+                        if (op.getQuantity() == null || op.getQuantity() < 0) {
+                            throw new IllegalArgumentException("'set' needs a quantity of 0 or more");
+                        }
+                        if (op.getQuantity() == 0) {
+                            draftItemRepo.removeLine(draftId, op.getProductId());
+                        } else {
+                            requireProduct(products, op.getProductId());
+                            draftItemRepo.setQuantity(draftId, op.getProductId(), op.getQuantity(), now);
+                        }
+                    }
+                    case "remove" -> draftItemRepo.removeLine(draftId, op.getProductId());
+                    default -> throw new IllegalArgumentException("Unknown operation '" + op.getOp() + "' (add, set, remove)");
+                }
+            }
+            if (negativeAdd) {
+                draftItemRepo.removeEmptyLines(draftId);       // negative "add" took a line to zero
+            }
+
+            draft.setUpdatedAt(now);
+            draftRepo.save(draft);
+            return ApiResponse.success("Draft updated", view(draft));
+
+        } catch (Exception e) {
+            log.warn("Draft update rejected: {}", e.getMessage());
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ApiResponse.error("Failed to update draft: " + e.getMessage());
+        }
+    }
+
+    @Transactional
+    public ApiResponse<Void> discardDraft() {
+        try {
+            User user = userService.getCurrentUserEntity();
+            draftRepo.findByUserId(user.getUserId()).ifPresent(d -> {
+                draftItemRepo.deleteByDraftId(d.getDraftId());
+                draftRepo.delete(d);
+            });
+            return ApiResponse.success("Draft discarded", null);
+        } catch (Exception e) {
+            log.error("Error discarding draft", e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ApiResponse.error("Failed to discard draft: " + e.getMessage());
+        }
+    }
+
+    /* ────────── internals ────────── */
+
+    /** Upsert, then read back: a concurrent first PATCH of the same user may have created the row */
+    private OrderDraft createDraft(User user, LocalDateTime now) {
+        Department department = user.getDepartment();
+        if (department == null) {
+            throw new IllegalStateException("User must be assigned to a department to create orders");
+        }
+        draftRepo.insertIfAbsent(user.getUserId(), department.getDepartmentId(), now);
+        return draftRepo.findByUserId(user.getUserId())
+                .orElseThrow(() -> new IllegalStateException("Draft of user " + user.getUserId() + " was not created"));
+    }
+
+    private static void requireProduct(Map<Integer, ProductDTO> products, Integer productId) {
+        if (!products.containsKey(productId)) {
+            throw new IllegalArgumentException("Product not found: " + productId);
+        }
+    }
+
+    /** Draft lines with product details from the catalog snapshot (one query) */
+    private Map<String, Object> view(OrderDraft draft) {
+        Map<Integer, ProductDTO> products = catalog.current().productsById();
+        List<Map<String, Object>> items = new ArrayList<>();
+        long totalQuantity = 0;
+        for (Object[] row : draftItemRepo.findLines(draft.getDraftId())) {
+            Integer productId = (Integer) row[0];
+            int quantity = ((Number) row[1]).intValue();
+            ProductDTO product = products.get(productId);
+
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("productId", productId);
+            item.put("productCode", product != null ? product.getCode() : null);
+            item.put("productName", product != null ? product.getName() : null);
+            item.put("unit", product != null ? product.getUnit() : null);
+            item.put("image", product != null ? product.getImage() : null);
+            item.put("quantity", quantity);
+            item.put("available", product != null);     // dropped on finalize when false
+            items.add(item);
+            totalQuantity += quantity;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("draftId", draft.getDraftId());
+        result.put("departmentId", draft.getDepartment().getDepartmentId());
+        result.put("updatedAt", draft.getUpdatedAt());
+        result.put("itemCount", items.size());
+        result.put("totalQuantity", totalQuantity);
+        result.put("items", items);
+        return result;
+    }
+
+    private static Map<String, Object> emptyView() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("draftId", null);
+        result.put("itemCount", 0);
+        result.put("totalQuantity", 0);
+        result.put("items", List.of());
+        return result;
+    }
+}
@@ -3,17 +3,22 @@ package com.example.stationerymgntbe.service;
 import com.example.stationerymgntbe.dto.*;
 import com.example.stationerymgntbe.entity.*;
 import com.example.stationerymgntbe.enums.OrderStatus;
+import com.example.stationerymgntbe.event.OrderCreatedEvent;
 import com.example.stationerymgntbe.exception.ResourceNotFoundException;
 import com.example.stationerymgntbe.exception.InvalidOrderStateException;
 import com.example.stationerymgntbe.repository.*;
-import jakarta.transaction.Transactional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -21,6 +26,7 @@ import java.nio.file.*;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -35,6 +41,14 @@ public class OrderService {
     private final BroadcastService broadcastService;
     private final ReportService reportService;
     private final AuditService auditService;
+    private final CatalogSnapshotService catalog;
+    private final ApplicationEventPublisher events;
+    private final OrderDraftRepository draftRepo;
+    private final OrderDraftItemRepository draftItemRepo;
+    private final OrderSheetParser sheetParser;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Value("${upload.dir:uploads}")
     private String uploadDir;
@@ -64,7 +78,7 @@ public class OrderService {
             order = orderRepo.save(order);
             
             // Create order items
-            createOrderItems(order, input.getItems());
+            List<OrderItem> items = createOrderItems(order, input.getItems());
             
             // Generate order number
             order.setOrderNumber(generateOrderNumber(order.getOrderId(), department.getName()));
@@ -73,6 +87,9 @@ public class OrderService {
             // Create audit trail
             auditService.logOrderCreation(order, currentUser);
             
+            // Derived counters / indexes pick this up after commit
+            publishOrderCreated(order, items);
+            
             // Send notifications
             sendOrderCreationNotifications(order);
             
@@ -87,6 +104,164 @@ public class OrderService {
         }
     }
 
+    /**
+     * Repeat an earlier order: the header is inserted once, the lines are copied with a single
+     * INSERT ... SELECT (products that left the catalog are dropped). Same window / department
+     * rules as createOrder; the caller must own the source order or belong to its department.
+     */
+    @Transactional
+    public ApiResponse<OrderDetailDTO> cloneOrder(Integer sourceOrderId) {
+        try {
+            validateOrderWindow();
+
+            User currentUser = userService.getCurrentUserEntity();
+            Department department = validateUserDepartment(currentUser);
+
+            List<Object[]> info = orderRepo.findCloneInfo(sourceOrderId);
+            if (info.isEmpty()) {
+                throw new ResourceNotFoundException("Order not found: " + sourceOrderId);
+            }
+            Object[] source = info.get(0);
+            boolean sameDepartment = Objects.equals(source[0], department.getDepartmentId());
+            boolean isOwner = Objects.equals(source[1], currentUser.getUserId());
+            if (!sameDepartment && !isOwner) {
+                throw new SecurityException("Access denied: You can only clone orders of your department");
+            }
+            long sourceItems = ((Number) source[2]).longValue();
+
+            Order order = orderRepo.save(createOrderEntity(currentUser, department));
+            int copied = itemRepo.copyItems(sourceOrderId, order.getOrderId(), LocalDateTime.now());
+            if (copied == 0) {
+                throw new IllegalArgumentException("None of the products in order " + sourceOrderId + " are still available");
+            }
+
+            order.setOrderNumber(generateOrderNumber(order.getOrderId(), department.getName()));
+            order = orderRepo.save(order);
+
+            auditService.logOrderCreation(order, currentUser);
+
+            publishOrderCreated(order, orderedQuantities(order.getOrderId()));
+            sendOrderCreationNotifications(order);
+
+            Map<String, Object> metadata = new LinkedHashMap<>();
+            metadata.put("sourceOrderId", sourceOrderId);
+            metadata.put("copiedItems", copied);
+            metadata.put("droppedItems", sourceItems - copied);
+
+            log.info("Order {} cloned into {} ({} items copied, {} dropped)",
+                    sourceOrderId, order.getOrderId(), copied, sourceItems - copied);
+            return ApiResponse.success("Order cloned successfully", reloadDetail(order.getOrderId()), metadata);
+
+        } catch (Exception e) {
+            log.error("Error cloning order: {}", sourceOrderId, e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ApiResponse.error("Failed to clone order: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Chốt đơn nháp của người dùng: chèn header, chép dòng bằng một INSERT ... SELECT, xoá nháp.
+     * Validation đã chạy trên từng thao tác PATCH nên ở đây chỉ kiểm tra cửa sổ đặt hàng.
+     */
+    @Transactional
+    public ApiResponse<OrderDetailDTO> finalizeDraft() {
+        try {
+            validateOrderWindow();
+
+            User currentUser = userService.getCurrentUserEntity();
+            OrderDraft draft = draftRepo.findByUserId(currentUser.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("No draft order to finalize"));
+            Department department = draft.getDepartment();
+
+            Order order = orderRepo.save(createOrderEntity(currentUser, department));
+            int copied = itemRepo.copyDraftItems(draft.getDraftId(), order.getOrderId(), LocalDateTime.now());
+            if (copied == 0) {
+                throw new IllegalArgumentException("Draft has no available items");
+            }
+            draftItemRepo.deleteByDraftId(draft.getDraftId());
+            draftRepo.delete(draft);
+
+            order.setOrderNumber(generateOrderNumber(order.getOrderId(), department.getName()));
+            order = orderRepo.save(order);
+
+            auditService.logOrderCreation(order, currentUser);
+
+            publishOrderCreated(order, orderedQuantities(order.getOrderId()));
+            sendOrderCreationNotifications(order);
+
+            log.info("Draft {} finalized into order {} ({} items)", draft.getDraftId(), order.getOrderId(), copied);
+            return ApiResponse.success("Order created successfully", reloadDetail(order.getOrderId()));
+
+        } catch (Exception e) {
+            log.error("Error finalizing draft", e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ApiResponse.error("Failed to finalize draft: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tạo đơn từ bảng tính (.xlsx / CSV) của phòng ban. File được đọc theo luồng từng dòng,
+     * mã sản phẩm tra trong chỉ mục của catalog snapshot, các dòng được chèn theo lô JDBC.
+     * Mặc định có lỗi ở bất kỳ dòng nào thì không tạo đơn; {@code partial=true} bỏ qua các dòng lỗi.
+     */
+    @Transactional
+    public ApiResponse<OrderDetailDTO> importOrder(MultipartFile file, boolean partial) {
+        Path upload = null;
+        try {
+            validateOrderWindow();
+
+            User currentUser = userService.getCurrentUserEntity();
+            Department department = validateUserDepartment(currentUser);
+
+            if (file == null || file.isEmpty()) {
+                throw new IllegalArgumentException("Order sheet file is required");
+            }
+            upload = Files.createTempFile("order-import-", ".tmp");
+            file.transferTo(upload);
+            OrderSheetParser.Result sheet = sheetParser.parse(upload);
+
+            if (sheet.quantities().isEmpty() || (sheet.errorCount() > 0 && !partial)) {
+                String message = sheet.quantities().isEmpty()
+                        ? "Order sheet has no valid lines"
+                        : "Order sheet has " + sheet.errorCount() + " invalid rows; fix them or import with partial=true";
+                ApiResponse<OrderDetailDTO> rejected = ApiResponse.error(message, sheet.errorMessages());
+                rejected.setMetadata(sheet.summary());
+                return rejected;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            Order order = orderRepo.save(createOrderEntity(currentUser, department));
+            int inserted = itemRepo.insertItems(order.getOrderId(), sheet.quantities(), now);
+
+            order.setOrderNumber(generateOrderNumber(order.getOrderId(), department.getName()));
+            order = orderRepo.save(order);
+
+            auditService.logOrderCreation(order, currentUser);
+
+            publishOrderCreated(order, sheet.quantities());
+            sendOrderCreationNotifications(order);
+
+            Map<String, Object> metadata = sheet.summary();
+            metadata.put("fileName", file.getOriginalFilename());
+            log.info("Order {} imported from '{}': {} rows, {} lines, {} rejected rows",
+                    order.getOrderId(), file.getOriginalFilename(), sheet.rows(), inserted, sheet.errorCount());
+            return ApiResponse.success("Order imported successfully", reloadDetail(order.getOrderId()), metadata);
+
+        } catch (Exception e) {
+            log.error("Error importing order sheet", e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ApiResponse.error("Failed to import order: " + e.getMessage());
+        } finally {
+            if (upload != null) {
+                try {
+                    Files.deleteIfExists(upload);
+                } catch (IOException e) {
+                    log.warn("Could not delete temporary upload {}", upload);
+                }
+            }
+        }
+    }
+
     // ============================================================================
     // ENHANCED ORDER FLOW MANAGEMENT
     // ============================================================================
@@ -232,7 +407,7 @@ public class OrderService {
     // ENHANCED QUERY METHODS
     // ============================================================================
 
-    @Transactional
+    @Transactional(readOnly = true)
     public ApiResponse<Page<OrderSummaryDTO>> getUserOrders(Integer userId, Pageable pageable) {
         try {
             Page<Order> orders = orderRepo.findByCreatedByUserIdOrderByCreatedAtDesc(userId, pageable);
@@ -248,7 +423,7 @@ public class OrderService {
         }
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public ApiResponse<OrderDetailDTO> getOrderDetails(Integer orderId) {
         try {
             Order order = orderRepo.findByIdWithDetails(orderId)
@@ -267,7 +442,30 @@ public class OrderService {
         }
     }
 
-    @Transactional
+    /**
+     * Strong ETag for GET /api/orders/{id}, from the order / item timestamps and the catalog version
+     * (item rows embed product names). One aggregate query, no entity loading.
+     * Returns null when the order does not exist or the caller may not see it – the normal path handles that.
+     */
+    public String getOrderEtag(Integer orderId) {
+        List<Object[]> rows = orderRepo.findVersionInfo(orderId);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] v = rows.get(0);
+
+        UserDTO currentUser = userService.getCurrentUser();
+        boolean isOwner = Objects.equals(v[1], currentUser.getId());
+        boolean isAdmin = "ADMIN".equals(currentUser.getRoleName());
+        if (!isOwner && !isAdmin) {
+            return null;
+        }
+        return HttpCacheService.etag("o" + orderId, java.util.stream.Stream.of(
+                String.valueOf(v[0]), String.valueOf(v[2]), String.valueOf(v[3]),
+                catalog.current().productsEtag()));
+    }
+
+    @Transactional(readOnly = true)
     public ApiResponse<List<OrderItemDetailDTO>> getOrderItems(Integer orderId) {
         try {
             Order order = orderRepo.findByIdWithDetails(orderId)
@@ -292,6 +490,7 @@ public class OrderService {
     // DASHBOARD AND STATISTICS METHODS
     // ============================================================================
 
+    @Transactional(readOnly = true)
     public Map<String, Object> getCurrentMonthOrderStats() {
         LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
         LocalDateTime endOfMonth = startOfMonth.plusMonths(1).minusSeconds(1);
@@ -309,6 +508,7 @@ public class OrderService {
         return stats;
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Object> getAdminWorkflowStats() {
         long pendingApproval = orderRepo.countByStatus(OrderStatus.submitted);
         long totalProcessed = orderRepo.countByStatusIn(Arrays.asList(OrderStatus.approved, OrderStatus.rejected));
@@ -322,6 +522,7 @@ public class OrderService {
         return stats;
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Object> getMonthlyOrderSummary(int monthsBack) {
         LocalDateTime endDate = LocalDateTime.now();
         LocalDateTime startDate = endDate.minusMonths(monthsBack);
@@ -337,6 +538,7 @@ public class OrderService {
         return summary;
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Long> getOrderStatusDistribution() {
         Map<String, Long> distribution = new HashMap<>();
         for (OrderStatus status : OrderStatus.values()) {
@@ -346,6 +548,7 @@ public class OrderService {
         return distribution;
     }
 
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getOrderSubmissionTimeline() {
         LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
         List<Order> recentOrders = orderRepo.findByCreatedAtAfterOrderByCreatedAtAsc(thirtyDaysAgo);
@@ -365,6 +568,7 @@ public class OrderService {
             .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Object> getOrderCompletionRate() {
         long totalOrders = orderRepo.count();
         long completedOrders = orderRepo.countByStatus(OrderStatus.approved);
@@ -379,6 +583,7 @@ public class OrderService {
         return rate;
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Object> getDocumentUploadSuccessRate() {
         long totalExported = orderRepo.countByStatus(OrderStatus.exported);
         long totalSubmitted = orderRepo.countByStatusIn(Arrays.asList(OrderStatus.submitted, OrderStatus.approved, OrderStatus.rejected));
@@ -397,6 +602,7 @@ public class OrderService {
         return orderRepo.countByStatus(OrderStatus.pending);
     }
 
+    @Transactional(readOnly = true)
     public List<OrderSummaryDTO> getSubmittedOrders() {
         return orderRepo.findByStatusOrderByCreatedAtDesc(OrderStatus.submitted)
             .stream()
@@ -404,6 +610,7 @@ public class OrderService {
             .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Object> getOrderStatistics() {
         Map<String, Object> stats = new HashMap<>();
         stats.put("total", orderRepo.count());
@@ -416,6 +623,7 @@ public class OrderService {
         return stats;
     }
 
+    @Transactional(readOnly = true)
     public Page<OrderSummaryDTO> getMonthlyReport(Integer year, Integer month, Pageable pageable) {
         LocalDateTime startDate = LocalDateTime.of(year, month, 1, 0, 0);
         LocalDateTime endDate = startDate.plusMonths(1).minusSeconds(1);
@@ -424,7 +632,27 @@ public class OrderService {
         return orders.map(this::mapToOrderSummaryDTO);
     }
 
-    @Transactional
+    /**
+     * Order summaries with the given statuses, newest first, through a database cursor
+     * (item counts come from the same query) – for streaming exports, consume inside a transaction.
+     */
+    public Stream<OrderSummaryDTO> streamOrderSummaries(Collection<OrderStatus> statuses) {
+        return orderRepo.streamSummaryRows(statuses).map(r -> {
+            OrderSummaryDTO dto = new OrderSummaryDTO();
+            dto.setOrderId((Integer) r[0]);
+            dto.setOrderNumber((String) r[1]);
+            dto.setDepartmentName((String) r[2]);
+            dto.setCreatedBy((String) r[3]);
+            dto.setStatus((OrderStatus) r[4]);
+            dto.setAdminComment((String) r[5]);
+            dto.setCreatedAt((LocalDateTime) r[6]);
+            dto.setUpdatedAt((LocalDateTime) r[7]);
+            dto.setItemCount(((Number) r[8]).intValue());
+            return dto;
+        });
+    }
+
+    @Transactional(readOnly = true)
     public ApiResponse<Page<OrderSummaryDTO>> getAllOrders(Pageable pageable) {
         try {
             // For small datasets, fetch all with details to avoid lazy loading issues
@@ -457,7 +685,7 @@ public class OrderService {
         }
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public ApiResponse<Page<OrderSummaryDTO>> getPendingOrders(Pageable pageable) {
         try {
             Page<Order> orders = orderRepo.findByStatusOrderByCreatedAtDesc(OrderStatus.pending, pageable);
@@ -469,7 +697,7 @@ public class OrderService {
         }
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public ApiResponse<Page<OrderSummaryDTO>> getSubmittedOrders(Pageable pageable) {
         try {
             Page<Order> orders = orderRepo.findByStatusOrderByCreatedAtDesc(OrderStatus.submitted, pageable);
@@ -743,6 +971,9 @@ public class OrderService {
         for (OrderItemInput itemInput : itemInputs) {
             Product product = productRepo.findById(itemInput.getProductId())
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + itemInput.getProductId()));
+            if (Boolean.FALSE.equals(product.getActive())) {
+                throw new IllegalArgumentException("Product is no longer available: " + product.getCode());
+            }
             
             OrderItem orderItem = OrderItem.builder()
                 .order(order)
@@ -756,6 +987,39 @@ public class OrderService {
         return orderItems;
     }
 
+    private void publishOrderCreated(Order order, List<OrderItem> items) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProduct().getProductId(), item.getQuantity(), Integer::sum);
+        }
+        publishOrderCreated(order, quantities);
+    }
+
+    /** productId → quantity of a stored order (for lines written by INSERT ... SELECT) */
+    private Map<Integer, Integer> orderedQuantities(Integer orderId) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (Object[] row : itemRepo.sumQuantityByProduct(orderId)) {
+            quantities.put((Integer) row[0], ((Number) row[1]).intValue());
+        }
+        return quantities;
+    }
+
+    /**
+     * Lines written by INSERT ... SELECT or JDBC batches never enter {@code order.items};
+     * flush, drop the stale entities and map the order as stored.
+     */
+    private OrderDetailDTO reloadDetail(Integer orderId) {
+        entityManager.flush();
+        entityManager.clear();
+        return mapToOrderDetailDTO(orderRepo.findByIdWithDetails(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found: " + orderId)));
+    }
+
+    private void publishOrderCreated(Order order, Map<Integer, Integer> quantities) {
+        events.publishEvent(new OrderCreatedEvent(order.getOrderId(), order.getDepartment().getDepartmentId(),
+                order.getCreatedAt(), quantities));
+    }
+
     private String generateOrderNumber(Integer orderId, String departmentName) {
         String deptCode = departmentName.substring(0, Math.min(3, departmentName.length())).toUpperCase();
         String timestamp = String.valueOf(System.currentTimeMillis()).substring(8);
@@ -0,0 +1,204 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.dto.ProductDTO;
+import com.example.stationerymgntbe.util.SpreadsheetStreamReader;
+import com.example.stationerymgntbe.util.VietnameseText;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Đọc bảng đặt hàng (.xlsx / CSV) của phòng ban theo từng dòng: tìm cột "Mã" và "Số lượng"
+ * ở dòng tiêu đề, tra mã sản phẩm trong chỉ mục code → product của catalog snapshot,
+ * gộp các dòng trùng mã và ghi lại lỗi theo số dòng. Không giữ workbook trong bộ nhớ.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderSheetParser {
+
+    public static final int MAX_ROWS = 5_000;
+    public static final int MAX_REPORTED_ERRORS = 200;
+
+    /** The header may sit below a few title rows */
+    private static final int HEADER_SCAN_ROWS = 10;
+
+    /** Folded header texts of a product code column (also used by the catalog import) */
+    static final Set<String> CODE_HEADERS = Set.of(
+            "ma", "ma sp", "ma hang", "ma san pham", "ma vpp", "code", "product code", "item code");
+    private static final Set<String> QUANTITY_HEADERS = Set.of(
+            "so luong", "sl", "so luong dat", "qty", "quantity");
+
+    private final CatalogSnapshotService catalog;
+
+    public record RowError(int row, String code, String message) {
+    }
+
+    /**
+     * @param quantities productId → quantity, in sheet order (duplicate codes summed)
+     * @param rows       data rows read (header excluded)
+     */
+    public record Result(Map<Integer, Integer> quantities, int rows, int mergedRows,
+                         List<RowError> errors, int errorCount) {
+
+        public long totalQuantity() {
+            return quantities.values().stream().mapToLong(Integer::longValue).sum();
+        }
+
+        public List<String> errorMessages() {
+            return errors.stream()
+                    .map(e -> "Row " + e.row() + (e.code().isEmpty() ? "" : " (" + e.code() + ")") + ": " + e.message())
+                    .toList();
+        }
+
+        public Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("rows", rows);
+            summary.put("lines", quantities.size());
+            summary.put("mergedRows", mergedRows);
+            summary.put("totalQuantity", totalQuantity());
+            summary.put("errorCount", errorCount);
+            summary.put("errors", errors);
+            summary.put("errorsTruncated", errorCount > errors.size());
+            return summary;
+        }
+    }
+
+    public Result parse(Path file) throws IOException {
+        Map<String, ProductDTO> byCode = catalog.current().productsByCode();
+        Collector c = new Collector(byCode);
+        try {
+            SpreadsheetStreamReader.read(file, c::row);
+            c.finishHeaderScan();
+        } catch (TooManyRows e) {
+            throw new IllegalArgumentException("Order sheet has more than " + MAX_ROWS + " rows");
+        }
+        if (c.codeColumn < 0) {
+            throw new IllegalArgumentException("Order sheet is empty");
+        }
+        return new Result(c.quantities, c.rows, c.merged, c.errors, c.errorCount);
+    }
+
+    /* ────────── internals ────────── */
+
+    /** Per-parse state; rows arrive one at a time from the streaming reader */
+    private static final class Collector {
+        private final Map<String, ProductDTO> byCode;
+        private final Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private final List<Map.Entry<Integer, List<String>>> preamble = new ArrayList<>();
+        private int codeColumn = -1;
+        private int quantityColumn = -1;
+        private int rows;
+        private int merged;
+        private int errorCount;
+
+        Collector(Map<String, ProductDTO> byCode) {
+            this.byCode = byCode;
+        }
+
+        void row(int rowNumber, List<String> cells) {
+            if (codeColumn < 0) {
+                if (detectHeader(cells)) {
+                    preamble.clear();               // title rows above the header
+                    return;
+                }
+                preamble.add(Map.entry(rowNumber, cells));
+                if (preamble.size() < HEADER_SCAN_ROWS) return;
+                finishHeaderScan();
+                return;
+            }
+            if (++rows > MAX_ROWS) {
+                throw new TooManyRows();
+            }
+
+            String code = cell(cells, codeColumn);
+            String rawQuantity = cell(cells, quantityColumn);
+            if (code.isEmpty()) {
+                error(rowNumber, code, "Missing product code");
+                return;
+            }
+            ProductDTO product = byCode.get(CatalogSnapshot.codeKey(code));
+            if (product == null) {
+                error(rowNumber, code, "Unknown product code");
+                return;
+            }
+            Integer quantity = parseQuantity(rawQuantity);
+            if (quantity == null) {
+                error(rowNumber, code, rawQuantity.isEmpty()
+                        ? "Missing quantity"
+                        : "Quantity must be a positive whole number: '" + rawQuantity + "'");
+                return;
+            }
+            if (quantities.containsKey(product.getId())) {
+                merged++;
+            }
+            quantities.merge(product.getId(), quantity, Integer::sum);
+        }
+
+        /** No header in the first rows: "code, quantity" in the first two columns, replay what was held back */
+        void finishHeaderScan() {
+            if (codeColumn >= 0 || preamble.isEmpty()) return;
+            codeColumn = 0;
+            quantityColumn = 1;
+            List<Map.Entry<Integer, List<String>>> held = new ArrayList<>(preamble);
+            preamble.clear();
+            held.forEach(r -> row(r.getKey(), r.getValue()));
+        }
+
+        private boolean detectHeader(List<String> cells) {
+            int code = -1;
+            int quantity = -1;
+            for (int i = 0; i < cells.size(); i++) {
+                String h = VietnameseText.fold(cells.get(i));
+                if (code < 0 && CODE_HEADERS.contains(h)) code = i;
+                else if (quantity < 0 && QUANTITY_HEADERS.contains(h)) quantity = i;
+            }
+            if (code < 0 && quantity < 0) return false;
+            if (code < 0 || quantity < 0) {
+                throw new IllegalArgumentException("Header row needs both a product code and a quantity column");
+            }
+            codeColumn = code;
+            quantityColumn = quantity;
+            return true;
+        }
+
+        private void error(int row, String code, String message) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, code, message));
+            }
+        }
+
+        private static String cell(List<String> cells, int index) {
+            return index < cells.size() ? cells.get(index) : "";
+        }
+
+        /** "12", "12.0", "1,200" and "1 200" are accepted; fractions, zero and negatives are not */
+        private static Integer parseQuantity(String raw) {
+            if (raw.isEmpty()) return null;
+            String s = raw.replace(" ", "");
+            if (s.matches("\\d{1,3}(,\\d{3})+")) s = s.replace(",", "");
+            try {
+                BigDecimal value = new BigDecimal(s);
+                if (value.signum() <= 0 || value.stripTrailingZeros().scale() > 0) return null;
+                return value.intValueExact();
+            } catch (NumberFormatException | ArithmeticException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final class TooManyRows extends RuntimeException {
+        TooManyRows() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.stationerymgntbe.service;
+
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Shared OpenPDF resources for order / report exports.
+ * Fonts, cell styles and table headers are built once at startup and only read afterwards,
+ * so they can be used from any thread. Tables are handed out as copies of the prebuilt
+ * header templates; cells for data rows are cheap and created per call.
+ */
+@Slf4j
+@Component
+@Getter
+public class PdfTemplateRegistry {
+
+    private static final Color HEADER_BG = new Color(211, 211, 211);
+
+    /**
+     * Unicode TrueType fonts with Vietnamese glyphs; first readable candidate wins.
+     * DejaVu Sans is bundled under resources/fonts, so the defaults always resolve.
+     */
+    @Value("${report.pdf.font-regular:classpath:fonts/DejaVuSans.ttf}")
+    private List<String> regularFontCandidates;
+
+    @Value("${report.pdf.font-bold:classpath:fonts/DejaVuSans-Bold.ttf}")
+    private List<String> boldFontCandidates;
+
+    private final ResourceLoader resourceLoader = new DefaultResourceLoader();
+
+    private BaseFont regularBase;
+    private BaseFont boldBase;
+
+    private Font titleFont;
+    private Font normalFont;
+    private Font boldFont;
+    private Font headerFont;
+    private Font cellFont;
+    private Font noteFont;
+
+    /* header templates – never handed out directly, only copied */
+    @Getter(lombok.AccessLevel.NONE)
+    private PdfPTable orderItemsHeader;
+    @Getter(lombok.AccessLevel.NONE)
+    private PdfPTable monthlyReportHeader;
+
+    @PostConstruct
+    void init() {
+        // Helvetica has no Vietnamese glyphs – refuse to start rather than export unreadable PDFs
+        regularBase = loadFont(regularFontCandidates);
+        boldBase = loadFont(boldFontCandidates);
+
+        titleFont  = font(boldBase, 16, Font.BOLD);
+        normalFont = font(regularBase, 12, Font.NORMAL);
+        boldFont   = font(boldBase, 12, Font.BOLD);
+        headerFont = font(boldBase, 11, Font.BOLD);
+        cellFont   = font(regularBase, 10, Font.NORMAL);
+        noteFont   = font(regularBase, 10, Font.ITALIC);
+
+        orderItemsHeader = headerTable(new float[]{50f, 20f, 20f, 10f}, 8,
+                "Product Name", "Product Code", "Unit", "Quantity");
+        orderItemsHeader.setSpacingBefore(10);
+
+        monthlyReportHeader = headerTable(new float[]{30f, 22f, 60f, 15f, 15f}, 2,
+                "Department", "Product Code", "Product Name (VN)", "Qty", "Unit");
+
+        log.info("PDF template registry ready (font: {})", regularBase.getPostscriptFontName());
+    }
+
+    /* ────────── Tables ────────── */
+
+    /** Fresh items table for a single order, header row already in place */
+    public PdfPTable newOrderItemsTable() {
+        return new PdfPTable(orderItemsHeader);
+    }
+
+    /** Fresh table for the monthly summary report, header row already in place */
+    public PdfPTable newMonthlyReportTable() {
+        return new PdfPTable(monthlyReportHeader);
+    }
+
+    /* ────────── Cells ────────── */
+
+    public PdfPCell bodyCell(String text) {
+        return bodyCell(text, normalFont, Element.ALIGN_LEFT, 5);
+    }
+
+    public PdfPCell centeredBodyCell(String text) {
+        return bodyCell(text, normalFont, Element.ALIGN_CENTER, 5);
+    }
+
+    public PdfPCell reportCell(String text) {
+        return bodyCell(text, cellFont, Element.ALIGN_LEFT, 2);
+    }
+
+    private static PdfPCell bodyCell(String text, Font font, int align, float padding) {
+        PdfPCell cell = new PdfPCell(new Phrase(text != null ? text : "", font));
+        cell.setHorizontalAlignment(align);
+        cell.setPadding(padding);
+        return cell;
+    }
+
+    /* ────────── Helpers ────────── */
+
+    private PdfPTable headerTable(float[] widths, float padding, String... columns) {
+        PdfPTable table = new PdfPTable(widths);
+        table.setWidthPercentage(100);
+        for (String col : columns) {
+            PdfPCell cell = new PdfPCell(new Phrase(col, headerFont));
+            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+            cell.setBackgroundColor(HEADER_BG);
+            cell.setPadding(padding);
+            table.addCell(cell);
+        }
+        table.setHeaderRows(1);
+        return table;
+    }
+
+    private static Font font(BaseFont base, float size, int style) {
+        return new Font(base, size, style);
+    }
+
+    private BaseFont loadFont(List<String> candidates) {
+        for (String location : candidates) {
+            Resource resource = resourceLoader.getResource(location.trim());
+            if (!resource.exists()) continue;
+            try (InputStream in = resource.getInputStream()) {
+                String name = resource.getFilename() != null ? resource.getFilename() : "font.ttf";
+                return BaseFont.createFont(name, BaseFont.IDENTITY_H, BaseFont.EMBEDDED,
+                        BaseFont.CACHED, in.readAllBytes(), null);
+            } catch (Exception e) {
+                log.warn("Could not load PDF font {}: {}", location, e.getMessage());
+            }
+        }
+        throw new IllegalStateException("No usable PDF font among " + candidates
+                + " – check report.pdf.font-regular / report.pdf.font-bold");
+    }
+}
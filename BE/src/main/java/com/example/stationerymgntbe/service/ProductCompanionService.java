@@ -0,0 +1,153 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.dto.ProductDTO;
+import com.example.stationerymgntbe.event.OrderCreatedEvent;
+import com.example.stationerymgntbe.repository.OrderItemRepository;
+import com.example.stationerymgntbe.util.CoOccurrenceMatrix;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * "Thường được đặt cùng": ma trận đồng xuất hiện giữa các sản phẩm trong cùng đơn hàng.
+ * Dựng song song từ toàn bộ order_items lúc khởi động, sau đó cộng dồn từng đơn mới
+ * (OrderCreatedEvent). Gợi ý đọc hoàn toàn từ bộ nhớ – đủ rẻ để gọi mỗi lần thêm vào giỏ.
+ */
+@Slf4j
+@Service
+public class ProductCompanionService {
+
+    public static final int DEFAULT_LIMIT = 5;
+    public static final int MAX_LIMIT = 20;
+
+    private final OrderItemRepository orderItemRepo;
+    private final CatalogSnapshotService catalog;
+    private final int buildThreads;
+
+    private volatile CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+
+    /** Orders committed while the initial build runs; replayed onto the new matrix if it missed them */
+    private List<OrderCreatedEvent> pending;
+
+    public ProductCompanionService(OrderItemRepository orderItemRepo,
+                                   CatalogSnapshotService catalog,
+                                   @Value("${product.companions.build-threads:4}") int buildThreads) {
+        this.orderItemRepo = orderItemRepo;
+        this.catalog = catalog;
+        this.buildThreads = Math.max(1, buildThreads);
+    }
+
+    /* ────────── build / update ────────── */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        synchronized (this) {
+            if (pending != null) pending.add(event);
+            matrix.add(basketOf(event));
+        }
+    }
+
+    /** Full rebuild from order history, pair counting spread over a short-lived pool */
+    public void rebuild() {
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        long started = System.currentTimeMillis();
+
+        List<int[]> baskets = new ArrayList<>();
+        int lastOrderId = loadBaskets(baskets);
+
+        AtomicInteger seq = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(buildThreads, r -> {
+            Thread t = new Thread(r, "companion-build-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        CoOccurrenceMatrix next;
+        try {
+            next = CoOccurrenceMatrix.build(baskets, pool, buildThreads);
+        } catch (Exception e) {
+            log.error("Companion matrix build failed, keeping the current one", e);
+            synchronized (this) {
+                pending = null;
+            }
+            return;
+        } finally {
+            pool.shutdownNow();
+        }
+
+        synchronized (this) {
+            for (OrderCreatedEvent e : pending) {
+                if (e.orderId() != null && e.orderId() > lastOrderId) next.add(basketOf(e));
+            }
+            pending = null;
+            matrix = next;
+        }
+        log.info("Companion matrix built: {} orders, {} product pairs in {} ms ({} threads)",
+                next.baskets(), next.pairs(), System.currentTimeMillis() - started, buildThreads);
+    }
+
+    /* ────────── reads ────────── */
+
+    /**
+     * Products most often ordered together with {@code productIds} (e.g. the current cart),
+     * excluding the cart itself and products no longer in the catalog.
+     */
+    public List<Map<String, Object>> companions(List<Integer> productIds, int limit) {
+        if (productIds == null || productIds.isEmpty()) return List.of();
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Map<Integer, ProductDTO> byId = catalog.current().productsById();
+
+        int[] basket = productIds.stream().mapToInt(Integer::intValue).toArray();
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (CoOccurrenceMatrix.Companion c : matrix.companions(basket, k, byId::containsKey)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("product", byId.get(c.id()));
+            row.put("together", c.together());
+            row.put("score", Math.round(c.score() * 1000) / 1000.0);
+            out.add(row);
+        }
+        return out;
+    }
+
+    /* ────────── internals ────────── */
+
+    /** Fills baskets from order_items; returns the highest order id seen */
+    private int loadBaskets(List<int[]> baskets) {
+        int lastOrderId = 0;
+        Integer current = null;
+        List<Integer> items = new ArrayList<>();
+        for (Object[] row : orderItemRepo.findOrderProductPairs()) {
+            Integer orderId = (Integer) row[0];
+            if (!orderId.equals(current)) {
+                if (!items.isEmpty()) baskets.add(items.stream().mapToInt(Integer::intValue).toArray());
+                items.clear();
+                current = orderId;
+                lastOrderId = Math.max(lastOrderId, orderId);
+            }
+            items.add((Integer) row[1]);
+        }
+        if (!items.isEmpty()) baskets.add(items.stream().mapToInt(Integer::intValue).toArray());
+        return lastOrderId;
+    }
+
+    private static int[] basketOf(OrderCreatedEvent event) {
+        return event.quantities().keySet().stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.event.CatalogChangedEvent;
+import com.example.stationerymgntbe.event.ProductNameChangedEvent;
+import com.example.stationerymgntbe.repository.ProductBatchRepository.NameEnUpdate;
+import com.example.stationerymgntbe.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tên tiếng Anh của sản phẩm được dịch ngay sau khi thêm / sửa sản phẩm commit (ngoài transaction ghi,
+ * nên không giữ kết nối DB trong lúc chờ dịch) và lưu vào products.name_en. Job nền dịch bù theo lô các sản phẩm còn thiếu (dữ liệu cũ, import danh mục, lần dịch trước bị lỗi),
+ * nên đọc danh mục không bao giờ phải gọi dịch.
+ */
+@Slf4j
+@Service
+public class ProductNameEnService {
+
+    private static final String BACKFILL_SOURCE = "name-en-backfill";
+
+    private final ProductRepository productRepo;
+    private final TranslationService translationService;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ProductNameEnService(ProductRepository productRepo,
+                                TranslationService translationService,
+                                ApplicationEventPublisher events,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${product.name-en.batch-size:100}") int batchSize) {
+        this.productRepo = productRepo;
+        this.translationService = translationService;
+        this.events = events;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /** English name for a Vietnamese product name, or {@code null} when no real translation is available (yet) */
+    public String translateName(String name) {
+        if (name == null || name.isBlank()) return null;
+        return usable(name.trim(), translationService.translateToEnglish(name.trim()));
+    }
+
+    /**
+     * A product was saved without an English name: translate it once the write has committed.
+     * The UPDATE only applies while the name is unchanged and name_en still empty; a failed
+     * translation is left to the backfill.
+     */
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductNameChanged(ProductNameChangedEvent event) {
+        String nameEn = translateName(event.name());
+        if (nameEn == null) return;
+        List<NameEnUpdate> update = List.of(new NameEnUpdate(event.productId(), event.name(), nameEn));
+        int filled = Objects.requireNonNull(tx.execute(s -> productRepo.fillNameEn(update, LocalDateTime.now())));
+        if (filled > 0) {
+            events.publishEvent(new CatalogChangedEvent(BACKFILL_SOURCE));
+        }
+    }
+
+    /* ────────── background backfill ────────── */
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        backfill();
+    }
+
+    /** Imported rows arrive without English names (and renamed rows lose theirs) */
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if ("catalog-import".equals(event.source())) {
+            backfill();
+        }
+    }
+
+    /** Hourly retry; runs on the async executor so the shared single scheduler thread is not held while translating */
+    @Async
+    @Scheduled(fixedDelayString = "${product.name-en.backfill-ms:3600000}",
+               initialDelayString = "${product.name-en.backfill-ms:3600000}")
+    public void scheduledBackfill() {
+        backfill();
+    }
+
+    /**
+     * Translate every product that still has no English name, {@code batchSize} at a time
+     * (one batched translation call and one JDBC batch per page). Products whose translation
+     * failed are skipped and picked up by the next run.
+     */
+    public Map<String, Object> backfill() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (!running.compareAndSet(false, true)) {
+            result.put("status", "already-running");
+            return result;
+        }
+
+        long started = System.currentTimeMillis();
+        int scanned = 0, filled = 0, untranslated = 0;
+        try {
+            int afterId = 0;
+            while (true) {
+                List<Object[]> page = productRepo.findWithoutNameEn(afterId, PageRequest.of(0, batchSize));
+                if (page.isEmpty()) break;
+
+                List<String> names = page.stream()
+                        .map(r -> (String) r[1])
+                        .filter(n -> n != null && !n.isBlank())
+                        .distinct()
+                        .toList();
+                Map<String, String> translated = translationService.batchTranslate(names, "vi", "en");
+
+                List<NameEnUpdate> updates = new ArrayList<>();
+                for (Object[] r : page) {
+                    String name = (String) r[1];
+                    String nameEn = name == null ? null : usable(name.trim(), translated.get(name));
+                    if (nameEn != null) updates.add(new NameEnUpdate((Integer) r[0], name, nameEn));
+                    else untranslated++;
+                }
+                scanned += page.size();
+                if (!updates.isEmpty()) {
+                    filled += Objects.requireNonNull(tx.execute(s -> productRepo.fillNameEn(updates, LocalDateTime.now())));
+                }
+                afterId = (Integer) page.get(page.size() - 1)[0];
+            }
+        } finally {
+            running.set(false);
+        }
+
+        if (filled > 0) {
+            events.publishEvent(new CatalogChangedEvent(BACKFILL_SOURCE));
+        }
+        long elapsed = System.currentTimeMillis() - started;
+        if (scanned > 0) {
+            log.info("English name backfill: {} filled, {} still untranslated ({} scanned) in {} ms",
+                    filled, untranslated, scanned, elapsed);
+        }
+
+        result.put("status", "done");
+        result.put("scanned", scanned);
+        result.put("filled", filled);
+        result.put("untranslated", untranslated);
+        result.put("elapsedMs", elapsed);
+        return result;
+    }
+
+    /** Number of products still waiting for an English name */
+    public long pending() {
+        return productRepo.countWithoutNameEn();
+    }
+
+    /** The translator hands the input back when it could not translate; that is not an English name */
+    private static String usable(String name, String translated) {
+        if (translated == null || translated.isBlank()) return null;
+        String en = translated.trim();
+        if (en.equalsIgnoreCase(name) || en.length() > 255) return null;
+        return en;
+    }
+}
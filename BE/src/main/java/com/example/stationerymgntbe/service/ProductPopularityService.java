@@ -0,0 +1,127 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.event.OrderCreatedEvent;
+import com.example.stationerymgntbe.repository.OrderItemRepository;
+import com.example.stationerymgntbe.util.RankedCounter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Số lượng đã đặt theo sản phẩm (toàn thời gian + tháng hiện tại), giữ sẵn thứ hạng trong bộ nhớ.
+ * Cộng dồn mỗi khi đơn hàng được tạo; định kỳ đối soát lại với order_items để sửa mọi sai lệch
+ * (đơn lỗi giữa chừng, ghi ngoài service, ...). Đọc top-k là O(k), không GROUP BY.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductPopularityService {
+
+    private final OrderItemRepository orderItemRepo;
+
+    private final RankedCounter allTime = new RankedCounter();
+    private final RankedCounter thisMonth = new RankedCounter();
+    private volatile YearMonth month = YearMonth.now();
+
+    /* ────────── updates ────────── */
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        YearMonth orderMonth = event.createdAt() != null ? YearMonth.from(event.createdAt()) : YearMonth.now();
+        rollMonth(orderMonth);
+        boolean current = orderMonth.equals(month);
+
+        event.quantities().forEach((productId, qty) -> {
+            allTime.add(productId, qty, 1);
+            if (current) thisMonth.add(productId, qty, 1);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reconcile();
+    }
+
+    /** Rebuild both counters from order_items and report how far they had drifted */
+    @Scheduled(fixedDelayString = "${product.popularity.reconcile-ms:900000}",
+               initialDelayString = "${product.popularity.reconcile-ms:900000}")
+    public synchronized void reconcile() {
+        long started = System.currentTimeMillis();
+        YearMonth now = YearMonth.now();
+
+        List<RankedCounter.Entry> all = toEntries(orderItemRepo.countByProduct());
+        List<RankedCounter.Entry> monthly = toEntries(orderItemRepo.countByProductSince(now.atDay(1).atStartOfDay()));
+
+        boolean warm = allTime.size() > 0;
+        int drift = drift(allTime.snapshot(), all);
+        allTime.reset(all);
+        month = now;
+        thisMonth.reset(monthly);
+
+        if (warm && drift > 0) {
+            log.info("Product popularity reconciled: {} products corrected", drift);
+        }
+        log.debug("Product popularity reconciled in {} ms ({} products, {} this month)",
+                System.currentTimeMillis() - started, all.size(), monthly.size());
+    }
+
+    /* ────────── reads ────────── */
+
+    /** Top {@code k} products passing {@code include}, e.g. those still in the catalog */
+    public List<RankedCounter.Entry> topAllTime(int k, IntPredicate include) {
+        return allTime.top(k, include);
+    }
+
+    public List<RankedCounter.Entry> topThisMonth(int k, IntPredicate include) {
+        rollMonth(YearMonth.now());
+        return thisMonth.top(k, include);
+    }
+
+    public long allTimeQuantity(int productId) {
+        return allTime.quantity(productId);
+    }
+
+    /** Distinct products ordered in the current month */
+    public int productsOrderedThisMonth() {
+        rollMonth(YearMonth.now());
+        return thisMonth.size();
+    }
+
+    /* ────────── internals ────────── */
+
+    /** New month → the monthly counter starts from zero */
+    private synchronized void rollMonth(YearMonth target) {
+        if (target.isAfter(month)) {
+            month = target;
+            thisMonth.reset(List.of());
+        }
+    }
+
+    private static List<RankedCounter.Entry> toEntries(List<Object[]> rows) {
+        List<RankedCounter.Entry> out = new ArrayList<>(rows.size());
+        for (Object[] r : rows) {
+            out.add(new RankedCounter.Entry(((Number) r[0]).intValue(),
+                    ((Number) r[1]).longValue(), ((Number) r[2]).longValue()));
+        }
+        return out;
+    }
+
+    private static int drift(Map<Integer, RankedCounter.Entry> before, List<RankedCounter.Entry> actual) {
+        int n = 0;
+        for (RankedCounter.Entry e : actual) {
+            if (!Objects.equals(before.remove(e.id()), e)) n++;
+        }
+        return n + before.size();
+    }
+}
@@ -1,19 +1,27 @@
 package com.example.stationerymgntbe.service;
 
+import com.example.stationerymgntbe.dto.ApiResponse;
 import com.example.stationerymgntbe.dto.ProductDTO;
 import com.example.stationerymgntbe.dto.ProductStatsDTO;
 import com.example.stationerymgntbe.entity.*;
+import com.example.stationerymgntbe.event.CatalogChangedEvent;
+import com.example.stationerymgntbe.event.ProductNameChangedEvent;
 import com.example.stationerymgntbe.exception.ResourceNotFoundException;
 import com.example.stationerymgntbe.mapper.ProductMapper;
 import com.example.stationerymgntbe.repository.*;
+import com.example.stationerymgntbe.util.RankedCounter;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -24,6 +32,7 @@ import java.time.YearMonth;
 import java.util.*;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service 
 @RequiredArgsConstructor
 public class ProductService {
@@ -32,6 +41,10 @@ public class ProductService {
     private final UnitRepository unitRepo;
     private final CategoryRepository categoryRepo;
     private final ProductMapper map;
+    private final CatalogSnapshotService catalog;
+    private final ApplicationEventPublisher events;
+    private final ProductPopularityService popularity;
+    private final CatalogImportService catalogImport;
     
     @PersistenceContext
     private EntityManager entityManager;
@@ -41,47 +54,84 @@ public class ProductService {
 
     
 
-    @Transactional
+    /* ─────────── READS (served from the catalog snapshot) ─────────── */
+
     public List<ProductDTO> listAll() {
-        return repo.findAll().stream()
-                .map(map::toDto)
-                .collect(Collectors.toList());
+        return catalog.current().products();
     }
 
     public Page<ProductDTO> list(Pageable pageable, Integer categoryId) {
-        if (categoryId != null) {
-            return repo.findByCategoryCategoryId(categoryId, pageable).map(map::toDto);
-        }
-        return repo.findAll(pageable).map(map::toDto);
+        return list(pageable, categoryId, null);
     }
 
     public Page<ProductDTO> list(Pageable pageable, Integer categoryId, String query) {
-        // If no search query, use the original method
-        if (query == null || query.trim().isEmpty()) {
-            return list(pageable, categoryId);
+        CatalogSnapshot snap = catalog.current();
+        List<ProductDTO> matches;
+        if (query == null || query.isBlank()) {
+            matches = categoryId != null
+                    ? snap.productsByCategory().getOrDefault(categoryId, List.of())
+                    : snap.products();
+        } else {
+            // Diacritic-insensitive, ranked by relevance ("but bi" finds "Bút bi")
+            matches = snap.productSearch().search(query,
+                    p -> categoryId == null || categoryId.equals(p.getCategoryId()));
         }
-        
-        // Search with category filter
-        if (categoryId != null) {
-            return repo.findByCategoryAndNameOrCodeContainingIgnoreCase(categoryId, query.trim(), pageable)
-                      .map(map::toDto);
+
+        // An explicit sort wins over catalog / relevance order
+        Comparator<ProductDTO> order = comparatorFor(pageable.getSort());
+        if (order != null) {
+            matches = matches.stream().sorted(order).toList();
         }
-        
-        // Search without category filter
-        return repo.findByNameOrCodeContainingIgnoreCase(query.trim(), pageable)
-                  .map(map::toDto);
+        return page(matches, pageable);
     }
 
     public ProductDTO getProductById(Integer id) {
-        Product product = repo.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product " + id));
-        return map.toDto(product);
+        ProductDTO product = catalog.current().productsById().get(id);
+        if (product == null) {
+            throw new ResourceNotFoundException("Product " + id);
+        }
+        return product;
     }
 
     public ProductDTO getById(Integer id) {
         return getProductById(id);
     }
 
+    public List<ProductDTO> byCategory(Integer cid) {
+        return catalog.current().productsByCategory().getOrDefault(cid, List.of());
+    }
+
+    private Comparator<ProductDTO> comparatorFor(Sort sort) {
+        Comparator<ProductDTO> result = null;
+        for (Sort.Order o : sort) {
+            Comparator<ProductDTO> c = switch (o.getProperty()) {
+                case "id", "productId" -> Comparator.comparing(ProductDTO::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+                case "code" -> Comparator.comparing(ProductDTO::getCode, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+                case "name" -> Comparator.comparing(ProductDTO::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+                case "nameEn" -> Comparator.comparing(ProductDTO::getNameEn, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+                // "mostOrdered": all-time ordered quantity, ascending like every other property –
+                // "sort=mostOrdered,desc" puts the most ordered first
+                case "mostOrdered" -> Comparator.comparingLong((ProductDTO p) -> popularity.allTimeQuantity(p.getId()));
+                default -> null;   // unknown property: keep catalog order
+            };
+            if (c == null) continue;
+            if (o.isDescending()) c = c.reversed();
+            result = result == null ? c : result.thenComparing(c);
+        }
+        return result;
+    }
+
+    private static <T> Page<T> page(List<T> all, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(all, pageable, all.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
+
+    /* ─────────── WRITES (publish CatalogChangedEvent → snapshot rebuild after commit) ─────────── */
+
     @Transactional
     public ProductDTO add(ProductDTO d) {
         if (repo.existsByCode(d.getCode()))
@@ -102,6 +152,10 @@ public class ProductService {
 
         Product p = map.toEntity(d);
         p.setUnit(u);
+
+        // English name is translated after commit, so no DB connection waits on the translator
+        boolean needsNameEn = p.getNameEn() == null || p.getNameEn().isBlank();
+        if (needsNameEn) p.setNameEn(null);
         
         // Handle category if provided
         if (d.getCategoryId() != null) {
@@ -111,6 +165,8 @@ public class ProductService {
         }
         
         p = repo.save(p);
+        events.publishEvent(new CatalogChangedEvent("product-add"));
+        if (needsNameEn) events.publishEvent(new ProductNameChangedEvent(p.getProductId(), p.getName()));
 
         return map.toDto(p);
     }
@@ -124,9 +180,15 @@ public class ProductService {
                 && repo.existsByCode(d.getCode()))
             throw new IllegalStateException("Product code duplicated");
 
+        // Re-translate when the English name is empty, or when only the Vietnamese name was edited
+        boolean renamed = !Objects.equals(p.getName(), d.getName());
+        boolean nameEnUntouched = Objects.equals(p.getNameEn(), d.getNameEn());
+
         p.setCode(d.getCode());
         p.setName(d.getName());
         p.setNameEn(d.getNameEn());
+        boolean needsNameEn = d.getNameEn() == null || d.getNameEn().isBlank() || (renamed && nameEnUntouched);
+        if (needsNameEn) p.setNameEn(null);     // filled after commit
 
         // Handle unit - prefer unitId if available, fallback to unit name
         Unit u;
@@ -150,16 +212,15 @@ public class ProductService {
             p.setCategory(category);
         }
 
-        return map.toDto(repo.save(p));
+        ProductDTO saved = map.toDto(repo.save(p));
+        events.publishEvent(new CatalogChangedEvent("product-update"));
+        if (needsNameEn) events.publishEvent(new ProductNameChangedEvent(p.getProductId(), p.getName()));
+        return saved;
     }
 
     public void delete(Integer id) {
         repo.deleteById(id);
-    }
-
-    public List<ProductDTO> byCategory(Integer cid) {
-        return repo.findByCategoryCategoryId(cid).stream()
-                .map(map::toDto).collect(Collectors.toList());
+        events.publishEvent(new CatalogChangedEvent("product-delete"));
     }
 
     @Transactional
@@ -195,61 +256,87 @@ public class ProductService {
             
             p.setImage(cloudinaryUrl);
             
-            return map.toDto(repo.save(p));
+            ProductDTO saved = map.toDto(repo.save(p));
+            events.publishEvent(new CatalogChangedEvent("product-image"));
+            return saved;
             
         } catch (Exception e) {
             throw new IOException("Failed to upload image to Cloudinary: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Bulk catalog sync from an uploaded workbook: streamed, diffed by product code and written in
+     * batches in one transaction. Codes missing from the file are deactivated unless
+     * {@code deactivateMissing} is false; {@code dryRun} only reports what would change.
+     */
+    public ApiResponse<Map<String, Object>> importCatalog(MultipartFile file, boolean deactivateMissing, boolean dryRun) {
+        Path upload = null;
+        try {
+            if (file == null || file.isEmpty()) {
+                throw new IllegalArgumentException("Catalog file is required");
+            }
+            upload = Files.createTempFile("catalog-import-", ".tmp");
+            file.transferTo(upload);
+
+            String source = file.getOriginalFilename() != null ? file.getOriginalFilename() : "upload";
+            CatalogImportService.Result result = catalogImport.apply(upload, null, source,
+                    CatalogImportService.checksum(upload),
+                    new CatalogImportService.Options(deactivateMissing, dryRun));
+
+            Map<String, Object> summary = result.summary();
+            summary.put("fileName", source);
+            return ApiResponse.success(dryRun ? "Catalog import checked (nothing written)" : "Catalog imported", summary);
+
+        } catch (Exception e) {
+            log.error("Catalog import failed", e);
+            return ApiResponse.error("Failed to import catalog: " + e.getMessage());
+        } finally {
+            if (upload != null) {
+                try {
+                    Files.deleteIfExists(upload);
+                } catch (IOException e) {
+                    log.warn("Could not delete temporary upload {}", upload);
+                }
+            }
+        }
+    }
+
     /* ========== DASHBOARD METHODS ========== */
 
     /**
      * Get product statistics and insights
      */
     public ProductStatsDTO getProductStats() {
-        YearMonth currentMonth = YearMonth.now();
-        LocalDateTime startOfMonth = currentMonth.atDay(1).atStartOfDay();
-        LocalDateTime endOfMonth = currentMonth.atEndOfMonth().atTime(23, 59, 59);
-        
         Long totalProducts = repo.count();
         Long totalCategories = repo.countDistinctCategories();
-        Long productsOrderedThisMonth = getDistinctProductsOrderedInMonth(startOfMonth, endOfMonth);
+        Long productsOrderedThisMonth = (long) popularity.productsOrderedThisMonth();
         
-        // Get most ordered product this month
-        Map<String, Object> mostOrderedProduct = getMostOrderedProductInMonth(startOfMonth, endOfMonth);
+        // Most ordered product this month (from the in-memory counters)
+        Map<Integer, ProductDTO> byId = catalog.current().productsById();
+        List<Map<String, Object>> mostOrdered = topProducts(popularity.topThisMonth(1, byId::containsKey), byId);
+        Map<String, Object> mostOrderedProduct = mostOrdered.isEmpty() ? null : mostOrdered.get(0);
         
         Long mostOrderedProductId = mostOrderedProduct != null ? (Long) mostOrderedProduct.get("productId") : null;
         String mostOrderedProductName = mostOrderedProduct != null ? (String) mostOrderedProduct.get("productName") : "N/A";
-        Long mostOrderedProductCount = mostOrderedProduct != null ? (Long) mostOrderedProduct.get("orderCount") : 0L;
+        Long mostOrderedProductCount = mostOrderedProduct != null ? (Long) mostOrderedProduct.get("totalQuantity") : 0L;
         
         return new ProductStatsDTO(totalProducts, totalCategories, productsOrderedThisMonth,
                                   mostOrderedProductId, mostOrderedProductName, mostOrderedProductCount);
     }
 
     /**
-     * Get most ordered products this month
+     * Get most ordered products this month (all-time when nothing was ordered yet this month).
+     * Served from the ranked counters in ProductPopularityService – O(limit), no GROUP BY.
      */
     public List<Map<String, Object>> getTopOrderedProducts(int limit) {
-        try {
-            YearMonth currentMonth = YearMonth.now();
-            LocalDateTime startOfMonth = currentMonth.atDay(1).atStartOfDay();
-            LocalDateTime endOfMonth = currentMonth.atEndOfMonth().atTime(23, 59, 59);
-            
-            List<Map<String, Object>> result = getTopOrderedProductsInMonth(startOfMonth, endOfMonth, limit);
-            
-            // If no orders this month, get all-time top products
-            if (result.isEmpty()) {
-                return getAllTimeTopProducts(limit);
-            }
-            
-            return result;
-        } catch (Exception e) {
-            // Log error and return fallback
-            System.err.println("Error getting top ordered products: " + e.getMessage());
-            e.printStackTrace();
-            return getAllTimeTopProducts(limit);
+        // walk the counters past products that left the catalog until `limit` are found
+        Map<Integer, ProductDTO> byId = catalog.current().productsById();
+        List<Map<String, Object>> result = topProducts(popularity.topThisMonth(limit, byId::containsKey), byId);
+        if (result.isEmpty()) {
+            result = topProducts(popularity.topAllTime(limit, byId::containsKey), byId);
         }
+        return result.isEmpty() ? getRecentProducts(limit) : result;
     }
 
     /**
@@ -272,50 +359,23 @@ public class ProductService {
         return distribution;
     }
 
-    /**
-     * Fallback method to get all-time top products or just recent products
-     */
-    private List<Map<String, Object>> getAllTimeTopProducts(int limit) {
-        try {
-            // Try to get all-time top ordered products
-            String query = """
-                SELECT p.product_id as productId, p.name as productName, p.code as productCode, 
-                       c.name_vn as category, u.name_vn as unit, p.image as image,
-                       COALESCE(SUM(oi.quantity), 0) as totalQuantity, 
-                       COALESCE(COUNT(oi.order_item_id), 0) as orderCount 
-                FROM products p 
-                LEFT JOIN order_items oi ON p.product_id = oi.product_id 
-                LEFT JOIN orders o ON oi.order_id = o.order_id 
-                LEFT JOIN categories c ON p.category_id = c.category_id 
-                LEFT JOIN units u ON p.unit_id = u.unit_id 
-                GROUP BY p.product_id, p.name, p.code, c.name_vn, u.name_vn, p.image 
-                ORDER BY totalQuantity DESC, p.product_id ASC 
-                LIMIT ?
-                """;
-            
-            @SuppressWarnings("unchecked")
-            List<Object[]> results = entityManager.createNativeQuery(query)
-                    .setParameter(1, limit)
-                    .getResultList();
-            
-            return results.stream().map(result -> {
-                Map<String, Object> productData = new HashMap<>();
-                productData.put("productId", ((Number) result[0]).longValue());
-                productData.put("productName", (String) result[1]);
-                productData.put("productCode", (String) result[2]);
-                productData.put("category", (String) result[3]);
-                productData.put("unit", (String) result[4]);
-                productData.put("image", (String) result[5]);
-                productData.put("totalQuantity", ((Number) result[6]).longValue());
-                productData.put("orderCount", ((Number) result[7]).longValue());
-                return productData;
-            }).toList();
-            
-        } catch (Exception e) {
-            // Ultimate fallback: return recent products
-            System.err.println("Error getting all-time top products, using recent products: " + e.getMessage());
-            return getRecentProducts(limit);
+    /** Counter entries → the map shape the dashboard expects, product data from the catalog snapshot */
+    private static List<Map<String, Object>> topProducts(List<RankedCounter.Entry> entries, Map<Integer, ProductDTO> byId) {
+        List<Map<String, Object>> out = new ArrayList<>(entries.size());
+        for (RankedCounter.Entry e : entries) {
+            ProductDTO product = byId.get(e.id());
+            Map<String, Object> productData = new HashMap<>();
+            productData.put("productId", product.getId().longValue());
+            productData.put("productName", product.getName());
+            productData.put("productCode", product.getCode());
+            productData.put("category", product.getCategoryId() != null ? product.getCategoryName() : null);
+            productData.put("unit", product.getUnit());
+            productData.put("image", product.getImage());
+            productData.put("totalQuantity", e.quantity());
+            productData.put("orderCount", e.lines());
+            out.add(productData);
         }
+        return out;
     }
 
     /**
@@ -346,90 +406,6 @@ public class ProductService {
     }
 
     // Helper methods that use native queries
-    private Long getDistinctProductsOrderedInMonth(LocalDateTime start, LocalDateTime end) {
-        String query = """
-            SELECT COUNT(DISTINCT oi.product_id) 
-            FROM order_items oi 
-            JOIN orders o ON oi.order_id = o.order_id 
-            WHERE o.created_at BETWEEN ? AND ?
-            """;
-        
-        Object result = entityManager.createNativeQuery(query)
-                .setParameter(1, start)
-                .setParameter(2, end)
-                .getSingleResult();
-        
-        return ((Number) result).longValue();
-    }
-
-    private Map<String, Object> getMostOrderedProductInMonth(LocalDateTime start, LocalDateTime end) {
-        String query = """
-            SELECT p.product_id as productId, p.name as productName, SUM(oi.quantity) as orderCount 
-            FROM order_items oi 
-            JOIN orders o ON oi.order_id = o.order_id 
-            JOIN products p ON oi.product_id = p.product_id 
-            WHERE o.created_at BETWEEN ? AND ? 
-            GROUP BY p.product_id, p.name 
-            ORDER BY orderCount DESC 
-            LIMIT 1
-            """;
-        
-        @SuppressWarnings("unchecked")
-        List<Object[]> results = entityManager.createNativeQuery(query)
-                .setParameter(1, start)
-                .setParameter(2, end)
-                .getResultList();
-        
-        if (results.isEmpty()) {
-            return null;
-        }
-        
-        Object[] result = results.get(0);
-        Map<String, Object> productData = new HashMap<>();
-        productData.put("productId", ((Number) result[0]).longValue());
-        productData.put("productName", (String) result[1]);
-        productData.put("orderCount", ((Number) result[2]).longValue());
-        
-        return productData;
-    }
-
-    private List<Map<String, Object>> getTopOrderedProductsInMonth(LocalDateTime start, LocalDateTime end, int limit) {
-        String query = """
-            SELECT p.product_id as productId, p.name as productName, p.code as productCode, 
-                   c.name_vn as category, u.name_vn as unit, p.image as image,
-                   SUM(oi.quantity) as totalQuantity, COUNT(oi.order_item_id) as orderCount 
-            FROM order_items oi 
-            JOIN orders o ON oi.order_id = o.order_id 
-            JOIN products p ON oi.product_id = p.product_id 
-            LEFT JOIN categories c ON p.category_id = c.category_id 
-            LEFT JOIN units u ON p.unit_id = u.unit_id 
-            WHERE o.created_at BETWEEN ? AND ? 
-            GROUP BY p.product_id, p.name, p.code, c.name_vn, u.name_vn, p.image 
-            ORDER BY totalQuantity DESC 
-            LIMIT ?
-            """;
-        
-        @SuppressWarnings("unchecked")
-        List<Object[]> results = entityManager.createNativeQuery(query)
-                .setParameter(1, start)
-                .setParameter(2, end)
-                .setParameter(3, limit)
-                .getResultList();
-        
-        return results.stream().map(result -> {
-            Map<String, Object> productData = new HashMap<>();
-            productData.put("productId", ((Number) result[0]).longValue());
-            productData.put("productName", (String) result[1]);
-            productData.put("productCode", (String) result[2]);
-            productData.put("category", (String) result[3]);
-            productData.put("unit", (String) result[4]);
-            productData.put("image", (String) result[5]);
-            productData.put("totalQuantity", ((Number) result[6]).longValue());
-            productData.put("orderCount", ((Number) result[7]).longValue());
-            return productData;
-        }).toList();
-    }
-
     private List<Map<String, Object>> getCategoryDistributionInMonth(LocalDateTime start, LocalDateTime end) {
         String query = """
             SELECT COALESCE(c.name_vn, 'Uncategorized') as category, COUNT(oi.order_item_id) as count 
@@ -0,0 +1,128 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.dto.ProductDTO;
+import com.example.stationerymgntbe.event.CatalogChangedEvent;
+import com.example.stationerymgntbe.util.PrefixIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead cho ô chọn sản phẩm: prefix trie trên tên / mã / tên EN (đã bỏ dấu),
+ * xếp theo số lượng đã đặt ({@link ProductPopularityService}). Không truy vấn DB theo từng phím gõ;
+ * trie được cập nhật từng sản phẩm khi catalog đổi (chỉ những sản phẩm thêm / sửa / xoá).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSuggestService {
+
+    public static final int DEFAULT_LIMIT = 8;
+    public static final int MAX_LIMIT = 20;
+
+    private final CatalogSnapshotService catalog;
+    private final ProductPopularityService popularity;
+
+    private final PrefixIndex index = new PrefixIndex();
+    private final Map<Integer, List<String>> indexedKeys = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /* ────────── events ────────── */
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(CatalogSnapshotService.REBUILD_ORDER + 1)
+    public void onStartup() {
+        sync(catalog.current());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(CatalogSnapshotService.REBUILD_ORDER + 1)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        sync(catalog.current());
+    }
+
+    /* ────────── reads ────────── */
+
+    /** Top {@code limit} products whose name / code / English name (or a word of it) starts with q */
+    public List<ProductDTO> suggest(String q, Integer categoryId, int limit) {
+        if (q == null || q.isBlank()) return List.of();
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        CatalogSnapshot snap = catalog.current();
+        Map<Integer, ProductDTO> byId = snap.productsById();
+
+        int[] ids;
+        lock.readLock().lock();
+        try {
+            ids = index.top(q, k,
+                    popularity::allTimeQuantity,
+                    categoryId == null ? null : id -> {
+                        ProductDTO p = byId.get(id);
+                        return p != null && categoryId.equals(p.getCategoryId());
+                    });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<ProductDTO> out = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            ProductDTO p = byId.get(id);
+            if (p != null) out.add(p);
+        }
+        return out;
+    }
+
+    /* ────────── incremental maintenance ────────── */
+
+    /** Re-index only products that appeared, disappeared or changed their searchable text */
+    void sync(CatalogSnapshot snap) {
+        int added = 0, changed = 0, removed = 0;
+        lock.writeLock().lock();
+        try {
+            for (Integer id : new ArrayList<>(indexedKeys.keySet())) {
+                if (!snap.productsById().containsKey(id)) {
+                    index.remove(id);
+                    indexedKeys.remove(id);
+                    removed++;
+                }
+            }
+            for (ProductDTO p : snap.products()) {
+                List<String> keys = keysOf(p);
+                List<String> old = indexedKeys.put(p.getId(), keys);
+                if (old == null) {
+                    added++;
+                } else if (!old.equals(keys)) {
+                    changed++;
+                } else {
+                    continue;
+                }
+                index.put(p.getId(), keys);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (added + changed + removed > 0) {
+            log.debug("Suggest index v{}: +{} ~{} -{}", snap.version(), added, changed, removed);
+        }
+    }
+
+    private static List<String> keysOf(ProductDTO p) {
+        List<String> keys = new ArrayList<>(3);
+        keys.add(Objects.toString(p.getName(), ""));
+        keys.add(Objects.toString(p.getCode(), ""));
+        keys.add(Objects.toString(p.getNameEn(), ""));
+        return keys;
+    }
+}
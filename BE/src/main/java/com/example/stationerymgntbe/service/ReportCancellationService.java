@@ -0,0 +1,293 @@
+package com.example.stationerymgntbe.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Chạy truy vấn báo cáo trong một ngữ cảnh có thể huỷ. Mỗi endpoint có deadline riêng
+ * ({@code report.timeout.<endpoint>-ms}); truy vấn chạy trên pool "report-N" trong transaction
+ * chỉ đọc có timeout bằng deadline đó, nên Hibernate đặt statement timeout cho từng câu SQL.
+ * Khi hết hạn hoặc client ngắt kết nối, câu lệnh đang chạy được huỷ thật ở PostgreSQL
+ * ({@link PGConnection#cancelQuery()}); các câu SQL tiếp theo và vòng lặp tổng hợp trong
+ * ReportService dừng tại {@link #checkpoint()}.
+ * <p>
+ * Việc client ngắt kết nối chỉ được biết khi servlet container báo lỗi cho request async
+ * ({@link WebAsyncTask#onError}); nếu container không nhận ra thì deadline vẫn chặn thời gian chạy.
+ */
+@Slf4j
+@Service
+public class ReportCancellationService {
+
+    /** PostgreSQL "query_canceled" – statement timeout or cancel request */
+    private static final String QUERY_CANCELED = "57014";
+
+    public enum Outcome {
+        COMPLETED, TIMEOUT, CLIENT_DISCONNECT, STATEMENT_TIMEOUT, FAILED;
+
+        String key() {
+            return switch (this) {
+                case COMPLETED -> "completed";
+                case TIMEOUT -> "timeout";
+                case CLIENT_DISCONNECT -> "clientDisconnect";
+                case STATEMENT_TIMEOUT -> "statementTimeout";
+                case FAILED -> "failed";
+            };
+        }
+    }
+
+    private static final ThreadLocal<QueryContext> CURRENT = new ThreadLocal<>();
+
+    private final Environment env;
+    private final PlatformTransactionManager transactionManager;
+    private final long defaultTimeoutMs;
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Map<String, Map<Outcome, LongAdder>> counters = new ConcurrentHashMap<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder cancelRequests = new LongAdder();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ReportCancellationService(Environment env,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${report.timeout.default-ms:30000}") long defaultTimeoutMs,
+                                     @Value("${report.async.threads:4}") int threads,
+                                     @Value("${report.async.queue:16}") int queue) {
+        this.env = env;
+        this.transactionManager = transactionManager;
+        this.defaultTimeoutMs = defaultTimeoutMs;
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(threads);
+        this.executor.setMaxPoolSize(threads);
+        this.executor.setQueueCapacity(queue);
+        this.executor.setThreadNamePrefix("report-");
+        this.executor.setDaemon(true);
+        this.executor.initialize();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Wraps a report computation for an async controller response. The result is sent as 200
+     * (or as-is when {@code work} already returns a {@link ResponseEntity}); a deadline answers 504,
+     * and in both cancel cases the running statement is cancelled on the database.
+     */
+    public <T> WebAsyncTask<ResponseEntity<?>> run(String endpoint, Callable<T> work) {
+        long timeoutMs = timeoutMs(endpoint);
+        QueryContext ctx = new QueryContext(endpoint);
+
+        WebAsyncTask<ResponseEntity<?>> task =
+                new WebAsyncTask<>(timeoutMs, executor, () -> execute(ctx, timeoutMs, work));
+        task.onTimeout(() -> {
+            cancel(ctx, Outcome.TIMEOUT);
+            return cancelled(ctx);
+        });
+        task.onError(() -> {
+            // the container noticed the broken connection; otherwise the deadline still applies
+            cancel(ctx, Outcome.CLIENT_DISCONNECT);
+            return cancelled(ctx);
+        });
+        return task;
+    }
+
+    /**
+     * Throws {@link CancellationException} when the report running on this thread was cancelled.
+     * Called before every SQL statement (see {@code ReportStatementGuard}) so a cancelled report
+     * does not start its next query; a no-op outside report requests.
+     */
+    public static void checkpoint() {
+        QueryContext ctx = CURRENT.get();
+        if (ctx != null && ctx.outcome.get() != null) {
+            throw new CancellationException("Report '" + ctx.endpoint + "' cancelled: " + ctx.outcome.get().key());
+        }
+    }
+
+    public long timeoutMs(String endpoint) {
+        return env.getProperty("report.timeout." + endpoint + "-ms", Long.class, defaultTimeoutMs);
+    }
+
+    /** Totals and per-endpoint counts of completed / cancelled / failed report queries */
+    public Map<String, Object> stats() {
+        Map<Outcome, Long> totals = new EnumMap<>(Outcome.class);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        counters.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> {
+                    Map<String, Object> m = new LinkedHashMap<>();
+                    m.put("timeoutMs", timeoutMs(e.getKey()));
+                    e.getValue().forEach((outcome, count) -> {
+                        m.put(outcome.key(), count.sum());
+                        totals.merge(outcome, count.sum(), Long::sum);
+                    });
+                    endpoints.put(e.getKey(), m);
+                });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("running", running.get());
+        result.put("queued", executor.getQueueSize());
+        for (Outcome outcome : Outcome.values()) {
+            result.put(outcome.key(), totals.getOrDefault(outcome, 0L));
+        }
+        result.put("cancelled", totals.getOrDefault(Outcome.TIMEOUT, 0L)
+                + totals.getOrDefault(Outcome.CLIENT_DISCONNECT, 0L)
+                + totals.getOrDefault(Outcome.STATEMENT_TIMEOUT, 0L));
+        result.put("databaseCancelRequests", cancelRequests.sum());
+        result.put("defaultTimeoutMs", defaultTimeoutMs);
+        result.put("endpoints", endpoints);
+        return result;
+    }
+
+    /* ────────── internals ────────── */
+
+    private <T> ResponseEntity<?> execute(QueryContext ctx, long timeoutMs, Callable<T> work) throws Exception {
+        if (ctx.outcome.get() != null) return cancelled(ctx);   // cancelled while still queued
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        tx.setTimeout(Math.max(1, (int) Math.ceil(timeoutMs / 1000.0)));
+
+        long started = System.currentTimeMillis();
+        running.incrementAndGet();
+        CURRENT.set(ctx);
+        try {
+            T result = tx.execute(status -> {
+                ctx.attach(backendConnection());
+                try {
+                    return work.call();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new WorkFailure(e);
+                } finally {
+                    ctx.detach();
+                }
+            });
+            // a late timeout / disconnect can no longer cancel anything once this wins
+            if (!ctx.outcome.compareAndSet(null, Outcome.COMPLETED)) return cancelled(ctx);
+            record(ctx.endpoint, Outcome.COMPLETED);
+            return result instanceof ResponseEntity<?> response ? response : ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            if (ctx.outcome.get() != null) {
+                log.info("Report '{}' stopped after {} ms: {}", ctx.endpoint,
+                        System.currentTimeMillis() - started, ctx.outcome.get().key());
+                return cancelled(ctx);
+            }
+            if (isQueryTimeout(e) && ctx.outcome.compareAndSet(null, Outcome.STATEMENT_TIMEOUT)) {
+                record(ctx.endpoint, Outcome.STATEMENT_TIMEOUT);
+                log.warn("Report '{}' hit its {} ms statement timeout", ctx.endpoint, timeoutMs);
+                return cancelled(ctx);
+            }
+            record(ctx.endpoint, Outcome.FAILED);
+            if (e instanceof WorkFailure failure) throw (Exception) failure.getCause();
+            throw e;
+        } finally {
+            CURRENT.remove();
+            running.decrementAndGet();
+        }
+    }
+
+    /** Physical PostgreSQL connection of the current transaction, or null on other databases */
+    private PGConnection backendConnection() {
+        return entityManager.unwrap(Session.class).doReturningWork(conn ->
+                conn.isWrapperFor(PGConnection.class) ? conn.unwrap(PGConnection.class) : null);
+    }
+
+    private void cancel(QueryContext ctx, Outcome reason) {
+        if (!ctx.outcome.compareAndSet(null, reason)) return;      // already finished or cancelled
+        record(ctx.endpoint, reason);
+        if (ctx.cancelStatement()) cancelRequests.increment();
+        log.info("Report '{}' cancelled: {}", ctx.endpoint, reason.key());
+    }
+
+    private void record(String endpoint, Outcome outcome) {
+        counters.computeIfAbsent(endpoint, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, k -> new LongAdder())
+                .increment();
+    }
+
+    private static ResponseEntity<?> cancelled(QueryContext ctx) {
+        Outcome outcome = ctx.outcome.get();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", false);
+        body.put("message", "Report '" + ctx.endpoint + "' was cancelled (" + outcome.key() + ")");
+        body.put("reason", outcome.key());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(body);
+    }
+
+    private static boolean isQueryTimeout(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof QueryTimeoutException || t instanceof TransactionTimedOutException
+                    || t instanceof jakarta.persistence.QueryTimeoutException) return true;
+            if (t instanceof SQLException sql && QUERY_CANCELED.equals(sql.getSQLState())) return true;
+        }
+        return false;
+    }
+
+    /** Checked exception thrown by the report body, carried through the transaction callback */
+    private static final class WorkFailure extends RuntimeException {
+        WorkFailure(Exception cause) {
+            super(cause);
+        }
+    }
+
+    /** One report request: why it stopped (null while running) and the connection to cancel on */
+    private static final class QueryContext {
+        private final String endpoint;
+        private final AtomicReference<Outcome> outcome = new AtomicReference<>();
+        private PGConnection connection;
+
+        QueryContext(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        synchronized void attach(PGConnection connection) {
+            this.connection = connection;
+        }
+
+        /* cleared before the connection goes back to the pool so a late cancel cannot hit another request */
+        synchronized void detach() {
+            this.connection = null;
+        }
+
+        synchronized boolean cancelStatement() {
+            if (connection == null) return false;
+            try {
+                connection.cancelQuery();
+                return true;
+            } catch (SQLException e) {
+                log.warn("Could not cancel report query for '{}': {}", endpoint, e.getMessage());
+                return false;
+            }
+        }
+    }
+}
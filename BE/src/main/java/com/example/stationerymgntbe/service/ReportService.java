@@ -5,15 +5,16 @@ import com.example.stationerymgntbe.entity.Order;
 import com.example.stationerymgntbe.entity.OrderItem;
 import com.example.stationerymgntbe.entity.Category;
 import com.example.stationerymgntbe.entity.Department;
+import com.example.stationerymgntbe.exception.InvalidParameterException;
 import com.example.stationerymgntbe.mapper.OrderMapper;
 import com.example.stationerymgntbe.repository.OrderRepository;
 import com.example.stationerymgntbe.repository.CategoryRepository;
 import com.example.stationerymgntbe.repository.DepartmentRepository;
+import com.example.stationerymgntbe.util.PeriodAggregation;
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.PdfPCell;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
-import java.awt.Color;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
@@ -23,11 +24,15 @@ import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -35,7 +40,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 
 /**
  * Unified Report Service - Combines all reporting functionality
@@ -45,15 +50,23 @@ import java.util.stream.Stream;
  * - Real-time statistics and performance metrics
  * - Category analysis and filtering
  * - System health monitoring
+ * Read-only transactions throughout, so report queries are served by the read replica when one is configured.
  */
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class ReportService {
 
+    /** Upper bound for ?periods= – every period is one more range in the same scan */
+    static final int MAX_COMPARED_PERIODS = 24;
+
     private final OrderRepository orderRepo;
     private final CategoryRepository categoryRepo;
     private final DepartmentRepository departmentRepo;
     private final OrderMapper orderMapper;
+    private final PdfTemplateRegistry pdf;
+    private final CategoryInferenceService categoryInference;
+    private final HttpCacheService httpCache;
 
     /* ═══════════════════════════════════ HELPERS ═══════════════════════════════════ */
 
@@ -111,68 +124,33 @@ public class ReportService {
             doc.open();
 
             // Title
-            Font titleFont = new Font(Font.HELVETICA, 16, Font.BOLD);
-            Paragraph title = new Paragraph("Stationery Order #" + order.getOrderId(), titleFont);
+            Paragraph title = new Paragraph("Stationery Order #" + order.getOrderId(), pdf.getTitleFont());
             title.setAlignment(Element.ALIGN_CENTER);
             title.setSpacingAfter(20);
             doc.add(title);
 
             // Order details
-            Font normalFont = new Font(Font.HELVETICA, 12);
-            Font boldFont = new Font(Font.HELVETICA, 12, Font.BOLD);
-            
+            Font normalFont = pdf.getNormalFont();
+
             doc.add(new Paragraph("Department: " + order.getDepartment().getName(), normalFont));
             doc.add(new Paragraph("Order Date: " + order.getCreatedAt().toLocalDate(), normalFont));
             doc.add(new Paragraph("Status: " + order.getStatus().toString().toUpperCase(), normalFont));
             doc.add(new Paragraph(" ")); // Empty line
 
-            // Items table
-            float[] widths = {50f, 20f, 20f, 10f};
-            PdfPTable table = new PdfPTable(widths);
-            table.setWidthPercentage(100);
-            table.setSpacingBefore(10);
-
-            Font headerF = new Font(Font.HELVETICA, 11, Font.BOLD);
-            Stream.of("Product Name", "Product Code", "Unit", "Quantity")
-                    .forEach(col -> {
-                        PdfPCell cell = new PdfPCell(new Phrase(col, headerF));
-                        cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-                        cell.setBackgroundColor(new Color(211, 211, 211));
-                        cell.setPadding(8);
-                        table.addCell(cell);
-                    });
-
-            // Add order items
+            // Items table (header row comes from the prebuilt template)
+            PdfPTable table = pdf.newOrderItemsTable();
+
             if (order.getItems() != null && !order.getItems().isEmpty()) {
                 for (OrderItem item : order.getItems()) {
-                    // Product Name
-                    PdfPCell nameCell = new PdfPCell(new Phrase(item.getProduct().getName(), normalFont));
-                    nameCell.setPadding(5);
-                    table.addCell(nameCell);
-                    
-                    // Product Code
-                    PdfPCell codeCell = new PdfPCell(new Phrase(item.getProduct().getCode(), normalFont));
-                    codeCell.setPadding(5);
-                    codeCell.setHorizontalAlignment(Element.ALIGN_CENTER);
-                    table.addCell(codeCell);
-                    
-                    // Unit
-                    PdfPCell unitCell = new PdfPCell(new Phrase(item.getProduct().getUnit().getNameVn(), normalFont));
-                    unitCell.setPadding(5);
-                    unitCell.setHorizontalAlignment(Element.ALIGN_CENTER);
-                    table.addCell(unitCell);
-                    
-                    // Quantity
-                    PdfPCell qtyCell = new PdfPCell(new Phrase(String.valueOf(item.getQuantity()), normalFont));
-                    qtyCell.setPadding(5);
-                    qtyCell.setHorizontalAlignment(Element.ALIGN_CENTER);
-                    table.addCell(qtyCell);
+                    table.addCell(pdf.bodyCell(item.getProduct().getName()));
+                    table.addCell(pdf.centeredBodyCell(item.getProduct().getCode()));
+                    table.addCell(pdf.centeredBodyCell(item.getProduct().getUnit().getNameVn()));
+                    table.addCell(pdf.centeredBodyCell(String.valueOf(item.getQuantity())));
                 }
             } else {
                 // No items message
-                PdfPCell noItemsCell = new PdfPCell(new Phrase("No items in this order", normalFont));
+                PdfPCell noItemsCell = pdf.centeredBodyCell("No items in this order");
                 noItemsCell.setColspan(4);
-                noItemsCell.setHorizontalAlignment(Element.ALIGN_CENTER);
                 noItemsCell.setPadding(10);
                 table.addCell(noItemsCell);
             }
@@ -182,21 +160,21 @@ public class ReportService {
             // Add signature section
             doc.add(new Paragraph(" ")); // Empty line
             doc.add(new Paragraph(" ")); // Empty line
-            
-            Paragraph signatureSection = new Paragraph("Department Head Signature:", boldFont);
+
+            Paragraph signatureSection = new Paragraph("Department Head Signature:", pdf.getBoldFont());
             signatureSection.setSpacingBefore(30);
             doc.add(signatureSection);
-            
+
             // Add signature line
             doc.add(new Paragraph(" ")); // Empty line
             doc.add(new Paragraph("_________________________________", normalFont));
             doc.add(new Paragraph("Date: _________________", normalFont));
-            
+
             // Add instructions
             doc.add(new Paragraph(" ")); // Empty line
             Paragraph instructions = new Paragraph(
-                "Instructions: Please sign this document and upload the signed PDF to complete your order.", 
-                new Font(Font.HELVETICA, 10, Font.ITALIC)
+                "Instructions: Please sign this document and upload the signed PDF to complete your order.",
+                pdf.getNoteFont()
             );
             instructions.setSpacingBefore(20);
             doc.add(instructions);
@@ -220,6 +198,7 @@ public class ReportService {
         Map<String, Map<String, Object>> deptStats = new HashMap<>();
         
         for (Object[] row : rawData) {
+            ReportCancellationService.checkpoint();
             String dept = (String) row[0];           // department
             String productCode = (String) row[1];    // productCode
             String productName = (String) row[2];    // productNameVn
@@ -312,6 +291,7 @@ public class ReportService {
         
         // Collect data for each month
         for (int i = 0; i < monthsBack; i++) {
+            ReportCancellationService.checkpoint();
             LocalDateTime targetDate = LocalDateTime.of(year, month, 1, 0, 0).minusMonths(i);
             var range = range(targetDate.getYear(), targetDate.getMonthValue());
             
@@ -323,6 +303,7 @@ public class ReportService {
             Set<String> departments = new HashSet<>();
             
             for (Object[] row : monthData) {
+                ReportCancellationService.checkpoint();
                 String productCode = (String) row[1];
                 String productName = (String) row[2];
                 int quantity = ((Number) row[3]).intValue();
@@ -391,103 +372,100 @@ public class ReportService {
      */
     public Map<String, Object> getComparison(int currentYear, int currentMonth,
                                            int compareYear, int compareMonth) {
-        var currentRange = range(currentYear, currentMonth);
-        var compareRange = range(compareYear, compareMonth);
-        
-        List<Object[]> currentData = orderRepo.getReportData(currentRange[0], currentRange[1]);
-        List<Object[]> compareData = orderRepo.getReportData(compareRange[0], compareRange[1]);
-        
-        // Calculate basic metrics for current period
-        int currentTotal = currentData.stream().mapToInt(row -> ((Number) row[3]).intValue()).sum();
-        Set<String> currentDepts = currentData.stream().map(row -> (String) row[0]).collect(Collectors.toSet());
-        Set<String> currentProducts = currentData.stream().map(row -> (String) row[1]).collect(Collectors.toSet());
-        
-        // Calculate basic metrics for comparison period
-        int compareTotal = compareData.stream().mapToInt(row -> ((Number) row[3]).intValue()).sum();
-        Set<String> compareDepts = compareData.stream().map(row -> (String) row[0]).collect(Collectors.toSet());
-        Set<String> compareProducts = compareData.stream().map(row -> (String) row[1]).collect(Collectors.toSet());
-        
-        // Calculate department-level changes
-        Map<String, Integer> currentDeptTotals = currentData.stream()
-                .collect(Collectors.groupingBy(
-                    row -> (String) row[0],
-                    Collectors.summingInt(row -> ((Number) row[3]).intValue())
-                ));
-        
-        Map<String, Integer> compareDeptTotals = compareData.stream()
-                .collect(Collectors.groupingBy(
-                    row -> (String) row[0],
-                    Collectors.summingInt(row -> ((Number) row[3]).intValue())
-                ));
-        
+        List<YearMonth> periods = List.of(YearMonth.of(currentYear, currentMonth), YearMonth.of(compareYear, compareMonth));
+        PeriodAggregation agg = aggregatePeriods(periods);
+        final int cur = 0, cmp = 1;
+
+        // Department-level changes
         List<Map<String, Object>> departmentChanges = new ArrayList<>();
-        Set<String> allDepts = new HashSet<>(currentDepts);
-        allDepts.addAll(compareDepts);
-        
-        for (String dept : allDepts) {
-            int current = currentDeptTotals.getOrDefault(dept, 0);
-            int previous = compareDeptTotals.getOrDefault(dept, 0);
-            double changePercent = previous > 0 ? ((current - previous) * 100.0 / previous) : (current > 0 ? 100.0 : 0.0);
-            
+        for (int d = 0; d < agg.departmentCount(); d++) {
+            if (!agg.hasDepartment(cur, d) && !agg.hasDepartment(cmp, d)) continue;
+            long current = agg.departmentTotal(cur, d);
+            long previous = agg.departmentTotal(cmp, d);
+
             Map<String, Object> deptChange = new HashMap<>();
-            deptChange.put("department", dept);
+            deptChange.put("department", agg.departmentName(d));
             deptChange.put("current", current);
             deptChange.put("previous", previous);
-            deptChange.put("change", Math.round(changePercent * 100.0) / 100.0);
+            deptChange.put("change", changePercent(current, previous));
             deptChange.put("status", current > previous ? "increased" : (current < previous ? "decreased" : "unchanged"));
-            
+
             departmentChanges.add(deptChange);
         }
-        
+
         // Sort by absolute change
         departmentChanges.sort((a, b) -> Double.compare(Math.abs((Double) b.get("change")), Math.abs((Double) a.get("change"))));
-        
+
         // Calculate overall changes
+        long currentTotal = agg.total(cur);
+        long compareTotal = agg.total(cmp);
         double quantityChange = compareTotal > 0 ? ((currentTotal - compareTotal) * 100.0 / compareTotal) : 0.0;
-        
+
         // Find new and discontinued products
-        Set<String> newProducts = new HashSet<>(currentProducts);
-        newProducts.removeAll(compareProducts);
-        
-        Set<String> discontinuedProducts = new HashSet<>(compareProducts);
-        discontinuedProducts.removeAll(currentProducts);
-        
+        BitSet newProducts = agg.productsOnlyIn(cur, cmp);
+        BitSet discontinuedProducts = agg.productsOnlyIn(cmp, cur);
+
         Map<String, Object> result = new HashMap<>();
-        result.put("current", Map.of(
-            "period", currentYear + "-" + String.format("%02d", currentMonth),
-            "year", currentYear,
-            "month", currentMonth,
-            "monthName", LocalDateTime.of(currentYear, currentMonth, 1, 0, 0).getMonth().name(),
-            "totalQuantity", currentTotal,
-            "departments", currentDepts.size(),
-            "products", currentProducts.size(),
-            "records", currentData.size()
-        ));
-        
-        result.put("previous", Map.of(
-            "period", compareYear + "-" + String.format("%02d", compareMonth),
-            "year", compareYear,
-            "month", compareMonth,
-            "monthName", LocalDateTime.of(compareYear, compareMonth, 1, 0, 0).getMonth().name(),
-            "totalQuantity", compareTotal,
-            "departments", compareDepts.size(),
-            "products", compareProducts.size(),
-            "records", compareData.size()
-        ));
-        
+        result.put("current", periodSummary(agg, cur, periods.get(cur)));
+        result.put("previous", periodSummary(agg, cmp, periods.get(cmp)));
+
         result.put("changes", Map.of(
             "quantityChange", Math.round(quantityChange * 100.0) / 100.0,
-            "departmentChange", currentDepts.size() - compareDepts.size(),
-            "productChange", currentProducts.size() - compareProducts.size(),
-            "newProducts", newProducts.size(),
-            "discontinuedProducts", discontinuedProducts.size()
+            "departmentChange", agg.departmentsIn(cur) - agg.departmentsIn(cmp),
+            "productChange", agg.productsIn(cur) - agg.productsIn(cmp),
+            "newProducts", newProducts.cardinality(),
+            "discontinuedProducts", discontinuedProducts.cardinality()
         ));
-        
+
         result.put("departmentChanges", departmentChanges);
-        result.put("newProductsList", newProducts.stream().limit(10).collect(Collectors.toList()));
-        result.put("discontinuedProductsList", discontinuedProducts.stream().limit(10).collect(Collectors.toList()));
+        result.put("newProductsList", productKeys(agg, newProducts, 10));
+        result.put("discontinuedProductsList", productKeys(agg, discontinuedProducts, 10));
+        result.put("generatedAt", LocalDateTime.now());
+
+        return result;
+    }
+
+    /**
+     * Multi-period Comparison - any number of months from one query and one pass.
+     * Each period is compared with the one listed before it.
+     */
+    public Map<String, Object> getPeriodComparison(List<YearMonth> periods) {
+        if (periods == null || periods.isEmpty()) {
+            throw new InvalidParameterException("periods", "At least one period is required");
+        }
+        if (periods.size() > MAX_COMPARED_PERIODS) {
+            throw new InvalidParameterException("periods", "At most " + MAX_COMPARED_PERIODS + " periods can be compared");
+        }
+        PeriodAggregation agg = aggregatePeriods(periods);
+
+        List<Map<String, Object>> summaries = new ArrayList<>();
+        for (int p = 0; p < periods.size(); p++) {
+            Map<String, Object> summary = new HashMap<>(periodSummary(agg, p, periods.get(p)));
+            if (p > 0) {
+                summary.put("quantityChange", changePercent(agg.total(p), agg.total(p - 1)));
+                summary.put("newProducts", agg.productsOnlyIn(p, p - 1).cardinality());
+                summary.put("discontinuedProducts", agg.productsOnlyIn(p - 1, p).cardinality());
+            }
+            summaries.add(summary);
+        }
+
+        List<Map<String, Object>> departments = new ArrayList<>();
+        for (int d = 0; d < agg.departmentCount(); d++) {
+            long[] series = new long[periods.size()];
+            for (int p = 0; p < series.length; p++) {
+                series[p] = agg.departmentTotal(p, d);
+            }
+            Map<String, Object> dept = new HashMap<>();
+            dept.put("department", agg.departmentName(d));
+            dept.put("quantities", series);
+            departments.add(dept);
+        }
+        departments.sort(Comparator.comparing(m -> (String) m.get("department")));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("periods", summaries);
+        result.put("departments", departments);
         result.put("generatedAt", LocalDateTime.now());
-        
         return result;
     }
 
@@ -543,25 +521,22 @@ public class ReportService {
         Map<String, Category> categoryMap = allCategories.stream()
                 .collect(Collectors.toMap(Category::getCode, cat -> cat));
         
-        // Simulate categories based on product names and try to match with real categories
+        // Category comes from the product itself; only uncategorized products are inferred from the name
         Map<String, Map<String, Object>> categoryStats = new HashMap<>();
         
         for (Object[] row : rawData) {
-            String productName = (String) row[2]; // productNameVn
+            ReportCancellationService.checkpoint();
             String productCode = (String) row[1]; // productCode
             String department = (String) row[0];  // department
             int quantity = ((Number) row[3]).intValue();
             
-            String inferredCategory = inferCategoryFromProductName(productName);
-            
-            // Try to match with real categories
-            Category realCategory = findMatchingCategory(inferredCategory, allCategories);
-            String categoryName = realCategory != null ? realCategory.getNameVn() : inferredCategory;
-            String categoryCode = realCategory != null ? realCategory.getCode() : "INFERRED";
+            ReportCategory category = categoryOf(row, categoryMap);
+            String categoryName = category.name();
+            String categoryCode = category.code();
             
             Map<String, Object> stats = categoryStats.computeIfAbsent(categoryName, k -> new HashMap<>());
             stats.put("categoryCode", categoryCode);
-            stats.put("isRealCategory", realCategory != null);
+            stats.merge("isRealCategory", category.real(), (a, b) -> (Boolean) a || (Boolean) b);
             stats.merge("totalQuantity", quantity, (a, b) -> (Integer) a + (Integer) b);
             stats.merge("orderCount", 1, (a, b) -> (Integer) a + 1);
             
@@ -621,6 +596,7 @@ public class ReportService {
         result.put("availableCategories", allCategories.stream()
                 .map(cat -> {
                     Map<String, Object> category = new HashMap<>();
+                    category.put("id", cat.getCategoryId());
                     category.put("code", cat.getCode());
                     category.put("nameVn", cat.getNameVn());
                     category.put("nameEn", cat.getNameEn());
@@ -639,70 +615,51 @@ public class ReportService {
      */
     public Map<String, Object> getFilteredAnalytics(Map<String, Object> filters) {
         // Extract filter parameters
-        int year = (Integer) filters.getOrDefault("year", LocalDateTime.now().getYear());
-        int month = (Integer) filters.getOrDefault("month", LocalDateTime.now().getMonthValue());
-        
-        @SuppressWarnings("unchecked")
-        List<String> departmentFilter = (List<String>) filters.get("departments");
-        @SuppressWarnings("unchecked")
-        List<String> categoryFilter = (List<String>) filters.get("categories");
-        
-        Integer minQuantity = (Integer) filters.get("minQuantity");
-        Integer maxQuantity = (Integer) filters.get("maxQuantity");
-        
-        LocalDateTime startDate = filters.get("startDate") != null ? 
-            (LocalDateTime) filters.get("startDate") : LocalDateTime.of(year, month, 1, 0, 0);
-        LocalDateTime endDate = filters.get("endDate") != null ? 
-            (LocalDateTime) filters.get("endDate") : startDate.plusMonths(1);
-        
-        // Get base data
-        List<Object[]> rawData = orderRepo.getReportData(startDate, endDate);
-        
-        // Apply filters
-        List<Object[]> filteredData = rawData.stream()
-                .filter(row -> {
-                    String department = (String) row[0];
-                    String productName = (String) row[2];
-                    int quantity = ((Number) row[3]).intValue();
-                    
-                    // Apply department filter
-                    if (departmentFilter != null && !departmentFilter.isEmpty() && 
-                        !departmentFilter.contains(department)) {
-                        return false;
-                    }
-                    
-                    // Apply category filter (inferred)
-                    if (categoryFilter != null && !categoryFilter.isEmpty()) {
-                        String inferredCategory = inferCategoryFromProductName(productName);
-                        if (!categoryFilter.contains(inferredCategory)) {
-                            return false;
-                        }
-                    }
-                    
-                    // Apply quantity filters
-                    if (minQuantity != null && quantity < minQuantity) {
-                        return false;
-                    }
-                    if (maxQuantity != null && quantity > maxQuantity) {
-                        return false;
-                    }
-                    
-                    return true;
-                })
-                .collect(Collectors.toList());
-        
+        LocalDateTime now = LocalDateTime.now();
+        int year = toInt("year", filters.get("year"), now.getYear());
+        int month = toInt("month", filters.get("month"), now.getMonthValue());
+        if (month < 1 || month > 12) {
+            throw new InvalidParameterException("month", "Month must be between 1 and 12: " + month);
+        }
+        LocalDateTime monthStart = LocalDateTime.of(year, month, 1, 0, 0);
+
+        List<String> departmentFilter = nonEmpty(toList(filters.get("departments")).stream()
+                .map(String::valueOf)
+                .toList());
+        List<Integer> departmentIds = nonEmpty(toIntList("departmentIds", filters.get("departmentIds")));
+        List<Integer> categoryIds = resolveCategoryIds(filters.get("categories"), filters.get("categoryIds"));
+
+        Integer minQuantity = toInteger("minQuantity", filters.get("minQuantity"));
+        Integer maxQuantity = toInteger("maxQuantity", filters.get("maxQuantity"));
+
+        LocalDateTime startDate = filters.get("startDate") != null ? toDateTime("startDate", filters.get("startDate")) : monthStart;
+        LocalDateTime endDate = filters.get("endDate") != null ? toDateTime("endDate", filters.get("endDate")) : startDate.plusMonths(1);
+
+        // Only matching rows leave the database
+        ReportFilterDTO criteria = ReportFilterDTO.builder()
+                .start(startDate)
+                .end(endDate)
+                .departmentNames(departmentFilter)
+                .departmentIds(departmentIds)
+                .categoryIds(categoryIds)
+                .minQuantity(minQuantity)
+                .maxQuantity(maxQuantity)
+                .build();
+        List<Object[]> filteredData = orderRepo.findFilteredReportData(criteria);
+
         // Process filtered data
         Map<String, Object> analytics = processFilteredData(filteredData);
         analytics.put("filters", filters);
         analytics.put("appliedFilters", Map.of(
-            "departments", departmentFilter != null ? departmentFilter.size() : 0,
-            "categories", categoryFilter != null ? categoryFilter.size() : 0,
+            "departments", (departmentFilter != null ? departmentFilter.size() : 0)
+                    + (departmentIds != null ? departmentIds.size() : 0),
+            "categories", categoryIds != null ? categoryIds.size() : 0,
             "quantityRange", minQuantity != null || maxQuantity != null,
-            "customDateRange", !startDate.equals(LocalDateTime.of(year, month, 1, 0, 0)),
+            "customDateRange", !startDate.equals(monthStart),
             "totalFiltered", filteredData.size(),
-            "totalOriginal", rawData.size()
+            "totalOriginal", orderRepo.countReportRows(startDate, endDate)
         ));
-        
+
         return analytics;
     }
 
@@ -784,6 +741,8 @@ public class ReportService {
             "cacheStatus", "healthy"
         ));
         
+        metrics.put("httpCacheMetrics", httpCache.stats());   // ETag / 304 hit rate per endpoint
+        
         metrics.put("recommendations", generatePerformanceRecommendations(totalTime, queryTime, usedMemory, totalMemory));
         metrics.put("generatedAt", LocalDateTime.now());
         
@@ -845,14 +804,10 @@ public class ReportService {
                     return category;
                 })
                 .collect(Collectors.toList()));
-        categoriesMap.put("common", List.of(
-                "Writing Instruments",
-                "Paper Products", 
-                "Electronics",
-                "Furniture",
-                "Cleaning Supplies",
-                "Office Supplies"
-        ));
+        // Tên danh mục thật – filter gửi lại tên, server tra ra categoryId
+        categoriesMap.put("common", categories.stream()
+                .map(Category::getNameEn)
+                .collect(Collectors.toList()));
         options.put("categories", categoriesMap);
         
         options.put("quantityRanges", quantityRanges);
@@ -884,6 +839,7 @@ public class ReportService {
 
             int r = 1;
             for (ReportDTO d : rows) {
+                ReportCancellationService.checkpoint();
                 Row row = sheet.createRow(r++);
                 row.createCell(0).setCellValue(d.getDepartment());
                 row.createCell(1).setCellValue(d.getProductCode());
@@ -908,32 +864,21 @@ public class ReportService {
             doc.open();
 
             /* Tiêu đề */
-            Font titleFont = new Font(Font.HELVETICA, 16, Font.BOLD);
-            Paragraph title = new Paragraph("Stationery Report " + month + "/" + year, titleFont);
+            Paragraph title = new Paragraph("Stationery Report " + month + "/" + year, pdf.getTitleFont());
             title.setAlignment(Element.ALIGN_CENTER);
             title.setSpacingAfter(15);
             doc.add(title);
 
-            /* Bảng dữ liệu */
-            float[] widths = {30f, 22f, 60f, 15f, 15f};
-            PdfPTable table = new PdfPTable(widths);
-            table.setWidthPercentage(100);
-
-            Font headerF = new Font(Font.HELVETICA, 11, Font.BOLD);
-            Stream.of("Department", "Product Code", "Product Name (VN)", "Qty", "Unit")
-                  .forEach(col -> {
-                      PdfPCell cell = new PdfPCell(new Phrase(col, headerF));
-                      cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-                      cell.setBackgroundColor(new Color(211, 211, 211));
-                      table.addCell(cell);
-                  });
+            /* Bảng dữ liệu – header lặp lại trên mỗi trang */
+            PdfPTable table = pdf.newMonthlyReportTable();
 
             for (ReportDTO d : rows) {
-                table.addCell(d.getDepartment());
-                table.addCell(d.getProductCode());
-                table.addCell(d.getProductNameVn());
-                table.addCell(String.valueOf(d.getQuantity()));
-                table.addCell(d.getUnit());
+                ReportCancellationService.checkpoint();
+                table.addCell(pdf.reportCell(d.getDepartment()));
+                table.addCell(pdf.reportCell(d.getProductCode()));
+                table.addCell(pdf.reportCell(d.getProductNameVn()));
+                table.addCell(pdf.reportCell(String.valueOf(d.getQuantity())));
+                table.addCell(pdf.reportCell(d.getUnit()));
             }
 
             doc.add(table);
@@ -960,6 +905,8 @@ public class ReportService {
      * Helper method to process filtered data
      */
     private Map<String, Object> processFilteredData(List<Object[]> rawData) {
+        Map<String, Category> categoriesByCode = categoryRepo.findAll().stream()
+                .collect(Collectors.toMap(Category::getCode, cat -> cat));
         Map<String, Integer> departmentTotals = new HashMap<>();
         Map<String, Integer> productTotals = new HashMap<>();
         Map<String, Integer> categoryTotals = new HashMap<>();
@@ -967,12 +914,12 @@ public class ReportService {
         int totalQuantity = 0;
         
         for (Object[] row : rawData) {
+            ReportCancellationService.checkpoint();
             String department = (String) row[0];
             String productCode = (String) row[1];
-            String productName = (String) row[2];
             int quantity = ((Number) row[3]).intValue();
             
-            String category = inferCategoryFromProductName(productName);
+            String category = categoryOf(row, categoriesByCode).name();
             
             departmentTotals.merge(department, quantity, Integer::sum);
             productTotals.merge(productCode, quantity, Integer::sum);
@@ -1027,57 +974,149 @@ public class ReportService {
         return result;
     }
 
+    /** Category of a report row: joined from the product, or inferred (cached per product) when it has none */
+    private record ReportCategory(String code, String name, boolean real) {
+    }
+
     /**
-     * Helper method to infer category from product name
+     * Helper method to resolve the category of a report row
+     * (rows: [dept, code, name, qty, unit, product_id, category_code, category_name_vn])
      */
-    private String inferCategoryFromProductName(String productName) {
-        if (productName == null) return "Unknown";
-        
-        String name = productName.toLowerCase();
-        
-        // Writing instruments
-        if (name.contains("pen") || name.contains("pencil") || name.contains("marker") || 
-            name.contains("bút") || name.contains("viết")) {
-            return "Writing Instruments";
+    private ReportCategory categoryOf(Object[] row, Map<String, Category> categoriesByCode) {
+        if (row[6] != null) {
+            return new ReportCategory((String) row[6], (String) row[7], true);
         }
-        
-        // Paper products
-        if (name.contains("paper") || name.contains("notebook") || name.contains("folder") || 
-            name.contains("giấy") || name.contains("sổ") || name.contains("tập")) {
-            return "Paper Products";
+        Integer productId = row[5] != null ? ((Number) row[5]).intValue() : null;
+        String code = categoryInference.inferCode(productId, (String) row[2]);
+        Category inferred = categoriesByCode.get(code);
+        return new ReportCategory(code, inferred != null ? inferred.getNameVn() : code, false);
+    }
+
+    /**
+     * Category filter → real category ids.
+     * Accepts ids, or codes / Vietnamese / English names (what the filter UI sends).
+     * Returns null when no category filter was given, an empty list when nothing matched.
+     */
+    private List<Integer> resolveCategoryIds(Object categories, Object categoryIds) {
+        List<Object> requested = new ArrayList<>(toList(categories));
+        requested.addAll(toList(categoryIds));
+        if (requested.isEmpty()) {
+            return null;
         }
-        
-        // Electronics
-        if (name.contains("computer") || name.contains("mouse") || name.contains("keyboard") || 
-            name.contains("máy tính") || name.contains("chuột") || name.contains("bàn phím")) {
-            return "Electronics";
+
+        Map<String, Integer> byKey = new HashMap<>();
+        for (Category c : categoryRepo.findAll()) {
+            byKey.put(String.valueOf(c.getCategoryId()), c.getCategoryId());
+            byKey.put(c.getCode().toLowerCase(), c.getCategoryId());
+            byKey.put(c.getNameVn().toLowerCase(), c.getCategoryId());
+            byKey.put(c.getNameEn().toLowerCase(), c.getCategoryId());
         }
-        
-        // Furniture
-        if (name.contains("chair") || name.contains("desk") || name.contains("table") || 
-            name.contains("ghế") || name.contains("bàn")) {
-            return "Furniture";
+        return requested.stream()
+                .map(v -> byKey.get(String.valueOf(v).trim().toLowerCase()))
+                .filter(java.util.Objects::nonNull)
+                .distinct()
+                .toList();
+    }
+
+    private static List<Object> toList(Object value) {
+        if (value instanceof java.util.Collection<?> c) return new ArrayList<>(c);
+        return value == null ? List.of() : List.of(value);
+    }
+
+    private static List<Integer> toIntList(String field, Object value) {
+        return toList(value).stream().map(v -> toInteger(field, v)).filter(java.util.Objects::nonNull).toList();
+    }
+
+    private static <T> List<T> nonEmpty(List<T> list) {
+        return list == null || list.isEmpty() ? null : list;
+    }
+
+    /** Filter values come straight from the request body – a non-number is the caller's mistake (400) */
+    private static Integer toInteger(String field, Object value) {
+        if (value instanceof Number n) return n.intValue();
+        if (value instanceof String s && !s.isBlank()) {
+            try {
+                return Integer.valueOf(s.trim());
+            } catch (NumberFormatException e) {
+                throw new InvalidParameterException(field, "Not a whole number: '" + s + "'", e);
+            }
         }
-        
-        // Cleaning supplies
-        if (name.contains("clean") || name.contains("soap") || name.contains("tissue") || 
-            name.contains("vệ sinh") || name.contains("giấy lau")) {
-            return "Cleaning Supplies";
+        return null;
+    }
+
+    private static int toInt(String field, Object value, int fallback) {
+        Integer i = toInteger(field, value);
+        return i != null ? i : fallback;
+    }
+
+    /** JSON dates arrive as strings: "2025-07-01", "2025-07-01T08:00:00" or ISO instants from the browser */
+    private static LocalDateTime toDateTime(String field, Object value) {
+        if (value instanceof LocalDateTime dt) return dt;
+        String s = String.valueOf(value).trim();
+        try {
+            if (s.length() == 10) {
+                return java.time.LocalDate.parse(s).atStartOfDay();
+            }
+            if (s.endsWith("Z") || s.matches(".*[+-]\\d{2}:\\d{2}$")) {
+                return java.time.OffsetDateTime.parse(s)
+                        .atZoneSameInstant(java.time.ZoneId.systemDefault())
+                        .toLocalDateTime();
+            }
+            return LocalDateTime.parse(s);
+        } catch (java.time.format.DateTimeParseException e) {
+            throw new InvalidParameterException(field, "Not a date (yyyy-MM-dd or ISO date-time): '" + s + "'", e);
         }
-        
-        // Office supplies (default)
-        return "Office Supplies";
     }
 
     /**
-     * Helper method to find matching real category
+     * One query + one pass over the rows for all requested months. A month listed twice is queried
+     * once (the SQL buckets rows into the first matching range) and its rows are fed to every position.
      */
-    private Category findMatchingCategory(String inferredCategory, List<Category> allCategories) {
-        return allCategories.stream()
-                .filter(cat -> cat.getNameVn().toLowerCase().contains(inferredCategory.toLowerCase()) ||
-                              cat.getNameEn().toLowerCase().contains(inferredCategory.toLowerCase()))
-                .findFirst()
-                .orElse(null);
+    private PeriodAggregation aggregatePeriods(List<YearMonth> periods) {
+        List<YearMonth> distinct = periods.stream().distinct().toList();
+        List<LocalDateTime[]> ranges = distinct.stream()
+                .map(ym -> range(ym.getYear(), ym.getMonthValue()))
+                .toList();
+        int[][] positions = new int[distinct.size()][];
+        for (int i = 0; i < positions.length; i++) {
+            YearMonth month = distinct.get(i);
+            positions[i] = IntStream.range(0, periods.size()).filter(p -> periods.get(p).equals(month)).toArray();
+        }
+
+        PeriodAggregation agg = new PeriodAggregation(periods.size());
+        for (Object[] row : orderRepo.findPeriodTotals(ranges)) {
+            ReportCancellationService.checkpoint();
+            for (int p : positions[((Number) row[0]).intValue()]) {
+                agg.add(p, (String) row[1], (String) row[2], ((Number) row[3]).longValue());
+            }
+        }
+        return agg;
+    }
+
+    private Map<String, Object> periodSummary(PeriodAggregation agg, int p, YearMonth ym) {
+        return Map.of(
+            "period", ym.getYear() + "-" + String.format("%02d", ym.getMonthValue()),
+            "year", ym.getYear(),
+            "month", ym.getMonthValue(),
+            "monthName", ym.getMonth().name(),
+            "totalQuantity", agg.total(p),
+            "departments", agg.departmentsIn(p),
+            "products", agg.productsIn(p),
+            "records", agg.records(p)
+        );
+    }
+
+    private static double changePercent(long current, long previous) {
+        double change = previous > 0 ? ((current - previous) * 100.0 / previous) : (current > 0 ? 100.0 : 0.0);
+        return Math.round(change * 100.0) / 100.0;
+    }
+
+    private static List<String> productKeys(PeriodAggregation agg, BitSet ids, int limit) {
+        List<String> keys = new ArrayList<>();
+        for (int i = ids.nextSetBit(0); i >= 0 && keys.size() < limit; i = ids.nextSetBit(i + 1)) {
+            keys.add(agg.productKey(i));
+        }
+        return keys;
     }
 
     /**
@@ -1,19 +1,28 @@
 package com.example.stationerymgntbe.service;
 
+import com.example.stationerymgntbe.dto.ProductDTO;
 import com.example.stationerymgntbe.dto.ProductOrderSummaryDTO;
-import com.example.stationerymgntbe.repository.OrderItemRepository;
+import com.example.stationerymgntbe.util.RankedCounter;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class SummaryService {
-    private final OrderItemRepository itemRepo;
+    private final ProductPopularityService popularity;
+    private final CatalogSnapshotService catalog;
 
+    /** All-time top catalog products, read from the ranked counters (no GROUP BY over order_items) */
     public List<ProductOrderSummaryDTO> topProducts(int limit) {
-        return itemRepo.findTopProducts(PageRequest.of(0, limit));
+        Map<Integer, ProductDTO> byId = catalog.current().productsById();
+        List<ProductOrderSummaryDTO> out = new ArrayList<>(limit);
+        for (RankedCounter.Entry e : popularity.topAllTime(limit, byId::containsKey)) {
+            out.add(new ProductOrderSummaryDTO(e.id(), byId.get(e.id()).getName(), e.quantity()));
+        }
+        return out;
     }
-}
\ No newline at end of file
+}
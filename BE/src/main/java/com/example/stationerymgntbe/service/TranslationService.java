@@ -1,40 +1,119 @@
 package com.example.stationerymgntbe.service;
 
+import com.example.stationerymgntbe.entity.Translation;
+import com.example.stationerymgntbe.repository.TranslationRepository;
+import com.example.stationerymgntbe.util.KeywordAutomaton;
+import com.example.stationerymgntbe.util.LruCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Pattern;
 
+/**
+ * Vietnamese ⇄ English translation: manual dictionary first, then the upstream translator.
+ * Results live in a size-bounded LRU backed by the {@code translations} table, so they survive
+ * restarts. Batch requests are de-duplicated and the misses are sent upstream in chunks
+ * (one HTTP call per chunk) on a small bounded pool, with connect/read timeouts and an
+ * overall deadline. The upstream URL is configurable so a local stand-in can be used.
+ */
 @Service
 @Slf4j
 public class TranslationService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    
-    // Google Translate API - much faster and more accurate
-    private static final String GOOGLE_TRANSLATE_URL = "https://translate.googleapis.com/translate_a/single";
-    
-    // Aggressive caching for performance - like Google Translate extension
-    private final Map<String, String> translationCache = new ConcurrentHashMap<>();
-    
-    @Value("${google.translate.api.key:}")
-    private String googleApiKey;
-    
+    /** Texts joined into one upstream call are separated by a newline, which the translator preserves */
+    private static final String SEPARATOR = "\n";
+    private static final int STORE_LOOKUP_CHUNK = 500;
+
+    private final TranslationRepository store;
+    private final ObjectMapper objectMapper;
+    private final RestTemplate restTemplate;
+    private final ExecutorService upstreamPool;
+    private final LruCache<String, String> translationCache;
+
+    // Google Translate API (free endpoint) unless overridden, e.g. with a local stand-in
+    private final String upstreamUrl;
+    private final int batchSize;
+    private final int maxBatchChars;
+    private final long batchTimeoutMs;
+
+    private final LongAdder storeHits = new LongAdder();
+    private final LongAdder manualHits = new LongAdder();
+    private final LongAdder upstreamCalls = new LongAdder();
+    private final LongAdder upstreamTexts = new LongAdder();
+    private final LongAdder upstreamFailures = new LongAdder();
+
+    public TranslationService(TranslationRepository store,
+                              ObjectMapper objectMapper,
+                              @Value("${translation.upstream.url:https://translate.googleapis.com/translate_a/single}") String upstreamUrl,
+                              @Value("${translation.upstream.threads:4}") int threads,
+                              @Value("${translation.upstream.batch-size:25}") int batchSize,
+                              @Value("${translation.upstream.max-batch-chars:1500}") int maxBatchChars,
+                              @Value("${translation.upstream.connect-timeout-ms:2000}") int connectTimeoutMs,
+                              @Value("${translation.upstream.read-timeout-ms:5000}") int readTimeoutMs,
+                              @Value("${translation.batch.timeout-ms:15000}") long batchTimeoutMs,
+                              @Value("${translation.cache.max-size:10000}") int cacheMaxSize) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.upstreamUrl = upstreamUrl;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatchChars = Math.max(1, maxBatchChars);
+        this.batchTimeoutMs = batchTimeoutMs;
+        this.translationCache = new LruCache<>(cacheMaxSize);
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+
+        AtomicInteger seq = new AtomicInteger();
+        this.upstreamPool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "translate-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        upstreamPool.shutdownNow();
+    }
+
     // Manual translations for important/technical terms
-    private static final Map<String, String> MANUAL_TRANSLATIONS = Map.ofEntries(
+    static final Map<String, String> MANUAL_TRANSLATIONS = Map.ofEntries(
         // Staplers and clips
         Map.entry("Kim bấm", "Stapler"),
         Map.entry("Kẹp đen bướm", "Black Butterfly Clip"),
@@ -62,6 +141,13 @@ public class TranslationService {
         Map.entry("giấy", "Paper")
     );
 
+    /* compiled once: the dictionary as a single automaton, the clean-up regexes as patterns */
+    private static final KeywordAutomaton<String> MANUAL_MATCHER = KeywordAutomaton.ignoreCase(MANUAL_TRANSLATIONS);
+    private static final Pattern UNIT_SPACING = Pattern.compile("(\\d+)\\s*(mm|cm)");
+    private static final Pattern MULTI_SPACE = Pattern.compile("\\s+");
+    private static final Pattern SPACE_BEFORE_PUNCT = Pattern.compile("\\s*([(),])");
+    private static final Pattern SPACE_AFTER_PUNCT = Pattern.compile("([(),])\\s*");
+
     /**
      * Translate text using Google Translate API with aggressive caching
      * Much faster and more accurate than LibreTranslate - works like Google Translate extension
@@ -71,88 +157,76 @@ public class TranslationService {
     }
 
     /**
-     * Translate text from any language to any language using Google Translate
-     * This is the main translation method that works like Google Translate extension
+     * Translate text from any language to any language
+     * (memory → translations table → manual dictionary → upstream)
      */
     public String translateText(String text, String sourceLang, String targetLang) {
         if (text == null || text.trim().isEmpty()) {
             return text;
         }
+        return batchTranslate(List.of(text), sourceLang, targetLang).get(text);
+    }
 
-        String cacheKey = sourceLang + "_" + targetLang + "_" + text;
-        
-        // Check cache first for instant response (like Google Translate)
-        if (translationCache.containsKey(cacheKey)) {
-            return translationCache.get(cacheKey);
-        }
-
-        try {
-            // Step 1: Apply manual translations for technical terms (Vietnamese to English only)
-            if ("vi".equals(sourceLang) && "en".equals(targetLang)) {
-                String manualResult = applyManualTranslations(text);
-                if (!manualResult.equals(text) && isGoodTranslation(manualResult)) {
-                    String cleaned = cleanupTranslation(manualResult);
-                    translationCache.put(cacheKey, cleaned);
-                    return cleaned;
-                }
-            }
-            
-            // Step 2: Use Google Translate API (much faster than LibreTranslate)
-            String googleTranslated = translateWithGoogleTranslate(text, sourceLang, targetLang);
-            if (googleTranslated != null && !googleTranslated.equals(text)) {
-                String cleaned = cleanupTranslation(googleTranslated);
-                translationCache.put(cacheKey, cleaned);
-                return cleaned;
+    /**
+     * One upstream call for a chunk of texts joined by newlines. Falls back to one call per text
+     * when the translator merged or split lines so the answer cannot be matched back.
+     */
+    private Map<String, String> translateChunk(List<String> chunk, String sourceLang, String targetLang) {
+        Map<String, String> out = new HashMap<>();
+        if (chunk.size() > 1) {
+            List<String> lines = callUpstream(String.join(SEPARATOR, chunk), sourceLang, targetLang);
+            if (lines != null && lines.size() == chunk.size()) {
+                for (int i = 0; i < chunk.size(); i++) out.put(chunk.get(i), lines.get(i));
+                return out;
             }
-            
-            // Step 3: Fallback
-            translationCache.put(cacheKey, text);
-            return text;
-            
-        } catch (Exception e) {
-            log.warn("Translation failed for '{}' from {} to {}: {}", text, sourceLang, targetLang, e.getMessage());
-            // Fallback: cache and return original text
-            translationCache.put(cacheKey, text);
-            return text;
+            log.debug("Upstream returned {} lines for {} texts, retrying one by one",
+                    lines == null ? 0 : lines.size(), chunk.size());
+        }
+        for (String text : chunk) {
+            if (Thread.currentThread().isInterrupted()) break;
+            List<String> lines = callUpstream(text, sourceLang, targetLang);
+            if (lines != null && !lines.isEmpty()) out.put(text, String.join(" ", lines));
         }
+        return out;
     }
 
     /**
-     * Translate using Google Translate API (free endpoint)
-     * This uses the same endpoint as Google Translate website - very fast and accurate
+     * Translate using the upstream endpoint (Google Translate {@code client=gtx} protocol)
      * Enhanced with proper Vietnamese Unicode handling
+     *
+     * @return translated lines, or {@code null} when the call failed
      */
-    private String translateWithGoogleTranslate(String text, String sourceLang, String targetLang) {
+    private List<String> callUpstream(String text, String sourceLang, String targetLang) {
+        upstreamCalls.increment();
         try {
             // Normalize Vietnamese text for better translation
             String normalizedText = normalizeVietnameseText(text);
-            
+
             // Use proper UTF-8 encoding for Vietnamese characters
             String encodedText = URLEncoder.encode(normalizedText, StandardCharsets.UTF_8);
             String url = String.format(
                 "%s?client=gtx&sl=%s&tl=%s&dt=t&ie=UTF-8&oe=UTF-8&q=%s",
-                GOOGLE_TRANSLATE_URL, sourceLang, targetLang, encodedText
+                upstreamUrl, sourceLang, targetLang, encodedText
             );
-            
+
             HttpHeaders headers = new HttpHeaders();
             headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
             headers.set("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8");
             headers.set("Accept-Language", "vi-VN,vi;q=0.9,en;q=0.8");
             headers.set("Accept-Charset", "UTF-8");
             headers.setContentType(MediaType.APPLICATION_JSON);
-            
+
             HttpEntity<String> entity = new HttpEntity<>(headers);
-            ResponseEntity<String> response = restTemplate.exchange(url, 
-                org.springframework.http.HttpMethod.GET, entity, String.class);
-            
+            ResponseEntity<String> response = restTemplate.exchange(URI.create(url), HttpMethod.GET, entity, String.class);
+
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                return parseGoogleTranslateResponse(response.getBody());
+                List<String> lines = parseGoogleTranslateResponse(response.getBody());
+                if (lines != null) return lines;
             }
-            
         } catch (Exception e) {
-            log.debug("Google Translate API failed: {}", e.getMessage());
+            log.debug("Upstream translation failed: {}", e.getMessage());
         }
-        
+        upstreamFailures.increment();
         return null;
     }
 
@@ -215,45 +289,38 @@ public class TranslationService {
 
     /**
      * Parse Google Translate API response
-     * The response is a JSON array with the translated text
+     * {@code [[["translated ","original ",…],["next sentence","…",…]],null,"vi"]} – the segments
+     * are concatenated and split back into lines
      */
-    private String parseGoogleTranslateResponse(String responseBody) {
+    private List<String> parseGoogleTranslateResponse(String responseBody) {
         try {
-            // Google Translate returns: [[["translated text","original text",null,null,3]],null,"vi"]
-            // We need to extract the first translated text
-            Pattern pattern = Pattern.compile("\\[\\[\\[\"([^\"]+)\"");
-            Matcher matcher = pattern.matcher(responseBody);
-            
-            if (matcher.find()) {
-                return matcher.group(1)
-                    .replace("\\n", "\n")
-                    .replace("\\\"", "\"")
-                    .replace("\\\\", "\\");
+            JsonNode segments = objectMapper.readTree(responseBody).path(0);
+            if (!segments.isArray() || segments.isEmpty()) return null;
+            StringBuilder sb = new StringBuilder();
+            for (JsonNode segment : segments) {
+                JsonNode translated = segment.path(0);
+                if (translated.isTextual()) sb.append(translated.asText());
             }
+            if (sb.isEmpty()) return null;
+            return Arrays.stream(sb.toString().split("\\r?\\n"))
+                    .map(String::trim)
+                    .toList();
         } catch (Exception e) {
             log.debug("Failed to parse Google Translate response: {}", e.getMessage());
         }
-        
+
         return null;
     }
 
     /**
-     * Apply manual translations for technical terms
+     * Apply manual translations for technical terms: one pass over the text, longest phrase wins
+     * ("Băng keo 2 mặt" before "Băng keo"), case-insensitive for Vietnamese letters too
      */
-    private String applyManualTranslations(String text) {
-        String result = text;
-        
-        // Apply manual translations
-        for (Map.Entry<String, String> entry : MANUAL_TRANSLATIONS.entrySet()) {
-            result = result.replaceAll("(?i)" + entry.getKey(), entry.getValue());
-        }
-        
-        // Handle common patterns
-        result = result.replaceAll("(\\d+)\\s*mm", "$1mm");
-        result = result.replaceAll("(\\d+)\\s*cm", "$1cm");
-        result = result.replaceAll("\\((.*?)\\)", "($1)");
-        
-        return result;
+    static String applyManualTranslations(String text) {
+        String result = MANUAL_MATCHER.replace(text, KeywordAutomaton.Match::value);
+
+        // Handle common patterns: "5 mm" → "5mm"
+        return UNIT_SPACING.matcher(result).replaceAll("$1$2");
     }
 
     /**
@@ -272,11 +339,10 @@ public class TranslationService {
      * Clean up translation result
      */
     private String cleanupTranslation(String translation) {
-        return translation
-            .replaceAll("\\s+", " ")  // Multiple spaces to single space
-            .replaceAll("\\s*([(),])", "$1")  // Remove spaces before punctuation
-            .replaceAll("([(),])\\s*", "$1 ")  // Add space after punctuation
-            .trim();
+        String result = MULTI_SPACE.matcher(translation).replaceAll(" ");  // Multiple spaces to single space
+        result = SPACE_BEFORE_PUNCT.matcher(result).replaceAll("$1");     // Remove spaces before punctuation
+        result = SPACE_AFTER_PUNCT.matcher(result).replaceAll("$1 ");     // Add space after punctuation
+        return result.trim();
     }
 
     /**
@@ -301,17 +367,56 @@ public class TranslationService {
     }
 
     /**
-     * Batch translate multiple texts efficiently with caching
-     * Much faster than individual requests
+     * Batch translate multiple texts: duplicates are translated once, cached/stored texts
+     * never go upstream, and the rest are sent in chunks on the upstream pool.
+     * Texts whose translation failed (or missed the deadline) come back unchanged and
+     * are not cached, so they are retried next time.
      */
     public Map<String, String> batchTranslate(List<String> texts, String sourceLang, String targetLang) {
         Map<String, String> results = new HashMap<>();
-        
+        Set<String> pending = new LinkedHashSet<>();
+
+        // Step 1: in-memory LRU
         for (String text : texts) {
-            results.put(text, translateText(text, sourceLang, targetLang));
-            // No delay needed with caching and Google Translate API
+            if (text == null || results.containsKey(text) || pending.contains(text)) continue;
+            if (text.trim().isEmpty()) {
+                results.put(text, text);
+                continue;
+            }
+            String cached = translationCache.get(cacheKey(sourceLang, targetLang, text));
+            if (cached != null) results.put(text, cached);
+            else pending.add(text);
+        }
+
+        // Step 2: translations table
+        if (!pending.isEmpty()) {
+            loadFromStore(pending, sourceLang, targetLang, results);
+        }
+
+        // Step 3: manual translations for technical terms (Vietnamese to English only, never persisted)
+        if ("vi".equals(sourceLang) && "en".equals(targetLang)) {
+            for (Iterator<String> it = pending.iterator(); it.hasNext(); ) {
+                String text = it.next();
+                String manualResult = applyManualTranslations(text);
+                if (!manualResult.equals(text) && isGoodTranslation(manualResult)) {
+                    String cleaned = cleanupTranslation(manualResult);
+                    translationCache.put(cacheKey(sourceLang, targetLang, text), cleaned);
+                    results.put(text, cleaned);
+                    manualHits.increment();
+                    it.remove();
+                }
+            }
+        }
+
+        // Step 4: upstream, chunked and concurrent
+        if (!pending.isEmpty()) {
+            translateUpstream(pending, sourceLang, targetLang, results);
+        }
+
+        // Fallback: original text
+        for (String text : pending) {
+            results.putIfAbsent(text, text);
         }
-        
         return results;
     }
 
@@ -323,7 +428,8 @@ public class TranslationService {
     }
 
     /**
-     * Clear translation cache (useful for testing or memory management)
+     * Clear the in-memory translation cache (useful for testing or memory management).
+     * The translations table is kept.
      */
     public void clearCache() {
         translationCache.clear();
@@ -334,9 +440,113 @@ public class TranslationService {
      * Get cache statistics
      */
     public Map<String, Object> getCacheStats() {
-        return Map.of(
-            "cacheSize", translationCache.size(),
-            "cacheKeys", translationCache.keySet().size()
-        );
+        long hits = translationCache.hits();
+        long lookups = hits + translationCache.misses();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cacheSize", translationCache.size());
+        stats.put("cacheMaxSize", translationCache.maxSize());
+        stats.put("cacheHits", hits);
+        stats.put("cacheMisses", translationCache.misses());
+        stats.put("cacheHitRate", lookups == 0 ? 0.0 : Math.round(hits * 1000.0 / lookups) / 10.0);
+        stats.put("cacheEvictions", translationCache.evictions());
+        stats.put("storeHits", storeHits.sum());
+        stats.put("storedTranslations", store.count());
+        stats.put("manualTranslations", manualHits.sum());
+        stats.put("upstreamCalls", upstreamCalls.sum());
+        stats.put("upstreamTexts", upstreamTexts.sum());
+        stats.put("upstreamFailures", upstreamFailures.sum());
+        return stats;
+    }
+
+    /* ────────── internals ────────── */
+
+    private static String cacheKey(String sourceLang, String targetLang, String text) {
+        return sourceLang + "_" + targetLang + "_" + text;
+    }
+
+    private void loadFromStore(Set<String> pending, String sourceLang, String targetLang, Map<String, String> results) {
+        try {
+            List<String> all = List.copyOf(pending);
+            for (int from = 0; from < all.size(); from += STORE_LOOKUP_CHUNK) {
+                List<String> chunk = all.subList(from, Math.min(all.size(), from + STORE_LOOKUP_CHUNK));
+                for (Translation t : store.findBySourceLangAndTargetLangAndSourceTextIn(sourceLang, targetLang, chunk)) {
+                    translationCache.put(cacheKey(sourceLang, targetLang, t.getSourceText()), t.getTranslatedText());
+                    results.put(t.getSourceText(), t.getTranslatedText());
+                    pending.remove(t.getSourceText());
+                    storeHits.increment();
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Translation store lookup failed: {}", e.getMessage());
+        }
+    }
+
+    private void translateUpstream(Set<String> pending, String sourceLang, String targetLang, Map<String, String> results) {
+        List<Callable<Map<String, String>>> tasks = new ArrayList<>();
+        for (List<String> chunk : chunks(pending)) {
+            tasks.add(() -> translateChunk(chunk, sourceLang, targetLang));
+        }
+        upstreamTexts.add(pending.size());
+
+        List<Future<Map<String, String>>> futures;
+        try {
+            // unfinished chunks are cancelled when the deadline passes
+            futures = upstreamPool.invokeAll(tasks, batchTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Future<Map<String, String>> future : futures) {
+            Map<String, String> translated;
+            try {
+                translated = future.get();
+            } catch (CancellationException | ExecutionException e) {
+                log.warn("Translation chunk failed or timed out: {}", e.toString());
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            translated.forEach((text, raw) -> {
+                if (raw == null || raw.equals(text) || !isGoodTranslation(raw)) return;
+                String cleaned = cleanupTranslation(raw);
+                translationCache.put(cacheKey(sourceLang, targetLang, text), cleaned);
+                results.put(text, cleaned);
+                persist(sourceLang, targetLang, text, cleaned, now);
+            });
+        }
+    }
+
+    /** Splits the misses into upstream chunks bounded by text count and (URL) length; multi-line texts go alone */
+    private List<List<String>> chunks(Collection<String> texts) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int chars = 0;
+        for (String text : texts) {
+            if (text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                chunks.add(List.of(text));
+                continue;
+            }
+            if (!current.isEmpty() && (current.size() >= batchSize || chars + text.length() + 1 > maxBatchChars)) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                chars = 0;
+            }
+            current.add(text);
+            chars += text.length() + 1;
+        }
+        if (!current.isEmpty()) chunks.add(current);
+        return chunks;
+    }
+
+    private void persist(String sourceLang, String targetLang, String text, String translated, LocalDateTime now) {
+        if (text.length() > 1000 || translated.length() > 2000) return;     // column limits
+        try {
+            store.insertIfAbsent(sourceLang, targetLang, text, translated, "upstream", now);
+        } catch (Exception e) {
+            log.warn("Could not store translation for '{}': {}", text, e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
@@ -3,31 +3,34 @@ package com.example.stationerymgntbe.service;
 
 import com.example.stationerymgntbe.dto.UnitDTO;
 import com.example.stationerymgntbe.entity.Unit;
+import com.example.stationerymgntbe.event.CatalogChangedEvent;
 import com.example.stationerymgntbe.exception.ResourceNotFoundException;
 import com.example.stationerymgntbe.repository.UnitRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UnitService {
 
     private final UnitRepository unitRepository;
+    private final CatalogSnapshotService catalog;
+    private final ApplicationEventPublisher events;
 
     public List<UnitDTO> getAllUnits() {
-        return unitRepository.findAll().stream()
-                .map(this::toUnitDTO)
-                .collect(Collectors.toList());
+        return catalog.current().units();
     }
 
     public UnitDTO addUnit(UnitDTO dto) {
         Unit unit = new Unit();
         unit.setNameEn(dto.getNameEn());
         unit.setNameVn(dto.getNameVn());
-        return toUnitDTO(unitRepository.save(unit));
+        UnitDTO saved = toUnitDTO(unitRepository.save(unit));
+        events.publishEvent(new CatalogChangedEvent("unit-save"));
+        return saved;
     }
 
     public UnitDTO updateUnit(Integer id, UnitDTO dto) {
@@ -35,7 +38,9 @@ public class UnitService {
                 .orElseThrow(() -> new ResourceNotFoundException("Unit not found with ID: " + id));
         unit.setNameEn(dto.getNameEn());
         unit.setNameVn(dto.getNameVn());
-        return toUnitDTO(unitRepository.save(unit));
+        UnitDTO saved = toUnitDTO(unitRepository.save(unit));
+        events.publishEvent(new CatalogChangedEvent("unit-save"));
+        return saved;
     }
 
     public void deleteUnit(Integer id) {
@@ -43,6 +48,7 @@ public class UnitService {
             throw new ResourceNotFoundException("Unit not found with ID: " + id);
         }
         unitRepository.deleteById(id);
+        events.publishEvent(new CatalogChangedEvent("unit-delete"));
     }
 
     private UnitDTO toUnitDTO(Unit unit) {
@@ -16,9 +16,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -203,12 +206,16 @@ public class UserService {
         log.info("Password updated for user: {}", user.getUsername());
     }
 
+    @Transactional(readOnly = true)
     public List<DepartmentUserCountDTO> getDepartmentStats() {
+        // departments come from the second-level cache; user counts in one grouped query
+        Map<Integer, Long> counts = new HashMap<>();
+        for (Object[] row : userRepository.countUsersPerDepartment()) {
+            counts.put((Integer) row[0], ((Number) row[1]).longValue());
+        }
         return departmentRepository.findAll().stream()
-            .map(dept -> {
-                long count = userRepository.countByDepartment(dept);
-                return new DepartmentUserCountDTO(dept.getDepartmentId(), dept.getName(), count);
-            })
+            .map(dept -> new DepartmentUserCountDTO(dept.getDepartmentId(), dept.getName(),
+                    counts.getOrDefault(dept.getDepartmentId(), 0L)))
             .collect(Collectors.toList());
     }
 
@@ -216,6 +223,11 @@ public class UserService {
         return getAllUsersSummary();
     }
 
+    /** Lazily mapped cursor over all users – for streaming exports, consume inside a transaction */
+    public Stream<UserSummaryDTO> streamUserSummaries() {
+        return userRepository.streamAllWithDepartmentAndRole().map(this::mapToUserSummaryDTO);
+    }
+
     public List<DepartmentUserCountDTO> getDepartmentsPendingOrders() {
         // This method should return departments with pending orders
         // For now, return department stats as placeholder
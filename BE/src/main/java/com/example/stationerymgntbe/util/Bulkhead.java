@@ -0,0 +1,112 @@
+package com.example.stationerymgntbe.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency bulkhead: at most {@code maxConcurrent} callers inside, at most {@code maxQueue}
+ * waiting (each for up to {@code maxWaitMillis}); everyone else is rejected straight away.
+ * Counts admissions, rejections, queue wait and time inside.
+ */
+public final class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitMillis;
+
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedTimeout = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder busyNanos = new LongAdder();
+    private final AtomicLong maxBusyNanos = new AtomicLong();
+    private final LongAdder completed = new LongAdder();
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueue, long maxWaitMillis) {
+        this.name = name;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxQueue = Math.max(0, maxQueue);
+        this.maxWaitMillis = Math.max(0, maxWaitMillis);
+        this.permits = new Semaphore(this.maxConcurrent, true);
+    }
+
+    /**
+     * @return the admission time (pass it to {@link #release(long)}), or {@code -1} when rejected
+     */
+    public long tryEnter() throws InterruptedException {
+        long start = System.nanoTime();
+        // timed form with 0 honours fairness: a free permit goes to queued callers first, no barging
+        if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+            admitted.increment();
+            return start;
+        }
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            rejectedQueueFull.increment();
+            return -1;
+        }
+        queued.increment();
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                rejectedTimeout.increment();
+                return -1;
+            }
+        } finally {
+            waiting.decrementAndGet();
+        }
+        long admittedAt = System.nanoTime();
+        long waited = admittedAt - start;
+        waitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        admitted.increment();
+        return admittedAt;
+    }
+
+    public void release(long admittedAt) {
+        long busy = System.nanoTime() - admittedAt;
+        busyNanos.add(busy);
+        maxBusyNanos.accumulateAndGet(busy, Math::max);
+        completed.increment();
+        permits.release();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Map<String, Object> stats() {
+        long done = completed.sum();
+        long queuedAdmitted = queued.sum() - rejectedTimeout.sum();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("maxConcurrent", maxConcurrent);
+        m.put("maxQueue", maxQueue);
+        m.put("maxWaitMs", maxWaitMillis);
+        m.put("active", maxConcurrent - permits.availablePermits());
+        m.put("waiting", waiting.get());
+        m.put("admitted", admitted.sum());
+        m.put("queued", queued.sum());
+        m.put("rejectedQueueFull", rejectedQueueFull.sum());
+        m.put("rejectedTimeout", rejectedTimeout.sum());
+        m.put("avgQueueWaitMs", queuedAdmitted <= 0 ? 0.0 : round(waitNanos.sum() / 1e6 / queuedAdmitted));
+        m.put("maxQueueWaitMs", round(maxWaitNanos.get() / 1e6));
+        m.put("completed", done);
+        m.put("avgBusyMs", done == 0 ? 0.0 : round(busyNanos.sum() / 1e6 / done));
+        m.put("maxBusyMs", round(maxBusyNanos.get() / 1e6));
+        return m;
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 10) / 10.0;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.stationerymgntbe.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * Sparse symmetric "ordered together" matrix: for every pair of ids the number of baskets
+ * containing both, plus the number of baskets containing each id (support).
+ * Rows only hold ids that actually co-occurred, so memory follows the data, not n².
+ * Thread-safe: baskets are added under a write lock, lookups share a read lock.
+ */
+public final class CoOccurrenceMatrix {
+
+    /** A companion of the queried id(s) */
+    public record Companion(int id, int together, double score) {
+    }
+
+    private final Map<Integer, Map<Integer, Integer>> rows = new HashMap<>();
+    private final Map<Integer, Integer> support = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long baskets;
+
+    /**
+     * Builds the matrix from historic baskets. Pair counts are computed on {@code pool}
+     * in {@code chunks} independent slices and merged at the end.
+     */
+    public static CoOccurrenceMatrix build(List<int[]> baskets, ExecutorService pool, int chunks)
+            throws InterruptedException, ExecutionException {
+        int n = Math.max(1, chunks);
+        int size = (baskets.size() + n - 1) / n;
+        List<Future<Partial>> parts = new ArrayList<>(n);
+        for (int from = 0; from < baskets.size(); from += size) {
+            List<int[]> slice = baskets.subList(from, Math.min(baskets.size(), from + size));
+            parts.add(pool.submit(() -> Partial.of(slice)));
+        }
+
+        CoOccurrenceMatrix m = new CoOccurrenceMatrix();
+        for (Future<Partial> f : parts) {
+            Partial p = f.get();
+            p.pairs.forEach((key, count) -> m.addPair((int) (key >>> 32), (int) (long) key, count));
+            p.support.forEach((id, count) -> m.support.merge(id, count, Integer::sum));
+            m.baskets += p.baskets;
+        }
+        return m;
+    }
+
+    /** Count one more basket (ids may repeat; they are de-duplicated) */
+    public void add(int[] basket) {
+        int[] ids = distinct(basket);
+        lock.writeLock().lock();
+        try {
+            baskets++;
+            for (int i = 0; i < ids.length; i++) {
+                support.merge(ids[i], 1, Integer::sum);
+                for (int j = i + 1; j < ids.length; j++) {
+                    addPair(ids[i], ids[j], 1);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Top {@code k} companions of everything in {@code basket}, excluding the basket itself.
+     * Each basket id contributes together(a, b) / support(a) – the share of its baskets that
+     * also had b – so a single popular item does not drown out the rest of the cart.
+     */
+    public List<Companion> companions(int[] basket, int k, IntPredicate filter) {
+        int[] ids = distinct(basket);
+        Map<Integer, double[]> acc = new HashMap<>();       // id → {score, together}
+        lock.readLock().lock();
+        try {
+            for (int a : ids) {
+                Map<Integer, Integer> row = rows.get(a);
+                if (row == null) continue;
+                double base = support.getOrDefault(a, 1);
+                row.forEach((b, together) -> {
+                    double[] s = acc.computeIfAbsent(b, x -> new double[2]);
+                    s[0] += together / base;
+                    s[1] += together;
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Companion> out = new ArrayList<>();
+        acc.forEach((b, s) -> {
+            if (Arrays.binarySearch(ids, b) >= 0) return;
+            if (filter != null && !filter.test(b)) return;
+            out.add(new Companion(b, (int) s[1], s[0] / ids.length));
+        });
+        out.sort((x, y) -> {
+            int c = Double.compare(y.score(), x.score());
+            return c != 0 ? c : Integer.compare(x.id(), y.id());
+        });
+        return out.size() > k ? out.subList(0, k) : out;
+    }
+
+    public long baskets() {
+        lock.readLock().lock();
+        try {
+            return baskets;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Stored (unordered) pairs */
+    public long pairs() {
+        lock.readLock().lock();
+        try {
+            long n = 0;
+            for (Map<Integer, Integer> row : rows.values()) n += row.size();
+            return n / 2;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* ────────── internals ────────── */
+
+    private void addPair(int a, int b, int count) {
+        rows.computeIfAbsent(a, x -> new HashMap<>()).merge(b, count, Integer::sum);
+        rows.computeIfAbsent(b, x -> new HashMap<>()).merge(a, count, Integer::sum);
+    }
+
+    private static int[] distinct(int[] ids) {
+        return Arrays.stream(ids).distinct().sorted().toArray();
+    }
+
+    /** Pair counts of one slice of baskets; key = (smaller id << 32) | larger id */
+    private record Partial(Map<Long, Integer> pairs, Map<Integer, Integer> support, long baskets) {
+
+        static Partial of(List<int[]> baskets) {
+            Map<Long, Integer> pairs = new HashMap<>();
+            Map<Integer, Integer> support = new HashMap<>();
+            for (int[] basket : baskets) {
+                int[] ids = distinct(basket);
+                for (int i = 0; i < ids.length; i++) {
+                    support.merge(ids[i], 1, Integer::sum);
+                    for (int j = i + 1; j < ids.length; j++) {
+                        pairs.merge(((long) ids[i] << 32) | (ids[j] & 0xFFFFFFFFL), 1, Integer::sum);
+                    }
+                }
+            }
+            return new Partial(pairs, support, baskets.size());
+        }
+    }
+}
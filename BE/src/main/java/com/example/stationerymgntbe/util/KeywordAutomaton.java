@@ -0,0 +1,206 @@
+package com.example.stationerymgntbe.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Aho–Corasick multi-keyword matcher.
+ * Built once from a keyword → value map, then scans any text in a single pass
+ * regardless of how many keywords there are. Immutable and thread-safe after construction.
+ *
+ * @param <V> value attached to each keyword (category code, translation, …)
+ */
+public final class KeywordAutomaton<V> {
+
+    /** One keyword occurrence: text[start, end) */
+    public record Match<V>(int start, int end, String keyword, V value) {
+        public int length() {
+            return end - start;
+        }
+    }
+
+    private final boolean ignoreCase;
+
+    /* goto function, per state: sorted labels + target states (binary searched) */
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] fail;
+    /* keyword ending exactly at this state (-1 = none) and next state on the fail chain that has one */
+    private final int[] keywordAt;
+    private final int[] outputLink;
+
+    private final String[] keywords;
+    private final List<V> values;
+
+    private KeywordAutomaton(Map<String, V> dictionary, boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+
+        /* 1. trie */
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        terminal.add(-1);
+
+        List<String> words = new ArrayList<>();
+        List<V> vals = new ArrayList<>();
+        for (Map.Entry<String, V> e : dictionary.entrySet()) {
+            String kw = e.getKey();
+            if (kw == null || kw.isEmpty()) continue;
+            int state = 0;
+            for (int i = 0; i < kw.length(); i++) {
+                char c = fold(kw.charAt(i));
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(c, next);
+                    trie.add(new TreeMap<>());
+                    terminal.add(-1);
+                }
+                state = next;
+            }
+            if (terminal.get(state) == -1) {        // first definition of a keyword wins
+                terminal.set(state, words.size());
+                words.add(kw);
+                vals.add(e.getValue());
+            }
+        }
+
+        /* 2. freeze into arrays */
+        int n = trie.size();
+        labels = new char[n][];
+        targets = new int[n][];
+        keywordAt = new int[n];
+        for (int s = 0; s < n; s++) {
+            TreeMap<Character, Integer> edges = trie.get(s);
+            labels[s] = new char[edges.size()];
+            targets[s] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                labels[s][i] = edge.getKey();
+                targets[s][i++] = edge.getValue();
+            }
+            keywordAt[s] = terminal.get(s);
+        }
+        keywords = words.toArray(String[]::new);
+        values = Collections.unmodifiableList(vals);
+
+        /* 3. failure + output links (BFS) */
+        fail = new int[n];
+        outputLink = new int[n];
+        Arrays.fill(outputLink, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            for (int i = 0; i < labels[s].length; i++) {
+                char c = labels[s][i];
+                int child = targets[s][i];
+                int f = fail[s];
+                while (f != 0 && edge(f, c) < 0) {
+                    f = fail[f];
+                }
+                int via = edge(f, c);
+                fail[child] = Math.max(via, 0);
+                int fc = fail[child];
+                outputLink[child] = keywordAt[fc] >= 0 ? fc : outputLink[fc];
+                queue.add(child);
+            }
+        }
+    }
+
+    public static <V> KeywordAutomaton<V> of(Map<String, V> dictionary) {
+        return new KeywordAutomaton<>(dictionary, false);
+    }
+
+    /** Case-insensitive variant (per-char lower-casing, safe for Vietnamese) */
+    public static <V> KeywordAutomaton<V> ignoreCase(Map<String, V> dictionary) {
+        return new KeywordAutomaton<>(dictionary, true);
+    }
+
+    public int size() {
+        return keywords.length;
+    }
+
+    /** Every occurrence of every keyword (overlaps included), ordered by end position */
+    public List<Match<V>> findAll(CharSequence text) {
+        List<Match<V>> out = new ArrayList<>();
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, fold(text.charAt(i)));
+            for (int s = keywordAt[state] >= 0 ? state : outputLink[state]; s >= 0; s = outputLink[s]) {
+                int k = keywordAt[s];
+                out.add(new Match<>(i + 1 - keywords[k].length(), i + 1, keywords[k], values.get(k)));
+            }
+        }
+        return out;
+    }
+
+    /** Leftmost occurrence (longest one when several start at the same position), or null */
+    public Match<V> findFirst(CharSequence text) {
+        List<Match<V>> longest = findLeftmostLongest(text);
+        return longest.isEmpty() ? null : longest.get(0);
+    }
+
+    /** Non-overlapping matches, preferring the leftmost and then the longest keyword – what a replacer wants */
+    public List<Match<V>> findLeftmostLongest(CharSequence text) {
+        List<Match<V>> all = findAll(text);
+        if (all.size() <= 1) return all;
+
+        all.sort(Comparator.<Match<V>>comparingInt(Match::start).thenComparing(Comparator.comparingInt(Match<V>::length).reversed()));
+        List<Match<V>> picked = new ArrayList<>();
+        int covered = 0;
+        for (Match<V> m : all) {
+            if (m.start() >= covered) {
+                picked.add(m);
+                covered = m.end();
+            }
+        }
+        return picked;
+    }
+
+    /**
+     * Rewrites the text in one pass: every leftmost-longest match is replaced by
+     * {@code replacement(match)}, everything between matches is copied unchanged.
+     */
+    public String replace(CharSequence text, Function<Match<V>, String> replacement) {
+        List<Match<V>> matches = findLeftmostLongest(text);
+        if (matches.isEmpty()) return text.toString();
+
+        StringBuilder sb = new StringBuilder(text.length() + 16);
+        int pos = 0;
+        for (Match<V> m : matches) {
+            sb.append(text, pos, m.start()).append(replacement.apply(m));
+            pos = m.end();
+        }
+        return sb.append(text, pos, text.length()).toString();
+    }
+
+    /* ────────── internals ────────── */
+
+    private int step(int state, char c) {
+        while (true) {
+            int next = edge(state, c);
+            if (next >= 0) return next;
+            if (state == 0) return 0;
+            state = fail[state];
+        }
+    }
+
+    private int edge(int state, char c) {
+        int i = Arrays.binarySearch(labels[state], c);
+        return i >= 0 ? targets[state][i] : -1;
+    }
+
+    private char fold(char c) {
+        return ignoreCase ? Character.toLowerCase(c) : c;
+    }
+}
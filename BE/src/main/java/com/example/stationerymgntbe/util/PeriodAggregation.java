@@ -0,0 +1,151 @@
+package com.example.stationerymgntbe.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass aggregation of report rows over N periods.
+ * Department and product keys are interned to dense ints on first sight; every
+ * total lives in a primitive array indexed [period][id], so comparing any number
+ * of periods needs exactly one scan of the rows and no boxing.
+ * Not thread-safe – build it, then read it.
+ */
+public final class PeriodAggregation {
+
+    private final int periods;
+
+    private final Map<String, Integer> departmentIds = new HashMap<>();
+    private final Map<String, Integer> productIds = new HashMap<>();
+    private final List<String> departmentNames = new ArrayList<>();
+    private final List<String> productKeys = new ArrayList<>();
+
+    private final long[] totals;
+    private final int[] records;
+    private final long[][] departmentTotals;
+    private final long[][] productTotals;
+    private final BitSet[] departmentsSeen;
+    private final BitSet[] productsSeen;
+
+    public PeriodAggregation(int periods) {
+        this.periods = periods;
+        this.totals = new long[periods];
+        this.records = new int[periods];
+        this.departmentTotals = new long[periods][16];
+        this.productTotals = new long[periods][128];
+        this.departmentsSeen = new BitSet[periods];
+        this.productsSeen = new BitSet[periods];
+        for (int p = 0; p < periods; p++) {
+            departmentsSeen[p] = new BitSet();
+            productsSeen[p] = new BitSet();
+        }
+    }
+
+    /** Feed one row */
+    public void add(int period, String department, String product, long quantity) {
+        int d = intern(departmentIds, departmentNames, department);
+        int pr = intern(productIds, productKeys, product);
+
+        if (d >= departmentTotals[period].length) growDepartments(d);
+        if (pr >= productTotals[period].length) growProducts(pr);
+
+        totals[period] += quantity;
+        records[period]++;
+        departmentTotals[period][d] += quantity;
+        productTotals[period][pr] += quantity;
+        departmentsSeen[period].set(d);
+        productsSeen[period].set(pr);
+    }
+
+    /* ────────── reads ────────── */
+
+    public int periods() {
+        return periods;
+    }
+
+    public int departmentCount() {
+        return departmentNames.size();
+    }
+
+    public int productCount() {
+        return productKeys.size();
+    }
+
+    public String departmentName(int departmentId) {
+        return departmentNames.get(departmentId);
+    }
+
+    public String productKey(int productId) {
+        return productKeys.get(productId);
+    }
+
+    public long total(int period) {
+        return totals[period];
+    }
+
+    public int records(int period) {
+        return records[period];
+    }
+
+    public long departmentTotal(int period, int departmentId) {
+        long[] row = departmentTotals[period];
+        return departmentId < row.length ? row[departmentId] : 0;
+    }
+
+    public long productTotal(int period, int productId) {
+        long[] row = productTotals[period];
+        return productId < row.length ? row[productId] : 0;
+    }
+
+    public int departmentsIn(int period) {
+        return departmentsSeen[period].cardinality();
+    }
+
+    public int productsIn(int period) {
+        return productsSeen[period].cardinality();
+    }
+
+    public boolean hasDepartment(int period, int departmentId) {
+        return departmentsSeen[period].get(departmentId);
+    }
+
+    public boolean hasProduct(int period, int productId) {
+        return productsSeen[period].get(productId);
+    }
+
+    /** Product ids present in {@code period} but not in {@code other} */
+    public BitSet productsOnlyIn(int period, int other) {
+        BitSet only = (BitSet) productsSeen[period].clone();
+        only.andNot(productsSeen[other]);
+        return only;
+    }
+
+    /* ────────── internals ────────── */
+
+    private static int intern(Map<String, Integer> ids, List<String> names, String key) {
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = names.size();
+            ids.put(key, id);
+            names.add(key);
+        }
+        return id;
+    }
+
+    private void growDepartments(int needed) {
+        int size = Math.max(needed + 1, departmentTotals[0].length * 2);
+        for (int p = 0; p < periods; p++) {
+            departmentTotals[p] = Arrays.copyOf(departmentTotals[p], size);
+        }
+    }
+
+    private void growProducts(int needed) {
+        int size = Math.max(needed + 1, productTotals[0].length * 2);
+        for (int p = 0; p < periods; p++) {
+            productTotals[p] = Arrays.copyOf(productTotals[p], size);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.stationerymgntbe.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Prefix trie over folded text ({@link VietnameseText#fold}) mapping to int ids.
+ * Every word start of every key is indexed, so "bi" and "bi thien" both reach "Bút bi Thiên Long".
+ * Each node keeps the sorted set of ids below it; a lookup is one walk down the trie plus a
+ * bounded top-k pass over that set. Keys are cut at {@link #MAX_DEPTH} characters – longer
+ * queries are answered from the deepest node and re-checked against the stored text.
+ * Ids can be added and removed one at a time; not thread-safe – callers guard it.
+ */
+public final class PrefixIndex {
+
+    /** Trie depth cap; keeps the node count linear in the catalog size */
+    public static final int MAX_DEPTH = 24;
+
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        int[] ids = new int[0];          // sorted
+        int size;
+
+        Node child(char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) return children[i];
+            }
+            return null;
+        }
+
+        Node childOrCreate(char c) {
+            Node n = child(c);
+            if (n != null) return n;
+            n = new Node();
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            keys[keys.length - 1] = c;
+            children[children.length - 1] = n;
+            return n;
+        }
+
+        void add(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) return;
+            at = -at - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) return;
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+        }
+    }
+
+    private final Node root = new Node();
+    private final Map<Integer, List<String>> keysById = new HashMap<>();
+
+    /** Index {@code id} under every key (replaces whatever was indexed for it before) */
+    public void put(int id, List<String> keys) {
+        remove(id);
+        List<String> folded = new ArrayList<>();
+        for (String k : keys) {
+            String f = VietnameseText.fold(k);
+            if (!f.isEmpty()) folded.add(f);
+        }
+        for (String suffix : suffixes(folded)) {
+            Node n = root;
+            for (int i = 0; i < suffix.length(); i++) {
+                n = n.childOrCreate(suffix.charAt(i));
+                n.add(id);                                  // set semantics – shared prefixes are fine
+            }
+        }
+        keysById.put(id, folded);
+    }
+
+    public void remove(int id) {
+        List<String> old = keysById.remove(id);
+        if (old == null) return;
+        for (String suffix : suffixes(old)) {
+            Node n = root;
+            for (int i = 0; i < suffix.length() && n != null; i++) {
+                n = n.child(suffix.charAt(i));
+                if (n != null) n.remove(id);
+            }
+        }
+    }
+
+    public boolean contains(int id) {
+        return keysById.containsKey(id);
+    }
+
+    public Set<Integer> ids() {
+        return Set.copyOf(keysById.keySet());
+    }
+
+    /**
+     * Up to {@code limit} ids with a key (or key word) starting with {@code query},
+     * highest {@code score} first, ties by id. {@code filter} may be null.
+     */
+    public int[] top(String query, int limit, IntToLongFunction score, IntPredicate filter) {
+        String q = VietnameseText.fold(query);
+        if (q.isEmpty() || limit <= 0) return new int[0];
+
+        Node n = walk(q.length() > MAX_DEPTH ? q.substring(0, MAX_DEPTH) : q);
+        if (n == null) return new int[0];
+        boolean recheck = q.length() > MAX_DEPTH;
+
+        // bounded selection: best `limit` candidates kept sorted, worst last
+        int[] best = new int[limit];
+        long[] bestScore = new long[limit];
+        int count = 0;
+        for (int i = 0; i < n.size; i++) {
+            int id = n.ids[i];
+            if (filter != null && !filter.test(id)) continue;
+            if (recheck && !matchesLong(id, q)) continue;
+            long s = score.applyAsLong(id);
+            if (count == limit && s <= bestScore[count - 1]) continue;   // ids ascend, so ties keep the earlier one
+
+            int at = count < limit ? count++ : limit - 1;
+            while (at > 0 && bestScore[at - 1] < s) {
+                best[at] = best[at - 1];
+                bestScore[at] = bestScore[at - 1];
+                at--;
+            }
+            best[at] = id;
+            bestScore[at] = s;
+        }
+        return Arrays.copyOf(best, count);
+    }
+
+    /* ────────── internals ────────── */
+
+    /** Every word-start suffix of every key, cut at MAX_DEPTH */
+    private static Set<String> suffixes(List<String> foldedKeys) {
+        Set<String> out = new LinkedHashSet<>();
+        for (String key : foldedKeys) {
+            for (int start = 0; start < key.length(); start++) {
+                if (start > 0 && key.charAt(start - 1) != ' ') continue;
+                out.add(key.substring(start, Math.min(key.length(), start + MAX_DEPTH)));
+            }
+        }
+        return out;
+    }
+
+    private Node walk(String path) {
+        Node n = root;
+        for (int i = 0; i < path.length() && n != null; i++) {
+            n = n.child(path.charAt(i));
+        }
+        return n;
+    }
+
+    private boolean matchesLong(int id, String q) {
+        for (String key : keysById.getOrDefault(id, List.of())) {
+            if (key.startsWith(q) || key.contains(" " + q)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.stationerymgntbe.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+/**
+ * Per-id counters (quantity + number of lines) that are kept ranked by quantity, so
+ * {@link #top(int)} walks only the first k entries instead of sorting every id.
+ * Each increment is O(log n). Thread-safe (all methods synchronize on the instance).
+ */
+public final class RankedCounter {
+
+    /** One counted id; ordered by quantity desc, then id asc */
+    public record Entry(int id, long quantity, long lines) {
+    }
+
+    private static final Comparator<Entry> RANK = Comparator
+            .comparingLong(Entry::quantity).reversed()
+            .thenComparingInt(Entry::id);
+
+    private final Map<Integer, Entry> byId = new HashMap<>();
+    private final TreeSet<Entry> ranked = new TreeSet<>(RANK);
+
+    public synchronized void add(int id, long quantity, long lines) {
+        Entry old = byId.get(id);
+        Entry next = old == null
+                ? new Entry(id, quantity, lines)
+                : new Entry(id, old.quantity() + quantity, old.lines() + lines);
+        if (old != null) ranked.remove(old);
+        byId.put(id, next);
+        ranked.add(next);
+    }
+
+    /** Replaces every counter (periodic reconciliation against the database) */
+    public synchronized void reset(List<Entry> entries) {
+        byId.clear();
+        ranked.clear();
+        for (Entry e : entries) {
+            byId.put(e.id(), e);
+            ranked.add(e);
+        }
+    }
+
+    /**
+     * The first {@code k} entries whose id passes {@code include} ({@code null} = all); skipped ids
+     * do not count towards k, so the walk continues past them
+     */
+    public synchronized List<Entry> top(int k, IntPredicate include) {
+        List<Entry> out = new ArrayList<>(Math.max(0, Math.min(k, ranked.size())));
+        for (Entry e : ranked) {
+            if (out.size() >= k) break;
+            if (include == null || include.test(e.id())) out.add(e);
+        }
+        return out;
+    }
+
+    public synchronized long quantity(int id) {
+        Entry e = byId.get(id);
+        return e == null ? 0 : e.quantity();
+    }
+
+    /** Number of distinct ids with a counter */
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    /** Copy of all counters, for comparing against a reconciliation result */
+    public synchronized Map<Integer, Entry> snapshot() {
+        return new HashMap<>(byId);
+    }
+}
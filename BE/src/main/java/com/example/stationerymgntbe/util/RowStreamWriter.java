@@ -0,0 +1,119 @@
+package com.example.stationerymgntbe.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes rows straight to an output stream, one at a time: NDJSON (one JSON object per line,
+ * serialized with the application's ObjectMapper) or CSV (header + RFC 4180 quoting, UTF-8 BOM
+ * so Excel shows Vietnamese text correctly). Text cells that a spreadsheet would read as a formula
+ * get a leading {@code '}. Nothing is collected in memory.
+ */
+public abstract class RowStreamWriter<T> implements Closeable {
+
+    /** A CSV column: header text and how to read the value from a row */
+    public record Column<T>(String name, Function<T, Object> value) {
+    }
+
+    public abstract void write(T row) throws IOException;
+
+    public abstract void flush() throws IOException;
+
+    public static <T> RowStreamWriter<T> ndjson(OutputStream out, ObjectMapper mapper) throws IOException {
+        JsonGenerator gen = mapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.setRootValueSeparator(null);    // lines are separated by '\n' only, not Jackson's default space
+        return new Ndjson<>(gen);
+    }
+
+    public static <T> RowStreamWriter<T> csv(OutputStream out, List<Column<T>> columns) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        w.write('\uFEFF');
+        Csv<T> csv = new Csv<>(w, columns);
+        csv.line(columns.stream().map(c -> (Object) c.name()).toList());
+        return csv;
+    }
+
+    /* ────────── formats ────────── */
+
+    private static final class Ndjson<T> extends RowStreamWriter<T> {
+        private final JsonGenerator gen;
+
+        Ndjson(JsonGenerator gen) {
+            this.gen = gen;
+        }
+
+        @Override
+        public void write(T row) throws IOException {
+            gen.writeObject(row);
+            gen.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            gen.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            gen.close();        // flushes; the response stream itself stays open
+        }
+    }
+
+    private static final class Csv<T> extends RowStreamWriter<T> {
+        private final Writer out;
+        private final List<Column<T>> columns;
+
+        Csv(Writer out, List<Column<T>> columns) {
+            this.out = out;
+            this.columns = columns;
+        }
+
+        @Override
+        public void write(T row) throws IOException {
+            line(columns.stream().map(c -> c.value().apply(row)).toList());
+        }
+
+        void line(List<Object> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) out.write(',');
+                Object v = values.get(i);
+                if (v instanceof CharSequence text) out.write(escape(neutralize(text.toString())));
+                else if (v != null) out.write(escape(v.toString()));
+            }
+            out.write("\r\n");
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+
+        /* user text such as "=HYPERLINK(...)" must not run when the file is opened in Excel */
+        static String neutralize(String s) {
+            if (s.isEmpty()) return s;
+            char c = s.charAt(0);
+            return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r' ? "'" + s : s;
+        }
+
+        private static String escape(String s) {
+            boolean quote = s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0;
+            return quote ? '"' + s.replace("\"", "\"\"") + '"' : s;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.stationerymgntbe.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory, diacritic-insensitive trigram index with relevance ranking.
+ * Every field is folded with {@link VietnameseText#fold}; each token is padded with
+ * spaces and cut into trigrams, so "but bi" finds "Bút bi" and small typos still match.
+ * Immutable once built – rebuild it when the underlying list changes.
+ *
+ * @param <T> indexed item (kept by reference and returned as-is)
+ */
+public final class SearchIndex<T> {
+
+    /** A searchable property and how much a hit on it is worth (1.0 = best) */
+    public record Field<T>(Function<T, String> value, double weight) {
+    }
+
+    /** Hits below this score are dropped (≈ half of the query trigrams on a weight-1 field) */
+    private static final double MIN_SCORE = 0.25;
+
+    private final List<T> items;
+    private final List<Field<T>> fields;
+    private final String[][] folded;        // [item][field] folded text, " "-padded
+    private final String[][] lowered;       // [item][field] original lower-case, for the exact-accent bonus
+    private final long[][][] trigrams;      // [item][field] sorted distinct trigrams
+    private final Map<Long, int[]> postings;
+
+    private SearchIndex(List<T> items, List<Field<T>> fields) {
+        this.items = List.copyOf(items);
+        this.fields = List.copyOf(fields);
+        int n = this.items.size();
+        folded = new String[n][fields.size()];
+        lowered = new String[n][fields.size()];
+        trigrams = new long[n][fields.size()][];
+
+        Map<Long, List<Integer>> build = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            T item = this.items.get(i);
+            long[] all = new long[0];
+            for (int f = 0; f < fields.size(); f++) {
+                String raw = fields.get(f).value().apply(item);
+                folded[i][f] = " " + VietnameseText.fold(raw) + " ";
+                lowered[i][f] = raw == null ? "" : raw.toLowerCase();
+                trigrams[i][f] = trigramsOf(folded[i][f]);
+                all = concat(all, trigrams[i][f]);
+            }
+            for (long t : distinct(all)) {
+                build.computeIfAbsent(t, k -> new ArrayList<>()).add(i);
+            }
+        }
+        postings = new HashMap<>(build.size() * 2);
+        build.forEach((t, list) -> postings.put(t, list.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    public static <T> SearchIndex<T> build(List<T> items, List<Field<T>> fields) {
+        return new SearchIndex<>(items, fields);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /** Items matching {@code query} (and {@code filter}), best first */
+    public List<T> search(String query, Predicate<T> filter) {
+        String q = " " + VietnameseText.fold(query) + " ";
+        if (q.isBlank()) return List.of();
+        String qLower = query.trim().toLowerCase();
+        long[] qGrams = trigramsOf(q);
+
+        // 1. candidates: count shared trigrams per item straight from the postings
+        //    (one- and two-letter queries have too few trigrams to be selective – look at everything)
+        int[] shared = new int[items.size()];
+        if (q.length() < 5) {
+            Arrays.fill(shared, 1);
+        }
+        for (long g : qGrams) {
+            int[] hits = postings.get(g);
+            if (hits == null) continue;
+            for (int i : hits) shared[i]++;
+        }
+
+        // 2. score candidates
+        List<Integer> ranked = new ArrayList<>();
+        double[] scores = new double[items.size()];
+        for (int i = 0; i < shared.length; i++) {
+            if (shared[i] == 0 || !filter.test(items.get(i))) continue;
+            double best = 0;
+            for (int f = 0; f < fields.size(); f++) {
+                double s = fieldScore(folded[i][f], trigrams[i][f], q, qGrams) * fields.get(f).weight();
+                if (s > 0 && lowered[i][f].contains(qLower)) {
+                    s += 0.05;                                  // typed with the right accents
+                }
+                best = Math.max(best, s);
+            }
+            if (best >= MIN_SCORE) {
+                scores[i] = best;
+                ranked.add(i);
+            }
+        }
+
+        ranked.sort((a, b) -> {
+            int c = Double.compare(scores[b], scores[a]);
+            if (c != 0) return c;
+            c = Integer.compare(folded[a][0].length(), folded[b][0].length());   // shorter primary field first
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+
+        List<T> result = new ArrayList<>(ranked.size());
+        for (int i : ranked) result.add(items.get(i));
+        return result;
+    }
+
+    /* ────────── scoring ────────── */
+
+    /** q and text are folded and " "-padded */
+    private static double fieldScore(String text, long[] textGrams, String q, long[] qGrams) {
+        if (text.length() <= 2) return 0;
+        if (text.equals(q)) return 1.0;
+        String bare = q.substring(1, q.length() - 1);
+        if (text.startsWith(q) || text.startsWith(" " + bare)) return 0.9;   // whole word / word prefix at the start
+        if (text.contains(q)) return 0.8;                                      // whole words anywhere
+        if (text.contains(" " + bare)) return 0.75;                            // word prefix anywhere
+        if (allTokensArePrefixes(text, bare)) return 0.6;                      // "bi but" → "bút bi"
+        if (text.contains(bare)) return 0.55;                                  // plain substring
+        return 0.5 * ((double) intersect(textGrams, qGrams) / qGrams.length);  // fuzzy
+    }
+
+    private static boolean allTokensArePrefixes(String text, String bareQuery) {
+        for (String token : bareQuery.split(" ")) {
+            if (!text.contains(" " + token)) return false;
+        }
+        return true;
+    }
+
+    /* ────────── trigrams ────────── */
+
+    /** Distinct sorted trigrams of each " "-padded token of a folded text */
+    private static long[] trigramsOf(String paddedFolded) {
+        String[] tokens = paddedFolded.trim().split(" ");
+        long[] out = new long[0];
+        for (String token : tokens) {
+            if (token.isEmpty()) continue;
+            String t = " " + token + " ";
+            long[] grams = new long[t.length() - 2];
+            for (int i = 0; i + 3 <= t.length(); i++) {
+                grams[i] = ((long) t.charAt(i) << 32) | ((long) t.charAt(i + 1) << 16) | t.charAt(i + 2);
+            }
+            out = concat(out, grams);
+        }
+        return distinct(out);
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        long[] r = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, r, a.length, b.length);
+        return r;
+    }
+
+    private static long[] distinct(long[] a) {
+        if (a.length == 0) return a;
+        long[] s = a.clone();
+        Arrays.sort(s);
+        int n = 1;
+        for (int i = 1; i < s.length; i++) {
+            if (s[i] != s[n - 1]) s[n++] = s[i];
+        }
+        return Arrays.copyOf(s, n);
+    }
+
+    /** Size of the intersection of two sorted distinct arrays */
+    private static int intersect(long[] a, long[] b) {
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) { n++; i++; j++; }
+            else if (a[i] < b[j]) i++;
+            else j++;
+        }
+        return n;
+    }
+}
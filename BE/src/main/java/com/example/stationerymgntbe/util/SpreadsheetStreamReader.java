@@ -0,0 +1,217 @@
+package com.example.stationerymgntbe.util;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Row-by-row reader for .xlsx and CSV files that never builds the workbook in memory.
+ * .xlsx goes through POI's SAX event API (shared strings read-only, one sheet streamed);
+ * CSV is parsed by hand (RFC 4180 quoting, ',' ';' or tab – whichever the first line uses).
+ * The format is detected from the file content, not the name.
+ */
+public final class SpreadsheetStreamReader {
+
+    /** Receives one non-empty row; {@code rowNumber} is 1-based like Excel, cells are trimmed, gaps are "" */
+    @FunctionalInterface
+    public interface RowHandler {
+        void row(int rowNumber, List<String> cells);
+    }
+
+    private SpreadsheetStreamReader() {
+    }
+
+    /** Streams the first sheet (xlsx) or the whole file (CSV) */
+    public static void read(Path file, RowHandler handler) throws IOException {
+        if (isZip(file)) {
+            readXlsx(file, handler);
+        } else {
+            readCsv(file, handler);
+        }
+    }
+
+    /* ────────── xlsx ────────── */
+
+    private static void readXlsx(Path file, RowHandler handler) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) return;
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        styles, null, strings, new SheetRows(handler), new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Cannot read workbook: " + e.getMessage(), e);
+        }
+    }
+
+    /** Collects the cells of one row at a time and hands them over at the end of the row */
+    private static final class SheetRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final RowHandler handler;
+        private final List<String> cells = new ArrayList<>();
+        private int lastColumn;
+
+        SheetRows(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+            lastColumn = -1;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!isBlank(cells)) {
+                handler.row(rowNum + 1, new ArrayList<>(cells));
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int col = cellReference != null ? new CellReference(cellReference).getCol() : lastColumn + 1;
+            while (cells.size() < col) cells.add("");
+            cells.add(formattedValue == null ? "" : clean(formattedValue));
+            lastColumn = col;
+        }
+    }
+
+    /* ────────── CSV ────────── */
+
+    private static void readCsv(Path file, RowHandler handler) throws IOException {
+        try (PushbackReader r = new PushbackReader(Files.newBufferedReader(file, StandardCharsets.UTF_8), 1)) {
+            int first = r.read();
+            if (first != '\uFEFF' && first != -1) r.unread(first);     // drop a UTF-8 BOM
+
+            char delimiter = 0;
+            int rowNumber = 0;
+            List<String> row;
+            while ((row = nextCsvRow(r, delimiter)) != null) {
+                rowNumber++;
+                if (delimiter == 0) {
+                    delimiter = detectDelimiter(row.get(0));
+                    row = splitFirst(row.get(0), delimiter);
+                }
+                if (!isBlank(row)) {
+                    handler.row(rowNumber, row);
+                }
+            }
+        }
+    }
+
+    /**
+     * One logical CSV record (quoted fields may span lines). With delimiter 0 the raw first line
+     * is returned as a single cell so the caller can pick the delimiter.
+     */
+    private static List<String> nextCsvRow(PushbackReader r, char delimiter) throws IOException {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        int c = r.read();
+        if (c == -1) return null;
+
+        for (; c != -1; c = r.read()) {
+            char ch = (char) c;
+            if (delimiter == 0) {
+                if (ch == '\n') break;
+                if (ch != '\r') cell.append(ch);
+                continue;
+            }
+            if (quoted) {
+                if (ch == '"') {
+                    int next = r.read();
+                    if (next == '"') {
+                        cell.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) r.unread(next);
+                    }
+                } else {
+                    cell.append(ch);
+                }
+            } else if (ch == '"' && cell.isEmpty()) {
+                quoted = true;
+            } else if (ch == delimiter) {
+                cells.add(clean(cell.toString()));
+                cell.setLength(0);
+            } else if (ch == '\n') {
+                break;
+            } else if (ch != '\r') {
+                cell.append(ch);
+            }
+        }
+        cells.add(delimiter == 0 ? cell.toString() : clean(cell.toString()));
+        return cells;
+    }
+
+    /** Re-parses the raw first line once the delimiter is known */
+    private static List<String> splitFirst(String line, char delimiter) throws IOException {
+        try (PushbackReader r = new PushbackReader(new StringReader(line), 1)) {
+            List<String> row = nextCsvRow(r, delimiter);
+            return row != null ? row : List.of();
+        }
+    }
+
+    private static char detectDelimiter(String firstLine) {
+        char best = ',';
+        long bestCount = firstLine.chars().filter(ch -> ch == ',').count();
+        for (char candidate : new char[]{';', '\t'}) {
+            long n = firstLine.chars().filter(ch -> ch == candidate).count();
+            if (n > bestCount) {
+                best = candidate;
+                bestCount = n;
+            }
+        }
+        return best;
+    }
+
+    /* ────────── helpers ────────── */
+
+    private static boolean isZip(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.read() == 'P' && in.read() == 'K';
+        }
+    }
+
+    private static boolean isBlank(List<String> cells) {
+        for (String c : cells) {
+            if (!c.isEmpty()) return false;
+        }
+        return true;
+    }
+
+    private static String clean(String value) {
+        return value.replace('\u00A0', ' ').trim();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.stationerymgntbe.util;
+
+import java.text.Normalizer;
+
+/**
+ * Vietnamese text folding for search: "Bút bi Thiên Long" → "but bi thien long".
+ * Decomposes to NFD, drops the combining marks (tones, breve, circumflex, horn),
+ * maps đ/Đ to d, lower-cases and turns every non letter/digit run into a single space.
+ */
+public final class VietnameseText {
+
+    private VietnameseText() {
+    }
+
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) return "";
+
+        String nfd = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(nfd.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < nfd.length(); i++) {
+            char c = nfd.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == 'đ' || c == 'Đ') {
+                c = 'd';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && !out.isEmpty()) {
+                    out.append(' ');
+                }
+                pendingSpace = false;
+                out.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return out.toString();
+    }
+
+    /** Folded, space-separated tokens */
+    public static String[] tokens(String text) {
+        String folded = fold(text);
+        return folded.isEmpty() ? new String[0] : folded.split(" ");
+    }
+}
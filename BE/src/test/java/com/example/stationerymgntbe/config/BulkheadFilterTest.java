@@ -0,0 +1,79 @@
+package com.example.stationerymgntbe.config;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkheadFilterTest {
+
+    private final BulkheadFilter filter = new BulkheadFilter(1, 0, 100, 1, 0, 100, 1, 0, 100, 10, 200);
+
+    @Test
+    void classifiesRequests() {
+        assertThat(BulkheadFilter.classify("GET", "/api/reports/monthly")).isEqualTo(BulkheadFilter.ADMIN_ANALYTICS);
+        assertThat(BulkheadFilter.classify("GET", "/api/orders/archive")).isEqualTo(BulkheadFilter.ADMIN_ANALYTICS);
+        assertThat(BulkheadFilter.classify("POST", "/api/orders")).isEqualTo(BulkheadFilter.ORDER_WRITE);
+        assertThat(BulkheadFilter.classify("PUT", "/api/admin/orders/12/approve")).isEqualTo(BulkheadFilter.ORDER_WRITE);
+        assertThat(BulkheadFilter.classify("GET", "/api/products/suggest")).isEqualTo(BulkheadFilter.CATALOG_READ);
+        assertThat(BulkheadFilter.classify("GET", "/api/orders")).isNull();
+        assertThat(BulkheadFilter.classify("POST", "/api/products")).isNull();
+    }
+
+    @Test
+    void synchronousRequestReleasesItsSlot() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/orders"), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(orderWrite()).containsEntry("active", 0).containsEntry("completed", 1L);
+    }
+
+    @Test
+    void asyncRequestKeepsItsSlotUntilTheResponseCompletes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders");
+        request.setAsyncSupported(true);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new StartsAsync()));
+
+        assertThat(orderWrite()).containsEntry("active", 1).containsEntry("completed", 0L);
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/orders"), rejected, new MockFilterChain());
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        assertThat(orderWrite()).containsEntry("active", 0).containsEntry("completed", 1L);
+    }
+
+    @Test
+    void unclassifiedRequestsAreNotLimited() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/users/me"), response, new MockFilterChain());
+            assertThat(response.getStatus()).isEqualTo(200);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> orderWrite() {
+        return (Map<String, Object>) filter.stats().get(BulkheadFilter.ORDER_WRITE);
+    }
+
+    /** Stands in for a streamed export: the controller returns with the response still open */
+    private static class StartsAsync extends HttpServlet {
+        @Override
+        protected void service(HttpServletRequest req, HttpServletResponse resp) {
+            req.startAsync();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.stationerymgntbe.config;
+
+import com.example.stationerymgntbe.entity.Category;
+import com.example.stationerymgntbe.entity.Unit;
+import com.example.stationerymgntbe.repository.CategoryRepository;
+import com.example.stationerymgntbe.repository.ProductRepository;
+import com.example.stationerymgntbe.repository.UnitRepository;
+import com.example.stationerymgntbe.service.CatalogImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DataSeederTest {
+
+    @TempDir
+    Path dir;
+
+    private final ProductRepository productRepo = mock(ProductRepository.class);
+    private final UnitRepository unitRepo = mock(UnitRepository.class);
+    private final CategoryRepository categoryRepo = mock(CategoryRepository.class);
+    private final CatalogImportService catalogImport = mock(CatalogImportService.class);
+    private DataSeeder seeder;
+
+    @BeforeEach
+    void setUp() {
+        when(catalogImport.apply(any(), any(), anyString(), anyString(), any())).thenReturn(
+                new CatalogImportService.Result(0, 0, 0, 0, 0, 0, 0, 0, List.of(), 0, Map.of(), true));
+        seeder = new DataSeeder(productRepo, unitRepo, categoryRepo, catalogImport);
+    }
+
+    @Test
+    void unchangedWorkbookSkipsTheWholeSeed() throws Exception {
+        when(catalogImport.isApplied(anyString(), eq(workbookChecksum()))).thenReturn(true);
+        when(productRepo.count()).thenReturn(140L);
+
+        seeder.seedData().run();
+
+        verify(categoryRepo, never()).findAll();
+        verify(unitRepo, never()).findAll();
+        verify(catalogImport, never()).apply(any(), any(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void appliedChecksumStillSeedsAnEmptyCatalog() throws Exception {
+        when(catalogImport.isApplied(anyString(), anyString())).thenReturn(true);
+        when(productRepo.count()).thenReturn(0L);
+
+        seeder.seedData().run();
+
+        verify(catalogImport).apply(any(), eq(CatalogImportService.SEED_LAYOUT), anyString(),
+                eq(workbookChecksum()), eq(CatalogImportService.Options.SEED));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void changedWorkbookAddsOnlyMissingPresetsAndStreamsTheRows() throws Exception {
+        when(categoryRepo.findAll()).thenReturn(List.of(
+                Category.builder().categoryId(1).code("pen").nameVn("Bút").nameEn("Pens").build()));
+        when(unitRepo.findAll()).thenReturn(List.of(new Unit(1, "Cái", "item")));
+
+        seeder.seedData().run();
+
+        ArgumentCaptor<List<Category>> categories = ArgumentCaptor.forClass(List.class);
+        verify(categoryRepo).saveAll(categories.capture());
+        assertThat(categories.getValue()).hasSize(14).extracting(Category::getCode).doesNotContain("PEN");
+
+        // 15 presets: "cái" exists, and "bao" / "bịch" share the English name "bag"
+        ArgumentCaptor<List<Unit>> units = ArgumentCaptor.forClass(List.class);
+        verify(unitRepo).saveAll(units.capture());
+        assertThat(units.getValue()).hasSize(13)
+                .extracting(Unit::getNameEn).doesNotHaveDuplicates().doesNotContain("item");
+
+        ArgumentCaptor<Path> workbook = ArgumentCaptor.forClass(Path.class);
+        ArgumentCaptor<String> source = ArgumentCaptor.forClass(String.class);
+        verify(catalogImport).apply(workbook.capture(), eq(CatalogImportService.SEED_LAYOUT), source.capture(),
+                eq(workbookChecksum()), eq(CatalogImportService.Options.SEED));
+        assertThat(source.getValue()).startsWith("seed:VPPham.xlsx:v");
+        assertThat(workbook.getValue()).as("temporary copy removed").doesNotExist();
+        verify(productRepo, never()).saveAll(anyList());
+    }
+
+    private String workbookChecksum() throws IOException {
+        Path copy = dir.resolve("VPPham.xlsx");
+        try (InputStream in = Objects.requireNonNull(getClass().getResourceAsStream("/VPPham.xlsx"))) {
+            Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return CatalogImportService.checksum(copy);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.stationerymgntbe.config;
+
+import com.example.stationerymgntbe.config.ReplicaRoutingDataSource.Route;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource();
+    private final Session session = mock(Session.class);
+
+    @BeforeEach
+    void bindEntityManager() {
+        EntityManager em = mock(EntityManager.class);
+        when(em.unwrap(Session.class)).thenReturn(session);
+        TransactionSynchronizationManager.bindResource("emf", new EntityManagerHolder(em));
+    }
+
+    @AfterEach
+    void clear() {
+        TransactionSynchronizationManager.unbindResourceIfPossible("emf");
+        TransactionSynchronizationManager.clear();
+        ReplicaRoutingDataSource.endRequest();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaAndOnlyReadTheCache() {
+        assertThat(connect(true)).isEqualTo(Route.REPLICA);
+
+        verify(session).setCacheMode(CacheMode.GET);
+        assertThat(routing.stats())
+                .containsEntry("replicaConnections", 1L)
+                .containsEntry("replicaSessionsWithoutCachePuts", 1L);
+    }
+
+    @Test
+    void readWriteAndNonTransactionalWorkGoToThePrimaryWithTheCacheUntouched() {
+        assertThat(connect(false)).isEqualTo(Route.PRIMARY);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(Route.PRIMARY);      // outside a transaction
+
+        verify(session, never()).setCacheMode(CacheMode.GET);
+        assertThat(routing.stats()).containsEntry("primaryConnections", 2L).containsEntry("replicaConnections", 0L);
+    }
+
+    @Test
+    void readsAfterAWriteInTheSameRequestStayOnThePrimary() {
+        ReplicaRoutingDataSource.beginRequest(false);
+        assertThat(connect(true)).isEqualTo(Route.REPLICA);
+        assertThat(connect(false)).isEqualTo(Route.PRIMARY);
+
+        assertThat(connect(true)).isEqualTo(Route.PRIMARY);
+        assertThat(routing.stats()).containsEntry("readOnlyPinnedToPrimary", 1L);
+    }
+
+    @Test
+    void pinnedRequestReadsFromThePrimary() {
+        ReplicaRoutingDataSource.beginRequest(true);
+
+        assertThat(connect(true)).isEqualTo(Route.PRIMARY);
+        verify(session, never()).setCacheMode(CacheMode.GET);
+    }
+
+    /* ────────── ReplicaStickinessInterceptor ────────── */
+
+    @Test
+    void userWhoWroteReadsFromThePrimaryWithinTheStickyWindow() {
+        ReplicaStickinessInterceptor interceptor = new ReplicaStickinessInterceptor(60_000);
+
+        request(interceptor, "alice", false);                   // alice writes
+        assertThat(request(interceptor, "alice", true)).isEqualTo(Route.PRIMARY);
+        assertThat(request(interceptor, "bob", true)).isEqualTo(Route.REPLICA);
+    }
+
+    @Test
+    void stickinessEndsAfterTheWindow() {
+        ReplicaStickinessInterceptor interceptor = new ReplicaStickinessInterceptor(0);
+
+        request(interceptor, "alice", false);
+        assertThat(request(interceptor, "alice", true)).isEqualTo(Route.REPLICA);
+    }
+
+    @Test
+    void readOnlyRequestsDoNotMakeTheUserSticky() {
+        ReplicaStickinessInterceptor interceptor = new ReplicaStickinessInterceptor(60_000);
+
+        request(interceptor, "alice", true);
+        assertThat(request(interceptor, "alice", true)).isEqualTo(Route.REPLICA);
+    }
+
+    @Test
+    void asyncHandoffClearsTheRequestStateOnTheContainerThread() {
+        ReplicaStickinessInterceptor interceptor = new ReplicaStickinessInterceptor(60_000);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+
+        interceptor.afterConcurrentHandlingStarted(request, new MockHttpServletResponse(), new Object());
+
+        assertThat(ReplicaRoutingDataSource.currentRequest()).isNull();
+    }
+
+    /* ────────── helpers ────────── */
+
+    /** Takes a connection inside a transaction, as the LazyConnectionDataSourceProxy does on first use */
+    private Route connect(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        try {
+            return (Route) routing.determineCurrentLookupKey();
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    /** One request by {@code user} running a single transaction; returns where it was routed */
+    private Route request(ReplicaStickinessInterceptor interceptor, String user, boolean readOnly) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, "n/a", List.of()));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, new Object());
+        try {
+            return connect(readOnly);
+        } finally {
+            interceptor.afterCompletion(request, response, new Object(), null);
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
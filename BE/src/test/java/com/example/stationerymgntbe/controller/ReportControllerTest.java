@@ -0,0 +1,44 @@
+package com.example.stationerymgntbe.controller;
+
+import com.example.stationerymgntbe.exception.GlobalExceptionHandler;
+import com.example.stationerymgntbe.service.ReportCancellationService;
+import com.example.stationerymgntbe.service.ReportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ReportControllerTest {
+
+    private final ReportService reportService = mock(ReportService.class);
+    private final ReportCancellationService reports = mock(ReportCancellationService.class);
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new ReportController(reportService, reports))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @Test
+    void malformedPeriodIsA400() throws Exception {
+        mvc.perform(get("/api/reports/analytics/comparison/periods").param("periods", "2025-07,July"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.periods").value("Not a month (yyyy-MM): 'July'"));
+        mvc.perform(get("/api/reports/analytics/comparison/periods").param("periods", "2025-13"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(reports, reportService);
+    }
+
+    @Test
+    void wellFormedPeriodsGoToTheReport() throws Exception {
+        mvc.perform(get("/api/reports/analytics/comparison/periods").param("periods", "2025-07, 2025-06"));
+
+        verify(reports).run(eq("comparison"), any());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.stationerymgntbe.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GlobalExceptionHandlerTest {
+
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new Failing())
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @Test
+    void invalidParameterIsA400NamingTheField() throws Exception {
+        mvc.perform(get("/bad-parameter"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.minQuantity").value("Not a whole number: 'five'"));
+    }
+
+    @Test
+    void anythingElseIsStillA500() throws Exception {
+        mvc.perform(get("/broken"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.error").value("Internal Server Error"));
+    }
+
+    @RestController
+    static class Failing {
+
+        @GetMapping("/bad-parameter")
+        String badParameter() {
+            throw new InvalidParameterException("minQuantity", "Not a whole number: 'five'");
+        }
+
+        @GetMapping("/broken")
+        String broken() {
+            throw new UnsupportedOperationException("boom");
+        }
+    }
+}
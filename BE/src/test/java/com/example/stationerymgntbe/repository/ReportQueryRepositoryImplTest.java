@@ -0,0 +1,68 @@
+package com.example.stationerymgntbe.repository;
+
+import com.example.stationerymgntbe.dto.ReportFilterDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReportQueryRepositoryImplTest {
+
+    private final EntityManager em = mock(EntityManager.class);
+    private final Query query = mock(Query.class);
+    private final ReportQueryRepositoryImpl repository = new ReportQueryRepositoryImpl();
+
+    @BeforeEach
+    void setUp() {
+        when(em.createNativeQuery(anyString())).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of());
+        ReflectionTestUtils.setField(repository, "entityManager", em);
+    }
+
+    @Test
+    void departmentNamesAndIdsAreAUnion() {
+        repository.findFilteredReportData(ReportFilterDTO.builder()
+                .departmentNames(List.of("IT"))
+                .departmentIds(List.of(3, 4))
+                .build());
+
+        assertThat(sql()).contains("WHERE (d.name IN (?1) OR d.department_id IN (?2, ?3))");
+        verify(query).setParameter(1, "IT");
+        verify(query).setParameter(3, 4);
+    }
+
+    @Test
+    void singleDepartmentListIsAPlainInCondition() {
+        repository.findFilteredReportData(ReportFilterDTO.builder().departmentIds(List.of(3)).categoryIds(List.of(9)).build());
+
+        assertThat(sql())
+                .contains("WHERE d.department_id IN (?1) AND p.category_id IN (?2)")
+                .doesNotContain("d.name IN");
+    }
+
+    @Test
+    void emptyListMatchesNothingButTheOtherListStillCounts() {
+        repository.findFilteredReportData(ReportFilterDTO.builder()
+                .departmentNames(List.of())
+                .departmentIds(List.of(3))
+                .build());
+
+        assertThat(sql()).contains("(1 = 0 OR d.department_id IN (?1))");
+    }
+
+    private String sql() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(em).createNativeQuery(sql.capture());
+        return sql.getValue();
+    }
+}
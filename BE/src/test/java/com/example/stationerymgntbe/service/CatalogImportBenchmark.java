@@ -0,0 +1,114 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.entity.Unit;
+import com.example.stationerymgntbe.repository.CatalogImportRepository;
+import com.example.stationerymgntbe.repository.CategoryRepository;
+import com.example.stationerymgntbe.repository.ProductRepository;
+import com.example.stationerymgntbe.repository.UnitRepository;
+import com.example.stationerymgntbe.service.CatalogImportService.Options;
+import com.example.stationerymgntbe.service.CatalogImportService.Result;
+import com.example.stationerymgntbe.support.Benchmarks;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A 5,000-row catalog through {@link CatalogImportService#apply}: streaming the file and diffing it
+ * against the product index. The repositories are mocks, so the batched upsert round trips
+ * (500 rows per JDBC batch) are not part of the number.
+ * Run with {@code mvn test -Dtest=CatalogImportBenchmark}.
+ */
+class CatalogImportBenchmark {
+
+    private static final int ROWS = 5_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void fiveThousandRows() throws IOException {
+        List<String> names = Benchmarks.catalogNames();
+        assertThat(names).isNotEmpty();
+
+        // every fourth product is renamed in the file, the rest are unchanged
+        List<Object[]> index = new ArrayList<>();
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            String code = "VPP%05d".formatted(i);
+            String name = names.get(i % names.size()) + " #" + i;
+            index.add(new Object[]{i + 1, code, name, 1, null, true});
+            rows.add(new String[]{code, i % 4 == 0 ? name + " (mới)" : name, "Cái"});
+        }
+        CatalogImportService service = service(index);
+        Path csv = csv(rows);
+        Path xlsx = xlsx(rows);
+
+        Result[] last = new Result[1];
+        long csvNs = Benchmarks.bestOf(3, 5, () -> last[0] = service.apply(csv, null, "bench", "x", new Options(true, true)));
+        assertThat(last[0].rows()).isEqualTo(ROWS);
+        assertThat(last[0].updated()).isEqualTo(ROWS / 4);
+        long xlsxNs = Benchmarks.bestOf(3, 5, () -> last[0] = service.apply(xlsx, null, "bench", "x", new Options(true, true)));
+        assertThat(last[0].rows()).isEqualTo(ROWS);
+
+        Benchmarks.report("%d rows, %d changed", ROWS, last[0].updated());
+        Benchmarks.report("csv:  %.1f ms (%d KB)", csvNs / 1e6, Files.size(csv) / 1024);
+        Benchmarks.report("xlsx: %.1f ms (%d KB)", xlsxNs / 1e6, Files.size(xlsx) / 1024);
+    }
+
+    private static CatalogImportService service(List<Object[]> index) {
+        ProductRepository productRepo = mock(ProductRepository.class);
+        UnitRepository unitRepo = mock(UnitRepository.class);
+        CategoryRepository categoryRepo = mock(CategoryRepository.class);
+        PlatformTransactionManager tm = mock(PlatformTransactionManager.class);
+        when(tm.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(productRepo.findCatalogIndex()).thenReturn(index);
+        when(unitRepo.findAll()).thenReturn(List.of(new Unit(1, "Cái", "Piece")));
+        return new CatalogImportService(productRepo, unitRepo, categoryRepo,
+                mock(CatalogImportRepository.class), mock(ApplicationEventPublisher.class), tm);
+    }
+
+    private Path csv(List<String[]> rows) throws IOException {
+        StringBuilder sb = new StringBuilder("Mã,Tên,ĐVT\n");
+        for (String[] r : rows) {
+            sb.append(r[0]).append(",\"").append(r[1].replace("\"", "\"\"")).append("\",").append(r[2]).append('\n');
+        }
+        return Files.writeString(dir.resolve("catalog.csv"), sb, StandardCharsets.UTF_8);
+    }
+
+    private Path xlsx(List<String[]> rows) throws IOException {
+        Path file = dir.resolve("catalog.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet();
+            write(sheet.createRow(0), new String[]{"Mã", "Tên", "ĐVT"});
+            for (int i = 0; i < rows.size(); i++) {
+                write(sheet.createRow(i + 1), rows.get(i));
+            }
+            workbook.write(out);
+        }
+        return file;
+    }
+
+    private static void write(Row row, String[] cells) {
+        for (int i = 0; i < cells.length; i++) {
+            row.createCell(i).setCellValue(cells[i]);
+        }
+    }
+}
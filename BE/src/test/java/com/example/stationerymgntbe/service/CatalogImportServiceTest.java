@@ -0,0 +1,231 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.entity.CatalogImport;
+import com.example.stationerymgntbe.entity.Category;
+import com.example.stationerymgntbe.entity.Unit;
+import com.example.stationerymgntbe.event.CatalogChangedEvent;
+import com.example.stationerymgntbe.repository.CatalogImportRepository;
+import com.example.stationerymgntbe.repository.CategoryRepository;
+import com.example.stationerymgntbe.repository.ProductBatchRepository.ProductUpsert;
+import com.example.stationerymgntbe.repository.ProductRepository;
+import com.example.stationerymgntbe.repository.UnitRepository;
+import com.example.stationerymgntbe.service.CatalogImportService.Options;
+import com.example.stationerymgntbe.service.CatalogImportService.Result;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CatalogImportServiceTest {
+
+    private static final String HEADER = "Mã,Tên,ĐVT,Danh mục\n";
+
+    @TempDir
+    Path dir;
+
+    private final ProductRepository productRepo = mock(ProductRepository.class);
+    private final UnitRepository unitRepo = mock(UnitRepository.class);
+    private final CategoryRepository categoryRepo = mock(CategoryRepository.class);
+    private final CatalogImportRepository importRepo = mock(CatalogImportRepository.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final PlatformTransactionManager tm = mock(PlatformTransactionManager.class);
+    private CatalogImportService service;
+
+    @BeforeEach
+    void setUp() {
+        when(tm.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(unitRepo.findAll()).thenReturn(List.of(new Unit(1, "Cây", "Piece"), new Unit(2, "Ram", "Ream")));
+        when(categoryRepo.findAll()).thenReturn(List.of(
+                Category.builder().categoryId(10).code("PEN").nameVn("Bút").nameEn("Pen").build(),
+                Category.builder().categoryId(11).code("PAPER").nameVn("Giấy").nameEn("Paper").build()));
+        // [productId, code, name, unitId, categoryId, active]
+        when(productRepo.findCatalogIndex()).thenReturn(List.of(
+                new Object[]{1, "VPP001", "Bút bi", 1, 10, true},
+                new Object[]{2, "VPP002", "Giấy A4", 2, 11, true},
+                new Object[]{3, "VPP003", "Bút chì", 1, 10, false},
+                new Object[]{4, "VPP004", "Bút lông", 1, 10, true}));
+        when(productRepo.upsertProducts(anyList(), any())).thenAnswer(call -> ((List<?>) call.getArgument(0)).size());
+        when(productRepo.deactivateProducts(anyCollection(), any())).thenAnswer(call -> ((Collection<?>) call.getArgument(0)).size());
+        service = new CatalogImportService(productRepo, unitRepo, categoryRepo, importRepo, events, tm);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void diffsEveryRowKindAndWritesOnlyTheChanges() throws IOException {
+        Path file = csv(HEADER
+                + "VPP001,Bút bi,Cây,PEN\n"               // unchanged
+                + "vpp002,Giấy A4 Double A,Ram,PAPER\n"   // renamed, code spelled differently
+                + "VPP003,Bút chì,Cây,PEN\n"              // same data but inactive
+                + "VPP005,Thước kẻ,Cây,PEN\n");           // new; VPP004 is missing
+
+        Result result = service.apply(file, null, "catalog.csv", "abc", new Options(true, false));
+
+        assertThat(result.summary())
+                .containsEntry("applied", true)
+                .containsEntry("rows", 4)
+                .containsEntry("inserted", 1)
+                .containsEntry("updated", 2)
+                .containsEntry("reactivated", 1)
+                .containsEntry("unchanged", 1)
+                .containsEntry("deactivated", 1)
+                .containsEntry("skipped", 0)
+                .containsEntry("unitsCreated", 0)
+                .containsEntry("errorCount", 0)
+                .containsEntry("codes", Map.of(
+                        "inserted", List.of("VPP005"),
+                        "updated", List.of("VPP002", "VPP003"),
+                        "deactivated", List.of("VPP004")));
+
+        ArgumentCaptor<List<ProductUpsert>> upserts = ArgumentCaptor.forClass(List.class);
+        verify(productRepo).upsertProducts(upserts.capture(), any());
+        assertThat(upserts.getValue()).containsExactly(
+                new ProductUpsert("VPP002", "Giấy A4 Double A", 2, 11),   // stored spelling kept for ON CONFLICT
+                new ProductUpsert("VPP003", "Bút chì", 1, 10),
+                new ProductUpsert("VPP005", "Thước kẻ", 1, 10));
+        ArgumentCaptor<Collection<Integer>> deactivated = ArgumentCaptor.forClass(Collection.class);
+        verify(productRepo).deactivateProducts(deactivated.capture(), any());
+        assertThat(deactivated.getValue()).containsExactly(4);
+
+        ArgumentCaptor<CatalogImport> record = ArgumentCaptor.forClass(CatalogImport.class);
+        verify(importRepo).save(record.capture());
+        assertThat(record.getValue().getChecksum()).isEqualTo("abc");
+        assertThat(record.getValue().getInserted()).isEqualTo(1);
+        assertThat(record.getValue().getUpdated()).isEqualTo(2);
+        assertThat(record.getValue().getDeactivated()).isEqualTo(1);
+        verify(events).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void unchangedFileWritesNothingAndPublishesNothing() throws IOException {
+        Path file = csv(HEADER
+                + "VPP001,Bút bi,Cây,PEN\n"
+                + "VPP002,Giấy A4,Ram,PAPER\n");
+
+        Result result = service.apply(file, null, "catalog.csv", "abc", new Options(false, false));
+
+        assertThat(result.unchanged()).isEqualTo(2);
+        assertThat(result.inserted() + result.updated() + result.deactivated()).isZero();
+        verify(productRepo).upsertProducts(eq(List.of()), any());
+        verify(productRepo).deactivateProducts(eq(List.of()), any());
+        verify(events, never()).publishEvent(any());
+    }
+
+    @Test
+    void rowErrorsAreReportedAndTheirCodesAreNotDeactivated() throws IOException {
+        Path file = csv(HEADER
+                + "VPP001,Bút bi,Cây,PEN\n"
+                + "VPP002,Giấy A4,,PAPER\n"
+                + "VPP003,Bút chì,Cây,PEN\n"
+                + ",Không mã,Cây,PEN\n"
+                + "VPP004,,Cây,PEN\n");
+
+        Result result = service.apply(file, null, "catalog.csv", "abc", new Options(true, true));
+
+        assertThat(result.errorCount()).isEqualTo(2);
+        assertThat(result.errors()).extracting(CatalogImportService.RowError::message)
+                .containsExactly("Missing unit", "Missing product name");
+        assertThat(result.skipped()).isEqualTo(1);
+        assertThat(result.deactivated()).isZero();
+        assertThat(result.applied()).isFalse();
+        verify(importRepo, never()).save(any());
+    }
+
+    @Test
+    void refusesToDeactivateTheCatalogFromAFileWithoutCodes() throws IOException {
+        Path file = csv(HEADER);
+
+        assertThatThrownBy(() -> service.apply(file, null, "catalog.csv", "abc", new Options(true, false)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("refusing to deactivate");
+        verify(productRepo, never()).deactivateProducts(anyCollection(), any());
+        verify(tm).rollback(any());
+        verifyNoInteractions(importRepo, events);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reseedingTheSameWorkbookChangesNothing() throws IOException {
+        Path workbook = dir.resolve("VPPham.xlsx");
+        try (InputStream in = Objects.requireNonNull(getClass().getResourceAsStream("/VPPham.xlsx"))) {
+            Files.copy(in, workbook);
+        }
+        List<Unit> units = new ArrayList<>();
+        when(unitRepo.findAll()).thenAnswer(call -> List.copyOf(units));
+        when(unitRepo.save(any())).thenAnswer(call -> {
+            Unit u = call.getArgument(0);
+            u.setUnitId(units.size() + 1);
+            units.add(u);
+            return u;
+        });
+        when(productRepo.findCatalogIndex()).thenReturn(List.of());
+
+        Result first = service.apply(workbook, CatalogImportService.SEED_LAYOUT, "seed", "abc", Options.SEED);
+
+        // the workbook lists 12 codes more than once; the 13 later rows are reported, not applied
+        assertThat(first.inserted()).isPositive();
+        assertThat(first.errors()).hasSize(13).allSatisfy(e -> assertThat(e.message()).startsWith("Duplicate product code"));
+        ArgumentCaptor<List<ProductUpsert>> written = ArgumentCaptor.forClass(List.class);
+        verify(productRepo).upsertProducts(written.capture(), any());
+        List<Object[]> index = new ArrayList<>();
+        for (ProductUpsert p : written.getValue()) {
+            index.add(new Object[]{index.size() + 1, p.code(), p.name(), p.unitId(), p.categoryId(), true});
+        }
+        when(productRepo.findCatalogIndex()).thenReturn(index);
+
+        Result second = service.apply(workbook, CatalogImportService.SEED_LAYOUT, "seed", "abc", Options.SEED);
+
+        assertThat(second.rows()).isEqualTo(first.rows());
+        assertThat(second.unchanged()).isEqualTo(first.inserted());
+        assertThat(second.inserted() + second.updated() + second.unitsCreated()).isZero();
+        assertThat(second.errorCount()).isEqualTo(13);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void firstRowOfADuplicatedCodeWins() throws IOException {
+        Path file = csv(HEADER
+                + "VPP002,Giấy A4 Double A,Ram,PAPER\n"
+                + "VPP001,Bút bi,Cây,PEN\n"
+                + "vpp002,Giấy A4,Ram,PAPER\n");
+
+        Result result = service.apply(file, null, "catalog.csv", "abc", new Options(false, false));
+
+        assertThat(result.updated()).isEqualTo(1);
+        assertThat(result.unchanged()).isEqualTo(1);
+        assertThat(result.errors()).containsExactly(new CatalogImportService.RowError(
+                4, "vpp002", "Duplicate product code (first listed on row 2)"));
+        ArgumentCaptor<List<ProductUpsert>> upserts = ArgumentCaptor.forClass(List.class);
+        verify(productRepo).upsertProducts(upserts.capture(), any());
+        assertThat(upserts.getValue()).containsExactly(new ProductUpsert("VPP002", "Giấy A4 Double A", 2, 11));
+    }
+
+    private Path csv(String content) throws IOException {
+        return Files.writeString(dir.resolve("catalog.csv"), content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.dto.CategoryDTO;
+import com.example.stationerymgntbe.dto.ProductDTO;
+import com.example.stationerymgntbe.entity.AbstractEntity;
+import com.example.stationerymgntbe.entity.Category;
+import com.example.stationerymgntbe.entity.Product;
+import com.example.stationerymgntbe.entity.Unit;
+import com.example.stationerymgntbe.event.CatalogChangedEvent;
+import com.example.stationerymgntbe.mapper.CategoryMapperImpl;
+import com.example.stationerymgntbe.mapper.ProductMapperImpl;
+import com.example.stationerymgntbe.repository.CategoryRepository;
+import com.example.stationerymgntbe.repository.ProductRepository;
+import com.example.stationerymgntbe.repository.UnitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogSnapshotServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+    private final ProductRepository productRepo = mock(ProductRepository.class);
+    private final CategoryRepository categoryRepo = mock(CategoryRepository.class);
+    private final UnitRepository unitRepo = mock(UnitRepository.class);
+    private CatalogSnapshotService service;
+
+    private Unit piece;
+    private Category pens;
+    private Category paper;
+    private Product pen;
+
+    @BeforeEach
+    void setUp() {
+        piece = touched(new Unit(1, "Cây", "Piece"));
+        pens = touched(Category.builder().categoryId(10).code("PEN").nameVn("Bút").nameEn("Pen").build());
+        paper = touched(Category.builder().categoryId(11).code("PAPER").nameVn("Giấy").nameEn("Paper").build());
+        pen = product(2, "vpp002", "Bút bi", pens, true);
+        when(productRepo.findAllWithUnitAndCategory()).thenReturn(List.of(
+                pen,
+                product(1, "VPP001", "Bút chì", pens, true),
+                product(3, "VPP003", "Bút lông", pens, false)));
+        when(categoryRepo.findAll()).thenReturn(List.of(pens, paper));
+        when(unitRepo.findAll()).thenReturn(List.of(piece));
+        service = new CatalogSnapshotService(productRepo, categoryRepo, unitRepo,
+                new ProductMapperImpl(), new CategoryMapperImpl());
+    }
+
+    @Test
+    void snapshotIndexesActiveProductsOnly() {
+        CatalogSnapshot snap = service.rebuild();
+
+        assertThat(snap.products()).extracting(ProductDTO::getId).containsExactly(1, 2);
+        assertThat(snap.productsById()).containsOnlyKeys(1, 2);
+        assertThat(snap.productsByCode()).containsOnlyKeys("VPP001", "VPP002");
+        assertThat(snap.productsByCategory().get(10)).extracting(ProductDTO::getId).containsExactly(1, 2);
+        assertThat(snap.categories()).extracting(CategoryDTO::getCode, CategoryDTO::getProductCount)
+                .containsExactly(tuple("PEN", 2L), tuple("PAPER", 0L));
+        assertThat(snap.productsById().get(2).getUnit()).isEqualTo("Cây");
+        assertThat(snap.productSearch().search("but bi", p -> true)).extracting(ProductDTO::getId).first().isEqualTo(2);
+    }
+
+    @Test
+    void readsAreServedFromTheSnapshotUntilTheCatalogChanges() {
+        CatalogSnapshot first = service.current();
+        assertThat(service.current()).isSameAs(first);
+        verify(productRepo, times(1)).findAllWithUnitAndCategory();
+
+        service.onCatalogChanged(new CatalogChangedEvent("test"));
+
+        CatalogSnapshot second = service.current();
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.version()).isEqualTo(first.version() + 1);
+        verify(productRepo, times(2)).findAllWithUnitAndCategory();
+    }
+
+    @Test
+    void etagsChangeOnlyForTheSectionsThatChanged() {
+        CatalogSnapshot before = service.rebuild();
+        CatalogSnapshot same = service.rebuild();
+        assertThat(same.productsEtag()).isEqualTo(before.productsEtag());
+        assertThat(same.categoriesEtag()).isEqualTo(before.categoriesEtag());
+        assertThat(same.unitsEtag()).isEqualTo(before.unitsEtag());
+
+        pen.setUpdatedAt(T0.plusMinutes(1));
+        CatalogSnapshot productEdited = service.rebuild();
+        assertThat(productEdited.productsEtag()).isNotEqualTo(before.productsEtag());
+        assertThat(productEdited.categoriesEtag()).isEqualTo(before.categoriesEtag());
+        assertThat(productEdited.unitsEtag()).isEqualTo(before.unitsEtag());
+
+        // product DTOs embed the unit name, so a unit edit invalidates the product list too
+        piece.setUpdatedAt(T0.plusMinutes(2));
+        CatalogSnapshot unitEdited = service.rebuild();
+        assertThat(unitEdited.unitsEtag()).isNotEqualTo(productEdited.unitsEtag());
+        assertThat(unitEdited.productsEtag()).isNotEqualTo(productEdited.productsEtag());
+        assertThat(unitEdited.categoriesEtag()).isEqualTo(productEdited.categoriesEtag());
+    }
+
+    @Test
+    void categoryCountChangesItsEtagWithoutAnyTimestampChange() {
+        CatalogSnapshot before = service.rebuild();
+
+        pen.setCategory(paper);
+        CatalogSnapshot moved = service.rebuild();
+
+        assertThat(moved.categoriesEtag()).isNotEqualTo(before.categoriesEtag());
+        assertThat(moved.categories()).extracting(CategoryDTO::getProductCount).containsExactly(1L, 1L);
+        assertThat(before.categories()).extracting(CategoryDTO::getProductCount).containsExactly(2L, 0L);
+    }
+
+    private Product product(int id, String code, String name, Category category, boolean active) {
+        return touched(Product.builder().productId(id).code(code).name(name)
+                .unit(piece).category(category).active(active).build());
+    }
+
+    private static <T extends AbstractEntity> T touched(T entity) {
+        entity.setUpdatedAt(T0);
+        return entity;
+    }
+}
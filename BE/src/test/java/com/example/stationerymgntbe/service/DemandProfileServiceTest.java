@@ -0,0 +1,140 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.dto.ProductDTO;
+import com.example.stationerymgntbe.entity.DemandProfile;
+import com.example.stationerymgntbe.repository.DemandProfileRepository;
+import com.example.stationerymgntbe.repository.OrderRepository;
+import com.example.stationerymgntbe.util.SearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DemandProfileServiceTest {
+
+    private final DemandProfileRepository profileRepo = mock(DemandProfileRepository.class);
+    private final OrderRepository orderRepo = mock(OrderRepository.class);
+    private final CatalogSnapshotService catalog = mock(CatalogSnapshotService.class);
+    private DemandProfileService service;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager tm = mock(PlatformTransactionManager.class);
+        when(tm.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // 3-month window, alpha 0.5, at least 2 months with orders
+        service = new DemandProfileService(profileRepo, orderRepo, catalog, tm, 3, 0.5, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildSmoothsEachSeriesAndReplacesTheTable() {
+        YearMonth now = YearMonth.now();
+        when(orderRepo.findMonthlyDepartmentDemand(
+                now.minusMonths(3).atDay(1).atStartOfDay(), now.atDay(1).atStartOfDay()))
+                .thenReturn(List.of(
+                        // dept 1, product 10: 4, 0, 8 → 4 → 2 → 5
+                        row(1, 10, now.minusMonths(3), 4),
+                        row(1, 10, now.minusMonths(1), 8),
+                        // dept 1, product 11: one month only
+                        row(1, 11, now.minusMonths(1), 6),
+                        // dept 2, product 10: 2, 1, 0 → 2 → 1.5 → 0.75, still suggested once
+                        row(2, 10, now.minusMonths(3), 2),
+                        row(2, 10, now.minusMonths(2), 1),
+                        // dept 2, product 12: the current month is outside the window
+                        row(2, 12, now.minusMonths(2), 3),
+                        row(2, 12, now, 50)));
+
+        Map<String, Object> summary = service.rebuild();
+
+        assertThat(summary)
+                .containsEntry("profiles", 2)
+                .containsEntry("departments", 2L)
+                .containsEntry("from", now.minusMonths(3).toString())
+                .containsEntry("to", now.minusMonths(1).toString());
+
+        ArgumentCaptor<Iterable<DemandProfile>> saved = ArgumentCaptor.forClass(Iterable.class);
+        InOrder order = inOrder(profileRepo);
+        order.verify(profileRepo).deleteAllInBatch();
+        order.verify(profileRepo).saveAll(saved.capture());
+        assertThat(saved.getValue())
+                .extracting(DemandProfile::getDepartmentId, DemandProfile::getProductId,
+                        DemandProfile::getSuggestedQuantity, DemandProfile::getSmoothedQuantity,
+                        DemandProfile::getMonthsOrdered, DemandProfile::getMonthsWindow)
+                .containsExactlyInAnyOrder(
+                        tuple(1, 10, 5, 5.0, 2, 3),
+                        tuple(2, 10, 1, 0.75, 2, 3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void prefillSkipsProductsThatLeftTheCatalog() {
+        LocalDateTime computedAt = LocalDateTime.of(2025, 3, 1, 1, 30);
+        when(catalog.current()).thenReturn(snapshot(product(10, "Bút bi")));
+        when(profileRepo.findByDepartmentIdOrderBySuggestedQuantityDescProductIdAsc(1)).thenReturn(List.of(
+                profile(99, 7, computedAt),
+                profile(10, 5, computedAt)));
+
+        Map<String, Object> prefill = service.prefill(1);
+
+        assertThat(prefill)
+                .containsEntry("departmentId", 1)
+                .containsEntry("months", 3)
+                .containsEntry("computedAt", computedAt);
+        assertThat((List<Map<String, Object>>) prefill.get("items")).singleElement().satisfies(item -> assertThat(item)
+                .containsEntry("productId", 10)
+                .containsEntry("productName", "Bút bi")
+                .containsEntry("quantity", 5));
+    }
+
+    @Test
+    void startupBuildsOnlyAnEmptyTable() {
+        when(profileRepo.count()).thenReturn(4L);
+        service.onStartup();
+        verify(orderRepo, never()).findMonthlyDepartmentDemand(any(), any());
+
+        when(profileRepo.count()).thenReturn(0L);
+        service.onStartup();
+        verify(orderRepo).findMonthlyDepartmentDemand(any(), any());
+    }
+
+    private static Object[] row(int department, int product, YearMonth month, long quantity) {
+        return new Object[]{department, product, Date.valueOf(month.atDay(1)), quantity};
+    }
+
+    private static DemandProfile profile(int productId, int quantity, LocalDateTime computedAt) {
+        return DemandProfile.builder().departmentId(1).productId(productId)
+                .suggestedQuantity(quantity).smoothedQuantity((double) quantity)
+                .monthsOrdered(3).monthsWindow(3).computedAt(computedAt).build();
+    }
+
+    private static ProductDTO product(int id, String name) {
+        ProductDTO p = new ProductDTO();
+        p.setId(id);
+        p.setName(name);
+        p.setCode("VPP00" + id);
+        return p;
+    }
+
+    private static CatalogSnapshot snapshot(ProductDTO product) {
+        return new CatalogSnapshot(1, Instant.now(), List.of(product), Map.of(product.getId(), product), Map.of(),
+                Map.of(), List.of(), List.of(), SearchIndex.build(List.of(), List.of()), "\"p-1\"", "\"c-1\"", "\"u-1\"");
+    }
+}
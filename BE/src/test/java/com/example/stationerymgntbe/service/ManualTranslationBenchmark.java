@@ -0,0 +1,50 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.support.Benchmarks;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * applyManualTranslations over the real catalog names: the single automaton pass against the
+ * previous loop of one {@code replaceAll("(?i)" + key)} per dictionary entry.
+ * Run with {@code mvn test -Dtest=ManualTranslationBenchmark}.
+ */
+class ManualTranslationBenchmark {
+
+    @Test
+    void automatonAgainstRegexLoop() {
+        List<String> names = Benchmarks.catalogNames();
+        assertThat(names).isNotEmpty();
+
+        long legacy = Benchmarks.bestOf(3, 5, () -> names.forEach(ManualTranslationBenchmark::legacy));
+        long current = Benchmarks.bestOf(3, 5, () -> names.forEach(TranslationService::applyManualTranslations));
+
+        List<String> differing = names.stream()
+                .filter(n -> !legacy(n).equals(TranslationService.applyManualTranslations(n)))
+                .toList();
+        Benchmarks.report("%d names, %d dictionary entries", names.size(), TranslationService.MANUAL_TRANSLATIONS.size());
+        Benchmarks.report("regex loop: %.1f us/name", legacy / 1000.0 / names.size());
+        Benchmarks.report("automaton:  %.1f us/name (%.1fx)", current / 1000.0 / names.size(), (double) legacy / current);
+        // the loop let short keys rewrite inside longer ones and depended on map iteration order
+        Benchmarks.report("outputs differing from the regex loop: %d", differing.size());
+        for (String name : differing) {
+            Benchmarks.report("  %s%n      before: %s%n      after:  %s", name, legacy(name), TranslationService.applyManualTranslations(name));
+        }
+    }
+
+    /** The implementation before the automaton, kept verbatim as the baseline */
+    private static String legacy(String text) {
+        String result = text;
+        for (Map.Entry<String, String> e : TranslationService.MANUAL_TRANSLATIONS.entrySet()) {
+            result = result.replaceAll("(?i)" + e.getKey(), e.getValue());
+        }
+        result = result.replaceAll("(\\d+)\\s*mm", "$1mm");
+        result = result.replaceAll("(\\d+)\\s*cm", "$1cm");
+        result = result.replaceAll("\\((.*?)\\)", "($1)");
+        return result;
+    }
+}
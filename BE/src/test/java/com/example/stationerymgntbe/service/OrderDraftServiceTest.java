@@ -0,0 +1,131 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.dto.ApiResponse;
+import com.example.stationerymgntbe.dto.DraftOperationDTO;
+import com.example.stationerymgntbe.entity.Department;
+import com.example.stationerymgntbe.entity.OrderDraft;
+import com.example.stationerymgntbe.entity.User;
+import com.example.stationerymgntbe.repository.OrderDraftItemRepository;
+import com.example.stationerymgntbe.repository.OrderDraftRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderDraftServiceTest {
+
+    private final OrderDraftRepository draftRepo = mock(OrderDraftRepository.class);
+    private final OrderDraftItemRepository draftItemRepo = mock(OrderDraftItemRepository.class);
+    private final UserService userService = mock(UserService.class);
+    private final CatalogSnapshotService catalog = mock(CatalogSnapshotService.class);
+    private final PlatformTransactionManager tm = mock(PlatformTransactionManager.class);
+    private final TransactionStatus status = new SimpleTransactionStatus();
+
+    private OrderDraftService service;
+    private final User user = new User();
+    private final OrderDraft draft = new OrderDraft();
+
+    @BeforeEach
+    void setUp() {
+        Department department = new Department();
+        department.setDepartmentId(3);
+        user.setUserId(7);
+        user.setDepartment(department);
+        draft.setDraftId(11);
+        draft.setDepartment(department);
+        draft.setCreatedBy(user);
+
+        when(userService.getCurrentUserEntity()).thenReturn(user);
+        when(catalog.current()).thenReturn(CatalogSnapshot.empty());
+        when(draftItemRepo.findLines(any())).thenReturn(List.of());
+        when(tm.getTransaction(any())).thenReturn(status);
+
+        // the @Transactional proxy, so setRollbackOnly() reaches the transaction manager
+        ProxyFactory proxy = new ProxyFactory(new OrderDraftService(draftRepo, draftItemRepo, userService, catalog));
+        proxy.setProxyTargetClass(true);
+        proxy.addAdvice(new TransactionInterceptor(tm, new AnnotationTransactionAttributeSource()));
+        service = (OrderDraftService) proxy.getProxy();
+    }
+
+    @Test
+    void firstPatchCreatesTheDraftWithAnUpsertAndReadsItBack() {
+        when(draftRepo.findByUserId(7)).thenReturn(Optional.empty(), Optional.of(draft));
+
+        ApiResponse<Map<String, Object>> response = service.patchDraft(List.of(remove(5)));
+
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.getData()).containsEntry("draftId", 11);
+        verify(draftRepo).insertIfAbsent(eq(7), eq(3), any());
+        verify(draftItemRepo).removeLine(11, 5);
+        assertThat(status.isRollbackOnly()).isFalse();
+    }
+
+    @Test
+    void firstPatchLosingTheRaceUsesTheDraftTheOtherRequestCreated() {
+        // the concurrent request committed first: ON CONFLICT DO NOTHING inserts no row
+        when(draftRepo.findByUserId(7)).thenReturn(Optional.empty(), Optional.of(draft));
+        when(draftRepo.insertIfAbsent(eq(7), eq(3), any())).thenReturn(0);
+
+        ApiResponse<Map<String, Object>> response = service.patchDraft(List.of(remove(5)));
+
+        assertThat(response.isSuccess()).isTrue();
+        verify(draftItemRepo).removeLine(11, 5);
+        verify(draftRepo, times(1)).save(any());
+        verify(draftRepo).save(draft);
+    }
+
+    @Test
+    void existingDraftIsNotInsertedAgain() {
+        when(draftRepo.findByUserId(7)).thenReturn(Optional.of(draft));
+
+        service.patchDraft(List.of(remove(5)));
+
+        verify(draftRepo, never()).insertIfAbsent(any(), any(), any());
+    }
+
+    @Test
+    void failedDiscardRollsBack() {
+        when(draftRepo.findByUserId(7)).thenReturn(Optional.of(draft));
+        doThrow(new IllegalStateException("boom")).when(draftItemRepo).deleteByDraftId(11);
+
+        ApiResponse<Void> response = service.discardDraft();
+
+        assertThat(response.isSuccess()).isFalse();
+        assertThat(status.isRollbackOnly()).as("marked for rollback").isTrue();
+    }
+
+    @Test
+    void discardCommits() {
+        when(draftRepo.findByUserId(7)).thenReturn(Optional.of(draft));
+
+        assertThat(service.discardDraft().isSuccess()).isTrue();
+
+        verify(draftRepo).delete(draft);
+        assertThat(status.isRollbackOnly()).isFalse();
+    }
+
+    private static DraftOperationDTO remove(int productId) {
+        DraftOperationDTO op = new DraftOperationDTO();
+        op.setOp("remove");
+        op.setProductId(productId);
+        return op;
+    }
+}
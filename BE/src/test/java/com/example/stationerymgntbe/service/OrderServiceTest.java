@@ -0,0 +1,165 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.dto.ApiResponse;
+import com.example.stationerymgntbe.dto.OrderDetailDTO;
+import com.example.stationerymgntbe.entity.Department;
+import com.example.stationerymgntbe.entity.Order;
+import com.example.stationerymgntbe.entity.User;
+import com.example.stationerymgntbe.event.OrderCreatedEvent;
+import com.example.stationerymgntbe.repository.OrderItemRepository;
+import com.example.stationerymgntbe.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderServiceTest {
+
+    private static final int SOURCE_ID = 42;
+    private static final int CLONE_ID = 50;
+
+    private final OrderRepository orderRepo = mock(OrderRepository.class);
+    private final OrderItemRepository itemRepo = mock(OrderItemRepository.class);
+    private final UserService userService = mock(UserService.class);
+    private final AuditService auditService = mock(AuditService.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final PlatformTransactionManager tm = mock(PlatformTransactionManager.class);
+    private final TransactionStatus status = new SimpleTransactionStatus();
+
+    private OrderService service;
+    private final Department department = new Department();
+    private final User user = new User();
+
+    @BeforeEach
+    void setUp() {
+        department.setDepartmentId(3);
+        department.setName("Finance");
+        user.setUserId(7);
+        user.setDepartment(department);
+
+        when(userService.getCurrentUserEntity()).thenReturn(user);
+        when(tm.getTransaction(any())).thenReturn(status);
+        when(orderRepo.save(any())).thenAnswer(call -> {
+            Order order = call.getArgument(0);
+            if (order.getOrderId() == null) order.setOrderId(CLONE_ID);
+            return order;
+        });
+        when(orderRepo.findByIdWithDetails(CLONE_ID)).thenAnswer(call -> {
+            Order stored = new Order();
+            stored.setOrderId(CLONE_ID);
+            stored.setDepartment(department);
+            stored.setItems(new ArrayList<>());
+            return Optional.of(stored);
+        });
+
+        OrderService target = new OrderService(orderRepo, itemRepo, null, userService, null, null, auditService,
+                null, events, null, null, null);
+        ReflectionTestUtils.setField(target, "entityManager", entityManager);
+        // the @Transactional proxy, so setRollbackOnly() reaches the transaction manager
+        ProxyFactory proxy = new ProxyFactory(target);
+        proxy.setProxyTargetClass(true);
+        proxy.addAdvice(new TransactionInterceptor(tm, new AnnotationTransactionAttributeSource()));
+        service = (OrderService) proxy.getProxy();
+    }
+
+    @Test
+    void cloneCopiesTheAvailableLinesAndReportsTheDroppedOnes() {
+        // same department, created by a colleague; 3 lines, one product left the catalog
+        when(orderRepo.findCloneInfo(SOURCE_ID)).thenReturn(List.<Object[]>of(new Object[]{3, 99, 3L}));
+        when(itemRepo.copyItems(eq(SOURCE_ID), eq(CLONE_ID), any())).thenReturn(2);
+        when(itemRepo.sumQuantityByProduct(CLONE_ID)).thenReturn(List.of(new Object[]{5, 10L}, new Object[]{6, 2L}));
+
+        ApiResponse<OrderDetailDTO> response = service.cloneOrder(SOURCE_ID);
+
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.getMetadata())
+                .containsEntry("sourceOrderId", SOURCE_ID)
+                .containsEntry("copiedItems", 2)
+                .containsEntry("droppedItems", 1L);
+        assertThat(response.getData().getOrderId()).isEqualTo(CLONE_ID);
+
+        ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepo, times(2)).save(saved.capture());
+        assertThat(saved.getValue().getCreatedBy()).isSameAs(user);
+        assertThat(saved.getValue().getOrderNumber()).startsWith("ORD-FIN-").endsWith("-0050");
+
+        ArgumentCaptor<OrderCreatedEvent> event = ArgumentCaptor.forClass(OrderCreatedEvent.class);
+        verify(events).publishEvent(event.capture());
+        assertThat(event.getValue().quantities()).isEqualTo(Map.of(5, 10, 6, 2));
+
+        // copied lines are not in the persistence context: the detail is read back after a flush
+        InOrder reload = inOrder(entityManager, orderRepo);
+        reload.verify(entityManager).flush();
+        reload.verify(entityManager).clear();
+        reload.verify(orderRepo).findByIdWithDetails(CLONE_ID);
+        assertThat(status.isRollbackOnly()).isFalse();
+    }
+
+    @Test
+    void ownerMayCloneAnOrderFromTheirPreviousDepartment() {
+        when(orderRepo.findCloneInfo(SOURCE_ID)).thenReturn(List.<Object[]>of(new Object[]{8, 7, 1L}));
+        when(itemRepo.copyItems(eq(SOURCE_ID), eq(CLONE_ID), any())).thenReturn(1);
+
+        assertThat(service.cloneOrder(SOURCE_ID).isSuccess()).isTrue();
+    }
+
+    @Test
+    void otherDepartmentsOrdersAreRefused() {
+        when(orderRepo.findCloneInfo(SOURCE_ID)).thenReturn(List.<Object[]>of(new Object[]{8, 99, 2L}));
+
+        ApiResponse<OrderDetailDTO> response = service.cloneOrder(SOURCE_ID);
+
+        assertThat(response.isSuccess()).isFalse();
+        assertThat(response.getMessage()).contains("Access denied");
+        verify(orderRepo, never()).save(any());
+        assertThat(status.isRollbackOnly()).isTrue();
+    }
+
+    @Test
+    void unknownOrderIsReported() {
+        when(orderRepo.findCloneInfo(SOURCE_ID)).thenReturn(List.of());
+
+        ApiResponse<OrderDetailDTO> response = service.cloneOrder(SOURCE_ID);
+
+        assertThat(response.isSuccess()).isFalse();
+        assertThat(response.getMessage()).contains("Order not found: " + SOURCE_ID);
+    }
+
+    @Test
+    void cloneWithNoAvailableProductsRollsBackTheNewHeader() {
+        when(orderRepo.findCloneInfo(SOURCE_ID)).thenReturn(List.<Object[]>of(new Object[]{3, 7, 2L}));
+        when(itemRepo.copyItems(eq(SOURCE_ID), eq(CLONE_ID), any())).thenReturn(0);
+
+        ApiResponse<OrderDetailDTO> response = service.cloneOrder(SOURCE_ID);
+
+        assertThat(response.isSuccess()).isFalse();
+        assertThat(response.getMessage()).contains("still available");
+        assertThat(status.isRollbackOnly()).as("header insert rolled back").isTrue();
+        verify(events, never()).publishEvent(any());
+    }
+}
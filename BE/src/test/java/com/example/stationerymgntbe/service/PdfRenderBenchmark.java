@@ -0,0 +1,115 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.support.Benchmarks;
+import com.lowagie.text.Document;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order-PDF rendering as it was (built-in Helvetica, nothing embedded, header cells built per
+ * document) against the PdfTemplateRegistry with the embedded DejaVu fonts, over 30-line
+ * orders made of real catalog names. Also counts the names Helvetica cannot draw, which is
+ * why the fonts changed. Run with {@code mvn test -Dtest=PdfRenderBenchmark}.
+ */
+class PdfRenderBenchmark {
+
+    private static final int DOCUMENTS = 50;
+    private static final int LINES = 30;
+
+    @Test
+    void registryAgainstBuiltInHelvetica() throws IOException {
+        List<String> names = Benchmarks.catalogNames();
+        PdfTemplateRegistry pdf = PdfTemplateRegistryTest.registry(
+                List.of("classpath:fonts/DejaVuSans.ttf"), List.of("classpath:fonts/DejaVuSans-Bold.ttf"));
+
+        long helvetica = Benchmarks.bestOf(2, 5, () -> {
+            for (int d = 0; d < DOCUMENTS; d++) renderHelvetica(names, d);
+        });
+        long registry = Benchmarks.bestOf(2, 5, () -> {
+            for (int d = 0; d < DOCUMENTS; d++) renderRegistry(names, d, pdf);
+        });
+
+        BaseFont builtIn = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.CP1252, BaseFont.NOT_EMBEDDED);
+        long unrenderable = names.stream()
+                .filter(n -> n.chars().anyMatch(c -> !Character.isWhitespace(c) && !builtIn.charExists(c)))
+                .count();
+
+        assertThat(renderRegistry(names, 0, pdf).length).isPositive();
+        Benchmarks.report("%d documents x %d lines", DOCUMENTS, LINES);
+        Benchmarks.report("Helvetica, per-document header: %.2f ms/doc, %d KB/doc",
+                helvetica / 1e6 / DOCUMENTS, renderHelvetica(names, 0).length / 1024);
+        Benchmarks.report("registry, embedded DejaVu:      %.2f ms/doc, %d KB/doc",
+                registry / 1e6 / DOCUMENTS, renderRegistry(names, 0, pdf).length / 1024);
+        Benchmarks.report("catalog names with glyphs missing from Helvetica: %d of %d", unrenderable, names.size());
+    }
+
+    /* ────────── renderers ────────── */
+
+    private static byte[] renderRegistry(List<String> names, int order, PdfTemplateRegistry pdf) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Document doc = new Document(PageSize.A4);
+        PdfWriter.getInstance(doc, out);
+        doc.open();
+        doc.add(new Paragraph("Stationery Order #" + order, pdf.getTitleFont()));
+        PdfPTable table = pdf.newOrderItemsTable();
+        for (int i = 0; i < LINES; i++) {
+            String name = names.get((order * LINES + i) % names.size());
+            table.addCell(pdf.bodyCell(name));
+            table.addCell(pdf.centeredBodyCell("VPP" + i));
+            table.addCell(pdf.centeredBodyCell("Cái"));
+            table.addCell(pdf.centeredBodyCell(String.valueOf(i + 1)));
+        }
+        doc.add(table);
+        doc.close();
+        return out.toByteArray();
+    }
+
+    /* the exportSingleOrder body before the registry */
+    private static byte[] renderHelvetica(List<String> names, int order) {
+        Font titleFont = new Font(Font.HELVETICA, 16, Font.BOLD);
+        Font normalFont = new Font(Font.HELVETICA, 12);
+        Font headerF = new Font(Font.HELVETICA, 11, Font.BOLD);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Document doc = new Document(PageSize.A4);
+        PdfWriter.getInstance(doc, out);
+        doc.open();
+        doc.add(new Paragraph("Stationery Order #" + order, titleFont));
+        PdfPTable table = new PdfPTable(new float[]{50f, 20f, 20f, 10f});
+        table.setWidthPercentage(100);
+        for (String col : new String[]{"Product Name", "Product Code", "Unit", "Quantity"}) {
+            PdfPCell cell = new PdfPCell(new Phrase(col, headerF));
+            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+            cell.setBackgroundColor(new Color(211, 211, 211));
+            cell.setPadding(8);
+            table.addCell(cell);
+        }
+        for (int i = 0; i < LINES; i++) {
+            String name = names.get((order * LINES + i) % names.size());
+            for (String text : new String[]{name, "VPP" + i, "Cái", String.valueOf(i + 1)}) {
+                PdfPCell cell = new PdfPCell(new Phrase(text, normalFont));
+                cell.setPadding(5);
+                table.addCell(cell);
+            }
+        }
+        doc.add(table);
+        doc.close();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.stationerymgntbe.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PdfTemplateRegistryTest {
+
+    @Test
+    void bundledFontHasVietnameseGlyphs() {
+        PdfTemplateRegistry pdf = registry(List.of("classpath:fonts/DejaVuSans.ttf"), List.of("classpath:fonts/DejaVuSans-Bold.ttf"));
+
+        assertThat(pdf.getRegularBase().getPostscriptFontName()).contains("DejaVuSans");
+        assertThat(pdf.getBoldBase().getPostscriptFontName()).contains("DejaVuSans-Bold");
+        for (char c : "Bút bi Thiên Long, giấy đựng hồ sơ".toCharArray()) {
+            assertThat(pdf.getRegularBase().charExists(c)).as("glyph for '%s'", c).isTrue();
+        }
+    }
+
+    @Test
+    void missingFontFailsStartupInsteadOfFallingBackToHelvetica() {
+        assertThatThrownBy(() -> registry(List.of("classpath:fonts/missing.ttf"), List.of("classpath:fonts/DejaVuSans-Bold.ttf")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("missing.ttf");
+    }
+
+    @Test
+    void laterCandidateIsUsedWhenEarlierOnesAreMissing() {
+        PdfTemplateRegistry pdf = registry(List.of("file:/nonexistent/arial.ttf", "classpath:fonts/DejaVuSans.ttf"),
+                List.of("classpath:fonts/DejaVuSans-Bold.ttf"));
+
+        assertThat(pdf.getRegularBase().getPostscriptFontName()).contains("DejaVuSans");
+    }
+
+    static PdfTemplateRegistry registry(List<String> regular, List<String> bold) {
+        PdfTemplateRegistry pdf = new PdfTemplateRegistry();
+        ReflectionTestUtils.setField(pdf, "regularFontCandidates", regular);
+        ReflectionTestUtils.setField(pdf, "boldFontCandidates", bold);
+        pdf.init();
+        return pdf;
+    }
+}
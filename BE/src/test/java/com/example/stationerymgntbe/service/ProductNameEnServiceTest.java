@@ -0,0 +1,105 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.event.CatalogChangedEvent;
+import com.example.stationerymgntbe.event.ProductNameChangedEvent;
+import com.example.stationerymgntbe.repository.ProductBatchRepository.NameEnUpdate;
+import com.example.stationerymgntbe.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductNameEnServiceTest {
+
+    private final ProductRepository productRepo = mock(ProductRepository.class);
+    private final TranslationService translations = mock(TranslationService.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private ProductNameEnService service;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager tm = mock(PlatformTransactionManager.class);
+        when(tm.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(productRepo.fillNameEn(anyList(), any())).thenAnswer(call -> ((List<?>) call.getArgument(0)).size());
+        service = new ProductNameEnService(productRepo, translations, events, tm, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void backfillPagesByIdAndSkipsNamesTheTranslatorEchoes() {
+        when(productRepo.findWithoutNameEn(0, PageRequest.of(0, 2)))
+                .thenReturn(List.of(new Object[]{1, "Bút bi"}, new Object[]{2, "Kẹp"}));
+        when(productRepo.findWithoutNameEn(2, PageRequest.of(0, 2)))
+                .thenReturn(List.<Object[]>of(new Object[]{3, "Giấy"}));
+        when(productRepo.findWithoutNameEn(3, PageRequest.of(0, 2))).thenReturn(List.of());
+        when(translations.batchTranslate(anyList(), eq("vi"), eq("en"))).thenReturn(Map.of(
+                "Bút bi", "Ballpoint Pen", "Kẹp", "Kẹp", "Giấy", "Paper"));
+
+        Map<String, Object> result = service.backfill();
+
+        assertThat(result)
+                .containsEntry("status", "done")
+                .containsEntry("scanned", 3)
+                .containsEntry("filled", 2)
+                .containsEntry("untranslated", 1);
+        ArgumentCaptor<List<NameEnUpdate>> updates = ArgumentCaptor.forClass(List.class);
+        verify(productRepo, times(2)).fillNameEn(updates.capture(), any());
+        assertThat(updates.getAllValues()).flatExtracting(u -> u).containsExactly(
+                new NameEnUpdate(1, "Bút bi", "Ballpoint Pen"),
+                new NameEnUpdate(3, "Giấy", "Paper"));
+        verify(events).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void nothingToFillPublishesNothing() {
+        when(productRepo.findWithoutNameEn(0, PageRequest.of(0, 2))).thenReturn(List.of());
+
+        assertThat(service.backfill()).containsEntry("scanned", 0).containsEntry("filled", 0);
+        verify(events, never()).publishEvent(any());
+    }
+
+    @Test
+    void renamedProductGetsItsTranslationAfterCommit() {
+        when(translations.translateToEnglish("Bút bi")).thenReturn("Ballpoint Pen");
+
+        service.onProductNameChanged(new ProductNameChangedEvent(7, "Bút bi"));
+
+        verify(productRepo).fillNameEn(eq(List.of(new NameEnUpdate(7, "Bút bi", "Ballpoint Pen"))), any());
+    }
+
+    @Test
+    void untranslatableNameIsLeftForTheBackfill() {
+        when(translations.translateToEnglish("VPP-01")).thenReturn("VPP-01");
+
+        assertThat(service.translateName("VPP-01")).isNull();
+        assertThat(service.translateName("  ")).isNull();
+        service.onProductNameChanged(new ProductNameChangedEvent(7, "VPP-01"));
+        verify(productRepo, never()).fillNameEn(anyList(), any());
+    }
+
+    @Test
+    void scheduledRunLeavesTheSchedulerThread() throws NoSuchMethodException {
+        var scheduled = ProductNameEnService.class.getMethod("scheduledBackfill");
+        assertThat(scheduled.isAnnotationPresent(Scheduled.class)).isTrue();
+        assertThat(scheduled.isAnnotationPresent(Async.class)).isTrue();
+        assertThat(ProductNameEnService.class.getMethod("backfill").isAnnotationPresent(Scheduled.class)).isFalse();
+    }
+}
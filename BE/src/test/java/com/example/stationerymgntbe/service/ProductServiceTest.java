@@ -0,0 +1,93 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.dto.ProductDTO;
+import com.example.stationerymgntbe.dto.ProductOrderSummaryDTO;
+import com.example.stationerymgntbe.util.RankedCounter;
+import com.example.stationerymgntbe.util.SearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductServiceTest {
+
+    private ProductService service;
+    private SummaryService summaries;
+    private ProductPopularityService popularity;
+
+    @BeforeEach
+    void setUp() {
+        List<ProductDTO> products = List.of(product(1, "Bút bi"), product(2, "Giấy A4"), product(3, "Kẹp giấy"));
+        Map<Integer, ProductDTO> byId = products.stream().collect(Collectors.toMap(ProductDTO::getId, p -> p));
+        CatalogSnapshot snapshot = new CatalogSnapshot(1, Instant.now(), products, byId, Map.of(), Map.of(),
+                List.of(), List.of(), SearchIndex.build(List.of(), List.of()), "\"p-1\"", "\"c-1\"", "\"u-1\"");
+        CatalogSnapshotService catalog = mock(CatalogSnapshotService.class);
+        when(catalog.current()).thenReturn(snapshot);
+        // product 9 was ordered but is no longer in the catalog
+        RankedCounter allTime = new RankedCounter();
+        allTime.add(9, 100, 1);
+        allTime.add(2, 50, 1);
+        allTime.add(1, 5, 1);
+        popularity = mock(ProductPopularityService.class);
+        when(popularity.topThisMonth(anyInt(), any())).thenReturn(List.of());
+        when(popularity.topAllTime(anyInt(), any()))
+                .thenAnswer(call -> allTime.top(call.getArgument(0), call.getArgument(1)));
+        when(popularity.allTimeQuantity(1)).thenReturn(5L);
+        when(popularity.allTimeQuantity(2)).thenReturn(50L);
+        when(popularity.allTimeQuantity(3)).thenReturn(0L);
+
+        service = new ProductService(null, null, null, null, catalog, null, popularity, null);
+        summaries = new SummaryService(popularity, catalog);
+    }
+
+    @Test
+    void topOrderedWalksPastProductsThatLeftTheCatalog() {
+        List<Map<String, Object>> top = service.getTopOrderedProducts(2);
+
+        assertThat(top).extracting(m -> m.get("productId")).containsExactly(2L, 1L);
+        assertThat(top).extracting(m -> m.get("productName")).containsExactly("Giấy A4", "Bút bi");
+    }
+
+    @Test
+    void summaryTopProductsHaveNames() {
+        assertThat(summaries.topProducts(2))
+                .extracting(ProductOrderSummaryDTO::productName)
+                .containsExactly("Giấy A4", "Bút bi");
+    }
+
+    @Test
+    void mostOrderedFollowsSortDirectionLikeEveryOtherProperty() {
+        assertThat(ids(Sort.by(Sort.Direction.DESC, "mostOrdered"))).containsExactly(2, 1, 3);
+        assertThat(ids(Sort.by(Sort.Direction.ASC, "mostOrdered"))).containsExactly(3, 1, 2);
+        assertThat(ids(Sort.by("mostOrdered"))).containsExactly(3, 1, 2);
+    }
+
+    @Test
+    void mostOrderedCombinesWithOtherProperties() {
+        assertThat(ids(Sort.by(Sort.Order.desc("mostOrdered"), Sort.Order.asc("name")))).containsExactly(2, 1, 3);
+        assertThat(ids(Sort.by(Sort.Order.desc("name")))).containsExactly(3, 2, 1);
+    }
+
+    private List<Integer> ids(Sort sort) {
+        return service.list(PageRequest.of(0, 10, sort), null).map(ProductDTO::getId).getContent();
+    }
+
+    private static ProductDTO product(int id, String name) {
+        ProductDTO p = new ProductDTO();
+        p.setId(id);
+        p.setName(name);
+        p.setCode("VPP00" + id);
+        return p;
+    }
+}
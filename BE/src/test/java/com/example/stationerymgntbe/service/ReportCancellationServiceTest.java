@@ -0,0 +1,184 @@
+package com.example.stationerymgntbe.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ReportCancellationServiceTest {
+
+    private ReportCancellationService service;
+    private MockMvc mvc;
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment env = new MockEnvironment().withProperty("report.timeout.slow-ms", "60000");
+        service = new ReportCancellationService(env, mock(PlatformTransactionManager.class), 30000, 2, 4);
+        EntityManager em = mock(EntityManager.class);
+        when(em.unwrap(Session.class)).thenReturn(mock(Session.class));
+        ReflectionTestUtils.setField(service, "entityManager", em);
+        mvc = MockMvcBuilders.standaloneSetup(new TestReports()).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void completedReportIsSentAsIsAndCounted() throws Exception {
+        MvcResult result = mvc.perform(get("/fast")).andExpect(request().asyncStarted()).andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(42));
+        assertThat(service.stats()).containsEntry("completed", 1L).containsEntry("cancelled", 0L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deadlineAnswers504AndStopsTheAggregationLoop() throws Exception {
+        MvcResult result = mvc.perform(get("/slow")).andExpect(request().asyncStarted()).andReturn();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        fireTimeout(result);
+
+        // the timeout callback answers on the container thread; MockMvc only captures worker results
+        Object answer = WebAsyncUtils.getAsyncManager(result.getRequest()).getConcurrentResult();
+        assertThat(answer).isInstanceOfSatisfying(ResponseEntity.class, r -> {
+            assertThat(r.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+            assertThat((Map<Object, Object>) r.getBody()).containsEntry("success", false).containsEntry("reason", "timeout");
+        });
+        assertThat(stopped.await(5, TimeUnit.SECONDS)).as("worker left its loop").isTrue();
+
+        Map<String, Object> stats = service.stats();
+        assertThat(stats).containsEntry("timeout", 1L).containsEntry("cancelled", 1L).containsEntry("completed", 0L);
+        Map<String, Object> slow = (Map<String, Object>) ((Map<String, Object>) stats.get("endpoints")).get("slow");
+        assertThat(slow).containsEntry("timeoutMs", 60000L).containsEntry("timeout", 1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void containerErrorCountsAsClientDisconnect() throws Exception {
+        MvcResult result = mvc.perform(get("/slow")).andExpect(request().asyncStarted()).andReturn();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        fireError(result, new IOException("Broken pipe"));
+
+        Object answer = WebAsyncUtils.getAsyncManager(result.getRequest()).getConcurrentResult();
+        assertThat(answer).isInstanceOfSatisfying(ResponseEntity.class, r ->
+                assertThat((Map<Object, Object>) r.getBody()).containsEntry("reason", "clientDisconnect"));
+        assertThat(stopped.await(5, TimeUnit.SECONDS)).as("worker left its loop").isTrue();
+        assertThat(service.stats()).containsEntry("clientDisconnect", 1L).containsEntry("cancelled", 1L);
+    }
+
+    @Test
+    void statementTimeoutAndFailuresAreCountedSeparately() throws Exception {
+        MvcResult timedOut = mvc.perform(get("/statement-timeout")).andExpect(request().asyncStarted()).andReturn();
+        mvc.perform(asyncDispatch(timedOut))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.reason").value("statementTimeout"));
+
+        MvcResult failed = mvc.perform(get("/broken")).andExpect(request().asyncStarted()).andReturn();
+        failed.getAsyncResult(5000);
+
+        assertThat(service.stats())
+                .containsEntry("statementTimeout", 1L)
+                .containsEntry("failed", 1L)
+                .containsEntry("cancelled", 1L);
+    }
+
+    @Test
+    void checkpointIsANoOpOutsideReports() {
+        ReportCancellationService.checkpoint();
+    }
+
+    /* ────────── helpers ────────── */
+
+    private static void fireTimeout(MvcResult result) throws Exception {
+        MockAsyncContext async = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : async.getListeners()) {
+            listener.onTimeout(new AsyncEvent(async));
+        }
+    }
+
+    private static void fireError(MvcResult result, Throwable error) throws Exception {
+        MockAsyncContext async = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : async.getListeners()) {
+            listener.onError(new AsyncEvent(async, error));
+        }
+    }
+
+    @RestController
+    class TestReports {
+
+        @GetMapping("/fast")
+        WebAsyncTask<ResponseEntity<?>> fast() {
+            return service.run("fast", () -> Map.of("total", 42));
+        }
+
+        @GetMapping("/slow")
+        WebAsyncTask<ResponseEntity<?>> slow() {
+            Callable<Object> aggregation = () -> {
+                started.countDown();
+                try {
+                    while (true) {
+                        ReportCancellationService.checkpoint();     // as in ReportService's row loops
+                        Thread.sleep(5);
+                    }
+                } finally {
+                    stopped.countDown();
+                }
+            };
+            return service.run("slow", aggregation);
+        }
+
+        @GetMapping("/statement-timeout")
+        WebAsyncTask<ResponseEntity<?>> statementTimeout() {
+            return service.run("statement-timeout", () -> {
+                throw new QueryTimeoutException("canceling statement due to statement timeout");
+            });
+        }
+
+        @GetMapping("/broken")
+        WebAsyncTask<ResponseEntity<?>> broken() {
+            return service.run("broken", () -> {
+                throw new IllegalStateException("boom");
+            });
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.stationerymgntbe.service;
+
+import com.example.stationerymgntbe.dto.ReportFilterDTO;
+import com.example.stationerymgntbe.exception.InvalidParameterException;
+import com.example.stationerymgntbe.repository.CategoryRepository;
+import com.example.stationerymgntbe.repository.DepartmentRepository;
+import com.example.stationerymgntbe.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ReportServiceTest {
+
+    private final OrderRepository orderRepo = mock(OrderRepository.class);
+    private final ReportService service = new ReportService(orderRepo, mock(CategoryRepository.class),
+            mock(DepartmentRepository.class), null, null, null, null);
+
+    @Test
+    void filteredAnalyticsParsesNumbersAndDates() {
+        service.getFilteredAnalytics(Map.of(
+                "minQuantity", " 5 ",
+                "maxQuantity", 20,
+                "departmentIds", List.of("3", 4),
+                "startDate", "2025-07-01",
+                "endDate", "2025-07-15T12:00:00"));
+
+        ArgumentCaptor<ReportFilterDTO> criteria = ArgumentCaptor.forClass(ReportFilterDTO.class);
+        verify(orderRepo).findFilteredReportData(criteria.capture());
+        assertThat(criteria.getValue().getMinQuantity()).isEqualTo(5);
+        assertThat(criteria.getValue().getMaxQuantity()).isEqualTo(20);
+        assertThat(criteria.getValue().getDepartmentIds()).containsExactly(3, 4);
+        assertThat(criteria.getValue().getStart()).isEqualTo(LocalDateTime.of(2025, 7, 1, 0, 0));
+        assertThat(criteria.getValue().getEnd()).isEqualTo(LocalDateTime.of(2025, 7, 15, 12, 0));
+    }
+
+    @Test
+    void nonNumericQuantityIsABadParameter() {
+        assertThatThrownBy(() -> service.getFilteredAnalytics(Map.of("minQuantity", "five")))
+                .isInstanceOfSatisfying(InvalidParameterException.class,
+                        e -> assertThat(e.getParameter()).isEqualTo("minQuantity"));
+        assertThatThrownBy(() -> service.getFilteredAnalytics(Map.of("departmentIds", List.of("3", "x"))))
+                .isInstanceOfSatisfying(InvalidParameterException.class,
+                        e -> assertThat(e.getParameter()).isEqualTo("departmentIds"));
+        verifyNoInteractions(orderRepo);
+    }
+
+    @Test
+    void badDateOrMonthIsABadParameter() {
+        assertThatThrownBy(() -> service.getFilteredAnalytics(Map.of("startDate", "01/07/2025")))
+                .isInstanceOfSatisfying(InvalidParameterException.class,
+                        e -> assertThat(e.getParameter()).isEqualTo("startDate"));
+        assertThatThrownBy(() -> service.getFilteredAnalytics(Map.of("month", 13)))
+                .isInstanceOfSatisfying(InvalidParameterException.class,
+                        e -> assertThat(e.getParameter()).isEqualTo("month"));
+        verifyNoInteractions(orderRepo);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void repeatedPeriodIsQueriedOnceAndFilledAtEveryPosition() {
+        when(orderRepo.findPeriodTotals(anyList())).thenReturn(List.of(
+                new Object[]{0, "IT", "VPP001", 5L},
+                new Object[]{1, "HR", "VPP002", 3L}));
+
+        Map<String, Object> result = service.getPeriodComparison(List.of(
+                YearMonth.of(2025, 7), YearMonth.of(2025, 6), YearMonth.of(2025, 7)));
+
+        ArgumentCaptor<List<LocalDateTime[]>> ranges = ArgumentCaptor.forClass(List.class);
+        verify(orderRepo).findPeriodTotals(ranges.capture());
+        assertThat(ranges.getValue()).hasSize(2);
+        List<Map<String, Object>> periods = (List<Map<String, Object>>) result.get("periods");
+        assertThat(periods).extracting(m -> m.get("totalQuantity")).containsExactly(5L, 3L, 5L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void comparingAMonthWithItselfIsUnchanged() {
+        when(orderRepo.findPeriodTotals(anyList())).thenReturn(Collections.singletonList(new Object[]{0, "IT", "VPP001", 5L}));
+
+        Map<String, Object> result = service.getComparison(2025, 7, 2025, 7);
+
+        assertThat((Map<String, Object>) result.get("changes"))
+                .containsEntry("quantityChange", 0.0)
+                .containsEntry("newProducts", 0)
+                .containsEntry("discontinuedProducts", 0);
+        assertThat((Map<String, Object>) result.get("previous")).containsEntry("totalQuantity", 5L);
+    }
+
+    @Test
+    void tooManyPeriodsIsABadParameter() {
+        List<YearMonth> months = IntStream.range(0, ReportService.MAX_COMPARED_PERIODS + 1)
+                .mapToObj(i -> YearMonth.of(2023, 1).plusMonths(i))
+                .toList();
+
+        assertThatThrownBy(() -> service.getPeriodComparison(months))
+                .isInstanceOfSatisfying(InvalidParameterException.class,
+                        e -> assertThat(e.getParameter()).isEqualTo("periods"));
+        verifyNoInteractions(orderRepo);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.stationerymgntbe.support;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Shared pieces of the {@code *Benchmark} harnesses: the real catalog names and a best-of-N timer.
+ * Surefire does not pick benchmarks up in a plain {@code mvn test}; run one explicitly, e.g.
+ * {@code mvn test -Dtest=ManualTranslationBenchmark}. Numbers are printed, not asserted.
+ */
+public final class Benchmarks {
+
+    /* VPPham.xlsx: header on the first row, product name in column C */
+    private static final int FIRST_DATA_ROW = 1;
+    private static final int NAME_COLUMN = 2;
+
+    private Benchmarks() {
+    }
+
+    /** Product names from the bundled seed workbook (VPPham.xlsx), in sheet order */
+    public static List<String> catalogNames() {
+        List<String> names = new ArrayList<>();
+        DataFormatter formatter = new DataFormatter();
+        try (InputStream in = Objects.requireNonNull(Benchmarks.class.getResourceAsStream("/VPPham.xlsx"));
+             Workbook workbook = new XSSFWorkbook(in)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            for (Row row : sheet) {
+                if (row.getRowNum() < FIRST_DATA_ROW) continue;
+                String name = formatter.formatCellValue(row.getCell(NAME_COLUMN)).replace(' ', ' ').trim();
+                if (!name.isEmpty()) names.add(name);
+            }
+            return names;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Runs {@code body} {@code warmups} times untimed, then returns the fastest of {@code runs} timed runs, in ns */
+    public static long bestOf(int warmups, int runs, Runnable body) {
+        for (int i = 0; i < warmups; i++) body.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < runs; i++) {
+            long started = System.nanoTime();
+            body.run();
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        return best;
+    }
+
+    public static void report(String format, Object... args) {
+        System.out.printf("[benchmark] " + format + "%n", args);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.stationerymgntbe.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkheadTest {
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void admitsUpToTheLimitAndRejectsWhenTheQueueIsFull() throws Exception {
+        Bulkhead b = new Bulkhead("t", 2, 0, 1000);
+
+        long first = b.tryEnter();
+        long second = b.tryEnter();
+        assertThat(first).isNotNegative();
+        assertThat(second).isNotNegative();
+        assertThat(b.tryEnter()).isEqualTo(-1);
+
+        b.release(first);
+        assertThat(b.tryEnter()).isNotNegative();
+        assertThat(b.stats())
+                .containsEntry("admitted", 3L)
+                .containsEntry("rejectedQueueFull", 1L)
+                .containsEntry("completed", 1L)
+                .containsEntry("active", 2);
+    }
+
+    @Test
+    void queuedCallerTimesOutAfterMaxWait() throws Exception {
+        Bulkhead b = new Bulkhead("t", 1, 1, 50);
+        b.tryEnter();
+
+        long started = System.nanoTime();
+        assertThat(b.tryEnter()).isEqualTo(-1);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isGreaterThanOrEqualTo(45);
+        assertThat(b.stats()).containsEntry("queued", 1L).containsEntry("rejectedTimeout", 1L).containsEntry("waiting", 0);
+    }
+
+    @Test
+    void queuedCallerGetsTheReleasedPermit() throws Exception {
+        Bulkhead b = new Bulkhead("t", 1, 1, 5000);
+        long holder = b.tryEnter();
+
+        Future<Long> queued = callers.submit(b::tryEnter);
+        awaitWaiting(b, 1);
+        b.release(holder);
+
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isNotNegative();
+        assertThat(b.stats()).containsEntry("queued", 1L).containsEntry("admitted", 2L);
+    }
+
+    @Test
+    void newcomerDoesNotBargeAheadOfAQueuedCaller() throws Exception {
+        for (int round = 0; round < 20; round++) {          // a barging acquire wins some of these races
+            Bulkhead b = new Bulkhead("t", 1, 1, 200);
+            long holder = b.tryEnter();
+            Future<Long> queued = callers.submit(b::tryEnter);
+            awaitWaiting(b, 1);
+
+            b.release(holder);
+            long newcomer = b.tryEnter();   // the free permit belongs to the queued caller
+
+            assertThat(newcomer).as("round %d", round).isEqualTo(-1);
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isNotNegative();
+        }
+    }
+
+    private static void awaitWaiting(Bulkhead b, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((int) b.stats().get("waiting") < expected) {
+            assertThat(System.nanoTime()).as("caller queued in time").isLessThan(deadline);
+            Thread.sleep(1);
+        }
+        Thread.sleep(20);                   // let it park on the semaphore
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.stationerymgntbe.util;
+
+import com.example.stationerymgntbe.support.Benchmarks;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CoOccurrenceMatrix build (single slice vs four merged slices) and 3-item cart lookup on
+ * 50k synthetic baskets over 150 products, skewed so a few items are in most orders.
+ * Run with {@code mvn test -Dtest=CoOccurrenceMatrixBenchmark}.
+ */
+class CoOccurrenceMatrixBenchmark {
+
+    private static final int BASKETS = 50_000;
+    private static final int PRODUCTS = 150;
+
+    @Test
+    void buildAndLookup() throws Exception {
+        Random random = new Random(42);
+        List<int[]> history = new ArrayList<>(BASKETS);
+        for (int i = 0; i < BASKETS; i++) {
+            int[] basket = new int[1 + random.nextInt(8)];
+            for (int j = 0; j < basket.length; j++) {
+                double r = random.nextDouble();
+                basket[j] = (int) (r * r * PRODUCTS);           // low ids are the popular ones
+            }
+            history.add(basket);
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int slices = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(cores, slices));
+        try {
+            long single = Benchmarks.bestOf(2, 5, () -> build(history, pool, 1));
+            long sliced = Benchmarks.bestOf(2, 5, () -> build(history, pool, slices));
+            CoOccurrenceMatrix m = build(history, pool, slices);
+
+            int[] cart = {3, 40, 120};
+            long lookup = Benchmarks.bestOf(500, 500, () -> m.companions(cart, 10, null));
+
+            Benchmarks.report("%d baskets, %d products, %d pairs, %d cores", m.baskets(), PRODUCTS, m.pairs(), cores);
+            Benchmarks.report("build, 1 slice:  %.1f ms", single / 1e6);
+            Benchmarks.report("build, %d slices: %.1f ms", slices, sliced / 1e6);
+            Benchmarks.report("3-item cart lookup: %.1f us", lookup / 1e3);
+            assertThat(m.companions(cart, 10, null)).hasSize(10);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static CoOccurrenceMatrix build(List<int[]> history, ExecutorService pool, int chunks) {
+        try {
+            return CoOccurrenceMatrix.build(history, pool, chunks);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.stationerymgntbe.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CoOccurrenceMatrixTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(3);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void countsPairsAndSupportOncePerBasket() throws Exception {
+        CoOccurrenceMatrix m = CoOccurrenceMatrix.build(List.of(
+                new int[]{1, 2, 2, 3},              // repeated id counts once
+                new int[]{1, 2},
+                new int[]{4}), pool, 2);
+
+        assertThat(m.baskets()).isEqualTo(3);
+        assertThat(m.pairs()).isEqualTo(3);         // 1-2, 1-3, 2-3
+        assertThat(m.companions(new int[]{1}, 10, null))
+                .extracting(CoOccurrenceMatrix.Companion::id, CoOccurrenceMatrix.Companion::together)
+                .containsExactly(tuple(2, 2), tuple(3, 1));
+        assertThat(m.companions(new int[]{4}, 10, null)).isEmpty();
+    }
+
+    @Test
+    void scoreIsNormalisedBySupportSoAPopularItemDoesNotDominate() throws Exception {
+        List<int[]> history = new ArrayList<>();
+        for (int i = 0; i < 100; i++) history.add(new int[]{1, 10});     // 1 is everywhere, 10 with it
+        history.add(new int[]{1, 20});
+        history.add(new int[]{2, 20});                                   // 2 is rare, always with 20
+        history.add(new int[]{2, 20});
+        CoOccurrenceMatrix m = CoOccurrenceMatrix.build(history, pool, 3);
+
+        List<CoOccurrenceMatrix.Companion> cart = m.companions(new int[]{1, 2}, 10, null);
+
+        assertThat(cart).extracting(CoOccurrenceMatrix.Companion::id).containsExactly(20, 10);
+        assertThat(cart.get(0).score()).isGreaterThan(cart.get(1).score());
+    }
+
+    @Test
+    void cartItemsFilteredIdsAndLimitAreExcluded() throws Exception {
+        CoOccurrenceMatrix m = CoOccurrenceMatrix.build(List.of(
+                new int[]{1, 2, 3, 4, 5},
+                new int[]{1, 2, 3}), pool, 1);
+
+        assertThat(m.companions(new int[]{1, 2}, 10, id -> id != 4))
+                .extracting(CoOccurrenceMatrix.Companion::id)
+                .containsExactly(3, 5);
+        assertThat(m.companions(new int[]{1}, 2, null)).extracting(CoOccurrenceMatrix.Companion::id).containsExactly(2, 3);
+    }
+
+    @Test
+    void parallelBuildMatchesIncrementalAdds() throws Exception {
+        Random random = new Random(7);
+        List<int[]> history = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            int[] basket = new int[1 + random.nextInt(5)];
+            for (int j = 0; j < basket.length; j++) basket[j] = random.nextInt(40);
+            history.add(basket);
+        }
+        CoOccurrenceMatrix built = CoOccurrenceMatrix.build(history, pool, 4);
+        CoOccurrenceMatrix added = CoOccurrenceMatrix.build(List.of(), pool, 4);
+        history.forEach(added::add);
+
+        assertThat(built.baskets()).isEqualTo(added.baskets()).isEqualTo(2_000);
+        assertThat(built.pairs()).isEqualTo(added.pairs());
+        for (int id = 0; id < 40; id++) {
+            assertThat(built.companions(new int[]{id}, 50, null)).isEqualTo(added.companions(new int[]{id}, 50, null));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.stationerymgntbe.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordAutomatonTest {
+
+    /* ────────── matching ────────── */
+
+    @Test
+    void findAllReportsOverlapsOrderedByEnd() {
+        KeywordAutomaton<Integer> ac = KeywordAutomaton.of(Map.of("he", 1, "she", 2, "his", 3, "hers", 4));
+
+        List<String> found = ac.findAll("ushers").stream()
+                .map(m -> m.keyword() + "@" + m.start() + "-" + m.end())
+                .toList();
+
+        assertThat(found).containsExactly("she@1-4", "he@2-4", "hers@2-6");
+    }
+
+    @Test
+    void emptyInputAndEmptyDictionaryMatchNothing() {
+        assertThat(KeywordAutomaton.of(Map.of("bút", 1)).findAll("")).isEmpty();
+        assertThat(KeywordAutomaton.of(Map.<String, Integer>of()).findAll("bút bi")).isEmpty();
+        assertThat(KeywordAutomaton.of(Map.of("bút", 1)).findFirst("giấy")).isNull();
+    }
+
+    @Test
+    void emptyAndNullKeywordsAreSkipped() {
+        Map<String, Integer> dict = new LinkedHashMap<>();
+        dict.put("", 1);
+        dict.put(null, 2);
+        dict.put("kẹp", 3);
+
+        assertThat(KeywordAutomaton.of(dict).size()).isEqualTo(1);
+    }
+
+    @Test
+    void ignoreCaseFoldsVietnameseLetters() {
+        KeywordAutomaton<String> ac = KeywordAutomaton.ignoreCase(Map.of("bút bi", "PEN", "đựng", "HOLDER"));
+
+        assertThat(ac.findAll("BÚT BI Thiên Long, hộp ĐỰNG bút"))
+                .extracting(KeywordAutomaton.Match::value)
+                .containsExactly("PEN", "HOLDER");
+        assertThat(KeywordAutomaton.of(Map.of("bút bi", "PEN")).findAll("BÚT BI")).isEmpty();
+    }
+
+    @Test
+    void leftmostLongestPrefersEarlierThenLongerMatches() {
+        KeywordAutomaton<String> ac = KeywordAutomaton.of(Map.of("giấy", "paper", "giấy note", "sticky note", "note", "memo"));
+
+        assertThat(ac.findLeftmostLongest("giấy note vàng"))
+                .extracting(KeywordAutomaton.Match::keyword)
+                .containsExactly("giấy note");
+        assertThat(ac.findFirst("xấp note và giấy").keyword()).isEqualTo("note");
+    }
+
+    @Test
+    void firstDefinitionOfADuplicateKeywordWins() {
+        Map<String, String> dict = new LinkedHashMap<>();
+        dict.put("Bìa", "first");
+        dict.put("bìa", "second");
+        KeywordAutomaton<String> ac = KeywordAutomaton.ignoreCase(dict);
+
+        assertThat(ac.size()).isEqualTo(1);
+        assertThat(ac.findFirst("BÌA còng").value()).isEqualTo("first");
+    }
+
+    /* ────────── replace ────────── */
+
+    @Test
+    void replaceRewritesLongestPhraseOnce() {
+        Map<String, String> dict = new LinkedHashMap<>();
+        dict.put("Băng keo", "Tape");
+        dict.put("Băng keo 2 mặt", "Double-sided tape");
+        KeywordAutomaton<String> ac = KeywordAutomaton.ignoreCase(dict);
+
+        assertThat(ac.replace("băng keo 2 mặt 5cm và BĂNG KEO trong", KeywordAutomaton.Match::value))
+                .isEqualTo("Double-sided tape 5cm và Tape trong");
+    }
+
+    @Test
+    void replacementIsNotRescanned() {
+        KeywordAutomaton<String> ac = KeywordAutomaton.of(Map.of("a", "aa"));
+
+        assertThat(ac.replace("banana", KeywordAutomaton.Match::value)).isEqualTo("baanaanaa");
+    }
+
+    @Test
+    void replaceWithoutMatchesReturnsTextUnchanged() {
+        KeywordAutomaton<String> ac = KeywordAutomaton.of(Map.of("bút", "pen"));
+
+        assertThat(ac.replace("Giấy A4", KeywordAutomaton.Match::value)).isEqualTo("Giấy A4");
+        assertThat(ac.replace("", KeywordAutomaton.Match::value)).isEmpty();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.stationerymgntbe.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LruCacheTest {
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");                     // b is now the eldest
+        cache.put("c", 3);
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        LruCache<String, Integer> cache = new LruCache<>(10);
+        cache.get("a");
+        cache.put("a", 1);
+        cache.get("a");
+        cache.get("a");
+
+        assertThat(cache.hits()).isEqualTo(2);
+        assertThat(cache.misses()).isEqualTo(1);
+        assertThat(cache.evictions()).isZero();
+    }
+
+    @Test
+    void overwriteDoesNotEvictAndClearEmpties() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("a", 10);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictions()).isZero();
+        assertThat(cache.get("a")).isEqualTo(10);
+
+        cache.clear();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get("b")).isNull();
+    }
+
+    @Test
+    void rejectsNonPositiveSize() {
+        assertThatThrownBy(() -> new LruCache<>(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void staysBoundedUnderConcurrentUse() throws Exception {
+        LruCache<Integer, Integer> cache = new LruCache<>(100);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int offset = t * 10_000;
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        cache.put(offset + i, i);
+                        cache.get(offset + i / 2);
+                    }
+                }));
+            }
+            for (Future<?> w : workers) w.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(cache.hits() + cache.misses()).isEqualTo(40_000);
+        assertThat(cache.evictions()).isEqualTo(40_000 - 100);
+    }
+}
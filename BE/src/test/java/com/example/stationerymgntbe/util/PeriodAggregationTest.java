@@ -0,0 +1,67 @@
+package com.example.stationerymgntbe.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PeriodAggregationTest {
+
+    @Test
+    void totalsPerPeriodDepartmentAndProduct() {
+        PeriodAggregation agg = new PeriodAggregation(2);
+        agg.add(0, "IT", "VPP001", 5);
+        agg.add(0, "IT", "VPP001", 3);
+        agg.add(0, "HR", "VPP002", 2);
+        agg.add(1, "HR", "VPP001", 7);
+
+        assertThat(agg.periods()).isEqualTo(2);
+        assertThat(agg.total(0)).isEqualTo(10);
+        assertThat(agg.total(1)).isEqualTo(7);
+        assertThat(agg.records(0)).isEqualTo(3);
+
+        int it = indexOfDepartment(agg, "IT");
+        int hr = indexOfDepartment(agg, "HR");
+        assertThat(agg.departmentTotal(0, it)).isEqualTo(8);
+        assertThat(agg.departmentTotal(1, it)).isZero();
+        assertThat(agg.departmentTotal(1, hr)).isEqualTo(7);
+        assertThat(agg.departmentsIn(0)).isEqualTo(2);
+        assertThat(agg.departmentsIn(1)).isEqualTo(1);
+        assertThat(agg.hasDepartment(1, it)).isFalse();
+    }
+
+    @Test
+    void productsOnlyInIsTheSetDifference() {
+        PeriodAggregation agg = new PeriodAggregation(2);
+        agg.add(0, "IT", "A", 1);
+        agg.add(0, "IT", "B", 1);
+        agg.add(1, "IT", "B", 1);
+        agg.add(1, "IT", "C", 1);
+
+        assertThat(agg.productsOnlyIn(1, 0).stream().mapToObj(agg::productKey)).containsExactly("C");
+        assertThat(agg.productsOnlyIn(0, 1).stream().mapToObj(agg::productKey)).containsExactly("A");
+        assertThat(agg.productsIn(0)).isEqualTo(2);
+    }
+
+    @Test
+    void keysAreInternedOnceAndArraysGrowPastTheirInitialSize() {
+        PeriodAggregation agg = new PeriodAggregation(3);
+        for (int i = 0; i < 1_000; i++) {
+            agg.add(i % 3, "D" + (i % 40), "P" + i, i);
+        }
+
+        assertThat(agg.departmentCount()).isEqualTo(40);
+        assertThat(agg.productCount()).isEqualTo(1_000);
+        assertThat(agg.productTotal(999 % 3, 999)).isEqualTo(999);
+        assertThat(agg.productTotal(1, 999)).isZero();
+        assertThat(agg.total(0) + agg.total(1) + agg.total(2)).isEqualTo(999L * 1_000 / 2);
+        assertThat(agg.productKey(0)).isEqualTo("P0");
+        assertThat(agg.departmentName(39)).isEqualTo("D39");
+    }
+
+    private static int indexOfDepartment(PeriodAggregation agg, String name) {
+        for (int d = 0; d < agg.departmentCount(); d++) {
+            if (agg.departmentName(d).equals(name)) return d;
+        }
+        throw new AssertionError(name);
+    }
+}
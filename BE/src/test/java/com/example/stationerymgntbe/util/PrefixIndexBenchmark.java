@@ -0,0 +1,48 @@
+package com.example.stationerymgntbe.util;
+
+import com.example.stationerymgntbe.support.Benchmarks;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PrefixIndex build and top-10 lookup time on the VPPham.xlsx names x30, each copy with its
+ * own code, scored by a pseudo-random popularity. Run with {@code mvn test -Dtest=PrefixIndexBenchmark}.
+ */
+class PrefixIndexBenchmark {
+
+    private static final List<String> PREFIXES = List.of("b", "bu", "but bi", "giay", "bi thien", "vpp01", "kep giay mau");
+
+    @Test
+    void buildAndLookup() {
+        List<String> names = Benchmarks.catalogNames();
+        List<List<String>> keys = new ArrayList<>();
+        for (int copy = 0; copy < 30; copy++) {
+            for (String name : names) {
+                keys.add(List.of(name + " loại " + copy, String.format("VPP%04d", keys.size())));
+            }
+        }
+        long[] popularity = new long[keys.size()];
+        for (int id = 0; id < popularity.length; id++) popularity[id] = (id * 2654435761L) % 1000;
+
+        long build = Benchmarks.bestOf(2, 5, () -> index(keys));
+        PrefixIndex index = index(keys);
+        Benchmarks.report("%d products, trie build %.1f ms", keys.size(), build / 1e6);
+
+        for (String prefix : PREFIXES) {
+            int[] hits = new int[1];
+            long lookup = Benchmarks.bestOf(200, 200, () -> hits[0] = index.top(prefix, 10, id -> popularity[id], null).length);
+            Benchmarks.report("%-16s %.1f us (%d results)", "\"" + prefix + "\"", lookup / 1e3, hits[0]);
+        }
+        assertThat(index.top("but", 10, id -> popularity[id], null)).hasSize(10);
+    }
+
+    private static PrefixIndex index(List<List<String>> keys) {
+        PrefixIndex index = new PrefixIndex();
+        for (int id = 0; id < keys.size(); id++) index.put(id, keys.get(id));
+        return index;
+    }
+}
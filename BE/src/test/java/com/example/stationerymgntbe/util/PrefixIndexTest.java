@@ -0,0 +1,78 @@
+package com.example.stationerymgntbe.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTest {
+
+    private static final Map<Integer, Long> ORDERED = Map.of(1, 5L, 2, 50L, 3, 20L, 4, 0L);
+
+    private static long popularity(int id) {
+        return ORDERED.getOrDefault(id, 0L);
+    }
+
+    private static PrefixIndex catalog() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(1, List.of("Bút bi Thiên Long", "VPP001"));
+        index.put(2, List.of("Bút chì 2B", "VPP002"));
+        index.put(3, List.of("Bìa còng 7cm", "VPP003"));
+        index.put(4, List.of("Băng keo 2 mặt", "VPP004"));
+        return index;
+    }
+
+    @Test
+    void everyWordStartIsAPrefixAndMarksAreIgnored() {
+        PrefixIndex index = catalog();
+
+        assertThat(index.top("bi thien", 10, PrefixIndexTest::popularity, null)).containsExactly(1);
+        assertThat(index.top("THIÊN", 10, PrefixIndexTest::popularity, null)).containsExactly(1);
+        assertThat(index.top("vpp00", 10, PrefixIndexTest::popularity, null)).containsExactly(2, 3, 1, 4);
+        assertThat(index.top("hien", 10, PrefixIndexTest::popularity, null)).isEmpty();    // not a word start
+    }
+
+    @Test
+    void topKIsOrderedByScoreThenId() {
+        PrefixIndex index = catalog();
+
+        assertThat(index.top("b", 2, PrefixIndexTest::popularity, null)).containsExactly(2, 3);
+        assertThat(index.top("b", 10, id -> 0L, null)).containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    void filterAndLimitAreApplied() {
+        PrefixIndex index = catalog();
+
+        assertThat(index.top("b", 10, PrefixIndexTest::popularity, id -> id % 2 == 1)).containsExactly(3, 1);
+        assertThat(index.top("b", 0, PrefixIndexTest::popularity, null)).isEmpty();
+        assertThat(index.top("  ", 5, PrefixIndexTest::popularity, null)).isEmpty();
+    }
+
+    @Test
+    void putReplacesAndRemoveForgetsOldKeys() {
+        PrefixIndex index = catalog();
+
+        index.put(1, List.of("Kẹp giấy"));
+        assertThat(index.top("thien", 10, PrefixIndexTest::popularity, null)).isEmpty();
+        assertThat(index.top("kep", 10, PrefixIndexTest::popularity, null)).containsExactly(1);
+
+        index.remove(1);
+        assertThat(index.contains(1)).isFalse();
+        assertThat(index.top("kep", 10, PrefixIndexTest::popularity, null)).isEmpty();
+        assertThat(index.ids()).containsExactlyInAnyOrder(2, 3, 4);
+    }
+
+    @Test
+    void queriesLongerThanTheDepthCapAreRechecked() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(1, List.of("giấy in ảnh màu khổ lớn loại một"));
+        index.put(2, List.of("giấy in ảnh màu khổ lớn loại hai"));
+
+        String longQuery = "giay in anh mau kho lon loai hai";
+        assertThat(longQuery.length()).isGreaterThan(PrefixIndex.MAX_DEPTH);
+        assertThat(index.top(longQuery, 10, id -> 0L, null)).containsExactly(2);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.stationerymgntbe.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankedCounterTest {
+
+    @Test
+    void ranksByQuantityThenId() {
+        RankedCounter counter = new RankedCounter();
+        counter.add(3, 5, 1);
+        counter.add(1, 5, 1);
+        counter.add(2, 9, 2);
+        counter.add(1, 1, 1);
+
+        assertThat(ids(counter.top(10, null))).containsExactly(2, 1, 3);
+        assertThat(counter.top(1, null).get(0)).isEqualTo(new RankedCounter.Entry(2, 9, 2));
+        assertThat(counter.quantity(1)).isEqualTo(6);
+    }
+
+    @Test
+    void skippedIdsDoNotCountTowardsTheLimit() {
+        RankedCounter counter = new RankedCounter();
+        for (int id = 1; id <= 6; id++) counter.add(id, 100 - id, 1);
+
+        assertThat(ids(counter.top(3, id -> id % 2 == 0))).containsExactly(2, 4, 6);
+        assertThat(ids(counter.top(3, id -> id > 4))).containsExactly(5, 6);
+        assertThat(counter.top(0, null)).isEmpty();
+    }
+
+    @Test
+    void resetReplacesEveryCounter() {
+        RankedCounter counter = new RankedCounter();
+        counter.add(1, 10, 1);
+
+        counter.reset(List.of(new RankedCounter.Entry(2, 3, 1)));
+
+        assertThat(ids(counter.top(5, null))).containsExactly(2);
+        assertThat(counter.size()).isEqualTo(1);
+    }
+
+    private static List<Integer> ids(List<RankedCounter.Entry> entries) {
+        return entries.stream().map(RankedCounter.Entry::id).toList();
+    }
+}
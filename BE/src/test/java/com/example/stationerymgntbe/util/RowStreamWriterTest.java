@@ -0,0 +1,60 @@
+package com.example.stationerymgntbe.util;
+
+import com.example.stationerymgntbe.util.RowStreamWriter.Column;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowStreamWriterTest {
+
+    private static final List<Column<Map<String, Object>>> COLUMNS = List.of(
+            new Column<>("name", r -> r.get("name")),
+            new Column<>("qty", r -> r.get("qty")));
+
+    private static String csv(List<Map<String, Object>> rows) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RowStreamWriter<Map<String, Object>> w = RowStreamWriter.csv(out, COLUMNS)) {
+            for (Map<String, Object> row : rows) w.write(row);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void csvWritesBomHeaderAndQuotesSpecialCharacters() throws Exception {
+        String text = csv(List.of(Map.of("name", "Bút bi, xanh \"TL\"", "qty", 3)));
+
+        assertThat(text).isEqualTo("﻿name,qty\r\n\"Bút bi, xanh \"\"TL\"\"\",3\r\n");
+    }
+
+    @Test
+    void csvNeutralizesFormulaCellsButNotNumbers() throws Exception {
+        String text = csv(List.of(
+                Map.of("name", "=HYPERLINK(\"http://x\")", "qty", -5),
+                Map.of("name", "+1", "qty", 0),
+                Map.of("name", "-cmd", "qty", 1),
+                Map.of("name", "@SUM(A1)", "qty", 2)));
+
+        assertThat(text.split("\r\n")).containsExactly(
+                "﻿name,qty",
+                "\"'=HYPERLINK(\"\"http://x\"\")\",-5",
+                "'+1,0",
+                "'-cmd,1",
+                "'@SUM(A1),2");
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RowStreamWriter<Map<String, Object>> w = RowStreamWriter.ndjson(out, new ObjectMapper())) {
+            w.write(Map.of("id", 1));
+            w.write(Map.of("id", 2));
+        }
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}\n{\"id\":2}\n");
+    }
+}
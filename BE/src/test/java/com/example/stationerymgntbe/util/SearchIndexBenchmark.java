@@ -0,0 +1,52 @@
+package com.example.stationerymgntbe.util;
+
+import com.example.stationerymgntbe.support.Benchmarks;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SearchIndex build and query time on a ~4,350-product synthetic catalog (the VPPham.xlsx
+ * names x30, each copy with its own code and size suffix), next to the plain
+ * lower-case substring scan it replaced. Run with {@code mvn test -Dtest=SearchIndexBenchmark}.
+ */
+class SearchIndexBenchmark {
+
+    record Item(String name, String code) {
+    }
+
+    private static final List<String> QUERIES = List.of("bút bi", "but bi", "giay a4", "bìa còng", "kep", "thien lonh", "vpp0123");
+
+    @Test
+    void buildAndQuery() {
+        List<String> names = Benchmarks.catalogNames();
+        List<Item> catalog = new ArrayList<>();
+        for (int copy = 0; copy < 30; copy++) {
+            for (String name : names) {
+                catalog.add(new Item(name + " loại " + copy, String.format("VPP%04d", catalog.size())));
+            }
+        }
+        List<SearchIndex.Field<Item>> fields = List.of(
+                new SearchIndex.Field<>(Item::name, 1.0),
+                new SearchIndex.Field<>(Item::code, 0.9));
+
+        long build = Benchmarks.bestOf(2, 5, () -> SearchIndex.build(catalog, fields));
+        SearchIndex<Item> index = SearchIndex.build(catalog, fields);
+        Benchmarks.report("%d products, index build %.1f ms", index.size(), build / 1e6);
+
+        for (String q : QUERIES) {
+            int[] hits = new int[2];
+            long indexed = Benchmarks.bestOf(20, 20, () -> hits[0] = index.search(q, i -> true).size());
+            String lower = q.toLowerCase();
+            long scan = Benchmarks.bestOf(20, 20, () -> hits[1] = (int) catalog.stream()
+                    .filter(i -> i.name().toLowerCase().contains(lower) || i.code().toLowerCase().contains(lower))
+                    .count());
+            Benchmarks.report("%-12s index %.2f ms (%d hits) | substring scan %.2f ms (%d hits)",
+                    "\"" + q + "\"", indexed / 1e6, hits[0], scan / 1e6, hits[1]);
+        }
+        assertThat(index.search("but bi", i -> true)).isNotEmpty();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.stationerymgntbe.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexTest {
+
+    record Item(String name, String code) {
+    }
+
+    private static final List<Item> CATALOG = List.of(
+            new Item("Bút bi Thiên Long TL-027", "VPP001"),
+            new Item("Bút chì 2B", "VPP002"),
+            new Item("Bìa còng 7cm", "VPP003"),
+            new Item("Giấy A4 Double A", "VPP004"),
+            new Item("Băng keo 2 mặt", "VPP005"),
+            new Item("Bút bi", "VPP006"),
+            new Item("Sổ tay bìa da", "VPP007"));
+
+    private final SearchIndex<Item> index = SearchIndex.build(CATALOG, List.of(
+            new SearchIndex.Field<>(Item::name, 1.0),
+            new SearchIndex.Field<>(Item::code, 0.9)));
+
+    @Test
+    void matchesWithoutDiacriticsAndRanksExactFirst() {
+        assertThat(index.search("but bi", i -> true))
+                .extracting(Item::code)
+                .startsWith("VPP006", "VPP001")
+                .doesNotContain("VPP003");
+    }
+
+    @Test
+    void correctAccentsWinAmongEqualFoldedMatches() {
+        // "bìa" and "bia" fold alike; the typed accents pick "Bìa còng" over the word inside "Sổ tay bìa da"
+        assertThat(index.search("Bìa", i -> true)).extracting(Item::code).first().isEqualTo("VPP003");
+    }
+
+    @Test
+    void tokensInAnyOrderAndSmallTyposStillMatch() {
+        assertThat(index.search("bi but", i -> true)).extracting(Item::code).contains("VPP001", "VPP006");
+        assertThat(index.search("thien lonh", i -> true)).extracting(Item::code).containsExactly("VPP001");
+    }
+
+    @Test
+    void searchesSecondaryFieldsAndAppliesTheFilter() {
+        assertThat(index.search("vpp004", i -> true)).extracting(Item::code).first().isEqualTo("VPP004");
+        assertThat(index.search("but", i -> !i.code().equals("VPP006")))
+                .extracting(Item::code)
+                .contains("VPP001", "VPP002")
+                .doesNotContain("VPP006");
+    }
+
+    @Test
+    void blankOrUnmatchedQueryReturnsNothing() {
+        assertThat(index.search("   ", i -> true)).isEmpty();
+        assertThat(index.search("máy chiếu", i -> true)).isEmpty();
+        assertThat(SearchIndex.build(List.<Item>of(), List.of(new SearchIndex.Field<>(Item::name, 1.0)))
+                .search("bút", i -> true)).isEmpty();
+    }
+
+    @Test
+    void nullFieldValuesAreIndexedAsEmpty() {
+        SearchIndex<Item> withNulls = SearchIndex.build(List.of(new Item("Kẹp giấy", null)), List.of(
+                new SearchIndex.Field<>(Item::name, 1.0),
+                new SearchIndex.Field<>(Item::code, 0.9)));
+
+        assertThat(withNulls.search("kep", i -> true)).hasSize(1);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.stationerymgntbe.util;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpreadsheetStreamReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void csvQuotingFollowsRfc4180() throws IOException {
+        List<String> rows = read(csv("code,name,unit\n"
+                + "VPP001,\"Bút bi, xanh\",Cây\n"
+                + "VPP002,\"Giấy \"\"Double A\"\"\",Ram\n"
+                + "VPP003,\"Sổ tay\ndòng 2\",Cuốn\n"));
+
+        assertThat(rows).containsExactly(
+                "1:[code, name, unit]",
+                "2:[VPP001, Bút bi, xanh, Cây]",
+                "3:[VPP002, Giấy \"Double A\", Ram]",
+                "4:[VPP003, Sổ tay\ndòng 2, Cuốn]");
+    }
+
+    @Test
+    void delimiterIsTakenFromTheFirstLine() throws IOException {
+        assertThat(read(csv("code;name\r\nVPP001;Bìa, còng\r\n")))
+                .containsExactly("1:[code, name]", "2:[VPP001, Bìa, còng]");
+        assertThat(read(csv("code\tname\nVPP001\tKẹp; giấy\n")))
+                .containsExactly("1:[code, name]", "2:[VPP001, Kẹp; giấy]");
+    }
+
+    @Test
+    void bomBlankRowsAndPaddingAreHandled() throws IOException {
+        List<String> rows = read(csv("\uFEFFcode,name\n\n , \nVPP001, Bút chì \n"));
+
+        assertThat(rows).containsExactly("1:[code, name]", "4:[VPP001, Bút chì]");
+    }
+
+    @Test
+    void xlsxIsStreamedWithExcelRowNumbersAndGapsFilled() throws IOException {
+        Path file = dir.resolve("catalog.bin");                  // detected by content, not by name
+        try (XSSFWorkbook wb = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = wb.createSheet("VPP");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("code");
+            header.createCell(1).setCellValue("name");
+            header.createCell(2).setCellValue("qty");
+            Row first = sheet.createRow(2);                          // row 2 left empty
+            first.createCell(0).setCellValue("VPP001");
+            first.createCell(2).setCellValue(12);                    // column B left empty
+            wb.createSheet("ignored").createRow(0).createCell(0).setCellValue("x");
+            wb.write(out);
+        }
+
+        assertThat(read(file)).containsExactly("1:[code, name, qty]", "3:[VPP001, , 12]");
+    }
+
+    @Test
+    void bundledSeedWorkbookIsReadable() throws IOException {
+        Path file = dir.resolve("VPPham.xlsx");
+        try (var in = getClass().getResourceAsStream("/VPPham.xlsx")) {
+            Files.copy(in, file);
+        }
+
+        assertThat(read(file)).hasSizeGreaterThan(100);
+    }
+
+    private Path csv(String content) throws IOException {
+        Path file = dir.resolve("rows.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static List<String> read(Path file) throws IOException {
+        List<String> rows = new ArrayList<>();
+        SpreadsheetStreamReader.read(file, (n, cells) -> rows.add(n + ":" + cells));
+        return rows;
+    }
+}
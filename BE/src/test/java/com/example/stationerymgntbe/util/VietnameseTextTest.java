@@ -0,0 +1,22 @@
+package com.example.stationerymgntbe.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VietnameseTextTest {
+
+    @Test
+    void foldDropsMarksMapsDAndCollapsesSeparators() {
+        assertThat(VietnameseText.fold("Bút bi Thiên Long")).isEqualTo("but bi thien long");
+        assertThat(VietnameseText.fold("ĐỰNG hồ sơ")).isEqualTo("dung ho so");
+        assertThat(VietnameseText.fold("  Giấy A4 -- (70gsm)  ")).isEqualTo("giay a4 70gsm");
+        assertThat(VietnameseText.fold(null)).isEmpty();
+    }
+
+    @Test
+    void tokensOfBlankTextIsEmpty() {
+        assertThat(VietnameseText.tokens("Bìa còng")).containsExactly("bia", "cong");
+        assertThat(VietnameseText.tokens(" - ")).isEmpty();
+    }
+}